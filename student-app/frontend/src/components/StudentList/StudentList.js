@@ -4,6 +4,9 @@ import React, { useState, useEffect } from 'react';
 // Importing CSS styles specific to the StudentList component
 import './StudentList.css';
 
+// Number of students requested from the backend per page
+const PAGE_SIZE = 50;
+
 /**
  * Functional component to display a list of students and their details.
  * Fetches student data from the backend API and renders it in a table format.
@@ -12,14 +15,23 @@ const StudentList = () => {
   // State variable to hold the list of students fetched from the backend
   const [students, setStudents] = useState([]); // Initializes an empty array to store student data
 
+  // State variable to hold the cursor of the next page (null when every student has been loaded)
+  const [nextCursor, setNextCursor] = useState(null);
+
   /**
-   * Fetches the list of students from the backend API.
+   * Fetches one page of students from the backend API.
+   * Starts over from the first page when `after` is not given, otherwise appends the next page.
    * Updates the `students` state with the fetched data or logs an error if the request fails.
    */
-  const fetchStudents = () => {
-    fetch('http://localhost:8080/api/students') // Makes a GET request to the backend API
+  const fetchStudents = (after) => {
+    const cursor = after ? `&after=${after}` : ''; // Only pass the cursor when loading a later page
+    fetch(`http://localhost:8080/api/students?size=${PAGE_SIZE}${cursor}`) // Makes a GET request to the backend API
       .then((response) => response.json()) // Parses the response JSON into JavaScript objects
-      .then((data) => setStudents(data)) // Updates the state with the fetched student data
+      .then((page) => {
+        // Replaces the list on the first page, appends to it on later pages
+        setStudents((current) => (after ? [...current, ...page.students] : page.students));
+        setNextCursor(page.nextCursor); // Remembers where the next page starts
+      })
       .catch((error) => 
         console.error('Error fetching student data:', error) // Logs any errors to the console for debugging
       );
@@ -80,7 +92,13 @@ const StudentList = () => {
 
       {/* Refresh button to reload the student data */}
       <div className="refresh-container">
-        <button onClick={fetchStudents} className="refresh-button">
+        {/* Load more button, shown only while there are more pages to fetch */}
+        {nextCursor && (
+          <button onClick={() => fetchStudents(nextCursor)} className="refresh-button">
+            Load more
+          </button>
+        )}
+        <button onClick={() => fetchStudents()} className="refresh-button">
           Refresh
         </button>
       </div>
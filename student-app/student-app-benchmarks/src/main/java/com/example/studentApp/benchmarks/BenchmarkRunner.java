@@ -0,0 +1,34 @@
+package com.example.studentApp.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of benchmarks.jar: runs JMH with the usual command-line options and always adds
+ * the GC profiler, so every result reports allocations per operation (`gc.alloc.rate.norm`).
+ *
+ * Usage (from student-app/, after `mvn install`):
+ *
+ *   java -jar student-app-benchmarks/target/benchmarks.jar                       # everything
+ *   java -jar student-app-benchmarks/target/benchmarks.jar ModelBenchmark        # one class
+ *   java -jar student-app-benchmarks/target/benchmarks.jar RosterBenchmark.assemble -p students=10000
+ */
+public final class BenchmarkRunner {
+
+    // Entry point, not meant to be instantiated.
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws CommandLineOptionException, RunnerException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        new Runner(new OptionsBuilder()
+                .parent(commandLine)
+                .addProfiler(GCProfiler.class)
+                .build())
+                .run();
+    }
+}
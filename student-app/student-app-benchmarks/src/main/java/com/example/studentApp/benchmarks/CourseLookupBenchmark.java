@@ -0,0 +1,142 @@
+package com.example.studentApp.benchmarks;
+
+import com.example.studentApp.benchmarks.load.DatasetGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of the two course lookups behind GET /api/students/{id}/grades and
+ * GET /api/students/{id}/courses/{name}/grade, on a generated data set of 1M course rows,
+ * with the indexes of each schema version:
+ * - NONE: the tables as Hibernate's ddl-auto created them (full table scan per lookup).
+ * - STUDENT_ID: the single-column index on course.student_id of earlier versions.
+ * - MIGRATED: the indexes of V3__course_lookup_indexes.sql (unique (student_id, name) and the
+ *   covering (student_id, name, grade_id)).
+ *
+ * The statements are the ones Hibernate generates for `CourseRepository.findByStudentId` and
+ * `findByStudentIdAndName`, run over plain JDBC so only the database work is measured.
+ * Lookups cycle through existing (student, course name) pairs sampled from the data set.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CourseLookupBenchmark {
+
+    public enum Indexes { NONE, STUDENT_ID, MIGRATED }
+
+    private static final String FIND_BY_STUDENT_ID =
+            "select c1_0.id,c1_0.grade_id,c1_0.name,c1_0.student_id from course c1_0 where c1_0.student_id=?";
+    private static final String FIND_BY_STUDENT_ID_AND_NAME =
+            "select c1_0.id,c1_0.grade_id,c1_0.name,c1_0.student_id from course c1_0 "
+                    + "where c1_0.student_id=? and c1_0.name=?";
+    private static final int SAMPLE_SIZE = 4096;
+
+    // Number of course rows in the data set
+    @Param({"1000000"})
+    public long enrollments;
+
+    // Schema version whose indexes are present
+    @Param
+    public Indexes indexes;
+
+    private Path database;
+    private Connection connection;
+    private PreparedStatement byStudent;
+    private PreparedStatement byStudentAndName;
+    private final long[] studentIds = new long[SAMPLE_SIZE];
+    private final String[] courseNames = new String[SAMPLE_SIZE];
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        database = Files.createTempFile("course-lookup", ".db");
+        Files.delete(database);
+        DatasetGenerator.generate(database, enrollments, 42, 8);
+
+        connection = DriverManager.getConnection("jdbc:sqlite:" + database);
+        try (Statement statement = connection.createStatement()) {
+            if (indexes != Indexes.MIGRATED) {
+                statement.execute("drop index ux_course_student_name");
+                statement.execute("drop index ix_course_student_name_grade");
+            }
+            if (indexes == Indexes.STUDENT_ID) {
+                statement.execute("create index idx_course_student_id on course (student_id)");
+            }
+            statement.execute("analyze");
+        }
+
+        SplittableRandom random = new SplittableRandom(7);
+        try (PreparedStatement sample = connection.prepareStatement("select student_id, name from course where id = ?")) {
+            for (int i = 0; i < SAMPLE_SIZE; i++) {
+                sample.setLong(1, 1 + random.nextLong(enrollments));
+                try (ResultSet row = sample.executeQuery()) {
+                    row.next();
+                    studentIds[i] = row.getLong(1);
+                    courseNames[i] = row.getString(2);
+                }
+            }
+        }
+        byStudent = connection.prepareStatement(FIND_BY_STUDENT_ID);
+        byStudentAndName = connection.prepareStatement(FIND_BY_STUDENT_ID_AND_NAME);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        connection.close();
+        Files.deleteIfExists(database);
+    }
+
+    // CourseRepository.findByStudentId: all courses of one student
+    @Benchmark
+    public void coursesOfStudent(Blackhole blackhole) throws SQLException {
+        int i = next++ & (SAMPLE_SIZE - 1);
+        byStudent.setLong(1, studentIds[i]);
+        consume(byStudent, blackhole);
+    }
+
+    // CourseRepository.findByStudentIdAndName: one course of one student
+    @Benchmark
+    public void courseByName(Blackhole blackhole) throws SQLException {
+        int i = next++ & (SAMPLE_SIZE - 1);
+        byStudentAndName.setLong(1, studentIds[i]);
+        byStudentAndName.setString(2, courseNames[i]);
+        consume(byStudentAndName, blackhole);
+    }
+
+    private static void consume(PreparedStatement statement, Blackhole blackhole) throws SQLException {
+        try (ResultSet rows = statement.executeQuery()) {
+            while (rows.next()) {
+                blackhole.consume(rows.getLong(1));
+                blackhole.consume(rows.getLong(2));
+                blackhole.consume(rows.getString(3));
+                blackhole.consume(rows.getLong(4));
+            }
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.studentApp.benchmarks;
+
+import com.example.studentApp.dto.CourseResponseDTO;
+import com.example.studentApp.model.Course;
+import com.example.studentApp.model.Student;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-student model and DTO costs: `Student.getGPA()` and mapping a student's courses
+ * with the `CourseResponseDTO(Course)` constructor.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ModelBenchmark {
+
+    // Number of graded courses of the student
+    @Param({"1", "10", "100"})
+    public int coursesPerStudent;
+
+    private Student student;
+
+    @Setup
+    public void setUp() {
+        student = RosterData.student(1, coursesPerStudent);
+    }
+
+    @Benchmark
+    public double gpa() {
+        return student.getGPA();
+    }
+
+    @Benchmark
+    public List<CourseResponseDTO> courseResponseDtos() {
+        List<Course> courses = student.getCourses();
+        List<CourseResponseDTO> dtos = new ArrayList<>(courses.size());
+        for (Course course : courses) {
+            dtos.add(new CourseResponseDTO(course));
+        }
+        return dtos;
+    }
+}
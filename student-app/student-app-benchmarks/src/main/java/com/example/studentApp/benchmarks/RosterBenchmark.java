@@ -0,0 +1,89 @@
+package com.example.studentApp.benchmarks;
+
+import com.example.studentApp.dto.StudentResponseDTO;
+import com.example.studentApp.projection.CourseRowView;
+import com.example.studentApp.projection.StudentGpaView;
+import com.example.studentApp.service.RosterAssembler;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Whole-roster costs of GET /api/students: assembling the DTOs from the projection rows
+ * (the mapping inside `StudentService.getAllStudentsWithGPA`) and serializing them with Jackson.
+ *
+ * The largest combination (100k students with 100 courses each) needs a few GB of heap,
+ * hence the fixed 4 GB heap of the forked JVM.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class RosterBenchmark {
+
+    // Number of students in the roster
+    @Param({"1000", "10000", "100000"})
+    public int students;
+
+    // Number of graded courses per student
+    @Param({"1", "10", "100"})
+    public int coursesPerStudent;
+
+    private List<StudentGpaView> studentRows;
+    private List<CourseRowView> courseRows;
+    private List<StudentResponseDTO> roster;
+    // Configured like Spring Boot's auto-configured ObjectMapper
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        studentRows = RosterData.studentRows(students, coursesPerStudent);
+        courseRows = RosterData.courseRows(students, coursesPerStudent);
+        roster = RosterAssembler.assemble(studentRows, courseRows);
+    }
+
+    @Benchmark
+    public List<StudentResponseDTO> assemble() {
+        return RosterAssembler.assemble(studentRows, courseRows);
+    }
+
+    @Benchmark
+    public long serialize() throws IOException {
+        CountingOutputStream out = new CountingOutputStream();
+        objectMapper.writeValue(out, roster);
+        return out.count;
+    }
+
+    // Discards the serialized bytes, like a response stream that has been sent, and counts them.
+    private static final class CountingOutputStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.studentApp.benchmarks;
+
+import com.example.studentApp.model.Course;
+import com.example.studentApp.model.Grade;
+import com.example.studentApp.model.Student;
+import com.example.studentApp.projection.CourseRowView;
+import com.example.studentApp.projection.StudentGpaView;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds deterministic in-memory data sets for the benchmarks.
+ *
+ * The values mirror what the repositories return: boxed IDs and scores shared per row,
+ * a small set of course names and the five standard grades.
+ */
+final class RosterData {
+
+    // The grade table of the bundled database (A=4 ... F=0)
+    static final List<Grade> GRADES = List.of(
+            grade(1L, "A", 4.0), grade(2L, "B", 3.0), grade(3L, "C", 2.0), grade(4L, "D", 1.0), grade(5L, "F", 0.0));
+
+    // Boxed scores of GRADES, shared by all rows like the values of a JDBC result set
+    private static final Double[] SCORES = GRADES.stream().map(Grade::getScore).toArray(Double[]::new);
+
+    // Distinct course names; names repeat across students like real course catalogs
+    private static final int COURSE_NAMES = 200;
+
+    // Utility class, not meant to be instantiated.
+    private RosterData() {
+    }
+
+    /**
+     * Creates a student with the given number of graded courses and a matching GPA aggregate.
+     */
+    static Student student(long id, int courseCount) {
+        Student student = new Student();
+        student.setId(id);
+        student.setName("Student " + id);
+        student.setEmail("student" + id + "@example.com");
+        List<Course> courses = new ArrayList<>(courseCount);
+        double scoreSum = 0;
+        for (int i = 0; i < courseCount; i++) {
+            Grade grade = gradeFor(id, i);
+            Course course = new Course();
+            course.setId(id * 1000 + i);
+            course.setName(courseName(i));
+            course.setStudent(student);
+            course.setGrade(grade);
+            courses.add(course);
+            scoreSum += grade.getScore();
+        }
+        student.setCourses(courses);
+        student.setGradeScoreSum(scoreSum);
+        student.setGradedCourseCount(courseCount);
+        return student;
+    }
+
+    /**
+     * Creates the student projection rows of `findAllWithGpa`, ordered by ID.
+     */
+    static List<StudentGpaView> studentRows(int studentCount, int coursesPerStudent) {
+        List<StudentGpaView> rows = new ArrayList<>(studentCount);
+        for (long id = 1; id <= studentCount; id++) {
+            double scoreSum = 0;
+            for (int i = 0; i < coursesPerStudent; i++) {
+                scoreSum += gradeFor(id, i).getScore();
+            }
+            rows.add(new StudentRow(id, "Student " + id, "student" + id + "@example.com",
+                    coursesPerStudent == 0 ? 4.0 : scoreSum / coursesPerStudent));
+        }
+        return rows;
+    }
+
+    /**
+     * Creates the course projection rows of `findAllCourseRows`, ordered by student ID.
+     */
+    static List<CourseRowView> courseRows(int studentCount, int coursesPerStudent) {
+        List<CourseRowView> rows = new ArrayList<>(studentCount * coursesPerStudent);
+        long courseId = 0;
+        for (long id = 1; id <= studentCount; id++) {
+            Long studentId = id; // One boxed ID per student, as Hibernate returns for a row set
+            for (int i = 0; i < coursesPerStudent; i++) {
+                int grade = gradeIndex(id, i);
+                rows.add(new CourseRow(++courseId, studentId, courseName(i), GRADES.get(grade).getLetter(),
+                        SCORES[grade]));
+            }
+        }
+        return rows;
+    }
+
+    private static Grade gradeFor(long studentId, int courseIndex) {
+        return GRADES.get(gradeIndex(studentId, courseIndex));
+    }
+
+    private static int gradeIndex(long studentId, int courseIndex) {
+        return (int) ((studentId * 31 + courseIndex * 7) % GRADES.size());
+    }
+
+    private static String courseName(int courseIndex) {
+        return NAMES[courseIndex % COURSE_NAMES];
+    }
+
+    private static final String[] NAMES = new String[COURSE_NAMES];
+
+    static {
+        for (int i = 0; i < COURSE_NAMES; i++) {
+            NAMES[i] = "Course " + (101 + i);
+        }
+    }
+
+    private static Grade grade(Long id, String letter, double score) {
+        Grade grade = new Grade();
+        grade.setId(id);
+        grade.setLetter(letter);
+        grade.setScore(score);
+        return grade;
+    }
+
+    // In-memory StudentGpaView row.
+    private record StudentRow(Long id, String name, String email, Double gpa) implements StudentGpaView {
+        @Override
+        public Long getId() {
+            return id;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public String getEmail() {
+            return email;
+        }
+
+        @Override
+        public Double getGpa() {
+            return gpa;
+        }
+    }
+
+    // In-memory CourseRowView row.
+    private record CourseRow(Long id, Long studentId, String name, String gradeLetter, Double gradeScore)
+            implements CourseRowView {
+        @Override
+        public Long getId() {
+            return id;
+        }
+
+        @Override
+        public Long getStudentId() {
+            return studentId;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public String getGradeLetter() {
+            return gradeLetter;
+        }
+
+        @Override
+        public Double getGradeScore() {
+            return gradeScore;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.studentApp.benchmarks;
+
+import com.example.studentApp.dto.RosterProtobuf;
+import com.example.studentApp.dto.StudentResponseDTO;
+import com.example.studentApp.service.RosterAssembler;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Payload size, encode and decode time of the roster in each format GET /api/students can negotiate:
+ * JSON (the default), CBOR and Smile through Jackson, and Protobuf through RosterProtobuf.
+ *
+ * The payload sizes are printed once per trial, since JMH only reports times. Jackson formats decode
+ * into plain records with the DTOs' properties; Protobuf decodes into the DTOs themselves.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class SerializationFormatBenchmark {
+
+    // Decoded shape of a roster entry for the Jackson formats (the DTOs have no default constructor)
+    record StudentRecord(Long id, String name, String email, double gpa, List<CourseRecord> courses) {
+    }
+
+    // Decoded shape of a course of a roster entry
+    record CourseRecord(String name, String gradeLetter, double gradeScore) {
+    }
+
+    private static final TypeReference<List<StudentRecord>> ROSTER_TYPE = new TypeReference<>() {
+    };
+
+    // Wire format of the payload
+    @Param({"json", "cbor", "smile", "protobuf"})
+    public String format;
+
+    // Number of students in the roster
+    @Param({"10000"})
+    public int students;
+
+    // Number of graded courses per student
+    @Param({"1", "10"})
+    public int coursesPerStudent;
+
+    private List<StudentResponseDTO> roster;
+    // The roster encoded in the format, input of decode()
+    private byte[] payload;
+    // Configured like the application's mapper of the format (null for Protobuf)
+    private ObjectMapper mapper;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        roster = RosterAssembler.assemble(RosterData.studentRows(students, coursesPerStudent),
+                RosterData.courseRows(students, coursesPerStudent));
+        mapper = switch (format) {
+            case "json" -> Jackson2ObjectMapperBuilder.json().build();
+            case "cbor" -> Jackson2ObjectMapperBuilder.cbor().build();
+            case "smile" -> Jackson2ObjectMapperBuilder.smile().build();
+            case "protobuf" -> null;
+            default -> throw new IllegalArgumentException("Unknown format " + format);
+        };
+        payload = encode();
+        System.out.printf("%n%s payload of %d students with %d courses each: %d bytes%n",
+                format, students, coursesPerStudent, payload.length);
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64 * 1024);
+        if (mapper != null) {
+            mapper.writeValue(out, roster);
+        } else {
+            RosterProtobuf.writeStudents(roster, out);
+        }
+        return out.toByteArray();
+    }
+
+    @Benchmark
+    public List<?> decode() throws IOException {
+        if (mapper != null) {
+            return mapper.readValue(payload, ROSTER_TYPE);
+        }
+        return RosterProtobuf.readStudents(new ByteArrayInputStream(payload));
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.studentApp.benchmarks.load;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * What the load driver knows about the data it runs against: the generator's manifest plus a
+ * random sample of existing enrollments, so per-course reads ask for courses students really take.
+ */
+final class Dataset {
+
+    // Number of enrollments sampled from the data set
+    private static final int SAMPLE_SIZE = 10_000;
+
+    final DatasetGenerator.Manifest manifest;
+    private final long[] sampleStudentIds;
+    private final String[] sampleCourseNames;
+
+    private Dataset(DatasetGenerator.Manifest manifest, long[] sampleStudentIds, String[] sampleCourseNames) {
+        this.manifest = manifest;
+        this.sampleStudentIds = sampleStudentIds;
+        this.sampleCourseNames = sampleCourseNames;
+    }
+
+    /**
+     * Reads the manifest of a generated data set and samples its enrollments.
+     *
+     * @param database The generated SQLite file (opened read-only).
+     * @param seed Seed of the sample.
+     */
+    static Dataset load(Path database, long seed) throws IOException, SQLException {
+        DatasetGenerator.Manifest manifest = DatasetGenerator.Manifest.read(database);
+        int size = (int) Math.min(SAMPLE_SIZE, manifest.enrollments());
+        long[] students = new long[size];
+        String[] courses = new String[size];
+        SplittableRandom random = new SplittableRandom(seed);
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:file:" + database + "?mode=ro");
+             PreparedStatement select = connection.prepareStatement(
+                     "select student_id, name from course where id = ?")) {
+            int found = 0;
+            for (int attempt = 0; found < size && attempt < size * 2; attempt++) {
+                select.setLong(1, 1 + random.nextLong(manifest.enrollments()));
+                try (ResultSet row = select.executeQuery()) {
+                    if (row.next()) {
+                        students[found] = row.getLong(1);
+                        courses[found] = row.getString(2);
+                        found++;
+                    }
+                }
+            }
+            if (found == 0) {
+                throw new IllegalStateException(database + " has no enrollments");
+            }
+            return new Dataset(manifest, Arrays.copyOf(students, found), Arrays.copyOf(courses, found));
+        }
+    }
+
+    // Index of a random sampled enrollment.
+    int randomEnrollment(SplittableRandom random) {
+        return random.nextInt(sampleStudentIds.length);
+    }
+
+    long sampleStudentId(int enrollment) {
+        return sampleStudentIds[enrollment];
+    }
+
+    String sampleCourseName(int enrollment) {
+        return sampleCourseNames[enrollment];
+    }
+}
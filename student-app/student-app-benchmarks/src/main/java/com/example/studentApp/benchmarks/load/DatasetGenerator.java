@@ -0,0 +1,282 @@
+package com.example.studentApp.benchmarks.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+/**
+ * Fills a fresh SQLite file with a deterministic synthetic data set.
+ *
+ * The same seed and size always produce the same file. Distributions:
+ * - Courses per student: 1 + Poisson(mean - 1), so most students take close to the mean.
+ * - Course names: a catalog of 400 courses whose popularity follows a Zipf distribution
+ *   (a few introductory courses are taken by many students); no student takes a course twice.
+ * - Grades: each student has an ability drawn from N(2.9, 0.6); each course score is drawn
+ *   around it and rounded to A-F, giving the usual skew towards B and C.
+ *
+ * The file has the same schema the application creates, with the GPA aggregates filled in.
+ * A manifest (`<out>.manifest.json`) records the sizes and the course catalog for the LoadDriver.
+ *
+ * Usage:
+ *
+ *   java -cp benchmarks.jar com.example.studentApp.benchmarks.load.DatasetGenerator \
+ *       --out=data/100k.db --enrollments=100000 [--seed=42] [--mean-courses=8] [--force]
+ */
+public final class DatasetGenerator {
+
+    // The grades of the bundled database; IDs 1-5
+    static final String[] GRADE_LETTERS = {"A", "B", "C", "D", "F"};
+    static final double[] GRADE_SCORES = {4.0, 3.0, 2.0, 1.0, 0.0};
+
+    private static final int CATALOG_SIZE = 400;
+    private static final double ZIPF_EXPONENT = 1.0;
+    private static final int INSERT_BATCH_SIZE = 10_000;
+
+    private static final String[] SUBJECTS = {
+            "Mathematics", "Physics", "Chemistry", "Biology", "History", "Literature", "Economics", "Psychology",
+            "Philosophy", "Computer Science", "Statistics", "Art", "Music", "Geography", "Sociology", "Linguistics",
+            "Astronomy", "Engineering", "Political Science", "Anthropology"};
+    private static final String[] FIRST_NAMES = {
+            "Olivia", "Liam", "Emma", "Noah", "Ava", "Elijah", "Sophia", "James", "Isabella", "Lucas", "Mia", "Mateo",
+            "Amelia", "Ethan", "Harper", "Aiden", "Evelyn", "Leo", "Aria", "Kai", "Chloe", "Omar", "Priya", "Wei",
+            "Yuki", "Sofia", "Diego", "Fatima", "Hana", "Ivan"};
+    private static final String[] LAST_NAMES = {
+            "Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia", "Miller", "Davis", "Rodriguez", "Martinez",
+            "Hernandez", "Lopez", "Gonzalez", "Wilson", "Anderson", "Thomas", "Taylor", "Moore", "Jackson", "Martin",
+            "Lee", "Nguyen", "Kim", "Patel", "Chen", "Singh", "Kowalski", "Okafor", "Silva", "Tanaka"};
+
+    // Utility class, not meant to be instantiated.
+    private DatasetGenerator() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = Options.parse(args);
+        Path out = Path.of(Options.required(options, "out"));
+        long enrollments = Long.parseLong(options.getOrDefault("enrollments", "100000"));
+        long seed = Long.parseLong(options.getOrDefault("seed", "42"));
+        double meanCourses = Double.parseDouble(options.getOrDefault("mean-courses", "8"));
+
+        if (Files.exists(out)) {
+            if (!options.containsKey("force")) {
+                throw new IllegalArgumentException(out + " exists; pass --force to replace it");
+            }
+            Files.delete(out);
+        }
+        if (out.toAbsolutePath().getParent() != null) {
+            Files.createDirectories(out.toAbsolutePath().getParent());
+        }
+
+        long start = System.nanoTime();
+        Manifest manifest = generate(out, enrollments, seed, meanCourses);
+        writeManifest(out, manifest);
+        System.out.printf("Generated %s: %d students, %d enrollments in %.1f s%n",
+                out, manifest.students, manifest.enrollments, (System.nanoTime() - start) / 1e9);
+    }
+
+    /**
+     * Generates the data set into a new SQLite file (also used by the JMH benchmarks).
+     *
+     * @return The manifest describing what was generated.
+     */
+    public static Manifest generate(Path out, long enrollments, long seed, double meanCourses) throws SQLException {
+        SplittableRandom random = new SplittableRandom(seed);
+        List<String> catalog = catalog();
+        double[] popularity = zipfCdf(catalog.size());
+
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + out)) {
+            try (Statement statement = connection.createStatement()) {
+                // Bulk load settings; they only apply to this connection
+                statement.execute("pragma journal_mode = off");
+                statement.execute("pragma synchronous = off");
+                createSchema(statement);
+            }
+            connection.setAutoCommit(false);
+
+            try (PreparedStatement grades = connection.prepareStatement(
+                    "insert into grade (id, letter, score) values (?, ?, ?)")) {
+                for (int i = 0; i < GRADE_LETTERS.length; i++) {
+                    grades.setLong(1, i + 1);
+                    grades.setString(2, GRADE_LETTERS[i]);
+                    grades.setDouble(3, GRADE_SCORES[i]);
+                    grades.addBatch();
+                }
+                grades.executeBatch();
+            }
+
+            long studentId = 0;
+            long courseId = 0;
+            try (PreparedStatement students = connection.prepareStatement(
+                    "insert into student (id, name, email, grade_score_sum, graded_course_count) values (?, ?, ?, ?, ?)");
+                 PreparedStatement courses = connection.prepareStatement(
+                         "insert into course (id, name, student_id, grade_id) values (?, ?, ?, ?)")) {
+                Set<Integer> taken = new HashSet<>();
+                while (courseId < enrollments) {
+                    studentId++;
+                    int courseCount = (int) Math.min(enrollments - courseId,
+                            Math.min(CATALOG_SIZE, 1 + poisson(random, meanCourses - 1)));
+                    double ability = clamp(2.9 + 0.6 * gaussian(random), 0, 4);
+
+                    double scoreSum = 0;
+                    taken.clear();
+                    for (int c = 0; c < courseCount; c++) {
+                        int course;
+                        do {
+                            course = pick(random, popularity);
+                        } while (!taken.add(course));
+                        int score = (int) Math.round(clamp(ability + 0.8 * gaussian(random), 0, 4));
+                        int grade = GRADE_LETTERS.length - 1 - score; // 4 -> A (index 0), 0 -> F (index 4)
+                        scoreSum += GRADE_SCORES[grade];
+
+                        courses.setLong(1, ++courseId);
+                        courses.setString(2, catalog.get(course));
+                        courses.setLong(3, studentId);
+                        courses.setLong(4, grade + 1);
+                        courses.addBatch();
+                        if (courseId % INSERT_BATCH_SIZE == 0) {
+                            courses.executeBatch();
+                        }
+                    }
+
+                    String first = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+                    String last = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+                    students.setLong(1, studentId);
+                    students.setString(2, first + " " + last);
+                    students.setString(3, (first + "." + last + "." + studentId + "@example.edu").toLowerCase());
+                    students.setDouble(4, scoreSum);
+                    students.setInt(5, courseCount);
+                    students.addBatch();
+                    if (studentId % INSERT_BATCH_SIZE == 0) {
+                        students.executeBatch();
+                    }
+                }
+                students.executeBatch();
+                courses.executeBatch();
+            }
+            connection.commit();
+
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("analyze");
+            }
+            connection.commit();
+            return new Manifest(seed, courseId, studentId, GRADE_LETTERS.length, catalog);
+        }
+    }
+
+    // The schema the application's migrations create (student-app/src/main/resources/db/migration).
+    // The application baselines the file and re-runs them, which leaves this schema unchanged.
+    private static void createSchema(Statement statement) throws SQLException {
+        statement.execute("create table grade (id integer, letter varchar(255), score float not null, primary key (id))");
+        statement.execute("create table student (id integer, email varchar(255), name varchar(255), "
+                + "grade_score_sum float default 0 not null, graded_course_count integer default 0 not null, "
+                + "primary key (id))");
+        statement.execute("create table course (id integer, name varchar(255), grade_id bigint, student_id bigint, "
+                + "primary key (id))");
+        statement.execute("create unique index ux_course_student_name on course (student_id, name)");
+        statement.execute("create index ix_course_student_name_grade on course (student_id, name, grade_id)");
+    }
+
+    // 400 course names: 20 subjects x 20 levels, e.g. "Physics 101" ... "Physics 420".
+    private static List<String> catalog() {
+        List<String> names = new ArrayList<>(CATALOG_SIZE);
+        for (int level = 0; level < CATALOG_SIZE / SUBJECTS.length; level++) {
+            for (String subject : SUBJECTS) {
+                names.add(subject + " " + (101 + (level / 5) * 100 + level % 5 * 5));
+            }
+        }
+        return names;
+    }
+
+    // Cumulative distribution of a Zipf distribution over n ranks.
+    private static double[] zipfCdf(int n) {
+        double[] cdf = new double[n];
+        double total = 0;
+        for (int rank = 1; rank <= n; rank++) {
+            total += 1 / Math.pow(rank, ZIPF_EXPONENT);
+            cdf[rank - 1] = total;
+        }
+        for (int i = 0; i < n; i++) {
+            cdf[i] /= total;
+        }
+        return cdf;
+    }
+
+    private static int pick(SplittableRandom random, double[] cdf) {
+        double u = random.nextDouble();
+        int low = 0;
+        int high = cdf.length - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (cdf[mid] < u) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // Knuth's algorithm; fine for the small means used here.
+    private static int poisson(SplittableRandom random, double mean) {
+        double limit = Math.exp(-mean);
+        double product = random.nextDouble();
+        int k = 0;
+        while (product > limit) {
+            k++;
+            product *= random.nextDouble();
+        }
+        return k;
+    }
+
+    // Standard normal sample (Box-Muller).
+    private static double gaussian(SplittableRandom random) {
+        return Math.sqrt(-2 * Math.log(1 - random.nextDouble())) * Math.cos(2 * Math.PI * random.nextDouble());
+    }
+
+    private static double clamp(double value, double min, double max) {
+        return Math.max(min, Math.min(max, value));
+    }
+
+    private static void writeManifest(Path out, Manifest manifest) throws IOException {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("seed", manifest.seed);
+        json.put("enrollments", manifest.enrollments);
+        json.put("students", manifest.students);
+        json.put("grades", manifest.grades);
+        json.put("courseCatalog", manifest.courseCatalog);
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT)
+                .writeValue(Manifest.pathFor(out).toFile(), json);
+    }
+
+    /**
+     * What a generated data set contains: student IDs are 1..students, grade IDs 1..grades.
+     */
+    public record Manifest(long seed, long enrollments, long students, int grades, List<String> courseCatalog) {
+
+        static Path pathFor(Path database) {
+            return database.resolveSibling(database.getFileName() + ".manifest.json");
+        }
+
+        static Manifest read(Path database) throws IOException {
+            Map<?, ?> json = new ObjectMapper().readValue(pathFor(database).toFile(), Map.class);
+            List<String> catalog = new ArrayList<>();
+            ((List<?>) json.get("courseCatalog")).forEach(name -> catalog.add((String) name));
+            return new Manifest(((Number) json.get("seed")).longValue(), ((Number) json.get("enrollments")).longValue(),
+                    ((Number) json.get("students")).longValue(), ((Number) json.get("grades")).intValue(), catalog);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.studentApp.benchmarks.load;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.SplittableRandom;
+import java.util.StringJoiner;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Every endpoint of StudentController, CourseController and GradeController, with how the
+ * load driver builds a request for it.
+ *
+ * Reads pick random existing students and enrollments; writes create uniquely named rows,
+ * so repeated runs against the same database never collide.
+ */
+enum Endpoint {
+    GET_ROSTER("GET /api/students", false),
+    GET_ROSTER_PAGE("GET /api/students?size=50", false),
+    GET_STUDENT_GPA("GET /api/students/{id}/gpa", false),
+    GET_STUDENT_GRADES("GET /api/students/{id}/grades", false),
+    GET_COURSE_GRADE("GET /api/students/{id}/courses/{name}/grade", false),
+    GET_COURSES("GET /api/courses", false),
+    GET_GRADES("GET /api/grades", false),
+    POST_STUDENT("POST /api/students", true),
+    POST_STUDENTS_BATCH("POST /api/students/batch", true),
+    POST_COURSE("POST /api/courses", true),
+    POST_COURSES_BATCH("POST /api/courses/batch", true),
+    POST_GRADE("POST /api/grades", true),
+    POST_GRADES_BATCH("POST /api/grades/batch", true);
+
+    // Number of items in each batch request
+    static final int BATCH_SIZE = 50;
+
+    // Name used in the report
+    final String label;
+    // Whether the endpoint writes
+    final boolean write;
+
+    Endpoint(String label, boolean write) {
+        this.label = label;
+        this.write = write;
+    }
+
+    /**
+     * Builds a request for this endpoint.
+     *
+     * @param base The application's base URL, e.g. http://localhost:8080.
+     * @param dataset What the database contains.
+     * @param random The calling client's random source.
+     * @param names Counter used to make the names of written rows unique.
+     * @param runId Prefix making written names unique across runs.
+     */
+    HttpRequest request(String base, Dataset dataset, SplittableRandom random, AtomicLong names,
+                        String runId, Duration timeout) {
+        DatasetGenerator.Manifest data = dataset.manifest;
+        long student = 1 + random.nextLong(data.students());
+        String path;
+        String body = null;
+        switch (this) {
+            case GET_ROSTER -> path = "/api/students";
+            case GET_ROSTER_PAGE -> path = "/api/students?size=50&after=" + random.nextLong(data.students());
+            case GET_STUDENT_GPA -> path = "/api/students/" + student + "/gpa";
+            case GET_STUDENT_GRADES -> path = "/api/students/" + student + "/grades";
+            case GET_COURSE_GRADE -> {
+                int enrollment = dataset.randomEnrollment(random);
+                path = "/api/students/" + dataset.sampleStudentId(enrollment) + "/courses/"
+                        + URLEncoder.encode(dataset.sampleCourseName(enrollment), StandardCharsets.UTF_8)
+                        .replace("+", "%20") + "/grade";
+            }
+            case GET_COURSES -> path = "/api/courses";
+            case GET_GRADES -> path = "/api/grades";
+            case POST_STUDENT -> {
+                path = "/api/students";
+                body = studentJson(runId + "-" + names.incrementAndGet());
+            }
+            case POST_STUDENTS_BATCH -> {
+                path = "/api/students/batch";
+                StringJoiner items = new StringJoiner(",", "[", "]");
+                for (int i = 0; i < BATCH_SIZE; i++) {
+                    items.add(studentJson(runId + "-" + names.incrementAndGet()));
+                }
+                body = items.toString();
+            }
+            case POST_COURSE -> {
+                path = "/api/courses";
+                body = courseJson(runId + "-" + names.incrementAndGet(), student, 1 + random.nextInt(data.grades()));
+            }
+            case POST_COURSES_BATCH -> {
+                path = "/api/courses/batch";
+                StringJoiner items = new StringJoiner(",", "[", "]");
+                for (int i = 0; i < BATCH_SIZE; i++) {
+                    items.add(courseJson(runId + "-" + names.incrementAndGet(),
+                            1 + random.nextLong(data.students()), 1 + random.nextInt(data.grades())));
+                }
+                body = items.toString();
+            }
+            case POST_GRADE -> {
+                path = "/api/grades";
+                body = gradeJson(runId + "-" + names.incrementAndGet());
+            }
+            case POST_GRADES_BATCH -> {
+                path = "/api/grades/batch";
+                StringJoiner items = new StringJoiner(",", "[", "]");
+                for (int i = 0; i < BATCH_SIZE; i++) {
+                    items.add(gradeJson(runId + "-" + names.incrementAndGet()));
+                }
+                body = items.toString();
+            }
+            default -> throw new IllegalStateException(name());
+        }
+
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(base + path)).timeout(timeout);
+        if (body == null) {
+            return builder.GET().build();
+        }
+        return builder.header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private static String studentJson(String suffix) {
+        return "{\"name\":\"Load " + suffix + "\",\"email\":\"load-" + suffix + "@example.test\"}";
+    }
+
+    private static String courseJson(String suffix, long studentId, int gradeId) {
+        return "{\"name\":\"Load " + suffix + "\",\"student\":{\"id\":" + studentId + "},\"grade\":{\"id\":" + gradeId + "}}";
+    }
+
+    private static String gradeJson(String suffix) {
+        return "{\"letter\":\"L" + suffix + "\",\"score\":2.5}";
+    }
+}
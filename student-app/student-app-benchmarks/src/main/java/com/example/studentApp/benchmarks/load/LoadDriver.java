@@ -0,0 +1,279 @@
+package com.example.studentApp.benchmarks.load;
+
+import com.example.studentApp.StudentAppApplication;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Drives a mixed read/write workload against the application and reports, per endpoint,
+ * the throughput and the latency distribution (p50/p95/p99/p99.9) as JSON.
+ *
+ * The application is either started inside this JVM on a temporary copy of a generated data set
+ * (`--dataset`), or an already running instance is used (`--url`, together with `--dataset` for the
+ * manifest of the data it serves). Clients run closed-loop on virtual threads; each picks its next
+ * endpoint at random according to the scenario weights.
+ *
+ * Usage:
+ *
+ *   java -cp benchmarks.jar com.example.studentApp.benchmarks.load.LoadDriver \
+ *       --dataset=data/100k.db [--url=http://localhost:8080] [--scenario=mixed|read-heavy|write-heavy|contention]
+ *       [--mix=GET_STUDENT_GRADES:5,POST_COURSE:1] [--clients=32] [--duration=60] [--warmup=10]
+ *       [--seed=1] [--timeout=60] [--out=result.json] [--app.<property>=<value> ...]
+ *
+ * `--app.<property>` options are passed to the in-JVM application, e.g.
+ * `--app.spring.threads.virtual.enabled=true`.
+ *
+ * The report ends with the application's virtual thread pinning counters (all zero with platform
+ * request threads), so platform and virtual threads are compared by running the same scenario
+ * with `--app.spring.threads.virtual.enabled=false` and `=true`.
+ */
+public final class LoadDriver {
+
+    // Latencies are recorded in microseconds, up to 10 minutes, with 3 significant digits
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(10);
+
+    private final String base;
+    private final Dataset data;
+    private final Map<Endpoint, Integer> weights;
+    private final int clients;
+    private final long seed;
+    private final Duration timeout;
+
+    // Per-endpoint results of the measured phase
+    private final Map<Endpoint, Histogram> latencies = new EnumMap<>(Endpoint.class);
+    private final Map<Endpoint, LongAdder> errors = new EnumMap<>(Endpoint.class);
+
+    private LoadDriver(String base, Dataset data, Map<Endpoint, Integer> weights,
+                       int clients, long seed, Duration timeout) {
+        this.base = base;
+        this.data = data;
+        this.weights = weights;
+        this.clients = clients;
+        this.seed = seed;
+        this.timeout = timeout;
+        for (Endpoint endpoint : weights.keySet()) {
+            latencies.put(endpoint, new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3));
+            errors.put(endpoint, new LongAdder());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = Options.parse(args);
+        Path dataset = Path.of(Options.required(options, "dataset"));
+        long seed = Long.parseLong(options.getOrDefault("seed", "1"));
+        Dataset data = Dataset.load(dataset, seed);
+        String scenario = options.getOrDefault("scenario", "mixed");
+        Map<Endpoint, Integer> weights = Scenario.weights(scenario, options.get("mix"));
+        int clients = Integer.parseInt(options.getOrDefault("clients", "32"));
+        int durationSeconds = Integer.parseInt(options.getOrDefault("duration", "60"));
+        int warmupSeconds = Integer.parseInt(options.getOrDefault("warmup", "10"));
+        Duration timeout = Duration.ofSeconds(Long.parseLong(options.getOrDefault("timeout", "60")));
+
+        ConfigurableApplicationContext app = null;
+        Path copy = null;
+        String base = options.get("url");
+        try {
+            if (base == null) {
+                copy = Files.createTempFile("student-app-load", ".db");
+                Files.copy(dataset, copy, StandardCopyOption.REPLACE_EXISTING);
+                app = startApplication(copy, options);
+                base = "http://localhost:" + ((WebServerApplicationContext) app).getWebServer().getPort();
+            }
+
+            LoadDriver driver = new LoadDriver(base, data, weights, clients, seed, timeout);
+            driver.run(Duration.ofSeconds(warmupSeconds), false);
+            long measured = driver.run(Duration.ofSeconds(durationSeconds), true);
+
+            Map<String, Object> report = driver.report(scenario, options.get("mix"), durationSeconds,
+                    warmupSeconds, measured);
+            report.put("pinning", driver.pinning());
+            String json = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValueAsString(report);
+            if (options.containsKey("out")) {
+                Files.writeString(Path.of(options.get("out")), json);
+            }
+            System.out.println(json);
+        } finally {
+            if (app != null) {
+                app.close();
+            }
+            if (copy != null) {
+                Files.deleteIfExists(copy);
+            }
+        }
+        System.exit(0);
+    }
+
+    // Starts the application in this JVM on a random port against the given database file.
+    private static ConfigurableApplicationContext startApplication(Path database, Map<String, String> options) {
+        List<String> args = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--debug=false",
+                "--logging.level.root=WARN",
+                "--spring.datasource.url=jdbc:sqlite:" + database));
+        options.forEach((name, value) -> {
+            if (name.startsWith("app.")) {
+                args.add("--" + name.substring(4) + "=" + value);
+            }
+        });
+        return SpringApplication.run(StudentAppApplication.class, args.toArray(String[]::new));
+    }
+
+    /**
+     * Runs the clients for the given time.
+     *
+     * @param record Whether to record latencies (false for the warm-up).
+     * @return The measured wall-clock time in nanoseconds.
+     */
+    private long run(Duration duration, boolean record) throws InterruptedException {
+        Endpoint[] endpoints = weights.keySet().toArray(Endpoint[]::new);
+        int[] cumulative = new int[endpoints.length];
+        int total = 0;
+        for (int i = 0; i < endpoints.length; i++) {
+            total += weights.get(endpoints[i]);
+            cumulative[i] = total;
+        }
+        int totalWeight = total;
+
+        HttpClient http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        AtomicLong names = new AtomicLong();
+        String runId = Long.toString(System.currentTimeMillis(), 36) + (record ? "m" : "w");
+        SplittableRandom root = new SplittableRandom(record ? seed : ~seed);
+        long start = System.nanoTime();
+        long end = start + duration.toNanos();
+
+        try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clients; c++) {
+                SplittableRandom random = root.split();
+                pool.submit(() -> {
+                    while (System.nanoTime() < end) {
+                        int pick = random.nextInt(totalWeight);
+                        int index = 0;
+                        while (cumulative[index] <= pick) {
+                            index++;
+                        }
+                        Endpoint endpoint = endpoints[index];
+                        long sent = System.nanoTime();
+                        boolean failed;
+                        try {
+                            HttpResponse<Void> response = http.send(
+                                    endpoint.request(base, data, random, names, runId, timeout),
+                                    HttpResponse.BodyHandlers.discarding());
+                            failed = response.statusCode() >= 400;
+                        } catch (Exception e) {
+                            failed = true;
+                        }
+                        if (record) {
+                            long micros = (System.nanoTime() - sent) / 1000;
+                            latencies.get(endpoint).recordValue(Math.min(micros, HIGHEST_TRACKABLE_MICROS));
+                            if (failed) {
+                                errors.get(endpoint).increment();
+                            }
+                        }
+                    }
+                });
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    // The pinning counters of the application's request threads, or null if they cannot be read.
+    private JsonNode pinning() {
+        try {
+            HttpResponse<String> response = HttpClient.newHttpClient().send(
+                    HttpRequest.newBuilder(URI.create(base + "/api/admin/virtual-threads")).timeout(timeout).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            return response.statusCode() == 200 ? new ObjectMapper().readTree(response.body()) : null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    // Builds the JSON report (latencies in milliseconds).
+    private Map<String, Object> report(String scenario, String mix, int durationSeconds, int warmupSeconds,
+                                       long measuredNanos) {
+        double seconds = measuredNanos / 1e9;
+        long totalRequests = 0;
+        long totalErrors = 0;
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        for (Map.Entry<Endpoint, Histogram> entry : latencies.entrySet()) {
+            Histogram histogram = entry.getValue();
+            long count = histogram.getTotalCount();
+            long failed = errors.get(entry.getKey()).sum();
+            totalRequests += count;
+            totalErrors += failed;
+
+            Map<String, Object> latency = new LinkedHashMap<>();
+            latency.put("mean", round(histogram.getMean() / 1000));
+            latency.put("p50", millis(histogram, 50));
+            latency.put("p95", millis(histogram, 95));
+            latency.put("p99", millis(histogram, 99));
+            latency.put("p999", millis(histogram, 99.9));
+            latency.put("max", round(histogram.getMaxValue() / 1000.0));
+
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("requests", count);
+            stats.put("errors", failed);
+            stats.put("throughputPerSecond", round(count / seconds));
+            stats.put("latencyMillis", latency);
+            endpoints.put(entry.getKey().label, stats);
+        }
+
+        Map<String, Object> dataset = new LinkedHashMap<>();
+        dataset.put("seed", data.manifest.seed());
+        dataset.put("enrollments", data.manifest.enrollments());
+        dataset.put("students", data.manifest.students());
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("scenario", mix == null ? scenario : "custom");
+        Map<String, Integer> mixWeights = new LinkedHashMap<>();
+        weights.forEach((endpoint, weight) -> mixWeights.put(endpoint.label, weight));
+        report.put("weights", mixWeights);
+        report.put("dataset", dataset);
+        report.put("clients", clients);
+        report.put("warmupSeconds", warmupSeconds);
+        report.put("durationSeconds", durationSeconds);
+        report.put("requests", totalRequests);
+        report.put("errors", totalErrors);
+        report.put("throughputPerSecond", round(totalRequests / seconds));
+        report.put("endpoints", endpoints);
+        return report;
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return round(histogram.getValueAtPercentile(percentile) / 1000.0);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000) / 1000.0;
+    }
+}
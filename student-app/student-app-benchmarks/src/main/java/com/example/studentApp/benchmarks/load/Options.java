@@ -0,0 +1,34 @@
+package com.example.studentApp.benchmarks.load;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Minimal `--name=value` / `--flag` command-line parsing for the load tools.
+ */
+final class Options {
+
+    // Utility class, not meant to be instantiated.
+    private Options() {
+    }
+
+    static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument: " + arg);
+            }
+            String[] parts = arg.substring(2).split("=", 2);
+            options.put(parts[0], parts.length == 2 ? parts[1] : "true");
+        }
+        return options;
+    }
+
+    static String required(Map<String, String> options, String name) {
+        String value = options.get(name);
+        if (value == null) {
+            throw new IllegalArgumentException("--" + name + " is required");
+        }
+        return value;
+    }
+}
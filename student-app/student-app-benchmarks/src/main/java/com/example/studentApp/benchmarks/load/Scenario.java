@@ -0,0 +1,63 @@
+package com.example.studentApp.benchmarks.load;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Preset request mixes, as relative weights per endpoint.
+ *
+ * The whole-table reads (roster and all courses) and grade writes are rare in every mix:
+ * they are what clients do least, and the whole-table reads dominate the run otherwise.
+ * CONTENTION is the exception: a quarter of its requests are batch writes, so the read latencies show
+ * how much reads wait for writes (compare runs with and without the read/write split).
+ * A custom mix can be given as `--mix=GET_STUDENT_GRADES:5,POST_COURSE:1`.
+ */
+enum Scenario {
+    READ_HEAVY(Map.ofEntries(
+            Map.entry(Endpoint.GET_STUDENT_GRADES, 400), Map.entry(Endpoint.GET_STUDENT_GPA, 200),
+            Map.entry(Endpoint.GET_COURSE_GRADE, 150), Map.entry(Endpoint.GET_ROSTER_PAGE, 150),
+            Map.entry(Endpoint.GET_GRADES, 50), Map.entry(Endpoint.GET_ROSTER, 2), Map.entry(Endpoint.GET_COURSES, 2),
+            Map.entry(Endpoint.POST_STUDENT, 15), Map.entry(Endpoint.POST_COURSE, 25),
+            Map.entry(Endpoint.POST_STUDENTS_BATCH, 2), Map.entry(Endpoint.POST_COURSES_BATCH, 2),
+            Map.entry(Endpoint.POST_GRADE, 1), Map.entry(Endpoint.POST_GRADES_BATCH, 1))),
+    MIXED(Map.ofEntries(
+            Map.entry(Endpoint.GET_STUDENT_GRADES, 250), Map.entry(Endpoint.GET_STUDENT_GPA, 120),
+            Map.entry(Endpoint.GET_COURSE_GRADE, 100), Map.entry(Endpoint.GET_ROSTER_PAGE, 100),
+            Map.entry(Endpoint.GET_GRADES, 30), Map.entry(Endpoint.GET_ROSTER, 2), Map.entry(Endpoint.GET_COURSES, 2),
+            Map.entry(Endpoint.POST_STUDENT, 150), Map.entry(Endpoint.POST_COURSE, 230),
+            Map.entry(Endpoint.POST_STUDENTS_BATCH, 5), Map.entry(Endpoint.POST_COURSES_BATCH, 10),
+            Map.entry(Endpoint.POST_GRADE, 1), Map.entry(Endpoint.POST_GRADES_BATCH, 1))),
+    WRITE_HEAVY(Map.ofEntries(
+            Map.entry(Endpoint.GET_STUDENT_GRADES, 100), Map.entry(Endpoint.GET_STUDENT_GPA, 50),
+            Map.entry(Endpoint.GET_COURSE_GRADE, 30), Map.entry(Endpoint.GET_ROSTER_PAGE, 20),
+            Map.entry(Endpoint.GET_GRADES, 10), Map.entry(Endpoint.GET_ROSTER, 1), Map.entry(Endpoint.GET_COURSES, 1),
+            Map.entry(Endpoint.POST_STUDENT, 300), Map.entry(Endpoint.POST_COURSE, 450),
+            Map.entry(Endpoint.POST_STUDENTS_BATCH, 15), Map.entry(Endpoint.POST_COURSES_BATCH, 30),
+            Map.entry(Endpoint.POST_GRADE, 2), Map.entry(Endpoint.POST_GRADES_BATCH, 1))),
+    // Point reads against a steady stream of large batch writes, to measure how long reads wait for them
+    CONTENTION(Map.ofEntries(
+            Map.entry(Endpoint.GET_STUDENT_GRADES, 300), Map.entry(Endpoint.GET_STUDENT_GPA, 200),
+            Map.entry(Endpoint.GET_COURSE_GRADE, 150), Map.entry(Endpoint.GET_ROSTER_PAGE, 100),
+            Map.entry(Endpoint.POST_COURSES_BATCH, 150), Map.entry(Endpoint.POST_STUDENTS_BATCH, 50)));
+
+    final Map<Endpoint, Integer> weights;
+
+    Scenario(Map<Endpoint, Integer> weights) {
+        this.weights = new EnumMap<>(weights);
+    }
+
+    /**
+     * Resolves `--scenario` / `--mix` into endpoint weights.
+     */
+    static Map<Endpoint, Integer> weights(String scenario, String mix) {
+        if (mix == null) {
+            return valueOf(scenario.toUpperCase().replace('-', '_')).weights;
+        }
+        Map<Endpoint, Integer> weights = new EnumMap<>(Endpoint.class);
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.split(":");
+            weights.put(Endpoint.valueOf(parts[0].trim()), parts.length > 1 ? Integer.parseInt(parts[1].trim()) : 1);
+        }
+        return weights;
+    }
+}
@@ -1,7 +1,12 @@
 package com.example.studentApp;
 
+import com.example.studentApp.cli.AdminCommandRunner; // Runs maintenance commands from the command line
 import org.springframework.boot.SpringApplication;  // Class for running the Spring Boot application
+import org.springframework.boot.WebApplicationType; // Selects whether the embedded web server is started
 import org.springframework.boot.autoconfigure.SpringBootApplication; // Annotation for auto-configuration
+import org.springframework.context.ConfigurableApplicationContext; // The running application context
+
+import java.util.Arrays; // Utility for extending the command-line arguments
 
 /**
  * Entry point for the StudentApp Spring Boot application.
@@ -9,6 +14,7 @@ import org.springframework.boot.autoconfigure.SpringBootApplication; // Annotati
  * Responsibilities:
  * - Initializes the Spring application context.
  * - Scans the base package for components, configurations, and Spring Beans.
+ * - Runs a maintenance command without the web server when one is given (see AdminCommandRunner).
  */
 @SpringBootApplication
 public class StudentAppApplication {
@@ -19,6 +25,17 @@ public class StudentAppApplication {
 	 * @param args Command-line arguments that can be passed to the application.
 	 */
 	public static void main(String[] args) {
+		if (AdminCommandRunner.isCommand(args)) {
+			// Runs the requested maintenance command without the web server, then exits with its status.
+			// Startup housekeeping is disabled so that the command alone decides what gets written.
+			SpringApplication application = new SpringApplication(StudentAppApplication.class);
+			application.setWebApplicationType(WebApplicationType.NONE);
+			String[] commandArgs = Arrays.copyOf(args, args.length + 1);
+			commandArgs[args.length] = "--student-app.gpa.verify-on-startup=false";
+			ConfigurableApplicationContext context = application.run(commandArgs);
+			System.exit(SpringApplication.exit(context));
+		}
+
 		// Runs the application, bootstrapping Spring and initializing all components
 		SpringApplication.run(StudentAppApplication.class, args);
 	}
@@ -0,0 +1,113 @@
+package com.example.studentApp.cli;
+
+import com.example.studentApp.dto.GpaAggregateReportDTO;
+import com.example.studentApp.dto.ImportReportDTO;
+import com.example.studentApp.service.EnrollmentImportService;
+import com.example.studentApp.service.GpaAggregateService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.ExitCodeGenerator;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Runs maintenance commands when the application is started with a command option.
+ *
+ * Commands:
+ * - `--check-gpa-aggregates`   Reports students whose GPA aggregate is stale; exits with 1 if any are found.
+ * - `--rebuild-gpa-aggregates` Recomputes every GPA aggregate from the course table.
+ * - `--import-enrollments=<file>` Imports an enrollment CSV file; exits with 1 if the import fails.
+ *
+ * When a command is given, `StudentAppApplication` starts without the web server and exits
+ * once the command has finished.
+ */
+@Component
+public class AdminCommandRunner implements ApplicationRunner, ExitCodeGenerator {
+    private static final Logger log = LoggerFactory.getLogger(AdminCommandRunner.class);
+
+    // Names of the supported command options (without the leading "--").
+    static final String CHECK_GPA_AGGREGATES = "check-gpa-aggregates";
+    static final String REBUILD_GPA_AGGREGATES = "rebuild-gpa-aggregates";
+    static final String IMPORT_ENROLLMENTS = "import-enrollments";
+    private static final Set<String> COMMANDS =
+            Set.of(CHECK_GPA_AGGREGATES, REBUILD_GPA_AGGREGATES, IMPORT_ENROLLMENTS);
+
+    // Service that checks and rebuilds the GPA aggregates
+    private final GpaAggregateService gpaAggregateService;
+    // Service that imports enrollment files
+    private final EnrollmentImportService enrollmentImportService;
+    // Exit code reported to SpringApplication.exit() once the command has run
+    private int exitCode;
+
+    /**
+     * Constructor for dependency injection.
+     *
+     * @param gpaAggregateService Service that checks and rebuilds the GPA aggregates.
+     * @param enrollmentImportService Service that imports enrollment files.
+     */
+    public AdminCommandRunner(GpaAggregateService gpaAggregateService,
+                              EnrollmentImportService enrollmentImportService) {
+        this.gpaAggregateService = gpaAggregateService;
+        this.enrollmentImportService = enrollmentImportService;
+    }
+
+    /**
+     * Tells whether the command-line arguments request a maintenance command.
+     *
+     * @param args The raw command-line arguments.
+     * @return true if one of the command options is present.
+     */
+    public static boolean isCommand(String[] args) {
+        return Arrays.stream(args)
+                .filter(arg -> arg.startsWith("--"))
+                .map(arg -> arg.substring(2).split("=", 2)[0])
+                .anyMatch(COMMANDS::contains);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (args.containsOption(CHECK_GPA_AGGREGATES)) {
+            GpaAggregateReportDTO report = gpaAggregateService.check();
+            log.info("GPA aggregate check: {} stale students {}", report.getStaleStudentCount(),
+                    report.getStaleStudentIds());
+            exitCode = report.getStaleStudentCount() == 0 ? 0 : 1;
+        }
+        if (args.containsOption(REBUILD_GPA_AGGREGATES)) {
+            GpaAggregateReportDTO report = gpaAggregateService.rebuild();
+            log.info("GPA aggregate rebuild: {} stale students repaired, {} students rewritten",
+                    report.getStaleStudentCount(), report.getRebuiltStudentCount());
+        }
+        if (args.containsOption(IMPORT_ENROLLMENTS)) {
+            List<String> files = args.getOptionValues(IMPORT_ENROLLMENTS);
+            if (files.isEmpty()) {
+                log.error("--{} requires a file, e.g. --{}=enrollments.csv", IMPORT_ENROLLMENTS, IMPORT_ENROLLMENTS);
+                exitCode = 1;
+            }
+            for (String file : files) {
+                try {
+                    ImportReportDTO report = enrollmentImportService.importFile(Path.of(file));
+                    log.info("Enrollment import of {}: {} lines read, {} rows imported, {} lines rejected in {} ms",
+                            file, report.getLinesRead(), report.getRowsImported(), report.getRejectedLines(),
+                            report.getElapsedMillis());
+                    report.getRejections().forEach(rejection -> log.info("  line {}: {}",
+                            rejection.getLineNumber(), rejection.getReason()));
+                } catch (IOException | RuntimeException e) {
+                    log.error("Enrollment import of {} failed", file, e);
+                    exitCode = 1;
+                }
+            }
+        }
+    }
+
+    @Override
+    public int getExitCode() {
+        return exitCode;
+    }
+}
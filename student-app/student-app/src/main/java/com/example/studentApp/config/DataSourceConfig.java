@@ -0,0 +1,325 @@
+package com.example.studentApp.config;
+
+import com.example.studentApp.model.ShardedIdAllocator;
+import com.zaxxer.hikari.HikariDataSource;
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.sqlite.SQLiteConfig;
+import org.sqlite.SQLiteDataSource;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * The application's DataSource: SQLite connections opened in WAL mode, split into a writer pool and
+ * a pool of read-only connections.
+ *
+ * In SQLite's default rollback-journal mode a commit locks out every reader until it is done, so GETs
+ * wait for the writes of the write queue. In WAL mode readers keep reading the last committed state
+ * while a write is in progress; the only writer is the write queue's thread anyway.
+ *
+ * Steps:
+ * 1. Every connection applies its SQLite settings (journal mode, sync mode, busy timeout) when it is
+ *    opened, through the driver's connection properties.
+ * 2. The writer pool holds `writer-pool-size` connections (one by default), used by writes and by
+ *    everything outside a read-only transaction.
+ * 3. The reader pool holds `reader-pool-size` read-only connections, used by `@Transactional(readOnly = true)`
+ *    methods (see ReadWriteRoutingDataSource).
+ * 4. A LazyConnectionDataSourceProxy defers choosing the pool until the first statement of a transaction,
+ *    when its read-only flag is known.
+ *
+ * Both pools take the `spring.datasource.hikari.*` settings, except for their size. With
+ * `student-app.datasource.read-write-split=false` there is a single pool of reader-pool-size + writer-pool-size
+ * connections, unless `spring.datasource.hikari.maximum-pool-size` is set.
+ *
+ * With `student-app.sharding.shards` above 1, each shard is a database file of its own, set up as above
+ * (pools included), and a ShardRoutingDataSource between the lazy proxy and the shards picks the shard of
+ * the current thread. Shard 0 is the `spring.datasource.url` file; shard k inserts `-shard<k>` before its
+ * `.db` extension. Flyway migrates every shard, and ShardBalancer then moves misplaced rows to their shard,
+ * including the rows of shard files left over from a start with more shards.
+ */
+@Configuration
+public class DataSourceConfig {
+
+    private static final String SQLITE_URL_PREFIX = "jdbc:sqlite:";
+
+    /**
+     * Creates the DataSource used by JPA, Flyway and the JdbcTemplate.
+     *
+     * @param properties The `spring.datasource.*` connection settings.
+     * @param environment The environment holding the `spring.datasource.hikari.*` pool settings.
+     * @param readWriteSplit Whether to route read-only transactions to a separate pool.
+     * @param journalMode SQLite journal mode set by writer connections (WAL, DELETE, ...).
+     * @param synchronous SQLite sync mode of writer connections (FULL, NORMAL, OFF).
+     * @param busyTimeoutMillis How long a connection waits for a lock held by another connection.
+     * @param readerPoolSize Number of read-only connections.
+     * @param writerPoolSize Number of writer connections.
+     * @param shardCount Number of shards (database files); 1 disables sharding.
+     * @return The routing DataSource behind a lazy proxy, or the single pool.
+     */
+    @Bean
+    public DataSource dataSource(DataSourceProperties properties, Environment environment,
+                                 @Value("${student-app.datasource.read-write-split:true}") boolean readWriteSplit,
+                                 @Value("${student-app.datasource.journal-mode:WAL}") String journalMode,
+                                 @Value("${student-app.datasource.synchronous:FULL}") String synchronous,
+                                 @Value("${student-app.datasource.busy-timeout-ms:5000}") int busyTimeoutMillis,
+                                 @Value("${student-app.datasource.reader-pool-size:8}") int readerPoolSize,
+                                 @Value("${student-app.datasource.writer-pool-size:1}") int writerPoolSize,
+                                 @Value("${student-app.sharding.shards:1}") int shardCount) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("student-app.sharding.shards must be at least 1");
+        }
+        // The journal mode is stored in the database file, so setting it on the writer connections is enough
+        SQLiteConfig writerSettings = new SQLiteConfig();
+        writerSettings.setJournalMode(SQLiteConfig.JournalMode.valueOf(journalMode.toUpperCase(Locale.ROOT)));
+        writerSettings.setSynchronous(SQLiteConfig.SynchronousMode.valueOf(synchronous.toUpperCase(Locale.ROOT)));
+        writerSettings.setBusyTimeout(busyTimeoutMillis);
+        if (shardCount == 1) {
+            DataSource shard = shard(properties, environment, properties.determineUrl(), "student-app", readWriteSplit,
+                    writerSettings, busyTimeoutMillis, readerPoolSize, writerPoolSize);
+            return shard instanceof ReadWriteRoutingDataSource routing ? new RoutingDataSourceProxy(routing) : shard;
+        }
+
+        List<DataSource> shards = new ArrayList<>(shardCount);
+        for (int k = 0; k < shardCount; k++) {
+            String url = k == 0 ? properties.determineUrl() : shardUrl(properties.determineUrl(), k);
+            String name = k == 0 ? "student-app" : "student-app-shard" + k;
+            shards.add(shard(properties, environment, url, name, readWriteSplit,
+                    writerSettings, busyTimeoutMillis, readerPoolSize, writerPoolSize));
+        }
+        ShardRoutingDataSource routing = new ShardRoutingDataSource(shards);
+        routing.afterPropertiesSet();
+        return new RoutingDataSourceProxy(routing);
+    }
+
+    /**
+     * Hands the sharded ID allocator to SequentialIdGenerator, through the Hibernate settings, so that
+     * the IDs Hibernate generates are unique across shards.
+     *
+     * @param dataSource The application's DataSource.
+     * @return A customizer that adds the allocator when the database is sharded.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer shardedIdAllocatorCustomizer(DataSource dataSource) {
+        return hibernateProperties -> {
+            ShardRoutingDataSource shards = ShardRoutingDataSource.of(dataSource);
+            if (shards != null) {
+                hibernateProperties.put(ShardedIdAllocator.HIBERNATE_SETTING, shards.getIdAllocator());
+            }
+        };
+    }
+
+    /**
+     * Migrates every shard with the configuration of the application's Flyway (which migrates shard 0),
+     * then moves rows that are not on their shard.
+     *
+     * The files of shards at or above the number of shards, left by a start with more shards (sharding
+     * turned off included), are migrated as well, drained into the shards and deleted; otherwise their
+     * students would be lost and their IDs handed out again.
+     *
+     * @param properties The `spring.datasource.*` connection settings, for the shard file names.
+     * @return The migration strategy; without sharding or surplus shard files it only runs the usual migration.
+     */
+    @Bean
+    public FlywayMigrationStrategy shardedMigrationStrategy(DataSourceProperties properties) {
+        return flyway -> {
+            flyway.migrate();
+            ShardRoutingDataSource routing = ShardRoutingDataSource.of(flyway.getConfiguration().getDataSource());
+            int shardCount = routing != null ? routing.getShardCount() : 1;
+            List<Path> surplusFiles = surplusShardFiles(properties.determineUrl(), shardCount);
+            if (routing == null && surplusFiles.isEmpty()) {
+                return;
+            }
+
+            List<DataSource> shards = new ArrayList<>(shardCount);
+            shards.add(routing != null ? routing.getShard(0) : flyway.getConfiguration().getDataSource());
+            for (int k = 1; k < shardCount; k++) {
+                shards.add(routing.getShard(k));
+            }
+            List<DataSource> surplus = new ArrayList<>(surplusFiles.size());
+            for (Path file : surplusFiles) {
+                SQLiteDataSource source = new SQLiteDataSource();
+                source.setUrl(SQLITE_URL_PREFIX + file);
+                surplus.add(source);
+            }
+            for (DataSource shard : concat(shards.subList(1, shards.size()), surplus)) {
+                Flyway.configure(flyway.getConfiguration().getClassLoader())
+                        .configuration(flyway.getConfiguration())
+                        .dataSource(shard)
+                        .load()
+                        .migrate();
+            }
+            try {
+                new ShardBalancer(shards, surplus).run();
+                for (int i = 0; i < surplusFiles.size(); i++) {
+                    if (!ShardBalancer.isDrained(surplus.get(i))) {
+                        throw new IllegalStateException("Surplus shard " + surplusFiles.get(i) + " was not drained");
+                    }
+                    deleteDatabaseFile(surplusFiles.get(i));
+                }
+            } catch (SQLException e) {
+                throw new IllegalStateException("Could not move rows to their shard", e);
+            }
+        };
+    }
+
+    /**
+     * Lists the files of the shards numbered shardCount and above next to the database file, e.g. the
+     * `-shard2` file after going from three shards to two.
+     *
+     * @param url The `spring.datasource.url` (shard 0).
+     * @param shardCount The number of shards.
+     * @return The surplus shard files, by shard number; none for an in-memory or non-SQLite database.
+     */
+    static List<Path> surplusShardFiles(String url, int shardCount) {
+        Path database = databaseFile(url);
+        if (database == null) {
+            return List.of();
+        }
+        database = database.toAbsolutePath();
+        String name = database.getFileName().toString();
+        String extension = name.endsWith(".db") ? ".db" : "";
+        Pattern shardName = Pattern.compile(Pattern.quote(name.substring(0, name.length() - extension.length()))
+                + "-shard(\\d+)" + Pattern.quote(extension));
+        TreeMap<Integer, Path> surplus = new TreeMap<>();
+        try (Stream<Path> files = Files.list(database.getParent())) {
+            files.forEach(file -> {
+                Matcher matcher = shardName.matcher(file.getFileName().toString());
+                if (matcher.matches() && Integer.parseInt(matcher.group(1)) >= shardCount) {
+                    surplus.put(Integer.parseInt(matcher.group(1)), file);
+                }
+            });
+        } catch (NoSuchFileException e) {
+            return List.of();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return List.copyOf(surplus.values());
+    }
+
+    /**
+     * Returns the database file of a SQLite JDBC URL.
+     *
+     * @param url A `spring.datasource.url`.
+     * @return The file, as given in the URL; null for an in-memory, URI-style or non-SQLite URL.
+     */
+    public static Path databaseFile(String url) {
+        if (url == null || !url.startsWith(SQLITE_URL_PREFIX)) {
+            return null;
+        }
+        String path = url.substring(SQLITE_URL_PREFIX.length());
+        int query = path.indexOf('?');
+        path = query >= 0 ? path.substring(0, query) : path;
+        if (path.isEmpty() || path.startsWith(":") || path.startsWith("file:")) {
+            return null;
+        }
+        return Path.of(path);
+    }
+
+    // Deletes a drained database file together with the WAL files SQLite keeps next to it.
+    private static void deleteDatabaseFile(Path file) {
+        try {
+            for (String suffix : List.of("-wal", "-shm", "")) {
+                Files.deleteIfExists(file.resolveSibling(file.getFileName() + suffix));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not delete the drained shard " + file, e);
+        }
+    }
+
+    private static List<DataSource> concat(List<DataSource> first, List<DataSource> second) {
+        List<DataSource> all = new ArrayList<>(first);
+        all.addAll(second);
+        return all;
+    }
+
+    // Creates the DataSource of one database file: a writer and a reader pool, or a single pool.
+    private static DataSource shard(DataSourceProperties properties, Environment environment, String url, String name,
+                                    boolean readWriteSplit, SQLiteConfig writerSettings, int busyTimeoutMillis,
+                                    int readerPoolSize, int writerPoolSize) {
+        if (!readWriteSplit) {
+            HikariDataSource pool = pool(properties, environment, url, name, writerSettings);
+            // Unless sized explicitly, the single pool holds as many connections as the two pools would
+            if (!environment.containsProperty("spring.datasource.hikari.maximum-pool-size")) {
+                pool.setMaximumPoolSize(readerPoolSize + writerPoolSize);
+            }
+            return pool;
+        }
+
+        HikariDataSource writer = pool(properties, environment, url, name + "-writer", writerSettings);
+        writer.setMaximumPoolSize(writerPoolSize);
+
+        // Explicit read-only mode lets the driver switch the connection with setReadOnly(true) (PRAGMA query_only);
+        // the pool opens them read-only and resets them to read-only when they are returned
+        SQLiteConfig readerSettings = new SQLiteConfig();
+        readerSettings.setBusyTimeout(busyTimeoutMillis);
+        readerSettings.setExplicitReadOnly(true);
+        HikariDataSource readers = pool(properties, environment, url, name + "-reader", readerSettings);
+        readers.setMaximumPoolSize(readerPoolSize);
+        readers.setReadOnly(true);
+
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(readers, writer);
+        routing.afterPropertiesSet();
+        return routing;
+    }
+
+    // The URL of shard k: `-shard<k>` inserted before the `.db` extension, or appended without one.
+    private static String shardUrl(String url, int shard) {
+        String suffix = "-shard" + shard;
+        return url.endsWith(".db") ? url.substring(0, url.length() - 3) + suffix + ".db" : url + suffix;
+    }
+
+    // Creates a pool with the Spring Boot connection and pool settings and the given SQLite settings.
+    private static HikariDataSource pool(DataSourceProperties properties, Environment environment, String url,
+                                         String name, SQLiteConfig settings) {
+        HikariDataSource pool = properties.initializeDataSourceBuilder().type(HikariDataSource.class).url(url).build();
+        // Applied the way Spring Boot applies them to the pool it creates itself
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+        pool.setPoolName(name);
+        pool.setDataSourceProperties(settings.toProperties());
+        return pool;
+    }
+
+    /**
+     * The lazy proxy in front of the routing DataSource. Closing it, when the context shuts down, closes every pool.
+     */
+    static final class RoutingDataSourceProxy extends LazyConnectionDataSourceProxy implements Closeable {
+        private final Closeable routing;
+
+        <T extends DataSource & Closeable> RoutingDataSourceProxy(T routing) {
+            super(routing);
+            this.routing = routing;
+        }
+
+        @Override
+        public void close() {
+            try {
+                routing.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
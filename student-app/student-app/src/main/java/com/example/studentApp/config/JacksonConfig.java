@@ -0,0 +1,89 @@
+package com.example.studentApp.config;
+
+import com.example.studentApp.dto.CourseResponseDTO;
+import com.example.studentApp.dto.StudentResponseDTO;
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.boot.jackson.JsonMixin;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Jackson configuration: sparse fieldsets and the binary formats.
+ *
+ * Sparse fieldsets (the `fields` query parameter of the roster and the course list): the roster and course DTOs
+ * carry a property filter, attached through mix-ins so that only the application's ObjectMappers know about it
+ * (other mappers, e.g. in the benchmarks, serialize the DTOs as before). By default the filter writes every
+ * property; a controller narrows it per response with a MappingJacksonValue.
+ *
+ * Binary formats: CBOR (Accept: application/cbor) and Smile (Accept: application/x-jackson-smile) encode the same
+ * model as JSON without number formatting and parsing. Their converters replace Spring MVC's defaults, which would
+ * use plain mappers without the filters, and keep their place after the JSON converter, so JSON stays the default.
+ */
+@Configuration
+public class JacksonConfig {
+
+    // Filter ID of StudentResponseDTO
+    public static final String STUDENT_FILTER = "studentFields";
+    // Filter ID of CourseResponseDTO
+    public static final String COURSE_FILTER = "courseFields";
+
+    /**
+     * Registers the default filter, which writes every property, so that responses without a
+     * sparse fieldset (and the roster snapshot) are serialized in full.
+     *
+     * @return The customizer of the application's ObjectMapper.
+     */
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer sparseFieldsetFilters() {
+        return builder -> builder.filters(allFields());
+    }
+
+    /**
+     * Writes responses as CBOR with a mapper configured like the application's JSON mapper.
+     *
+     * @param builder Spring Boot's ObjectMapper builder (a new instance per injection point).
+     * @return The converter, replacing Spring MVC's default CBOR converter.
+     */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    /**
+     * Writes responses as Smile with a mapper configured like the application's JSON mapper.
+     *
+     * @param builder Spring Boot's ObjectMapper builder (a new instance per injection point).
+     * @return The converter, replacing Spring MVC's default Smile converter.
+     */
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+
+    /**
+     * Returns a filter provider that writes every property of every filtered DTO.
+     *
+     * @return A new provider, which callers may extend with narrower filters.
+     */
+    public static SimpleFilterProvider allFields() {
+        return new SimpleFilterProvider().setDefaultFilter(SimpleBeanPropertyFilter.serializeAll());
+    }
+
+    @JsonMixin(StudentResponseDTO.class)
+    @JsonFilter(STUDENT_FILTER)
+    interface StudentResponseFilter {
+    }
+
+    @JsonMixin(CourseResponseDTO.class)
+    @JsonFilter(COURSE_FILTER)
+    interface CourseResponseFilter {
+    }
+}
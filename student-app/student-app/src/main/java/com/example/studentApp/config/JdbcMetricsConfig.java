@@ -0,0 +1,121 @@
+package com.example.studentApp.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Counts and times every JDBC statement the application sends to the database.
+ *
+ * The pooled DataSource is wrapped in a datasource-proxy that reports each execution to a listener.
+ * The listener records:
+ * - `jdbc_statements_seconds`: one sample per execution (a JDBC batch is one execution),
+ *   tagged by statement type (select, insert, update, delete, other), batch or not, and outcome.
+ * - `jdbc_statements_executed_total`: the number of statements, counting each entry of a batch,
+ *   by statement type.
+ *
+ * The proxy delegates `unwrap` to the pool, so the Hikari pool metrics still find the pool.
+ */
+@Configuration
+public class JdbcMetricsConfig {
+
+    /**
+     * Wraps the DataSource bean(s) in a statement-reporting proxy.
+     * Static, so the post-processor is created before the beans it processes.
+     *
+     * @param registry The meter registry, looked up when the first statement runs.
+     * @return The post-processor.
+     */
+    @Bean
+    public static BeanPostProcessor jdbcMetricsDataSourceWrapper(ObjectProvider<MeterRegistry> registry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource) {
+                    return ProxyDataSourceBuilder.create(dataSource)
+                            .name(beanName)
+                            .listener(new StatementMetricsListener(registry))
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+
+    /**
+     * Records a timer sample and a statement count for each execution.
+     */
+    static final class StatementMetricsListener implements QueryExecutionListener {
+        private final ObjectProvider<MeterRegistry> registryProvider;
+        private volatile MeterRegistry registry;
+
+        StatementMetricsListener(ObjectProvider<MeterRegistry> registryProvider) {
+            this.registryProvider = registryProvider;
+        }
+
+        @Override
+        public void beforeQuery(ExecutionInfo execution, List<QueryInfo> queries) {
+            // Nothing to do; the elapsed time is reported after execution
+        }
+
+        @Override
+        public void afterQuery(ExecutionInfo execution, List<QueryInfo> queries) {
+            MeterRegistry meters = registry();
+            if (meters == null || queries.isEmpty()) {
+                return;
+            }
+            String type = statementType(queries.get(0).getQuery());
+            Timer.builder("jdbc.statements")
+                    .description("JDBC statement executions")
+                    .tag("type", type)
+                    .tag("batch", Boolean.toString(execution.isBatch()))
+                    .tag("outcome", execution.isSuccess() ? "success" : "error")
+                    .register(meters)
+                    .record(execution.getElapsedTime(), TimeUnit.MILLISECONDS);
+            Counter.builder("jdbc.statements.executed")
+                    .description("JDBC statements executed, counting each entry of a batch")
+                    .tag("type", type)
+                    .register(meters)
+                    .increment(execution.isBatch() ? Math.max(1, execution.getBatchSize()) : queries.size());
+        }
+
+        // The registry is created after the DataSource, so it is resolved on first use.
+        private MeterRegistry registry() {
+            MeterRegistry meters = registry;
+            if (meters == null) {
+                meters = registryProvider.getIfAvailable();
+                registry = meters;
+            }
+            return meters;
+        }
+
+        // Classifies a statement by its first keyword.
+        static String statementType(String sql) {
+            String trimmed = sql.stripLeading();
+            int end = 0;
+            while (end < trimmed.length() && Character.isLetter(trimmed.charAt(end))) {
+                end++;
+            }
+            return switch (trimmed.substring(0, end).toLowerCase(Locale.ROOT)) {
+                case "select", "with" -> "select";
+                case "insert" -> "insert";
+                case "update" -> "update";
+                case "delete" -> "delete";
+                default -> "other";
+            };
+        }
+    }
+}
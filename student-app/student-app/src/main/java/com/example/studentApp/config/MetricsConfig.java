@@ -0,0 +1,212 @@
+package com.example.studentApp.config;
+
+import com.example.studentApp.service.ChangeJournal;
+import com.example.studentApp.service.CourseStatsIndex;
+import com.example.studentApp.service.GpaRankIndex;
+import com.example.studentApp.service.GradeCatalog;
+import com.example.studentApp.service.PinningMonitor;
+import com.example.studentApp.service.RosterSnapshotCache;
+import com.example.studentApp.service.StudentSearchIndex;
+import com.example.studentApp.service.WorkloadExecutors;
+import com.example.studentApp.service.WorkloadExecutors.Workload;
+import com.example.studentApp.service.WriteQueue;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Metrics configuration; everything is scraped from GET /actuator/prometheus.
+ *
+ * Most meters come from Spring Boot and Micrometer once the actuator is on the classpath:
+ * - `http_server_requests_seconds`: latency of every controller endpoint, by URI template and status.
+ * - `spring_data_repository_invocations_seconds`: every repository call, by repository and method.
+ * - `hikaricp_connections_*`: pool size, active, idle and pending connections, acquire time
+ *   (of the writer pool; this class adds the reader pool, tagged `pool=student-app-reader`, and the pools
+ *   of the other shards when the database is sharded, e.g. `pool=student-app-shard1-writer`).
+ * - `hibernate_*`: session statistics (entities loaded, collections fetched, queries, flushes).
+ * - `jvm_*`, `process_*`: memory, GC and threads.
+ *
+ * This class adds:
+ * - Timers for the `@Timed` service classes (`service_calls_seconds`, tagged by class and method).
+ * - The application's own counters: write queue grouping, grade catalog hits, GPA ranking, course statistics and
+ *   search index sizes, roster snapshot freshness and rebuilds, database executor queues and load shedding,
+ *   virtual thread pinning, and the change journal.
+ *
+ * JDBC statement metrics are configured in JdbcMetricsConfig.
+ */
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Times the methods of classes and methods annotated with `@Timed`.
+     *
+     * @param registry The meter registry.
+     * @return The aspect applied to `@Timed` beans.
+     */
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry registry) {
+        return new TimedAspect(registry);
+    }
+
+    /**
+     * Publishes the connection pool metrics of the read-only pool, and of every pool of the other shards.
+     * Spring Boot only binds the pool it finds behind the DataSource bean, which for the routing
+     * DataSources is the writer pool (of shard 0).
+     *
+     * @param dataSource The application's DataSource.
+     * @return A binder registering the meters (none with a single pool).
+     */
+    @Bean
+    public MeterBinder poolMeters(DataSource dataSource) {
+        return registry -> {
+            List<HikariDataSource> pools = new ArrayList<>();
+            ShardRoutingDataSource shards = ShardRoutingDataSource.of(dataSource);
+            try {
+                if (shards != null) {
+                    pools.addAll(shards.getPools());
+                } else if (dataSource.isWrapperFor(ReadWriteRoutingDataSource.class)) {
+                    pools.add(dataSource.unwrap(ReadWriteRoutingDataSource.class).getReaders());
+                }
+            } catch (SQLException e) {
+                throw new IllegalStateException("Could not unwrap the DataSource", e);
+            }
+            for (HikariDataSource pool : pools) {
+                if (pool.getMetricsTrackerFactory() == null) {
+                    pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+                }
+            }
+        };
+    }
+
+    /**
+     * Publishes the counters the application already keeps for its admin endpoints.
+     *
+     * @param writeQueue The group-commit writer.
+     * @param gradeCatalog The in-memory grade catalog.
+     * @param gpaRankIndex The in-memory GPA ranking.
+     * @param courseStatsIndex The in-memory course statistics.
+     * @param studentSearchIndex The in-memory student search index.
+     * @param rosterSnapshotCache The pre-serialized roster.
+     * @param workloadExecutors The database executors of the asynchronous endpoints.
+     * @param pinningMonitor The virtual thread pinning monitor.
+     * @param changeJournal The change journal.
+     * @return A binder registering the meters.
+     */
+    @Bean
+    public MeterBinder studentAppMeters(WriteQueue writeQueue, GradeCatalog gradeCatalog,
+                                        GpaRankIndex gpaRankIndex, CourseStatsIndex courseStatsIndex,
+                                        StudentSearchIndex studentSearchIndex, RosterSnapshotCache rosterSnapshotCache,
+                                        WorkloadExecutors workloadExecutors, PinningMonitor pinningMonitor,
+                                        ChangeJournal changeJournal) {
+        return registry -> {
+            // Group commit: writes per group = writes / groups
+            FunctionCounter.builder("student_app.writer.groups", writeQueue, WriteQueue::getCommittedGroups)
+                    .description("Transactions committed by the writer thread").register(registry);
+            FunctionCounter.builder("student_app.writer.writes", writeQueue, WriteQueue::getCommittedWrites)
+                    .description("Writes committed by the writer thread").register(registry);
+            FunctionCounter.builder("student_app.writer.replayed.groups", writeQueue, WriteQueue::getReplayedGroups)
+                    .description("Groups that failed and were replayed write by write").register(registry);
+            Gauge.builder("student_app.writer.queue.depth", writeQueue, WriteQueue::getQueueDepth)
+                    .description("Writes waiting for the writer thread").register(registry);
+
+            // Grade catalog
+            Gauge.builder("student_app.grade.catalog.size", gradeCatalog, catalog -> catalog.getStats().getSize())
+                    .description("Grades held in memory").register(registry);
+            FunctionCounter.builder("student_app.grade.catalog.lookups", gradeCatalog,
+                            catalog -> catalog.getStats().getHits())
+                    .tag("result", "hit").description("Grade lookups served from memory").register(registry);
+            FunctionCounter.builder("student_app.grade.catalog.lookups", gradeCatalog,
+                            catalog -> catalog.getStats().getMisses())
+                    .tag("result", "miss").description("Grade lookups that went to the database").register(registry);
+
+            // GPA ranking
+            Gauge.builder("student_app.rank.students", gpaRankIndex, GpaRankIndex::getRankedStudents)
+                    .description("Students in the in-memory GPA ranking (0 until it is loaded)").register(registry);
+            FunctionCounter.builder("student_app.rank.loads", gpaRankIndex, GpaRankIndex::getLoads)
+                    .description("Times the GPA ranking was loaded from the database").register(registry);
+
+            // Course statistics
+            Gauge.builder("student_app.course.stats.courses", courseStatsIndex, CourseStatsIndex::getCourseCount)
+                    .description("Course names with in-memory grade statistics").register(registry);
+
+            // Student search index
+            Gauge.builder("student_app.search.index.students", studentSearchIndex,
+                            index -> index.getStats().getStudents())
+                    .description("Students in the in-memory search index").register(registry);
+            Gauge.builder("student_app.search.index.size", studentSearchIndex,
+                            index -> index.getStats().getEstimatedBytes())
+                    .baseUnit("bytes").description("Estimated heap footprint of the search index").register(registry);
+
+            // Roster snapshot: freshness, rebuild time (rebuild sum / count) and size per encoding
+            Gauge.builder("student_app.roster.snapshot.lag", rosterSnapshotCache, RosterSnapshotCache::getLagSeconds)
+                    .baseUnit("seconds").description("How long the roster snapshot has been missing a committed write")
+                    .register(registry);
+            FunctionTimer.builder("student_app.roster.snapshot.rebuild", rosterSnapshotCache,
+                            RosterSnapshotCache::getRebuilds, RosterSnapshotCache::getRebuildSeconds, TimeUnit.SECONDS)
+                    .description("Roster snapshot rebuilds (query, serialization and gzip)").register(registry);
+            FunctionCounter.builder("student_app.roster.snapshot.rebuild.failures", rosterSnapshotCache,
+                            RosterSnapshotCache::getFailedRebuilds)
+                    .description("Roster snapshot rebuilds that failed and were retried").register(registry);
+            Gauge.builder("student_app.roster.snapshot.size", rosterSnapshotCache, RosterSnapshotCache::getJsonBytes)
+                    .tag("encoding", "identity").baseUnit("bytes").description("Size of the roster snapshot")
+                    .register(registry);
+            Gauge.builder("student_app.roster.snapshot.size", rosterSnapshotCache, RosterSnapshotCache::getGzipBytes)
+                    .tag("encoding", "gzip").baseUnit("bytes").description("Size of the roster snapshot")
+                    .register(registry);
+
+            // Database executors per workload class: queue depth, busy threads, rejections (503s) and queue wait
+            for (Workload workload : Workload.values()) {
+                Gauge.builder("student_app.async.queue.depth", workloadExecutors, executors -> executors.getQueueDepth(workload))
+                        .tag("workload", workload.tag()).description("Tasks waiting for a database executor thread")
+                        .register(registry);
+                Gauge.builder("student_app.async.active", workloadExecutors, executors -> executors.getActiveThreads(workload))
+                        .tag("workload", workload.tag()).description("Database executor threads running a task")
+                        .register(registry);
+                FunctionCounter.builder("student_app.async.rejections", workloadExecutors,
+                                executors -> executors.getRejections(workload))
+                        .tag("workload", workload.tag()).description("Tasks rejected because the queue was full (503)")
+                        .register(registry);
+                FunctionTimer.builder("student_app.async.wait", workloadExecutors,
+                                executors -> executors.getStartedTasks(workload),
+                                executors -> executors.getWaitSeconds(workload), TimeUnit.SECONDS)
+                        .tag("workload", workload.tag()).description("Time tasks waited for a database executor thread")
+                        .register(registry);
+            }
+
+            // Virtual thread pinning (zero unless virtual threads are enabled)
+            FunctionCounter.builder("student_app.virtual.threads.pinned", pinningMonitor,
+                            PinningMonitor::getPinnedEvents)
+                    .description("Virtual thread pinning events").register(registry);
+            FunctionCounter.builder("student_app.virtual.threads.pinned.time", pinningMonitor,
+                            monitor -> monitor.getPinnedNanos() / (double) TimeUnit.SECONDS.toNanos(1))
+                    .baseUnit("seconds").description("Time virtual threads spent pinned").register(registry);
+
+            // Change journal: appends, snapshots, fallbacks to a table scan, startup restore time and disk use
+            FunctionCounter.builder("student_app.journal.records", changeJournal, ChangeJournal::getAppendedRecords)
+                    .description("Records appended to the change journal").register(registry);
+            FunctionCounter.builder("student_app.journal.snapshots", changeJournal, ChangeJournal::getSnapshots)
+                    .description("Change journal snapshots written").register(registry);
+            FunctionCounter.builder("student_app.journal.table.scans", changeJournal, ChangeJournal::getTableScans)
+                    .description("Times the journaled state was rebuilt by scanning the tables").register(registry);
+            Gauge.builder("student_app.journal.restore", changeJournal, ChangeJournal::getRestoreSeconds)
+                    .baseUnit("seconds").description("Time the startup restore of the change journal took")
+                    .register(registry);
+            Gauge.builder("student_app.journal.size", changeJournal, ChangeJournal::getDiskBytes)
+                    .baseUnit("bytes").description("Size of the change journal's segments and snapshots")
+                    .register(registry);
+        };
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.studentApp.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.Closeable;
+import java.util.Map;
+
+/**
+ * Sends read-only transactions to a pool of read-only connections and everything else to the writer pool.
+ *
+ * The route is decided when a connection is requested: `@Transactional(readOnly = true)` methods
+ * (and Spring Data's query methods, which are read-only by default) go to READ, while writes, the
+ * write queue's group transactions and work outside any transaction (Flyway, Hibernate's startup
+ * checks) go to WRITE. JPA transactions request their connection before Spring marks them read-only,
+ * so this DataSource must be used behind a LazyConnectionDataSourceProxy, which defers the request
+ * until the first statement (see DataSourceConfig).
+ *
+ * In WAL mode a reader sees the last committed state while the writer holds the write lock, so
+ * reads on the READ pool never wait for writes.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+
+    /**
+     * The two connection pools.
+     */
+    public enum Route {
+        READ,
+        WRITE
+    }
+
+    // Pool of read-only connections
+    private final HikariDataSource readers;
+    // Pool of the writer connection(s)
+    private final HikariDataSource writer;
+
+    /**
+     * Creates the routing DataSource; call afterPropertiesSet() before use.
+     *
+     * @param readers Pool of read-only connections.
+     * @param writer Pool used for writes and for work outside read-only transactions.
+     */
+    public ReadWriteRoutingDataSource(HikariDataSource readers, HikariDataSource writer) {
+        this.readers = readers;
+        this.writer = writer;
+        setTargetDataSources(Map.of(Route.READ, readers, Route.WRITE, writer));
+        setDefaultTargetDataSource(writer);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly() ? Route.READ : Route.WRITE;
+    }
+
+    // The pool of read-only connections.
+    public HikariDataSource getReaders() {
+        return readers;
+    }
+
+    // The writer pool.
+    public HikariDataSource getWriter() {
+        return writer;
+    }
+
+    /**
+     * Closes both pools.
+     */
+    @Override
+    public void close() {
+        readers.close();
+        writer.close();
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.studentApp.config;
+
+import com.example.studentApp.dto.CourseResponseDTO;
+import com.example.studentApp.dto.RosterProtobuf;
+import com.example.studentApp.dto.StudentPageDTO;
+import com.example.studentApp.dto.StudentResponseDTO;
+import org.springframework.core.ResolvableType;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJacksonValue;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.List;
+
+/**
+ * Writes the roster (a list or page of StudentResponseDTOs) and the course list as Protobuf
+ * (Accept: application/x-protobuf), see RosterProtobuf and src/main/proto/roster.proto.
+ *
+ * Only those bodies can be written; other endpoints answer 406 to a Protobuf-only Accept header.
+ * A body wrapped for a sparse fieldset (MappingJacksonValue) is unwrapped: the service has already
+ * left the unrequested fields empty, and Protobuf does not write empty fields.
+ * Registered after the JSON converter (see WebConfig), so JSON stays the default.
+ */
+public class RosterProtobufHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    /**
+     * The media type of the Protobuf representation.
+     */
+    public static final MediaType PROTOBUF = new MediaType("application", "x-protobuf");
+
+    public RosterProtobufHttpMessageConverter() {
+        super(PROTOBUF);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return MappingJacksonValue.class.isAssignableFrom(clazz) || StudentPageDTO.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        if (!canWrite(mediaType)) {
+            return false;
+        }
+        if (supports(clazz)) {
+            return true;
+        }
+        // A list of the two DTOs, e.g. ResponseEntity<List<CourseResponseDTO>>
+        ResolvableType resolved = type != null ? ResolvableType.forType(type) : ResolvableType.forClass(clazz);
+        if (!List.class.isAssignableFrom(resolved.toClass())) {
+            return false;
+        }
+        Class<?> element = resolved.asCollection().resolveGeneric(0);
+        return element == StudentResponseDTO.class || element == CourseResponseDTO.class;
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return false; // Request bodies stay JSON
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Protobuf request bodies are not supported", inputMessage);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Protobuf request bodies are not supported", inputMessage);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected void writeInternal(Object body, Type type, HttpOutputMessage outputMessage) throws IOException {
+        Object value = body instanceof MappingJacksonValue wrapper ? wrapper.getValue() : body;
+        if (value instanceof StudentPageDTO page) {
+            RosterProtobuf.writeStudentPage(page, outputMessage.getBody());
+        } else if (value instanceof List<?> list && list.stream().allMatch(StudentResponseDTO.class::isInstance)) {
+            // Also the empty list, which encodes like an empty CourseList
+            RosterProtobuf.writeStudents((List<StudentResponseDTO>) list, outputMessage.getBody());
+        } else if (value instanceof List<?> list && list.stream().allMatch(CourseResponseDTO.class::isInstance)) {
+            RosterProtobuf.writeCourses((List<CourseResponseDTO>) list, outputMessage.getBody());
+        } else {
+            throw new HttpMessageNotWritableException("No Protobuf schema for " + value.getClass().getName());
+        }
+    }
+}
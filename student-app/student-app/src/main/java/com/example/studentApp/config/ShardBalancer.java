@@ -0,0 +1,256 @@
+package com.example.studentApp.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Puts the rows of a sharded database where ShardRoutingDataSource looks for them. Runs at startup,
+ * after the migrations and before anything reads the shards.
+ *
+ * Steps:
+ * 1. Copy the grade table of shard 0 to every other shard (courses join it on their own shard). A grade
+ *    that another shard has and shard 0 lacks is a copy whose insert on shard 0 never happened (see
+ *    GradeService); it is deleted, or added to shard 0 if a course already uses it.
+ * 2. Move every student whose ID hashes to another shard there, together with their courses.
+ * 3. Move every student of a surplus shard (a file left by a start with more shards) to their shard,
+ *    together with their courses; courses without a student go to shard 0.
+ *
+ * Turning sharding on for an existing database leaves every student on shard 0, and changing the
+ * number of shards changes where students belong; both are fixed here. Lowering the number of shards
+ * leaves the files of the shards above it, which are drained in step 3 (and then deleted by
+ * DataSourceConfig), so their IDs are seen by the ID allocator again. Rows are copied with
+ * `insert or ignore` and committed on their new shard before they are deleted from the old one,
+ * so a start interrupted half-way finishes the move the next time.
+ */
+final class ShardBalancer {
+    private static final Logger log = LoggerFactory.getLogger(ShardBalancer.class);
+
+    // Number of students moved per transaction
+    private static final int CHUNK_SIZE = 500;
+
+    // The DataSource of each shard, by index
+    private final List<DataSource> shards;
+    // The DataSources of the surplus shard files, emptied into the shards
+    private final List<DataSource> surplus;
+
+    /**
+     * Creates the balancer.
+     *
+     * @param shards The DataSource of each shard, by index (a single one without sharding).
+     * @param surplus The DataSources of the shard files beyond the number of shards.
+     */
+    ShardBalancer(List<DataSource> shards, List<DataSource> surplus) {
+        this.shards = List.copyOf(shards);
+        this.surplus = List.copyOf(surplus);
+    }
+
+    /**
+     * Runs the three steps.
+     *
+     * @throws SQLException if a shard cannot be read or written.
+     */
+    void run() throws SQLException {
+        long start = System.nanoTime();
+        int orphans = removeOrphanGrades();
+        int grades = copyGrades();
+        long[] moved = new long[2]; // {students, courses}
+        for (int shard = 0; shard < shards.size(); shard++) {
+            moveMisplaced(shards.get(shard), shard, moved);
+        }
+        for (DataSource source : surplus) {
+            moveMisplaced(source, -1, moved);
+            moved[1] += moveCoursesWithoutStudent(source);
+        }
+        log.info("Checked {} shards and {} surplus shards: {} orphan grades removed, {} grades copied, "
+                        + "{} students and {} courses moved in {} ms", shards.size(), surplus.size(), orphans, grades,
+                moved[0], moved[1], (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // Moves the students of a shard (-1 for a surplus shard) that belong on another shard, in chunks.
+    private void moveMisplaced(DataSource source, int shard, long[] moved) throws SQLException {
+        for (Map.Entry<Integer, List<Long>> target : findMisplaced(source, shard).entrySet()) {
+            List<Long> ids = target.getValue();
+            for (int from = 0; from < ids.size(); from += CHUNK_SIZE) {
+                move(source, shards.get(target.getKey()), ids.subList(from, Math.min(from + CHUNK_SIZE, ids.size())),
+                        moved);
+            }
+        }
+    }
+
+    // Deletes the grades of the other shards that shard 0 lacks and no course uses, and adds the used ones
+    // to shard 0; returns the number deleted.
+    private int removeOrphanGrades() throws SQLException {
+        int removed = 0;
+        try (Connection primary = shards.get(0).getConnection()) {
+            Set<Long> primaryIds = new HashSet<>();
+            try (Statement statement = primary.createStatement();
+                 ResultSet rs = statement.executeQuery("select id from grade")) {
+                while (rs.next()) {
+                    primaryIds.add(rs.getLong(1));
+                }
+            }
+            for (int shard = 1; shard < shards.size(); shard++) {
+                try (Connection copy = shards.get(shard).getConnection();
+                     PreparedStatement query = copy.prepareStatement("select id, letter, score, "
+                             + "exists (select 1 from course where course.grade_id = grade.id) from grade");
+                     PreparedStatement delete = copy.prepareStatement("delete from grade where id = ?");
+                     PreparedStatement insert = primary.prepareStatement(
+                             "insert or ignore into grade (id, letter, score) values (?, ?, ?)")) {
+                    try (ResultSet rs = query.executeQuery()) {
+                        while (rs.next()) {
+                            long id = rs.getLong(1);
+                            if (primaryIds.contains(id)) {
+                                continue;
+                            }
+                            if (rs.getBoolean(4)) {
+                                insert.setLong(1, id);
+                                insert.setString(2, rs.getString(2));
+                                insert.setDouble(3, rs.getDouble(3));
+                                insert.executeUpdate();
+                                primaryIds.add(id);
+                            } else {
+                                delete.setLong(1, id);
+                                removed += delete.executeUpdate();
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return removed;
+    }
+
+    // Copies the grades of shard 0 that another shard is missing; returns the number of copies.
+    private int copyGrades() throws SQLException {
+        int copied = 0;
+        try (Connection primary = shards.get(0).getConnection()) {
+            for (int shard = 1; shard < shards.size(); shard++) {
+                try (Connection copy = shards.get(shard).getConnection()) {
+                    copied += copy(primary, copy, "select id, letter, score from grade",
+                            "insert or ignore into grade (id, letter, score) values (?, ?, ?)", List.of());
+                }
+            }
+        }
+        return copied;
+    }
+
+    // Returns the IDs of the students on a shard (or referenced by its courses) that belong on another, by target shard.
+    private Map<Integer, List<Long>> findMisplaced(DataSource source, int shard) throws SQLException {
+        Map<Integer, List<Long>> misplaced = new TreeMap<>();
+        try (Connection connection = source.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(
+                     "select id from student union select student_id from course where student_id is not null")) {
+            while (rs.next()) {
+                long id = rs.getLong(1);
+                int target = ShardRoutingDataSource.shardOf(id, shards.size());
+                if (target != shard) {
+                    misplaced.computeIfAbsent(target, key -> new ArrayList<>()).add(id);
+                }
+            }
+        }
+        return misplaced;
+    }
+
+    // Copies students and their courses to the target shard, commits, then deletes them from the source.
+    private void move(DataSource source, DataSource target, List<Long> studentIds, long[] moved) throws SQLException {
+        String in = String.join(", ", Collections.nCopies(studentIds.size(), "?"));
+        try (Connection from = source.getConnection();
+             Connection to = target.getConnection()) {
+            to.setAutoCommit(false);
+            moved[0] += copy(from, to,
+                    "select id, email, name, grade_score_sum, graded_course_count from student where id in (" + in + ")",
+                    "insert or ignore into student (id, email, name, grade_score_sum, graded_course_count) "
+                            + "values (?, ?, ?, ?, ?)", studentIds);
+            moved[1] += copy(from, to,
+                    "select id, name, grade_id, student_id from course where student_id in (" + in + ")",
+                    "insert or ignore into course (id, name, grade_id, student_id) values (?, ?, ?, ?)", studentIds);
+            to.commit();
+
+            from.setAutoCommit(false);
+            for (String delete : List.of("delete from course where student_id in (" + in + ")",
+                    "delete from student where id in (" + in + ")")) {
+                try (PreparedStatement statement = from.prepareStatement(delete)) {
+                    bind(statement, studentIds);
+                    statement.executeUpdate();
+                }
+            }
+            from.commit();
+        }
+    }
+
+    // Moves the courses of a surplus shard that have no student to shard 0; returns the number moved.
+    private int moveCoursesWithoutStudent(DataSource source) throws SQLException {
+        try (Connection from = source.getConnection();
+             Connection to = shards.get(0).getConnection()) {
+            to.setAutoCommit(false);
+            int copied = copy(from, to, "select id, name, grade_id, student_id from course where student_id is null",
+                    "insert or ignore into course (id, name, grade_id, student_id) values (?, ?, ?, ?)", List.of());
+            to.commit();
+            try (Statement statement = from.createStatement()) {
+                statement.executeUpdate("delete from course where student_id is null");
+            }
+            return copied;
+        }
+    }
+
+    /**
+     * Checks that a surplus shard holds no student or course any more, before its file is deleted.
+     *
+     * @param source The DataSource of the surplus shard.
+     * @return Whether the shard is empty.
+     * @throws SQLException if the shard cannot be read.
+     */
+    static boolean isDrained(DataSource source) throws SQLException {
+        try (Connection connection = source.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(
+                     "select (select count(*) from student) + (select count(*) from course)")) {
+            return rs.next() && rs.getLong(1) == 0;
+        }
+    }
+
+    // Inserts the rows of a query on one connection into another in one JDBC batch; returns the number of rows read.
+    private static int copy(Connection from, Connection to, String select, String insert, List<Long> parameters)
+            throws SQLException {
+        int rows = 0;
+        try (PreparedStatement query = from.prepareStatement(select);
+             PreparedStatement statement = to.prepareStatement(insert)) {
+            bind(query, parameters);
+            try (ResultSet rs = query.executeQuery()) {
+                int columns = rs.getMetaData().getColumnCount();
+                while (rs.next()) {
+                    for (int column = 1; column <= columns; column++) {
+                        statement.setObject(column, rs.getObject(column));
+                    }
+                    statement.addBatch();
+                    rows++;
+                }
+            }
+            if (rows > 0) {
+                statement.executeBatch();
+            }
+        }
+        return rows;
+    }
+
+    private static void bind(PreparedStatement statement, List<Long> parameters) throws SQLException {
+        for (int i = 0; i < parameters.size(); i++) {
+            statement.setLong(i + 1, parameters.get(i));
+        }
+    }
+}
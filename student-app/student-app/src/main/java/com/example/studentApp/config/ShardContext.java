@@ -0,0 +1,58 @@
+package com.example.studentApp.config;
+
+import java.util.function.Supplier;
+
+/**
+ * Holds the shard the current thread works on, for ShardRoutingDataSource.
+ *
+ * A thread without a shard uses the default shard 0, which also holds everything that is not
+ * sharded. The shard must be set before the first statement of a transaction, since that statement
+ * picks the connection the whole transaction runs on.
+ */
+public final class ShardContext {
+
+    private static final ThreadLocal<Integer> CURRENT = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    /**
+     * Returns the current thread's shard.
+     *
+     * @return The shard, or null when none is set (the default shard).
+     */
+    public static Integer current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Sets the shard for the rest of the thread's life, e.g. for a shard's writer thread.
+     *
+     * @param shard The shard.
+     */
+    public static void set(int shard) {
+        CURRENT.set(shard);
+    }
+
+    /**
+     * Runs an action on a shard, then restores the thread's previous shard.
+     *
+     * @param shard The shard.
+     * @param action The action.
+     * @param <T> The result type.
+     * @return The action's result.
+     */
+    public static <T> T callOn(int shard, Supplier<T> action) {
+        Integer previous = CURRENT.get();
+        CURRENT.set(shard);
+        try {
+            return action.get();
+        } finally {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+}
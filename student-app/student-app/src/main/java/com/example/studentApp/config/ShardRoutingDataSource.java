@@ -0,0 +1,157 @@
+package com.example.studentApp.config;
+
+import com.example.studentApp.model.ShardedIdAllocator;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Splits the students, and the courses they take, across several SQLite files (shards), each with
+ * its own writer connection.
+ *
+ * A student lives on the shard its ID hashes to (see shardOf), together with all of their courses,
+ * so every per-student query stays on one shard. Every shard also holds a copy of the whole grade
+ * table, which the course queries join. Shard 0 is the default: it serves threads that have not
+ * picked a shard (see ShardContext) and is the shard Flyway, Hibernate's startup checks and the grade
+ * catalog read.
+ *
+ * Each shard is a DataSource of its own: a ReadWriteRoutingDataSource, or a single pool without the
+ * read/write split. Like that one, this DataSource is used behind a LazyConnectionDataSourceProxy, so
+ * the shard is picked at the first statement of a transaction.
+ *
+ * The shards also share one ID space (see ShardedIdAllocator), so an ID is unique across all of them.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+
+    // The shards, by index
+    private final List<DataSource> shards;
+    // Allocates the IDs of all shards
+    private final ShardedIdAllocator idAllocator;
+
+    /**
+     * Creates the routing DataSource; call afterPropertiesSet() before use.
+     *
+     * @param shards The DataSource of each shard, by index.
+     */
+    public ShardRoutingDataSource(List<DataSource> shards) {
+        this.shards = List.copyOf(shards);
+        Map<Object, Object> targets = new HashMap<>();
+        List<DataSource> readers = new ArrayList<>(shards.size());
+        for (int shard = 0; shard < shards.size(); shard++) {
+            targets.put(shard, shards.get(shard));
+            readers.add(readDataSource(shards.get(shard)));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(shards.get(0));
+        setLenientFallback(false); // An unknown shard is an error, not the default shard
+        this.idAllocator = new ShardedIdAllocator(readers);
+    }
+
+    /**
+     * Returns the sharded DataSource behind the application's DataSource.
+     *
+     * @param dataSource The application's DataSource (possibly wrapped in proxies).
+     * @return The ShardRoutingDataSource, or null when the database is not sharded.
+     */
+    public static ShardRoutingDataSource of(DataSource dataSource) {
+        try {
+            return dataSource.isWrapperFor(ShardRoutingDataSource.class)
+                    ? dataSource.unwrap(ShardRoutingDataSource.class)
+                    : null;
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not unwrap the DataSource", e);
+        }
+    }
+
+    /**
+     * Returns the shard a student, and their courses, live on.
+     *
+     * @param studentId The ID of the student.
+     * @param shardCount The number of shards.
+     * @return The shard, from 0 to shardCount - 1.
+     */
+    public static int shardOf(long studentId, int shardCount) {
+        // Finalizer of MurmurHash3: spreads consecutive IDs evenly, whatever the number of shards
+        long hash = studentId;
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return (int) Math.floorMod(hash, (long) shardCount);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return ShardContext.current();
+    }
+
+    // Number of shards.
+    public int getShardCount() {
+        return shards.size();
+    }
+
+    /**
+     * Returns the shard a student lives on.
+     *
+     * @param studentId The ID of the student.
+     * @return The shard.
+     */
+    public int shardOf(long studentId) {
+        return shardOf(studentId, shards.size());
+    }
+
+    // The DataSource of a shard; connections are routed to its reader or writer pool like the application's.
+    public DataSource getShard(int shard) {
+        return shards.get(shard);
+    }
+
+    // The IDs shared by all shards.
+    public ShardedIdAllocator getIdAllocator() {
+        return idAllocator;
+    }
+
+    /**
+     * Returns every connection pool of every shard.
+     *
+     * @return The pools, shard by shard.
+     */
+    public List<HikariDataSource> getPools() {
+        List<HikariDataSource> pools = new ArrayList<>();
+        for (DataSource shard : shards) {
+            if (shard instanceof ReadWriteRoutingDataSource routing) {
+                pools.add(routing.getWriter());
+                pools.add(routing.getReaders());
+            } else {
+                pools.add((HikariDataSource) shard);
+            }
+        }
+        return pools;
+    }
+
+    // The read-only pool of a shard, or its only pool without the read/write split.
+    private static DataSource readDataSource(DataSource shard) {
+        return shard instanceof ReadWriteRoutingDataSource routing ? routing.getReaders() : shard;
+    }
+
+    /**
+     * Closes the pools of every shard.
+     */
+    @Override
+    public void close() {
+        for (DataSource shard : shards) {
+            if (shard instanceof ReadWriteRoutingDataSource routing) {
+                routing.close();
+            } else {
+                ((HikariDataSource) shard).close();
+            }
+        }
+    }
+}
@@ -1,9 +1,24 @@
 package com.example.studentApp.config;
 
+// Importing the export controller, whose streamed responses have no timeout.
+import com.example.studentApp.controller.ExportController;
+
 // Importing the @Configuration annotation from Spring Framework
 // This annotation is used to mark a class as a source of bean definitions for the application context.
 import org.springframework.context.annotation.Configuration;
 
+// Importing HttpMessageConverter to register the Protobuf converter after the defaults.
+import org.springframework.http.converter.HttpMessageConverter;
+
+// Importing the types used to lift the async request timeout for the streamed exports.
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+
 // Importing CorsRegistry from Spring Framework
 // This class provides methods to define CORS (Cross-Origin Resource Sharing) configurations.
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
@@ -12,6 +27,9 @@ import org.springframework.web.servlet.config.annotation.CorsRegistry;
 // This interface allows customizing Spring MVC's default configurations, including CORS.
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import java.util.List;
+import java.util.concurrent.Callable;
+
 /**
  * Configuration class to set up CORS (Cross-Origin Resource Sharing) settings for the application.
  * This ensures the frontend can communicate with the backend, especially when hosted on different domains.
@@ -37,4 +55,38 @@ public class WebConfig implements WebMvcConfigurer {
                 // Enables credentials like cookies or session data to be sent with the request.
                 .allowCredentials(true);
     }
+
+    /**
+     * Adds the Protobuf converter of the roster and course list at the end of the message converters.
+     * Converter beans would be placed before the JSON converter and become the default for wildcard Accept headers;
+     * at the end it is only chosen when the client asks for application/x-protobuf.
+     *
+     * @param converters The converters configured by Spring Boot.
+     */
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(new RosterProtobufHttpMessageConverter());
+    }
+
+    /**
+     * Exempts the streamed exports of ExportController from `spring.mvc.async.request-timeout`: they keep
+     * writing for as long as it takes to read the whole table, while the other asynchronous endpoints wait
+     * for a single result and are answered with 503 when it takes too long.
+     *
+     * @param configurer The async support configured by Spring Boot.
+     */
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.registerCallableInterceptors(new CallableProcessingInterceptor() {
+            @Override
+            public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+                Object handler = request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE,
+                        RequestAttributes.SCOPE_REQUEST);
+                if (request instanceof AsyncWebRequest asyncRequest && handler instanceof HandlerMethod method
+                        && method.getBeanType() == ExportController.class) {
+                    asyncRequest.setTimeout(-1L); // Runs before the request goes asynchronous
+                }
+            }
+        });
+    }
 }
@@ -0,0 +1,178 @@
+package com.example.studentApp.controller;
+
+// Importing the report DTO and the service that maintains the GPA aggregates.
+import com.example.studentApp.dto.GpaAggregateReportDTO;
+import com.example.studentApp.dto.GradeCacheStatsDTO;
+import com.example.studentApp.dto.ImportReportDTO;
+import com.example.studentApp.dto.PinningStatsDTO;
+import com.example.studentApp.dto.SearchIndexStatsDTO;
+import com.example.studentApp.service.EnrollmentImportService;
+import com.example.studentApp.service.GpaAggregateService;
+import com.example.studentApp.service.GradeCatalog;
+import com.example.studentApp.service.PinningMonitor;
+import com.example.studentApp.service.StudentSearchIndex;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+
+/**
+ * This controller exposes maintenance operations for operators.
+ * The same operations are available from the command line (see AdminCommandRunner).
+ */
+@RestController // Marks this class as a RESTful controller.
+@RequestMapping("/api/admin") // Specifies the base URL for all endpoints in this controller.
+public class AdminController {
+
+    // A reference to the service that checks and rebuilds the GPA aggregates.
+    private final GpaAggregateService gpaAggregateService;
+
+    // A reference to the service that imports enrollment files.
+    private final EnrollmentImportService enrollmentImportService;
+
+    // A reference to the in-memory grade catalog.
+    private final GradeCatalog gradeCatalog;
+
+    // A reference to the virtual thread pinning monitor.
+    private final PinningMonitor pinningMonitor;
+
+    // A reference to the in-memory student search index.
+    private final StudentSearchIndex studentSearchIndex;
+
+    // The only directory the import endpoint reads files from.
+    private final Path importDirectory;
+
+    /**
+     * Constructor for dependency injection.
+     *
+     * @param gpaAggregateService The service that maintains the GPA aggregates.
+     * @param enrollmentImportService The service that imports enrollment files.
+     * @param gradeCatalog The in-memory grade catalog.
+     * @param pinningMonitor The virtual thread pinning monitor.
+     * @param studentSearchIndex The in-memory student search index.
+     * @param importDirectory The directory the import endpoint reads files from.
+     */
+    public AdminController(GpaAggregateService gpaAggregateService,
+                           EnrollmentImportService enrollmentImportService, GradeCatalog gradeCatalog,
+                           PinningMonitor pinningMonitor, StudentSearchIndex studentSearchIndex,
+                           @Value("${student-app.import.dir:imports}") Path importDirectory) {
+        this.gpaAggregateService = gpaAggregateService;
+        this.enrollmentImportService = enrollmentImportService;
+        this.gradeCatalog = gradeCatalog;
+        this.pinningMonitor = pinningMonitor;
+        this.studentSearchIndex = studentSearchIndex;
+        this.importDirectory = importDirectory.toAbsolutePath().normalize();
+    }
+
+    /**
+     * Checks the persisted GPA aggregates against the course table without changing anything.
+     * HTTP Method: GET
+     * Endpoint: /api/admin/gpa-aggregates
+     * Response: A GpaAggregateReportDTO listing the students whose aggregate is stale.
+     */
+    @GetMapping("/gpa-aggregates")
+    public ResponseEntity<GpaAggregateReportDTO> checkGpaAggregates() {
+        return ResponseEntity.ok(gpaAggregateService.check());
+    }
+
+    /**
+     * Recomputes every student's GPA aggregate from the course table.
+     * HTTP Method: POST
+     * Endpoint: /api/admin/gpa-aggregates/rebuild
+     * Response: A GpaAggregateReportDTO with the stale students found and the number of students rewritten.
+     */
+    @PostMapping("/gpa-aggregates/rebuild")
+    public ResponseEntity<GpaAggregateReportDTO> rebuildGpaAggregates() {
+        return ResponseEntity.ok(gpaAggregateService.rebuild());
+    }
+
+    /**
+     * Imports an enrollment CSV file (email, course name, grade letter) from the import directory
+     * (`student-app.import.dir`). The path is relative to that directory; absolute paths, `..` segments
+     * and links leading out of it are refused, so the endpoint cannot read arbitrary files.
+     * HTTP Method: POST
+     * Endpoint: /api/admin/import/enrollments?path=enrollments.csv
+     * Response: An ImportReportDTO, or 400 Bad Request if the path is outside the directory or not a readable file.
+     */
+    @PostMapping("/import/enrollments")
+    public ResponseEntity<ImportReportDTO> importEnrollments(@RequestParam String path) throws IOException {
+        Path file = resolveImportFile(path);
+        if (file == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(enrollmentImportService.importFile(file));
+    }
+
+    // Resolves a request path inside the import directory, or returns null if it is not a readable file there.
+    private Path resolveImportFile(String path) throws IOException {
+        Path relative;
+        try {
+            relative = Path.of(path);
+        } catch (InvalidPathException e) {
+            return null;
+        }
+        if (relative.isAbsolute() || relative.getRoot() != null) {
+            return null;
+        }
+        for (Path name : relative) {
+            if (name.toString().equals("..")) {
+                return null;
+            }
+        }
+        Path file = importDirectory.resolve(relative).normalize();
+        if (!file.startsWith(importDirectory) || !Files.isRegularFile(file) || !Files.isReadable(file)) {
+            return null;
+        }
+        // Symbolic links are followed only as long as they stay inside the directory
+        return file.toRealPath().startsWith(importDirectory.toRealPath()) ? file : null;
+    }
+
+    /**
+     * Reports the size and hit/miss counters of the in-memory grade catalog.
+     * HTTP Method: GET
+     * Endpoint: /api/admin/grade-cache
+     * Response: A GradeCacheStatsDTO.
+     */
+    @GetMapping("/grade-cache")
+    public ResponseEntity<GradeCacheStatsDTO> getGradeCacheStats() {
+        return ResponseEntity.ok(gradeCatalog.getStats());
+    }
+
+    /**
+     * Reloads the grade catalog from the database, e.g. after grades were edited outside the application.
+     * HTTP Method: POST
+     * Endpoint: /api/admin/grade-cache/reload
+     * Response: A GradeCacheStatsDTO for the reloaded catalog.
+     */
+    @PostMapping("/grade-cache/reload")
+    public ResponseEntity<GradeCacheStatsDTO> reloadGradeCache() {
+        gradeCatalog.reload();
+        return ResponseEntity.ok(gradeCatalog.getStats());
+    }
+
+    /**
+     * Reports how often request threads were pinned to their carrier thread.
+     * HTTP Method: GET
+     * Endpoint: /api/admin/virtual-threads
+     * Response: A PinningStatsDTO (all zero when virtual threads are disabled).
+     */
+    @GetMapping("/virtual-threads")
+    public ResponseEntity<PinningStatsDTO> getPinningStats() {
+        return ResponseEntity.ok(pinningMonitor.getStats());
+    }
+
+    /**
+     * Reports the size and estimated memory footprint of the student search index.
+     * HTTP Method: GET
+     * Endpoint: /api/admin/search-index
+     * Response: A SearchIndexStatsDTO (all zero until the index is built).
+     */
+    @GetMapping("/search-index")
+    public ResponseEntity<SearchIndexStatsDTO> getSearchIndexStats() {
+        return ResponseEntity.ok(studentSearchIndex.getStats());
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.studentApp.controller;
+
+import com.example.studentApp.config.RosterProtobufHttpMessageConverter;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Answers conditional GETs of the versioned collections (see DataVersions).
+ *
+ * The ETag is derived from a version counter rather than from the body, so a client that sends
+ * the current ETag in If-None-Match gets 304 Not Modified before any query runs or any JSON is written.
+ * The asynchronous variant answers the 304 on the request thread and only hands the query to a database executor.
+ *
+ * The collections are also served in binary formats (CBOR, Smile, Protobuf) chosen by the Accept header.
+ * Each format is its own representation, so it gets its own ETag (the version's ETag plus the format)
+ * and responses carry `Vary: Accept`.
+ */
+final class ConditionalGet {
+
+    // Caches may store the response but must revalidate it on every use, which is what a poll does
+    private static final CacheControl REVALIDATE = CacheControl.noCache();
+
+    /**
+     * The format of JSON responses, the default.
+     */
+    static final String JSON = "json";
+
+    // The binary formats and their ETag suffixes; any other acceptable type is served as JSON
+    private static final Map<MediaType, String> BINARY_FORMATS = Map.of(
+            MediaType.APPLICATION_CBOR, "cbor",
+            new MediaType("application", "x-jackson-smile"), "smile",
+            RosterProtobufHttpMessageConverter.PROTOBUF, "protobuf");
+
+    private ConditionalGet() {
+    }
+
+    /**
+     * Returns 304 if the request's If-None-Match matches the ETag, and otherwise 200 with the body.
+     *
+     * @param request The current request.
+     * @param etag The ETag of the collection's current version, read before the body is built.
+     * @param body Builds the body; only called when the client's copy is stale.
+     * @return The response; both variants carry the ETag of the requested format.
+     */
+    static <T> ResponseEntity<T> respond(WebRequest request, String etag, Supplier<T> body) {
+        String representationEtag = etag(etag, format(request));
+        if (request.checkNotModified(representationEtag)) {
+            // checkNotModified has already set the ETag header
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(REVALIDATE)
+                    .varyBy(HttpHeaders.ACCEPT).build();
+        }
+        return ResponseEntity.ok().eTag(representationEtag).cacheControl(REVALIDATE).varyBy(HttpHeaders.ACCEPT)
+                .body(body.get());
+    }
+
+    /**
+     * Like respond, for a body built asynchronously (see WorkloadExecutors).
+     *
+     * @param request The current request.
+     * @param etag The ETag of the collection's current version, read before the body is built.
+     * @param body Starts building the body; only called when the client's copy is stale.
+     * @return The response, completed once the body is built.
+     */
+    static <T> CompletableFuture<ResponseEntity<T>> respondAsync(WebRequest request, String etag,
+                                                                 Supplier<CompletableFuture<T>> body) {
+        String representationEtag = etag(etag, format(request));
+        if (request.checkNotModified(representationEtag)) {
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .cacheControl(REVALIDATE).varyBy(HttpHeaders.ACCEPT).build());
+        }
+        return body.get().thenApply(result -> ResponseEntity.ok().eTag(representationEtag).cacheControl(REVALIDATE)
+                .varyBy(HttpHeaders.ACCEPT).body(result));
+    }
+
+    /**
+     * Returns the format the response will be written in, following the Accept header like content negotiation:
+     * the most preferred acceptable type that is one of the binary formats selects it, anything else selects JSON.
+     *
+     * @param request The current request.
+     * @return "json", "cbor", "smile" or "protobuf".
+     */
+    static String format(WebRequest request) {
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        if (accept == null || accept.isBlank()) {
+            return JSON;
+        }
+        try {
+            List<MediaType> acceptable = MediaType.parseMediaTypes(accept).stream()
+                    .filter(type -> type.getQualityValue() > 0)
+                    .sorted(Comparator.comparingDouble(MediaType::getQualityValue).reversed())
+                    .toList();
+            for (MediaType type : acceptable) {
+                for (Map.Entry<MediaType, String> format : BINARY_FORMATS.entrySet()) {
+                    if (format.getKey().equalsTypeAndSubtype(type)) {
+                        return format.getValue();
+                    }
+                }
+                if (type.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+                    return JSON;
+                }
+            }
+        } catch (InvalidMediaTypeException e) {
+            // Content negotiation rejects the request anyway
+        }
+        return JSON;
+    }
+
+    // The ETag of one format of a version: the version's ETag for JSON, e.g. "students-m2x1k0a3-42-cbor" otherwise.
+    private static String etag(String etag, String format) {
+        return JSON.equals(format) ? etag : etag.substring(0, etag.length() - 1) + "-" + format + "\"";
+    }
+}
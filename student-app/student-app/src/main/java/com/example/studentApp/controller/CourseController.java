@@ -1,17 +1,29 @@
 package com.example.studentApp.controller;
 
 // Importing necessary classes and annotations for the controller, DTOs, models, and services.
+import com.example.studentApp.config.JacksonConfig;
+import com.example.studentApp.dto.BatchResultDTO;
 import com.example.studentApp.dto.CourseResponseDTO;
+import com.example.studentApp.dto.CourseStatsDTO;
 import com.example.studentApp.model.Course;
 import com.example.studentApp.service.CourseService;
+import com.example.studentApp.service.DataVersions;
+import com.example.studentApp.service.WorkloadExecutors;
+import com.example.studentApp.service.WorkloadExecutors.Workload;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * This controller handles HTTP requests for managing courses.
- * It provides endpoints to add new courses and retrieve all courses.
+ * It provides endpoints to add new courses, retrieve all courses and read per-course grade statistics.
+ * Endpoints that query the database run it on a bounded WorkloadExecutors pool and return a CompletableFuture;
+ * the statistics are served from memory on the request thread.
  */
 @RestController // Marks this class as a RESTful controller, capable of handling web requests and returning JSON responses.
 @RequestMapping("/api/courses") // Specifies the base URL for all endpoints in this controller.
@@ -19,15 +31,24 @@ public class CourseController {
 
     // A reference to the service layer, which contains business logic for managing courses.
     private final CourseService courseService;
+    // Version counters from which the course list's ETag is derived.
+    private final DataVersions dataVersions;
+    // Bounded pools that run the database work, per workload class.
+    private final WorkloadExecutors workloadExecutors;
 
     /**
      * Constructor for dependency injection.
      * The CourseService is injected here to separate business logic from the controller.
      *
      * @param courseService The service layer for course-related operations.
+     * @param dataVersions Version counters for the ETags of conditional GETs.
+     * @param workloadExecutors Bounded pools for the database work.
      */
-    public CourseController(CourseService courseService) {
+    public CourseController(CourseService courseService, DataVersions dataVersions,
+                            WorkloadExecutors workloadExecutors) {
         this.courseService = courseService; // Assigns the injected service to the local variable.
+        this.dataVersions = dataVersions;
+        this.workloadExecutors = workloadExecutors;
     }
 
     /**
@@ -36,30 +57,79 @@ public class CourseController {
      * and returns the saved course in a standardized DTO format.
      *
      * @param course The course object to be saved (parsed from the JSON request body).
-     * @return A ResponseEntity containing a CourseResponseDTO for the saved course.
+     * @return A future ResponseEntity containing a CourseResponseDTO for the saved course.
      */
     @PostMapping // Maps this method to HTTP POST requests for the "/api/courses" endpoint.
-    public ResponseEntity<CourseResponseDTO> addCourse(@RequestBody Course course) {
-        // Calls the service layer to save the incoming course object.
-        Course savedCourse = courseService.addCourse(course);
+    public CompletableFuture<ResponseEntity<CourseResponseDTO>> addCourse(@RequestBody Course course) {
+        // Calls the service layer to save the incoming course object on the write pool,
+        // then converts the saved course to a CourseResponseDTO wrapped in a ResponseEntity.
+        return workloadExecutors.submit(Workload.WRITE, () -> courseService.addCourse(course))
+                .thenApply(savedCourse -> ResponseEntity.ok(new CourseResponseDTO(savedCourse)));
+    }
 
-        // Converts the saved course to a CourseResponseDTO and returns it wrapped in a ResponseEntity.
-        return ResponseEntity.ok(new CourseResponseDTO(savedCourse));
+    /**
+     * Endpoint to add many courses in one request.
+     * Accepts a JSON array of Course objects (each referencing `student.id` and `grade.id`),
+     * inserts the valid ones in chunked JDBC batches within one transaction,
+     * and reports the generated IDs and any rejected items.
+     *
+     * @param courses The course objects to be saved (parsed from the JSON request body).
+     * @return A future ResponseEntity containing a BatchResultDTO.
+     */
+    @PostMapping("/batch") // Maps this method to HTTP POST requests for "/api/courses/batch".
+    public CompletableFuture<ResponseEntity<BatchResultDTO>> addCourses(@RequestBody List<Course> courses) {
+        // Calls the service layer to insert the valid courses and update the GPA aggregates on the write pool.
+        return workloadExecutors.submit(Workload.WRITE, () -> courseService.addCourses(courses))
+                .thenApply(ResponseEntity::ok);
     }
 
     /**
      * Endpoint to retrieve all courses.
      * Fetches all courses from the service layer, maps them to DTOs,
-     * and returns them as a JSON array.
+     * and returns them as a JSON array with an ETag. A request whose If-None-Match carries
+     * the current ETag gets 304 (Not Modified) without any query.
+     * The optional `fields` parameter selects the properties of each course, out of name, gradeLetter
+     * and gradeScore (e.g. /api/courses?fields=name); without a grade property the grades are not joined.
      *
-     * @return A ResponseEntity containing a list of CourseResponseDTO objects.
+     * @param request The current request, for its If-None-Match header.
+     * @param fields Comma-separated properties to return (optional, default all).
+     * @return A future ResponseEntity containing a list of CourseResponseDTO objects.
      */
     @GetMapping // Maps this method to HTTP GET requests for the "/api/courses" endpoint.
-    public ResponseEntity<List<CourseResponseDTO>> getAllCourses() {
-        // Calls the service layer to retrieve all courses and convert them to DTOs.
-        List<CourseResponseDTO> courses = courseService.getAllCourses();
+    public CompletableFuture<ResponseEntity<MappingJacksonValue>> getAllCourses(WebRequest request,
+                                                                                @RequestParam(required = false) String fields) {
+        Set<CourseResponseDTO.Field> selected =
+                SparseFields.parse(fields, CourseResponseDTO.Field.class, CourseResponseDTO.Field::property);
+        // Calls the service layer to retrieve all courses and convert them to DTOs on the roster pool,
+        // unless the client's copy is current; the DTOs only write the requested properties.
+        return ConditionalGet.respondAsync(request, dataVersions.etag(DataVersions.Resource.COURSES),
+                () -> workloadExecutors.submit(Workload.ROSTER,
+                        () -> SparseFields.filter(courseService.getAllCourses(selected), JacksonConfig.COURSE_FILTER,
+                                selected, CourseResponseDTO.Field::property)));
+    }
 
-        // Returns the list of CourseResponseDTOs wrapped in a ResponseEntity.
-        return ResponseEntity.ok(courses);
+    /**
+     * Endpoint to retrieve the grade distribution of every course name.
+     * Served from in-memory t-digest sketches, so the cost does not grow with the number of enrollments.
+     *
+     * @return A ResponseEntity containing one CourseStatsDTO per course name (count, mean, min, max,
+     *         estimated p10/median/p90 and a histogram of the grade scores), ordered by name.
+     */
+    @GetMapping("/stats") // Maps this method to HTTP GET requests for "/api/courses/stats".
+    public ResponseEntity<List<CourseStatsDTO>> getAllCourseStats() {
+        // Calls the service layer to read the statistics of every course.
+        return ResponseEntity.ok(courseService.getAllCourseStats());
+    }
+
+    /**
+     * Endpoint to retrieve the grade distribution of one course name, e.g. /api/courses/Physics%20101/stats.
+     *
+     * @param name The exact course name.
+     * @return A ResponseEntity containing the course's CourseStatsDTO.
+     */
+    @GetMapping("/{name}/stats") // Maps this method to HTTP GET requests for "/api/courses/{name}/stats".
+    public ResponseEntity<CourseStatsDTO> getCourseStats(@PathVariable String name) {
+        // Calls the service layer to read the statistics of the course.
+        return ResponseEntity.ok(courseService.getCourseStats(name));
     }
 }
@@ -0,0 +1,65 @@
+package com.example.studentApp.controller;
+
+// Importing the ExportService, which streams the enrollment data.
+import com.example.studentApp.service.ExportService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * This controller handles bulk exports of the enrollment data for the registrar's warehouse.
+ * The response body is written while the database cursor is being read, so the export never
+ * holds more than one row in memory. Gzip is applied on the wire when the client accepts it.
+ */
+@RestController // Marks this class as a RESTful controller.
+@RequestMapping("/api/export") // Specifies the base URL for all endpoints in this controller.
+public class ExportController {
+
+    // Media type of newline-delimited JSON.
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    // A reference to the service layer that produces the export.
+    private final ExportService exportService;
+
+    /**
+     * Constructor for dependency injection.
+     *
+     * @param exportService The service that streams the export rows.
+     */
+    public ExportController(ExportService exportService) {
+        this.exportService = exportService;
+    }
+
+    /**
+     * Streams every course joined with its student and grade.
+     * HTTP Method: GET
+     * Endpoint: /api/export/grades?format={ndjson|csv}
+     * Query Parameter: `format` - `ndjson` (default) or `csv`.
+     * Response: One row per course, streamed as NDJSON or CSV.
+     * Example: curl --compressed "http://localhost:8080/api/export/grades?format=csv" -o grades.csv
+     *
+     * @param format The output format.
+     * @return A ResponseEntity whose body is written on an async thread as rows are read.
+     */
+    @GetMapping("/grades")
+    public ResponseEntity<StreamingResponseBody> exportGrades(@RequestParam(defaultValue = "ndjson") String format) {
+        if ("csv".equalsIgnoreCase(format)) {
+            return ResponseEntity.ok()
+                    .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"grades.csv\"")
+                    .body(exportService::exportCsv);
+        }
+        if ("ndjson".equalsIgnoreCase(format)) {
+            return ResponseEntity.ok()
+                    .contentType(NDJSON)
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"grades.ndjson\"")
+                    .body(exportService::exportNdjson);
+        }
+        // Unknown formats are rejected before any query runs.
+        return ResponseEntity.badRequest().build();
+    }
+}
@@ -1,14 +1,20 @@
 // Package declaration to group related classes for the student application.
 package com.example.studentApp.controller;
 
+// Importing the BatchResultDTO to report the outcome of batch inserts.
+import com.example.studentApp.dto.BatchResultDTO;
 // Importing the Grade model to represent grades in this controller.
 import com.example.studentApp.model.Grade;
 // Importing the GradeService, which contains the business logic for handling grades.
 import com.example.studentApp.service.GradeService;
+// Importing DataVersions to derive the grade list's ETag.
+import com.example.studentApp.service.DataVersions;
 // Importing ResponseEntity to standardize HTTP responses.
 import org.springframework.http.ResponseEntity;
 // Importing annotations for REST controller functionalities.
 import org.springframework.web.bind.annotation.*;
+// Importing WebRequest to evaluate conditional (If-None-Match) requests.
+import org.springframework.web.context.request.WebRequest;
 
 // Importing List to handle collections of Grade objects.
 import java.util.List;
@@ -22,11 +28,14 @@ public class GradeController {
 
     // Declares a final reference to the GradeService, ensuring this dependency cannot be reassigned.
     private final GradeService gradeService;
+    // Version counters from which the grade list's ETag is derived.
+    private final DataVersions dataVersions;
 
-    // Constructor-based dependency injection for the GradeService.
-    // Spring automatically provides an instance of GradeService when initializing this controller.
-    public GradeController(GradeService gradeService) {
+    // Constructor-based dependency injection for the GradeService and DataVersions.
+    // Spring automatically provides the instances when initializing this controller.
+    public GradeController(GradeService gradeService, DataVersions dataVersions) {
         this.gradeService = gradeService;
+        this.dataVersions = dataVersions;
     }
 
     /**
@@ -49,17 +58,32 @@ public class GradeController {
         return ResponseEntity.ok(savedGrade);
     }
 
+    /**
+     * Adds many grades in one request.
+     * HTTP Method: POST
+     * Endpoint: /api/grades/batch
+     * Request Body: JSON array of Grade objects.
+     * Response: A BatchResultDTO with the generated IDs and an error entry for every rejected item.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<BatchResultDTO> addGrades(@RequestBody List<Grade> grades) {
+        // Calls the service layer to insert the valid grades in chunked batches.
+        BatchResultDTO result = gradeService.addGrades(grades);
+        // Wraps the result in a ResponseEntity with HTTP 200 (OK) status and returns it.
+        return ResponseEntity.ok(result);
+    }
+
     /**
      * Retrieves all grades from the system.
      * HTTP Method: GET
      * Endpoint: /api/grades
-     * Response: A list of Grade objects in JSON format.
+     * Response: A list of Grade objects in JSON format, with an ETag; a request whose If-None-Match
+     * carries the current ETag gets 304 (Not Modified).
      */
     @GetMapping
-    public ResponseEntity<List<Grade>> getAllGrades() {
-        // Calls the service layer to fetch all grades.
-        List<Grade> grades = gradeService.getAllGrades();
-        // Wraps the list of grades in a ResponseEntity with HTTP 200 (OK) status and returns it.
-        return ResponseEntity.ok(grades);
+    public ResponseEntity<List<Grade>> getAllGrades(WebRequest request) {
+        // Calls the service layer to fetch all grades, unless the client's copy is current.
+        return ConditionalGet.respond(request, dataVersions.etag(DataVersions.Resource.GRADES),
+                gradeService::getAllGrades);
     }
 }
@@ -0,0 +1,64 @@
+package com.example.studentApp.controller;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.context.request.async.AsyncRequestTimeoutException;
+
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Answers requests the application has no room for with 503 (Service Unavailable) and a Retry-After header.
+ *
+ * Work is rejected with a RejectedExecutionException when the queue of its WorkloadExecutors pool is full,
+ * or when the write queue is. Both happen at once rather than after a wait, so an overloaded application
+ * sheds the excess quickly and clients back off, instead of every request waiting longer.
+ * A request whose work was accepted but did not finish within `spring.mvc.async.request-timeout`
+ * is answered the same way.
+ */
+@RestControllerAdvice
+public class LoadSheddingHandler {
+
+    // Seconds a client should wait before retrying
+    private final long retryAfterSeconds;
+
+    /**
+     * Constructor for dependency injection.
+     *
+     * @param retryAfterSeconds The Retry-After value sent with 503 responses.
+     */
+    public LoadSheddingHandler(@Value("${student-app.async.retry-after-seconds:1}") long retryAfterSeconds) {
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    /**
+     * Maps a rejected submission, from the request thread or from a failed future, to 503.
+     *
+     * @param e The rejection.
+     * @return 503 with Retry-After and the reason.
+     */
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<Map<String, String>> overloaded(RejectedExecutionException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds))
+                .body(Map.of("error", "overloaded", "message", String.valueOf(e.getMessage())));
+    }
+
+    /**
+     * Maps an asynchronous request that did not get its result within `spring.mvc.async.request-timeout` to 503.
+     * The work itself is not cancelled; its result is dropped.
+     *
+     * @param e The timeout.
+     * @return 503 with Retry-After and the reason.
+     */
+    @ExceptionHandler(AsyncRequestTimeoutException.class)
+    public ResponseEntity<Map<String, String>> timedOut(AsyncRequestTimeoutException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds))
+                .body(Map.of("error", "timeout", "message", "The request did not complete in time"));
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.studentApp.controller;
+
+import com.example.studentApp.config.JacksonConfig;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Parses and applies sparse fieldsets: `fields=id,name,gpa` selects the properties of each item in the response.
+ *
+ * The service uses the parsed fields to choose a narrower query (e.g. no course query without `courses`),
+ * and the response is written through the DTO's property filter (see JacksonConfig), so the JSON only
+ * contains the requested properties.
+ */
+final class SparseFields {
+
+    private SparseFields() {
+    }
+
+    /**
+     * Parses a comma-separated list of JSON property names.
+     *
+     * @param fields The parameter value, or null for all fields.
+     * @param type The DTO's field enum.
+     * @param property Returns the JSON property name of a field.
+     * @return The selected fields; all of them when the parameter is absent or blank.
+     * @throws ResponseStatusException 400 if a name is not a field of the DTO.
+     */
+    static <F extends Enum<F>> Set<F> parse(String fields, Class<F> type, Function<F, String> property) {
+        if (fields == null || fields.isBlank()) {
+            return EnumSet.allOf(type);
+        }
+        Map<String, F> byProperty = new LinkedHashMap<>();
+        for (F field : type.getEnumConstants()) {
+            byProperty.put(property.apply(field), field);
+        }
+        Set<F> selected = EnumSet.noneOf(type);
+        for (String name : fields.split(",")) {
+            F field = byProperty.get(name.trim());
+            if (field == null) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                        "Unknown field '" + name.trim() + "', expected any of " + byProperty.keySet());
+            }
+            selected.add(field);
+        }
+        return selected;
+    }
+
+    /**
+     * Wraps a response body so that the DTOs under the given filter only write the selected properties.
+     *
+     * @param body The response body (a DTO, or a list or page of them).
+     * @param filterId The filter ID of the DTO (see JacksonConfig).
+     * @param fields The selected fields.
+     * @param property Returns the JSON property name of a field.
+     * @return The wrapped body.
+     */
+    static <F extends Enum<F>> MappingJacksonValue filter(Object body, String filterId, Set<F> fields,
+                                                          Function<F, String> property) {
+        MappingJacksonValue value = new MappingJacksonValue(body);
+        Set<String> properties = fields.stream().map(property).collect(Collectors.toSet());
+        value.setFilters(JacksonConfig.allFields().addFilter(filterId, SimpleBeanPropertyFilter.filterOutAllExcept(properties)));
+        return value;
+    }
+}
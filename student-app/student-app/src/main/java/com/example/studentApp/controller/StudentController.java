@@ -5,16 +5,50 @@ package com.example.studentApp.controller;
 import com.example.studentApp.model.Student;
 // Importing the StudentService to handle business logic related to students.
 import com.example.studentApp.service.StudentService;
+// Importing DataVersions to derive the roster's ETag.
+import com.example.studentApp.service.DataVersions;
+// Importing JacksonConfig for the filter ID of the roster DTOs.
+import com.example.studentApp.config.JacksonConfig;
+// Importing RosterSnapshotCache to serve the pre-serialized roster.
+import com.example.studentApp.service.RosterSnapshotCache;
+// Importing WorkloadExecutors to run the database work off the request thread.
+import com.example.studentApp.service.WorkloadExecutors;
+import com.example.studentApp.service.WorkloadExecutors.Workload;
+// Importing HTTP types to send the snapshot's bytes as they are.
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 // Importing ResponseEntity to standardize HTTP responses.
 import org.springframework.http.ResponseEntity;
+// Importing MappingJacksonValue to write only the requested fields.
+import org.springframework.http.converter.json.MappingJacksonValue;
 // Importing annotations to map HTTP requests to methods in this controller.
 import org.springframework.web.bind.annotation.*;
+// Importing WebRequest to evaluate conditional (If-None-Match) requests.
+import org.springframework.web.context.request.WebRequest;
 // Importing the StudentResponseDTO to return structured responses for students.
 import com.example.studentApp.dto.StudentResponseDTO;
+// Importing the StudentPageDTO to return a single page of the roster.
+import com.example.studentApp.dto.StudentPageDTO;
+// Importing the StudentRankDTO to return positions in the GPA ranking.
+import com.example.studentApp.dto.StudentRankDTO;
+// Importing the StudentSearchResultDTO to return search matches.
+import com.example.studentApp.dto.StudentSearchResultDTO;
+
+// Importing the BatchResultDTO to report the outcome of batch inserts.
+import com.example.studentApp.dto.BatchResultDTO;
 
 // Importing List to work with collections of StudentResponseDTO objects.
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+// Importing CompletableFuture for the endpoints whose database work runs on a WorkloadExecutors pool.
+import java.util.concurrent.CompletableFuture;
 
+// Endpoints that query the database return a CompletableFuture: the work runs on the bounded pool of its
+// workload class (see WorkloadExecutors) and a full pool answers 503 with Retry-After (see LoadSheddingHandler).
+// Endpoints served from memory answer on the request thread.
 // Annotation to declare this class as a REST controller that handles HTTP requests and returns JSON responses.
 @RestController
 // Specifies the base URL path for all endpoints in this controller.
@@ -23,11 +57,21 @@ public class StudentController {
 
     // Declares a final reference to the StudentService, ensuring it cannot be reassigned.
     private final StudentService studentService;
+    // Version counters from which the roster's ETag is derived.
+    private final DataVersions dataVersions;
+    // The roster serialized in the background, plain and gzip-encoded.
+    private final RosterSnapshotCache rosterSnapshotCache;
+    // Bounded pools that run the database work, per workload class.
+    private final WorkloadExecutors workloadExecutors;
 
-    // Constructor-based dependency injection for StudentService.
-    // Spring will provide an instance of StudentService when initializing this controller.
-    public StudentController(StudentService studentService) {
+    // Constructor-based dependency injection for StudentService, DataVersions, RosterSnapshotCache and WorkloadExecutors.
+    // Spring will provide the instances when initializing this controller.
+    public StudentController(StudentService studentService, DataVersions dataVersions,
+                             RosterSnapshotCache rosterSnapshotCache, WorkloadExecutors workloadExecutors) {
         this.studentService = studentService;
+        this.dataVersions = dataVersions;
+        this.rosterSnapshotCache = rosterSnapshotCache;
+        this.workloadExecutors = workloadExecutors;
     }
 
     /**
@@ -43,25 +87,143 @@ public class StudentController {
      * }
      */
     @PostMapping
-    public ResponseEntity<Student> addStudent(@RequestBody Student student) {
-        // Calls the service layer to add a new student.
-        Student savedStudent = studentService.addStudent(student);
-        // Wraps the saved student in a ResponseEntity with HTTP 200 (OK) status and returns it.
-        return ResponseEntity.ok(savedStudent);
+    public CompletableFuture<ResponseEntity<Student>> addStudent(@RequestBody Student student) {
+        // Calls the service layer to add a new student on the write pool,
+        // then wraps the saved student in a ResponseEntity with HTTP 200 (OK) status.
+        return workloadExecutors.submit(Workload.WRITE, () -> studentService.addStudent(student))
+                .thenApply(ResponseEntity::ok);
+    }
+
+    /**
+     * Adds many students in one request.
+     * HTTP Method: POST
+     * Endpoint: /api/students/batch
+     * Request Body: JSON array of Student objects.
+     * Response: A BatchResultDTO with the generated IDs (aligned with the request array)
+     * and an error entry for every rejected item.
+     * Example JSON to test:
+     * [
+     *   { "name": "John Doe", "email": "johndoe@example.com" },
+     *   { "name": "Jane Doe", "email": "janedoe@example.com" }
+     * ]
+     */
+    @PostMapping("/batch")
+    public CompletableFuture<ResponseEntity<BatchResultDTO>> addStudents(@RequestBody List<Student> students) {
+        // Calls the service layer to insert the valid students in chunked batches on the write pool,
+        // then wraps the result in a ResponseEntity with HTTP 200 (OK) status.
+        return workloadExecutors.submit(Workload.WRITE, () -> studentService.addStudents(students))
+                .thenApply(ResponseEntity::ok);
     }
 
     /**
      * Lists all students along with their GPA.
      * HTTP Method: GET
      * Endpoint: /api/students
-     * Response: A list of StudentResponseDTO objects in JSON format, each containing student details and GPA.
+     * Response: A list of StudentResponseDTO objects in JSON format, each containing student details and GPA,
+     * with an ETag; a request whose If-None-Match carries the current ETag gets 304 (Not Modified) without any query.
+     * Served from the pre-serialized roster snapshot once it is built (gzip-encoded if the client accepts it),
+     * which may trail the latest writes by a fraction of a second.
+     * Query Parameter: `fields` - Comma-separated properties to return, out of id, name, email, gpa and courses
+     * (optional, default all). Leaving out `courses` skips the course query, leaving out `gpa` the GPA aggregate;
+     * such requests are not served from the snapshot.
+     * Example: /api/students?fields=id,name,gpa
+     * Also served as CBOR, Smile or Protobuf when the Accept header asks for application/cbor,
+     * application/x-jackson-smile or application/x-protobuf; these are never served from the snapshot either.
      */
     @GetMapping
-    public ResponseEntity<List<StudentResponseDTO>> getAllStudentsWithGPA() {
-        // Calls the service layer to fetch all students with their GPA.
-        List<StudentResponseDTO> studentsWithGPA = studentService.getAllStudentsWithGPA();
-        // Wraps the list of students in a ResponseEntity with HTTP 200 (OK) status and returns it.
-        return ResponseEntity.ok(studentsWithGPA);
+    public CompletableFuture<? extends ResponseEntity<?>> getAllStudentsWithGPA(
+            WebRequest request,
+            @RequestParam(required = false) String fields,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        Set<StudentResponseDTO.Field> selected = parseFields(fields);
+        // Copies the snapshot's bytes to the response when there is one and it has the requested shape and format:
+        // no query and no serialization.
+        Optional<RosterSnapshotCache.Snapshot> snapshot = rosterSnapshotCache.current();
+        if (snapshot.isPresent() && selected.size() == StudentResponseDTO.Field.values().length
+                && ConditionalGet.JSON.equals(ConditionalGet.format(request))) {
+            return CompletableFuture.completedFuture(snapshotResponse(request, snapshot.get(), acceptsGzip(acceptEncoding)));
+        }
+        // Otherwise calls the service layer to fetch all students with the requested fields on the roster pool,
+        // unless the client's copy is current.
+        return ConditionalGet.respondAsync(request, dataVersions.etag(DataVersions.Resource.STUDENTS),
+                () -> workloadExecutors.submit(Workload.ROSTER,
+                        () -> filterFields(studentService.getAllStudentsWithGPA(selected), selected)));
+    }
+
+    // Parses the `fields` parameter of the roster (400 for an unknown property).
+    private static Set<StudentResponseDTO.Field> parseFields(String fields) {
+        return SparseFields.parse(fields, StudentResponseDTO.Field.class, StudentResponseDTO.Field::property);
+    }
+
+    // Wraps a body so that its StudentResponseDTOs only write the requested properties.
+    private static MappingJacksonValue filterFields(Object body, Set<StudentResponseDTO.Field> fields) {
+        return SparseFields.filter(body, JacksonConfig.STUDENT_FILTER, fields, StudentResponseDTO.Field::property);
+    }
+
+    // Answers a roster request from a snapshot: 304 if the client has it, otherwise its plain or gzip-encoded bytes.
+    private static ResponseEntity<byte[]> snapshotResponse(WebRequest request, RosterSnapshotCache.Snapshot snapshot,
+                                                           boolean gzip) {
+        // Each encoding is its own representation, with its own ETag
+        String etag = gzip ? snapshot.gzipEtag() : snapshot.etag();
+        if (request.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).cacheControl(CacheControl.noCache())
+                    .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING).build();
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING)
+                .contentType(MediaType.APPLICATION_JSON);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        byte[] body = gzip ? snapshot.gzip() : snapshot.json();
+        return response.contentLength(body.length).body(body);
+    }
+
+    // Whether an Accept-Encoding header allows gzip; a q-value of 0 refuses it.
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length < 2 || !parts[1].trim().matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Lists one page of students along with their GPA, using keyset (cursor) pagination.
+     * HTTP Method: GET
+     * Endpoint: /api/students?size={size}
+     * Query Parameters:
+     *   `size` - The number of students per page (required; selects this paged variant).
+     *   `after` - The `nextCursor` returned by the previous page (optional; omit for the first page).
+     *   `minGpa` / `maxGpa` - Inclusive GPA range (optional).
+     *   `namePrefix` - Case-insensitive prefix of the student's name (optional).
+     *   `fields` - Comma-separated properties of each student (optional, see getAllStudentsWithGPA).
+     * Response: A StudentPageDTO containing the students and the cursor of the next page, with the roster's ETag
+     * (see getAllStudentsWithGPA).
+     * Example: /api/students?size=50&after=1200&minGpa=3.0&namePrefix=Jo
+     */
+    @GetMapping(params = "size")
+    public CompletableFuture<ResponseEntity<MappingJacksonValue>> getStudentPage(@RequestParam int size,
+                                                                                 @RequestParam(required = false) Long after,
+                                                                                 @RequestParam(required = false) Double minGpa,
+                                                                                 @RequestParam(required = false) Double maxGpa,
+                                                                                 @RequestParam(required = false) String namePrefix,
+                                                                                 @RequestParam(required = false) String fields,
+                                                                                 WebRequest request) {
+        Set<StudentResponseDTO.Field> selected = parseFields(fields);
+        // Calls the service layer to fetch the requested page on the lookup pool, unless the client's copy is current;
+        // all filters are evaluated in SQL.
+        return ConditionalGet.respondAsync(request, dataVersions.etag(DataVersions.Resource.STUDENTS),
+                () -> workloadExecutors.submit(Workload.LOOKUP,
+                        () -> filterFields(studentService.getStudentPage(after, size, minGpa, maxGpa, namePrefix, selected),
+                                selected)));
     }
 
     /**
@@ -72,11 +234,63 @@ public class StudentController {
      * Response: Returns the GPA as a double value.
      */
     @GetMapping("/{id}/gpa")
-    public ResponseEntity<Double> getStudentGPA(@PathVariable Long id) {
-        // Calls the service layer to get the GPA for the student with the given ID.
-        double gpa = studentService.getStudentGPA(id);
-        // Wraps the GPA in a ResponseEntity with HTTP 200 (OK) status and returns it.
-        return ResponseEntity.ok(gpa);
+    public CompletableFuture<ResponseEntity<Double>> getStudentGPA(@PathVariable Long id) {
+        // Calls the service layer to get the GPA for the student with the given ID on the lookup pool,
+        // then wraps the GPA in a ResponseEntity with HTTP 200 (OK) status.
+        return workloadExecutors.submit(Workload.LOOKUP, () -> studentService.getStudentGPA(id))
+                .thenApply(ResponseEntity::ok);
+    }
+
+    /**
+     * Finds students by partial name or email, for type-ahead lookup, using an in-memory index.
+     * HTTP Method: GET
+     * Endpoint: /api/students/search?q={text}&limit={limit}
+     * Query Parameters:
+     *   `q` - The text typed so far; every term must match the start of, a part of, or (with a typo)
+     *         a word of the student's name or email.
+     *   `limit` - The number of results (optional, default 20, at most `student-app.search.max-results`).
+     * Response: A list of StudentSearchResultDTO objects, best match first.
+     * Example: /api/students/search?q=diego%20ngu
+     */
+    @GetMapping("/search")
+    public ResponseEntity<List<StudentSearchResultDTO>> searchStudents(@RequestParam String q,
+                                                                       @RequestParam(defaultValue = "20") int limit) {
+        // Calls the service layer to search the in-memory index.
+        List<StudentSearchResultDTO> results = studentService.searchStudents(q, limit);
+        // Wraps the results in a ResponseEntity with HTTP 200 (OK) status and returns it.
+        return ResponseEntity.ok(results);
+    }
+
+    /**
+     * Lists the students with the highest GPA, served from an in-memory ranking.
+     * HTTP Method: GET
+     * Endpoint: /api/students/top?k={k}
+     * Query Parameter: `k` - The number of students (optional, default 100, at most `student-app.rank.max-top`).
+     * Response: A list of StudentRankDTO objects, best first. Only students with graded courses are ranked,
+     * and students with the same GPA share a rank.
+     */
+    @GetMapping("/top")
+    public ResponseEntity<List<StudentRankDTO>> getTopStudents(@RequestParam(defaultValue = "100") int k) {
+        // Calls the service layer to read the top of the ranking.
+        List<StudentRankDTO> top = studentService.getTopStudents(k);
+        // Wraps the list in a ResponseEntity with HTTP 200 (OK) status and returns it.
+        return ResponseEntity.ok(top);
+    }
+
+    /**
+     * Retrieves the class rank of a specific student by GPA, served from an in-memory ranking.
+     * HTTP Method: GET
+     * Endpoint: /api/students/{id}/rank
+     * Path Variable: `id` - The ID of the student.
+     * Response: A StudentRankDTO; `rank` is 1 plus the number of students with a higher GPA,
+     * or null if the student has no graded courses.
+     */
+    @GetMapping("/{id}/rank")
+    public ResponseEntity<StudentRankDTO> getStudentRank(@PathVariable Long id) {
+        // Calls the service layer to look up the student's position in the ranking.
+        StudentRankDTO rank = studentService.getStudentRank(id);
+        // Wraps the rank in a ResponseEntity with HTTP 200 (OK) status and returns it.
+        return ResponseEntity.ok(rank);
     }
 
     /**
@@ -87,11 +301,11 @@ public class StudentController {
      * Response: A StudentResponseDTO containing student details and a list of their courses with grades.
      */
     @GetMapping("/{studentId}/grades")
-    public ResponseEntity<StudentResponseDTO> getGradesForStudent(@PathVariable Long studentId) {
-        // Calls the service layer to get the grades and courses for the specified student.
-        StudentResponseDTO studentGrades = studentService.getGradesForStudent(studentId);
-        // Wraps the student grades in a ResponseEntity with HTTP 200 (OK) status and returns it.
-        return ResponseEntity.ok(studentGrades);
+    public CompletableFuture<ResponseEntity<StudentResponseDTO>> getGradesForStudent(@PathVariable Long studentId) {
+        // Calls the service layer to get the grades and courses for the specified student on the lookup pool,
+        // then wraps the student grades in a ResponseEntity with HTTP 200 (OK) status.
+        return workloadExecutors.submit(Workload.LOOKUP, () -> studentService.getGradesForStudent(studentId))
+                .thenApply(ResponseEntity::ok);
     }
 
     /**
@@ -104,10 +318,11 @@ public class StudentController {
      * Response: Returns the grade for the course as a double value.
      */
     @GetMapping("/{studentId}/courses/{courseName}/grade")
-    public ResponseEntity<Double> getGradeByCourse(@PathVariable Long studentId, @PathVariable String courseName) {
-        // Calls the service layer to get the grade for the specified course and student.
-        double grade = studentService.getGradeForCourse(studentId, courseName);
-        // Wraps the grade in a ResponseEntity with HTTP 200 (OK) status and returns it.
-        return ResponseEntity.ok(grade);
+    public CompletableFuture<ResponseEntity<Double>> getGradeByCourse(@PathVariable Long studentId,
+                                                                      @PathVariable String courseName) {
+        // Calls the service layer to get the grade for the specified course and student on the lookup pool,
+        // then wraps the grade in a ResponseEntity with HTTP 200 (OK) status.
+        return workloadExecutors.submit(Workload.LOOKUP, () -> studentService.getGradeForCourse(studentId, courseName))
+                .thenApply(ResponseEntity::ok);
     }
 }
@@ -0,0 +1,43 @@
+// Package declaration for organizing this class within the application.
+package com.example.studentApp.dto;
+
+// A Data Transfer Object (DTO) class describing why one item of a batch request was rejected.
+public class BatchItemErrorDTO {
+
+    // The zero-based position of the rejected item in the request array.
+    private int index;
+
+    // A human-readable explanation of why the item was rejected.
+    private String message;
+
+    /**
+     * Constructor to initialize the error.
+     *
+     * @param index   The position of the rejected item in the request array.
+     * @param message The reason the item was rejected.
+     */
+    public BatchItemErrorDTO(int index, String message) {
+        this.index = index;
+        this.message = message;
+    }
+
+    // Getter for the position of the rejected item.
+    public int getIndex() {
+        return index;
+    }
+
+    // Setter for the position of the rejected item.
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    // Getter for the rejection reason.
+    public String getMessage() {
+        return message;
+    }
+
+    // Setter for the rejection reason.
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
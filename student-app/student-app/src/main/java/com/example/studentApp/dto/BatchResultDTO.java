@@ -0,0 +1,76 @@
+// Package declaration for organizing this class within the application.
+package com.example.studentApp.dto;
+
+// Importing List to hold the generated IDs and the per-item errors.
+import java.util.List;
+
+// A Data Transfer Object (DTO) class summarizing the outcome of a batch insert.
+public class BatchResultDTO {
+
+    // The number of items received in the request.
+    private int received;
+
+    // The number of items inserted.
+    private int inserted;
+
+    // The generated IDs, aligned with the request array (null where the item was rejected).
+    private List<Long> ids;
+
+    // One entry per rejected item.
+    private List<BatchItemErrorDTO> errors;
+
+    /**
+     * Constructor to initialize the result.
+     *
+     * @param received The number of items received.
+     * @param inserted The number of items inserted.
+     * @param ids      The generated IDs, aligned with the request array.
+     * @param errors   The rejected items and the reasons.
+     */
+    public BatchResultDTO(int received, int inserted, List<Long> ids, List<BatchItemErrorDTO> errors) {
+        this.received = received;
+        this.inserted = inserted;
+        this.ids = ids;
+        this.errors = errors;
+    }
+
+    // Getter for the number of items received.
+    public int getReceived() {
+        return received;
+    }
+
+    // Setter for the number of items received.
+    public void setReceived(int received) {
+        this.received = received;
+    }
+
+    // Getter for the number of items inserted.
+    public int getInserted() {
+        return inserted;
+    }
+
+    // Setter for the number of items inserted.
+    public void setInserted(int inserted) {
+        this.inserted = inserted;
+    }
+
+    // Getter for the generated IDs.
+    public List<Long> getIds() {
+        return ids;
+    }
+
+    // Setter for the generated IDs.
+    public void setIds(List<Long> ids) {
+        this.ids = ids;
+    }
+
+    // Getter for the rejected items.
+    public List<BatchItemErrorDTO> getErrors() {
+        return errors;
+    }
+
+    // Setter for the rejected items.
+    public void setErrors(List<BatchItemErrorDTO> errors) {
+        this.errors = errors;
+    }
+}
@@ -3,10 +3,30 @@ package com.example.studentApp.dto;
 
 // Importing the Course model to construct the DTO from a Course object.
 import com.example.studentApp.model.Course;
+import com.example.studentApp.model.Grade;
 
 // A Data Transfer Object (DTO) class for representing course details in a structured and simplified manner.
 public class CourseResponseDTO {
 
+    /**
+     * The JSON properties a client can select with the `fields` query parameter of the course list.
+     */
+    public enum Field {
+        NAME("name"), GRADE_LETTER("gradeLetter"), GRADE_SCORE("gradeScore");
+
+        // The JSON property name.
+        private final String property;
+
+        Field(String property) {
+            this.property = property;
+        }
+
+        // Returns the JSON property name.
+        public String property() {
+            return property;
+        }
+    }
+
     // The name of the course.
     private String name;
     // The letter grade for the course (e.g., A, B, C, etc.).
@@ -34,12 +54,22 @@ public class CourseResponseDTO {
      * @param course The `Course` object from which data will be extracted.
      */
     public CourseResponseDTO(Course course) {
+        this(course, course.getGrade());
+    }
+
+    /**
+     * Constructor to initialize the DTO using a `Course` object and an already resolved `Grade`
+     * (e.g. from the in-memory grade catalog), so the course's own grade reference is not loaded.
+     * @param course The `Course` object from which the name will be extracted.
+     * @param grade The course's grade, or null if it has none.
+     */
+    public CourseResponseDTO(Course course, Grade grade) {
         this.name = course.getName(); // Sets the course name.
 
         // Checks if the course has an associated grade.
-        if (course.getGrade() != null) {
-            this.gradeLetter = course.getGrade().getLetter(); // Sets the grade letter from the Grade object.
-            this.gradeScore = course.getGrade().getScore();   // Sets the grade score from the Grade object.
+        if (grade != null) {
+            this.gradeLetter = grade.getLetter(); // Sets the grade letter from the Grade object.
+            this.gradeScore = grade.getScore();   // Sets the grade score from the Grade object.
         } else {
             // If the grade is null, set defaults to handle gracefully.
             this.gradeLetter = null;
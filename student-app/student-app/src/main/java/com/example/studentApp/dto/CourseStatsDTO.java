@@ -0,0 +1,153 @@
+// Package declaration for organizing this class within the application.
+package com.example.studentApp.dto;
+
+// Importing List to hold the histogram bins.
+import java.util.List;
+
+// A Data Transfer Object (DTO) class describing the grade distribution of one course name.
+// The quantiles are estimates from a t-digest sketch; count, mean, min, max and the histogram are exact.
+public class CourseStatsDTO {
+
+    // The name of the course.
+    private String name;
+
+    // The number of graded enrollments.
+    private long count;
+
+    // The mean grade score.
+    private double mean;
+
+    // The lowest grade score.
+    private double min;
+
+    // The highest grade score.
+    private double max;
+
+    // The estimated 10th percentile of the grade scores.
+    private double p10;
+
+    // The estimated median of the grade scores.
+    private double median;
+
+    // The estimated 90th percentile of the grade scores.
+    private double p90;
+
+    // The number of scores per fixed-width bin, in ascending order; empty bins are omitted.
+    private List<HistogramBinDTO> histogram;
+
+    /**
+     * Constructor to initialize the statistics.
+     *
+     * @param name      The name of the course.
+     * @param count     The number of graded enrollments.
+     * @param mean      The mean grade score.
+     * @param min       The lowest grade score.
+     * @param max       The highest grade score.
+     * @param p10       The estimated 10th percentile.
+     * @param median    The estimated median.
+     * @param p90       The estimated 90th percentile.
+     * @param histogram The non-empty histogram bins in ascending order.
+     */
+    public CourseStatsDTO(String name, long count, double mean, double min, double max,
+                          double p10, double median, double p90, List<HistogramBinDTO> histogram) {
+        this.name = name;
+        this.count = count;
+        this.mean = mean;
+        this.min = min;
+        this.max = max;
+        this.p10 = p10;
+        this.median = median;
+        this.p90 = p90;
+        this.histogram = histogram;
+    }
+
+    // Getter for the course name.
+    public String getName() {
+        return name;
+    }
+
+    // Setter for the course name.
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    // Getter for the number of graded enrollments.
+    public long getCount() {
+        return count;
+    }
+
+    // Setter for the number of graded enrollments.
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    // Getter for the mean score.
+    public double getMean() {
+        return mean;
+    }
+
+    // Setter for the mean score.
+    public void setMean(double mean) {
+        this.mean = mean;
+    }
+
+    // Getter for the lowest score.
+    public double getMin() {
+        return min;
+    }
+
+    // Setter for the lowest score.
+    public void setMin(double min) {
+        this.min = min;
+    }
+
+    // Getter for the highest score.
+    public double getMax() {
+        return max;
+    }
+
+    // Setter for the highest score.
+    public void setMax(double max) {
+        this.max = max;
+    }
+
+    // Getter for the 10th percentile.
+    public double getP10() {
+        return p10;
+    }
+
+    // Setter for the 10th percentile.
+    public void setP10(double p10) {
+        this.p10 = p10;
+    }
+
+    // Getter for the median.
+    public double getMedian() {
+        return median;
+    }
+
+    // Setter for the median.
+    public void setMedian(double median) {
+        this.median = median;
+    }
+
+    // Getter for the 90th percentile.
+    public double getP90() {
+        return p90;
+    }
+
+    // Setter for the 90th percentile.
+    public void setP90(double p90) {
+        this.p90 = p90;
+    }
+
+    // Getter for the histogram bins.
+    public List<HistogramBinDTO> getHistogram() {
+        return histogram;
+    }
+
+    // Setter for the histogram bins.
+    public void setHistogram(List<HistogramBinDTO> histogram) {
+        this.histogram = histogram;
+    }
+}
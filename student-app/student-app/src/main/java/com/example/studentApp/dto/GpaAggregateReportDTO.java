@@ -0,0 +1,61 @@
+// Package declaration for organizing this class within the application.
+package com.example.studentApp.dto;
+
+// Importing List to hold the IDs of inconsistent students.
+import java.util.List;
+
+// A Data Transfer Object (DTO) class describing the result of a GPA aggregate consistency check or rebuild.
+public class GpaAggregateReportDTO {
+
+    // The number of students whose stored aggregate disagreed with their courses.
+    private int staleStudentCount;
+
+    // A sample of the IDs of those students (capped, so the report stays small).
+    private List<Long> staleStudentIds;
+
+    // The number of students rewritten by a rebuild (0 for a check).
+    private int rebuiltStudentCount;
+
+    /**
+     * Constructor to initialize the report.
+     *
+     * @param staleStudentCount   The number of students with a stale aggregate.
+     * @param staleStudentIds     A sample of the IDs of those students.
+     * @param rebuiltStudentCount The number of students rewritten by a rebuild.
+     */
+    public GpaAggregateReportDTO(int staleStudentCount, List<Long> staleStudentIds, int rebuiltStudentCount) {
+        this.staleStudentCount = staleStudentCount;
+        this.staleStudentIds = staleStudentIds;
+        this.rebuiltStudentCount = rebuiltStudentCount;
+    }
+
+    // Getter for the number of students with a stale aggregate.
+    public int getStaleStudentCount() {
+        return staleStudentCount;
+    }
+
+    // Setter for the number of students with a stale aggregate.
+    public void setStaleStudentCount(int staleStudentCount) {
+        this.staleStudentCount = staleStudentCount;
+    }
+
+    // Getter for the sample of stale student IDs.
+    public List<Long> getStaleStudentIds() {
+        return staleStudentIds;
+    }
+
+    // Setter for the sample of stale student IDs.
+    public void setStaleStudentIds(List<Long> staleStudentIds) {
+        this.staleStudentIds = staleStudentIds;
+    }
+
+    // Getter for the number of students rewritten by a rebuild.
+    public int getRebuiltStudentCount() {
+        return rebuiltStudentCount;
+    }
+
+    // Setter for the number of students rewritten by a rebuild.
+    public void setRebuiltStudentCount(int rebuiltStudentCount) {
+        this.rebuiltStudentCount = rebuiltStudentCount;
+    }
+}
@@ -0,0 +1,73 @@
+// Package declaration for organizing this class within the application.
+package com.example.studentApp.dto;
+
+// A Data Transfer Object (DTO) class describing the state of the in-memory grade catalog.
+public class GradeCacheStatsDTO {
+
+    // The number of grades currently cached.
+    private int size;
+
+    // The number of lookups answered from the cache.
+    private long hits;
+
+    // The number of lookups that were not in the cache and went to the database.
+    private long misses;
+
+    // The number of times the catalog was loaded or replaced.
+    private long swaps;
+
+    /**
+     * Constructor to initialize the statistics.
+     *
+     * @param size   The number of grades currently cached.
+     * @param hits   The number of lookups answered from the cache.
+     * @param misses The number of lookups that went to the database.
+     * @param swaps  The number of times the catalog was loaded or replaced.
+     */
+    public GradeCacheStatsDTO(int size, long hits, long misses, long swaps) {
+        this.size = size;
+        this.hits = hits;
+        this.misses = misses;
+        this.swaps = swaps;
+    }
+
+    // Getter for the number of cached grades.
+    public int getSize() {
+        return size;
+    }
+
+    // Setter for the number of cached grades.
+    public void setSize(int size) {
+        this.size = size;
+    }
+
+    // Getter for the number of cache hits.
+    public long getHits() {
+        return hits;
+    }
+
+    // Setter for the number of cache hits.
+    public void setHits(long hits) {
+        this.hits = hits;
+    }
+
+    // Getter for the number of cache misses.
+    public long getMisses() {
+        return misses;
+    }
+
+    // Setter for the number of cache misses.
+    public void setMisses(long misses) {
+        this.misses = misses;
+    }
+
+    // Getter for the number of catalog swaps.
+    public long getSwaps() {
+        return swaps;
+    }
+
+    // Setter for the number of catalog swaps.
+    public void setSwaps(long swaps) {
+        this.swaps = swaps;
+    }
+}
@@ -0,0 +1,58 @@
+// Package declaration for organizing this class within the application.
+package com.example.studentApp.dto;
+
+// A Data Transfer Object (DTO) class describing one bin of a grade score histogram.
+public class HistogramBinDTO {
+
+    // The inclusive lower bound of the bin.
+    private double from;
+
+    // The exclusive upper bound of the bin.
+    private double to;
+
+    // The number of scores in the bin.
+    private long count;
+
+    /**
+     * Constructor to initialize the bin.
+     *
+     * @param from  The inclusive lower bound of the bin.
+     * @param to    The exclusive upper bound of the bin.
+     * @param count The number of scores in the bin.
+     */
+    public HistogramBinDTO(double from, double to, long count) {
+        this.from = from;
+        this.to = to;
+        this.count = count;
+    }
+
+    // Getter for the lower bound.
+    public double getFrom() {
+        return from;
+    }
+
+    // Setter for the lower bound.
+    public void setFrom(double from) {
+        this.from = from;
+    }
+
+    // Getter for the upper bound.
+    public double getTo() {
+        return to;
+    }
+
+    // Setter for the upper bound.
+    public void setTo(double to) {
+        this.to = to;
+    }
+
+    // Getter for the number of scores.
+    public long getCount() {
+        return count;
+    }
+
+    // Setter for the number of scores.
+    public void setCount(long count) {
+        this.count = count;
+    }
+}
@@ -0,0 +1,121 @@
+// Package declaration for organizing this class within the application.
+package com.example.studentApp.dto;
+
+// Importing List to hold the sample of rejected lines.
+import java.util.List;
+
+// A Data Transfer Object (DTO) class summarizing an enrollment import.
+public class ImportReportDTO {
+
+    // The number of data lines read from the file (excluding a header line and blank lines).
+    private long linesRead;
+
+    // The number of courses inserted.
+    private long rowsImported;
+
+    // The number of lines rejected.
+    private long rejectedLines;
+
+    // The number of valid lines skipped because the student already takes a course of that name.
+    private long duplicateLines;
+
+    // A sample of the rejected lines (capped, so the report stays small).
+    private List<RejectedLineDTO> rejections;
+
+    // Total wall-clock time of the import, in milliseconds.
+    private long elapsedMillis;
+
+    // Import throughput: inserted rows per second of wall-clock time.
+    private double rowsPerSecond;
+
+    /**
+     * Constructor to initialize the report.
+     *
+     * @param linesRead     The number of data lines read.
+     * @param rowsImported  The number of courses inserted.
+     * @param rejectedLines The number of lines rejected.
+     * @param duplicateLines The number of lines skipped as duplicate enrollments.
+     * @param rejections    A sample of the rejected lines.
+     * @param elapsedMillis Total wall-clock time in milliseconds.
+     */
+    public ImportReportDTO(long linesRead, long rowsImported, long rejectedLines, long duplicateLines,
+                           List<RejectedLineDTO> rejections, long elapsedMillis) {
+        this.linesRead = linesRead;
+        this.rowsImported = rowsImported;
+        this.rejectedLines = rejectedLines;
+        this.duplicateLines = duplicateLines;
+        this.rejections = rejections;
+        this.elapsedMillis = elapsedMillis;
+        this.rowsPerSecond = elapsedMillis > 0 ? rowsImported * 1000.0 / elapsedMillis : rowsImported;
+    }
+
+    // Getter for the number of data lines read.
+    public long getLinesRead() {
+        return linesRead;
+    }
+
+    // Setter for the number of data lines read.
+    public void setLinesRead(long linesRead) {
+        this.linesRead = linesRead;
+    }
+
+    // Getter for the number of courses inserted.
+    public long getRowsImported() {
+        return rowsImported;
+    }
+
+    // Setter for the number of courses inserted.
+    public void setRowsImported(long rowsImported) {
+        this.rowsImported = rowsImported;
+    }
+
+    // Getter for the number of rejected lines.
+    public long getRejectedLines() {
+        return rejectedLines;
+    }
+
+    // Setter for the number of rejected lines.
+    public void setRejectedLines(long rejectedLines) {
+        this.rejectedLines = rejectedLines;
+    }
+
+    // Getter for the number of duplicate lines.
+    public long getDuplicateLines() {
+        return duplicateLines;
+    }
+
+    // Setter for the number of duplicate lines.
+    public void setDuplicateLines(long duplicateLines) {
+        this.duplicateLines = duplicateLines;
+    }
+
+    // Getter for the sample of rejected lines.
+    public List<RejectedLineDTO> getRejections() {
+        return rejections;
+    }
+
+    // Setter for the sample of rejected lines.
+    public void setRejections(List<RejectedLineDTO> rejections) {
+        this.rejections = rejections;
+    }
+
+    // Getter for the elapsed time in milliseconds.
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    // Setter for the elapsed time in milliseconds.
+    public void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    // Getter for the import throughput.
+    public double getRowsPerSecond() {
+        return rowsPerSecond;
+    }
+
+    // Setter for the import throughput.
+    public void setRowsPerSecond(double rowsPerSecond) {
+        this.rowsPerSecond = rowsPerSecond;
+    }
+}
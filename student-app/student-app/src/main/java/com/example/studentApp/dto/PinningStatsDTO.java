@@ -0,0 +1,107 @@
+// Package declaration for organizing this class within the application.
+package com.example.studentApp.dto;
+
+// Importing Map to hold the pinning counts per stack frame.
+import java.util.Map;
+
+// A Data Transfer Object (DTO) class describing virtual thread pinning observed since startup.
+public class PinningStatsDTO {
+
+    // Whether requests run on virtual threads.
+    private boolean virtualThreadsEnabled;
+
+    // Whether the JFR pinning monitor is running.
+    private boolean monitoring;
+
+    // The number of pinning events recorded.
+    private long pinnedEvents;
+
+    // The total time virtual threads spent pinned, in milliseconds.
+    private long pinnedMillisTotal;
+
+    // The longest single pinning, in milliseconds.
+    private long pinnedMillisMax;
+
+    // The most frequent first non-JDK frames of the pinned stacks, with their event counts.
+    private Map<String, Long> topFrames;
+
+    /**
+     * Constructor to initialize the statistics.
+     *
+     * @param virtualThreadsEnabled Whether requests run on virtual threads.
+     * @param monitoring            Whether the JFR pinning monitor is running.
+     * @param pinnedEvents          The number of pinning events recorded.
+     * @param pinnedMillisTotal     The total pinned time in milliseconds.
+     * @param pinnedMillisMax       The longest single pinning in milliseconds.
+     * @param topFrames             The most frequent pinning frames with their counts.
+     */
+    public PinningStatsDTO(boolean virtualThreadsEnabled, boolean monitoring, long pinnedEvents,
+                           long pinnedMillisTotal, long pinnedMillisMax, Map<String, Long> topFrames) {
+        this.virtualThreadsEnabled = virtualThreadsEnabled;
+        this.monitoring = monitoring;
+        this.pinnedEvents = pinnedEvents;
+        this.pinnedMillisTotal = pinnedMillisTotal;
+        this.pinnedMillisMax = pinnedMillisMax;
+        this.topFrames = topFrames;
+    }
+
+    // Getter for whether virtual threads are enabled.
+    public boolean isVirtualThreadsEnabled() {
+        return virtualThreadsEnabled;
+    }
+
+    // Setter for whether virtual threads are enabled.
+    public void setVirtualThreadsEnabled(boolean virtualThreadsEnabled) {
+        this.virtualThreadsEnabled = virtualThreadsEnabled;
+    }
+
+    // Getter for whether the monitor is running.
+    public boolean isMonitoring() {
+        return monitoring;
+    }
+
+    // Setter for whether the monitor is running.
+    public void setMonitoring(boolean monitoring) {
+        this.monitoring = monitoring;
+    }
+
+    // Getter for the number of pinning events.
+    public long getPinnedEvents() {
+        return pinnedEvents;
+    }
+
+    // Setter for the number of pinning events.
+    public void setPinnedEvents(long pinnedEvents) {
+        this.pinnedEvents = pinnedEvents;
+    }
+
+    // Getter for the total pinned time in milliseconds.
+    public long getPinnedMillisTotal() {
+        return pinnedMillisTotal;
+    }
+
+    // Setter for the total pinned time in milliseconds.
+    public void setPinnedMillisTotal(long pinnedMillisTotal) {
+        this.pinnedMillisTotal = pinnedMillisTotal;
+    }
+
+    // Getter for the longest pinning in milliseconds.
+    public long getPinnedMillisMax() {
+        return pinnedMillisMax;
+    }
+
+    // Setter for the longest pinning in milliseconds.
+    public void setPinnedMillisMax(long pinnedMillisMax) {
+        this.pinnedMillisMax = pinnedMillisMax;
+    }
+
+    // Getter for the pinning counts per frame.
+    public Map<String, Long> getTopFrames() {
+        return topFrames;
+    }
+
+    // Setter for the pinning counts per frame.
+    public void setTopFrames(Map<String, Long> topFrames) {
+        this.topFrames = topFrames;
+    }
+}
@@ -0,0 +1,43 @@
+// Package declaration for organizing this class within the application.
+package com.example.studentApp.dto;
+
+// A Data Transfer Object (DTO) class describing a line of an import file that was rejected.
+public class RejectedLineDTO {
+
+    // The one-based line number in the file.
+    private long lineNumber;
+
+    // Why the line was rejected.
+    private String reason;
+
+    /**
+     * Constructor to initialize the rejected line.
+     *
+     * @param lineNumber The one-based line number in the file.
+     * @param reason     Why the line was rejected.
+     */
+    public RejectedLineDTO(long lineNumber, String reason) {
+        this.lineNumber = lineNumber;
+        this.reason = reason;
+    }
+
+    // Getter for the line number.
+    public long getLineNumber() {
+        return lineNumber;
+    }
+
+    // Setter for the line number.
+    public void setLineNumber(long lineNumber) {
+        this.lineNumber = lineNumber;
+    }
+
+    // Getter for the rejection reason.
+    public String getReason() {
+        return reason;
+    }
+
+    // Setter for the rejection reason.
+    public void setReason(String reason) {
+        this.reason = reason;
+    }
+}
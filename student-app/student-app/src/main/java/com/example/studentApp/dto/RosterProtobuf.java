@@ -0,0 +1,261 @@
+package com.example.studentApp.dto;
+
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Protobuf encoding of the roster and course DTOs, following the schema in src/main/proto/roster.proto.
+ *
+ * The DTOs are written straight to a CodedOutputStream, without building generated message objects first,
+ * so a roster costs one pass over the DTOs (plus computing each nested message's length) and no copies.
+ *
+ * Responsibilities:
+ * - Write StudentList, StudentPage and CourseList messages (see RosterProtobufHttpMessageConverter).
+ * - Read them back, for clients and benchmarks; absent strings are read as null and absent courses as an empty list.
+ */
+public final class RosterProtobuf {
+
+    // Student fields
+    private static final int STUDENT_ID = 1 << 3 | WireFormat.WIRETYPE_VARINT;
+    private static final int STUDENT_NAME = 2 << 3 | WireFormat.WIRETYPE_LENGTH_DELIMITED;
+    private static final int STUDENT_EMAIL = 3 << 3 | WireFormat.WIRETYPE_LENGTH_DELIMITED;
+    private static final int STUDENT_GPA = 4 << 3 | WireFormat.WIRETYPE_FIXED64;
+    private static final int STUDENT_COURSES = 5 << 3 | WireFormat.WIRETYPE_LENGTH_DELIMITED;
+    // Course fields
+    private static final int COURSE_NAME = 1 << 3 | WireFormat.WIRETYPE_LENGTH_DELIMITED;
+    private static final int COURSE_GRADE_LETTER = 2 << 3 | WireFormat.WIRETYPE_LENGTH_DELIMITED;
+    private static final int COURSE_GRADE_SCORE = 3 << 3 | WireFormat.WIRETYPE_FIXED64;
+    // StudentList / StudentPage / CourseList fields
+    private static final int LIST_ITEMS = 1 << 3 | WireFormat.WIRETYPE_LENGTH_DELIMITED;
+    private static final int PAGE_NEXT_CURSOR = 2 << 3 | WireFormat.WIRETYPE_VARINT;
+
+    // Size of the buffer between the coded stream and the response stream
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    // Utility class, not meant to be instantiated.
+    private RosterProtobuf() {
+    }
+
+    /**
+     * Writes a StudentList message.
+     *
+     * @param students The students.
+     * @param out The stream to write to; flushed but not closed.
+     * @throws IOException if writing fails.
+     */
+    public static void writeStudents(List<StudentResponseDTO> students, OutputStream out) throws IOException {
+        CodedOutputStream coded = CodedOutputStream.newInstance(out, BUFFER_SIZE);
+        for (StudentResponseDTO student : students) {
+            writeStudent(coded, student);
+        }
+        coded.flush();
+    }
+
+    /**
+     * Writes a StudentPage message.
+     *
+     * @param page The page.
+     * @param out The stream to write to; flushed but not closed.
+     * @throws IOException if writing fails.
+     */
+    public static void writeStudentPage(StudentPageDTO page, OutputStream out) throws IOException {
+        CodedOutputStream coded = CodedOutputStream.newInstance(out, BUFFER_SIZE);
+        for (StudentResponseDTO student : page.getStudents()) {
+            writeStudent(coded, student);
+        }
+        if (page.getNextCursor() != null) {
+            coded.writeUInt32NoTag(PAGE_NEXT_CURSOR);
+            coded.writeInt64NoTag(page.getNextCursor());
+        }
+        coded.flush();
+    }
+
+    /**
+     * Writes a CourseList message.
+     *
+     * @param courses The courses.
+     * @param out The stream to write to; flushed but not closed.
+     * @throws IOException if writing fails.
+     */
+    public static void writeCourses(List<CourseResponseDTO> courses, OutputStream out) throws IOException {
+        CodedOutputStream coded = CodedOutputStream.newInstance(out, BUFFER_SIZE);
+        for (CourseResponseDTO course : courses) {
+            coded.writeUInt32NoTag(LIST_ITEMS);
+            coded.writeUInt32NoTag(courseSize(course));
+            writeCourseFields(coded, course);
+        }
+        coded.flush();
+    }
+
+    /**
+     * Reads a StudentList (or StudentPage) message.
+     *
+     * @param in The stream to read to its end.
+     * @return The students.
+     * @throws IOException if reading fails or the message is malformed.
+     */
+    public static List<StudentResponseDTO> readStudents(InputStream in) throws IOException {
+        return readStudentPage(in).getStudents();
+    }
+
+    /**
+     * Reads a StudentPage (or StudentList) message.
+     *
+     * @param in The stream to read to its end.
+     * @return The page; its cursor is null when absent.
+     * @throws IOException if reading fails or the message is malformed.
+     */
+    public static StudentPageDTO readStudentPage(InputStream in) throws IOException {
+        CodedInputStream coded = CodedInputStream.newInstance(in, BUFFER_SIZE);
+        List<StudentResponseDTO> students = new ArrayList<>();
+        Long nextCursor = null;
+        for (int tag = coded.readTag(); tag != 0; tag = coded.readTag()) {
+            switch (tag) {
+                case LIST_ITEMS -> {
+                    int limit = coded.pushLimit(coded.readRawVarint32());
+                    students.add(readStudent(coded));
+                    coded.popLimit(limit);
+                }
+                case PAGE_NEXT_CURSOR -> nextCursor = coded.readInt64();
+                default -> coded.skipField(tag);
+            }
+        }
+        return new StudentPageDTO(students, nextCursor);
+    }
+
+    /**
+     * Reads a CourseList message.
+     *
+     * @param in The stream to read to its end.
+     * @return The courses.
+     * @throws IOException if reading fails or the message is malformed.
+     */
+    public static List<CourseResponseDTO> readCourses(InputStream in) throws IOException {
+        CodedInputStream coded = CodedInputStream.newInstance(in, BUFFER_SIZE);
+        List<CourseResponseDTO> courses = new ArrayList<>();
+        for (int tag = coded.readTag(); tag != 0; tag = coded.readTag()) {
+            if (tag == LIST_ITEMS) {
+                courses.add(readEmbeddedCourse(coded));
+            } else {
+                coded.skipField(tag);
+            }
+        }
+        return courses;
+    }
+
+    // Writes a student as an item of a StudentList or StudentPage.
+    private static void writeStudent(CodedOutputStream coded, StudentResponseDTO student) throws IOException {
+        coded.writeUInt32NoTag(LIST_ITEMS);
+        coded.writeUInt32NoTag(studentSize(student));
+        if (student.getId() != null && student.getId() != 0) {
+            coded.writeUInt32NoTag(STUDENT_ID);
+            coded.writeInt64NoTag(student.getId());
+        }
+        writeString(coded, STUDENT_NAME, student.getName());
+        writeString(coded, STUDENT_EMAIL, student.getEmail());
+        if (student.getGpa() != 0) {
+            coded.writeUInt32NoTag(STUDENT_GPA);
+            coded.writeDoubleNoTag(student.getGpa());
+        }
+        if (student.getCourses() != null) {
+            for (CourseResponseDTO course : student.getCourses()) {
+                coded.writeUInt32NoTag(STUDENT_COURSES);
+                coded.writeUInt32NoTag(courseSize(course));
+                writeCourseFields(coded, course);
+            }
+        }
+    }
+
+    // Writes the fields of a Course message.
+    private static void writeCourseFields(CodedOutputStream coded, CourseResponseDTO course) throws IOException {
+        writeString(coded, COURSE_NAME, course.getName());
+        writeString(coded, COURSE_GRADE_LETTER, course.getGradeLetter());
+        if (course.getGradeScore() != 0) {
+            coded.writeUInt32NoTag(COURSE_GRADE_SCORE);
+            coded.writeDoubleNoTag(course.getGradeScore());
+        }
+    }
+
+    // Writes a string field unless it has the default value.
+    private static void writeString(CodedOutputStream coded, int tag, String value) throws IOException {
+        if (value != null && !value.isEmpty()) {
+            coded.writeUInt32NoTag(tag);
+            coded.writeStringNoTag(value);
+        }
+    }
+
+    // Encoded size of a Student message, without its own tag and length.
+    private static int studentSize(StudentResponseDTO student) {
+        int size = 0;
+        if (student.getId() != null && student.getId() != 0) {
+            size += 1 + CodedOutputStream.computeInt64SizeNoTag(student.getId());
+        }
+        size += stringSize(student.getName()) + stringSize(student.getEmail());
+        if (student.getGpa() != 0) {
+            size += 1 + 8;
+        }
+        if (student.getCourses() != null) {
+            for (CourseResponseDTO course : student.getCourses()) {
+                int courseSize = courseSize(course);
+                size += 1 + CodedOutputStream.computeUInt32SizeNoTag(courseSize) + courseSize;
+            }
+        }
+        return size;
+    }
+
+    // Encoded size of a Course message, without its own tag and length.
+    private static int courseSize(CourseResponseDTO course) {
+        return stringSize(course.getName()) + stringSize(course.getGradeLetter())
+                + (course.getGradeScore() != 0 ? 1 + 8 : 0);
+    }
+
+    // Encoded size of a string field with a one-byte tag, 0 when it has the default value.
+    private static int stringSize(String value) {
+        return value != null && !value.isEmpty() ? 1 + CodedOutputStream.computeStringSizeNoTag(value) : 0;
+    }
+
+    // Reads the fields of a Student message up to the current limit.
+    private static StudentResponseDTO readStudent(CodedInputStream coded) throws IOException {
+        Long id = null;
+        String name = null;
+        String email = null;
+        double gpa = 0;
+        List<CourseResponseDTO> courses = new ArrayList<>();
+        for (int tag = coded.readTag(); tag != 0; tag = coded.readTag()) {
+            switch (tag) {
+                case STUDENT_ID -> id = coded.readInt64();
+                case STUDENT_NAME -> name = coded.readStringRequireUtf8();
+                case STUDENT_EMAIL -> email = coded.readStringRequireUtf8();
+                case STUDENT_GPA -> gpa = coded.readDouble();
+                case STUDENT_COURSES -> courses.add(readEmbeddedCourse(coded));
+                default -> coded.skipField(tag);
+            }
+        }
+        return new StudentResponseDTO(id, name, email, gpa, courses);
+    }
+
+    // Reads a length-delimited Course message.
+    private static CourseResponseDTO readEmbeddedCourse(CodedInputStream coded) throws IOException {
+        int limit = coded.pushLimit(coded.readRawVarint32());
+        String name = null;
+        String gradeLetter = null;
+        double gradeScore = 0;
+        for (int tag = coded.readTag(); tag != 0; tag = coded.readTag()) {
+            switch (tag) {
+                case COURSE_NAME -> name = coded.readStringRequireUtf8();
+                case COURSE_GRADE_LETTER -> gradeLetter = coded.readStringRequireUtf8();
+                case COURSE_GRADE_SCORE -> gradeScore = coded.readDouble();
+                default -> coded.skipField(tag);
+            }
+        }
+        coded.popLimit(limit);
+        return new CourseResponseDTO(name, gradeLetter, gradeScore);
+    }
+}
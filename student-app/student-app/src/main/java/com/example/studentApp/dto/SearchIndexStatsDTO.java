@@ -0,0 +1,104 @@
+// Package declaration for organizing this class within the application.
+package com.example.studentApp.dto;
+
+// A Data Transfer Object (DTO) class describing the size of the in-memory student search index.
+public class SearchIndexStatsDTO {
+
+    // The number of indexed students.
+    private int students;
+
+    // The number of distinct tokens of the names and emails.
+    private int tokens;
+
+    // The number of nodes of the prefix trie.
+    private int trieNodes;
+
+    // The number of distinct trigrams used for infix and fuzzy matching.
+    private int trigrams;
+
+    // The number of (student, token) postings.
+    private long postings;
+
+    // The estimated heap footprint of the index, in bytes.
+    private long estimatedBytes;
+
+    /**
+     * Constructor to initialize the statistics.
+     *
+     * @param students       The number of indexed students.
+     * @param tokens         The number of distinct tokens.
+     * @param trieNodes      The number of trie nodes.
+     * @param trigrams       The number of distinct trigrams.
+     * @param postings       The number of (student, token) postings.
+     * @param estimatedBytes The estimated heap footprint in bytes.
+     */
+    public SearchIndexStatsDTO(int students, int tokens, int trieNodes, int trigrams, long postings,
+                               long estimatedBytes) {
+        this.students = students;
+        this.tokens = tokens;
+        this.trieNodes = trieNodes;
+        this.trigrams = trigrams;
+        this.postings = postings;
+        this.estimatedBytes = estimatedBytes;
+    }
+
+    // Getter for the number of students.
+    public int getStudents() {
+        return students;
+    }
+
+    // Setter for the number of students.
+    public void setStudents(int students) {
+        this.students = students;
+    }
+
+    // Getter for the number of tokens.
+    public int getTokens() {
+        return tokens;
+    }
+
+    // Setter for the number of tokens.
+    public void setTokens(int tokens) {
+        this.tokens = tokens;
+    }
+
+    // Getter for the number of trie nodes.
+    public int getTrieNodes() {
+        return trieNodes;
+    }
+
+    // Setter for the number of trie nodes.
+    public void setTrieNodes(int trieNodes) {
+        this.trieNodes = trieNodes;
+    }
+
+    // Getter for the number of trigrams.
+    public int getTrigrams() {
+        return trigrams;
+    }
+
+    // Setter for the number of trigrams.
+    public void setTrigrams(int trigrams) {
+        this.trigrams = trigrams;
+    }
+
+    // Getter for the number of postings.
+    public long getPostings() {
+        return postings;
+    }
+
+    // Setter for the number of postings.
+    public void setPostings(long postings) {
+        this.postings = postings;
+    }
+
+    // Getter for the estimated footprint in bytes.
+    public long getEstimatedBytes() {
+        return estimatedBytes;
+    }
+
+    // Setter for the estimated footprint in bytes.
+    public void setEstimatedBytes(long estimatedBytes) {
+        this.estimatedBytes = estimatedBytes;
+    }
+}
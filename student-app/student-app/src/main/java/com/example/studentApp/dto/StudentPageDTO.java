@@ -0,0 +1,46 @@
+// Package declaration to organize this class within the project structure.
+package com.example.studentApp.dto;
+
+// Importing List to manage a collection of StudentResponseDTO objects.
+import java.util.List;
+
+// A Data Transfer Object (DTO) class for representing one page of the student roster.
+public class StudentPageDTO {
+
+    // The students on this page, ordered by ID.
+    private List<StudentResponseDTO> students;
+
+    // The cursor to pass as `after` to fetch the next page, or null when this is the last page.
+    private Long nextCursor;
+
+    /**
+     * Constructor to initialize the StudentPageDTO.
+     *
+     * @param students   The students on this page.
+     * @param nextCursor The cursor of the next page, or null if there are no more students.
+     */
+    public StudentPageDTO(List<StudentResponseDTO> students, Long nextCursor) {
+        this.students = students;       // Set the students on the page.
+        this.nextCursor = nextCursor;   // Set the cursor of the next page.
+    }
+
+    // Getter for the students on the page.
+    public List<StudentResponseDTO> getStudents() {
+        return students;
+    }
+
+    // Setter for the students on the page.
+    public void setStudents(List<StudentResponseDTO> students) {
+        this.students = students;
+    }
+
+    // Getter for the cursor of the next page.
+    public Long getNextCursor() {
+        return nextCursor;
+    }
+
+    // Setter for the cursor of the next page.
+    public void setNextCursor(Long nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
@@ -0,0 +1,88 @@
+// Package declaration for organizing this class within the application.
+package com.example.studentApp.dto;
+
+// A Data Transfer Object (DTO) class describing a student's position in the GPA ranking.
+public class StudentRankDTO {
+
+    // The unique identifier of the student.
+    private Long id;
+
+    // The name of the student.
+    private String name;
+
+    // The student's GPA.
+    private double gpa;
+
+    // The 1-based class rank; students with the same GPA share a rank. Null if the student has no graded courses.
+    private Long rank;
+
+    // The number of students in the ranking (those with at least one graded course).
+    private long rankedStudents;
+
+    /**
+     * Constructor to initialize the rank.
+     *
+     * @param id             The unique identifier of the student.
+     * @param name           The name of the student.
+     * @param gpa            The student's GPA.
+     * @param rank           The 1-based class rank, or null if the student is not ranked.
+     * @param rankedStudents The number of students in the ranking.
+     */
+    public StudentRankDTO(Long id, String name, double gpa, Long rank, long rankedStudents) {
+        this.id = id;
+        this.name = name;
+        this.gpa = gpa;
+        this.rank = rank;
+        this.rankedStudents = rankedStudents;
+    }
+
+    // Getter for the student ID.
+    public Long getId() {
+        return id;
+    }
+
+    // Setter for the student ID.
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    // Getter for the student name.
+    public String getName() {
+        return name;
+    }
+
+    // Setter for the student name.
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    // Getter for the GPA.
+    public double getGpa() {
+        return gpa;
+    }
+
+    // Setter for the GPA.
+    public void setGpa(double gpa) {
+        this.gpa = gpa;
+    }
+
+    // Getter for the class rank.
+    public Long getRank() {
+        return rank;
+    }
+
+    // Setter for the class rank.
+    public void setRank(Long rank) {
+        this.rank = rank;
+    }
+
+    // Getter for the number of ranked students.
+    public long getRankedStudents() {
+        return rankedStudents;
+    }
+
+    // Setter for the number of ranked students.
+    public void setRankedStudents(long rankedStudents) {
+        this.rankedStudents = rankedStudents;
+    }
+}
@@ -7,6 +7,25 @@ import java.util.List;
 // A Data Transfer Object (DTO) class for representing a student's details in a structured and simplified manner.
 public class StudentResponseDTO {
 
+    /**
+     * The JSON properties a client can select with the `fields` query parameter of the roster.
+     */
+    public enum Field {
+        ID("id"), NAME("name"), EMAIL("email"), GPA("gpa"), COURSES("courses");
+
+        // The JSON property name.
+        private final String property;
+
+        Field(String property) {
+            this.property = property;
+        }
+
+        // Returns the JSON property name.
+        public String property() {
+            return property;
+        }
+    }
+
     // Unique identifier for the student.
     private Long id;
 
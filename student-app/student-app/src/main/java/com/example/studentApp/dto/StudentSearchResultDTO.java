@@ -0,0 +1,73 @@
+// Package declaration for organizing this class within the application.
+package com.example.studentApp.dto;
+
+// A Data Transfer Object (DTO) class describing one student found by a search.
+public class StudentSearchResultDTO {
+
+    // The unique identifier of the student.
+    private Long id;
+
+    // The name of the student.
+    private String name;
+
+    // The email of the student.
+    private String email;
+
+    // The relevance of the match; higher is better (1.0 per query term matching a whole token).
+    private double score;
+
+    /**
+     * Constructor to initialize the result.
+     *
+     * @param id    The unique identifier of the student.
+     * @param name  The name of the student.
+     * @param email The email of the student.
+     * @param score The relevance of the match.
+     */
+    public StudentSearchResultDTO(Long id, String name, String email, double score) {
+        this.id = id;
+        this.name = name;
+        this.email = email;
+        this.score = score;
+    }
+
+    // Getter for the student ID.
+    public Long getId() {
+        return id;
+    }
+
+    // Setter for the student ID.
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    // Getter for the student name.
+    public String getName() {
+        return name;
+    }
+
+    // Setter for the student name.
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    // Getter for the student email.
+    public String getEmail() {
+        return email;
+    }
+
+    // Setter for the student email.
+    public void setEmail(String email) {
+        this.email = email;
+    }
+
+    // Getter for the relevance.
+    public double getScore() {
+        return score;
+    }
+
+    // Setter for the relevance.
+    public void setScore(double score) {
+        this.score = score;
+    }
+}
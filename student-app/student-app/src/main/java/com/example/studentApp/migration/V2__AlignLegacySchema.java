@@ -0,0 +1,61 @@
+package com.example.studentApp.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Brings tables created by earlier versions of the application up to the schema of V1.
+ *
+ * Written in Java because SQLite has neither `add column if not exists` nor `alter column`:
+ * - Adds `student.grade_score_sum` and `student.graded_course_count` when they are missing. The
+ *   GPA aggregates start at 0 and are rebuilt at startup (`student-app.gpa.verify-on-startup`).
+ * - Rebuilds the `grade` table when `score` was declared `integer` (the original schema), so that
+ *   Hibernate's schema validation finds the `float` column the entity maps.
+ *
+ * On a database created by V1 this migration changes nothing.
+ */
+public class V2__AlignLegacySchema extends BaseJavaMigration {
+
+    @Override
+    public void migrate(Context context) throws SQLException {
+        Connection connection = context.getConnection();
+        try (Statement statement = connection.createStatement()) {
+            Map<String, String> studentColumns = columnTypes(statement, "student");
+            if (!studentColumns.containsKey("grade_score_sum")) {
+                statement.execute("alter table student add column grade_score_sum float default 0 not null");
+            }
+            if (!studentColumns.containsKey("graded_course_count")) {
+                statement.execute("alter table student add column graded_course_count integer default 0 not null");
+            }
+
+            if (!"float".equals(columnTypes(statement, "grade").get("score"))) {
+                // Copy into a table with the V1 definition, then swap it in (IDs are kept)
+                statement.execute("create table grade_v2 (id integer, letter varchar(255), score float not null, "
+                        + "primary key (id))");
+                statement.execute("insert into grade_v2 (id, letter, score) select id, letter, score from grade");
+                statement.execute("drop table grade");
+                statement.execute("alter table grade_v2 rename to grade");
+            }
+        }
+    }
+
+    // Declared column types of a table, by lower-case column name.
+    private static Map<String, String> columnTypes(Statement statement, String table) throws SQLException {
+        Map<String, String> types = new HashMap<>();
+        try (ResultSet columns = statement.executeQuery("pragma table_info(" + table + ")")) {
+            while (columns.next()) {
+                types.put(columns.getString("name").toLowerCase(Locale.ROOT),
+                        columns.getString("type").toLowerCase(Locale.ROOT));
+            }
+        }
+        return types;
+    }
+}
@@ -14,12 +14,18 @@ import jakarta.persistence.*;
 
 // Marks this class as a JPA entity, indicating it is mapped to a database table.
 @Entity
+// A student takes each course name at most once. The schema, including these indexes, is created by the
+// Flyway migrations (V3__course_lookup_indexes.sql); the annotations document it for readers of the entity.
+@Table(uniqueConstraints = @UniqueConstraint(name = "ux_course_student_name", columnNames = {"student_id", "name"}),
+        indexes = @Index(name = "ix_course_student_name_grade", columnList = "student_id, name, grade_id"))
 public class Course {
 
     // Specifies the primary key of the entity.
     @Id
-    // Indicates that the ID is auto-generated by the database using the identity strategy.
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Indicates that the ID is assigned by SequentialIdGenerator before the insert, so inserts can be batched.
+    @SequentialId
+    // Declared as SQLite's `integer` (not `bigint`) so the column is an alias of the rowid, as created by the migrations.
+    @Column(columnDefinition = "integer")
     private Long id;
 
     // Represents the name of the course (e.g., "Math 101").
@@ -27,18 +33,20 @@ public class Course {
 
     // Defines a many-to-one relationship between the Course and the Student entity.
     // A course is associated with one student, and a student can have many courses.
-    // FetchType.EAGER ensures the associated student is loaded immediately when the course is retrieved.
-    @ManyToOne(fetch = FetchType.EAGER)
+    // FetchType.LAZY leaves the student unloaded: reading a course must not cost a second query for its student
+    // (with EAGER, listing N courses issued up to N extra selects). Callers that need the student load it explicitly.
+    @ManyToOne(fetch = FetchType.LAZY)
     // Maps the "student_id" column in the "Course" table to the "id" column in the "Student" table.
-    @JoinColumn(name = "student_id", referencedColumnName = "id")
+    // The column is declared `bigint` by the migrations (the ID it references is `integer`, see Student.id).
+    @JoinColumn(name = "student_id", referencedColumnName = "id", columnDefinition = "bigint")
     private Student student;
 
     // Defines a many-to-one relationship between the Course and the Grade entity.
     // A course is associated with one grade, and the same grade can be shared across multiple courses.
-    // FetchType.EAGER ensures the associated grade is loaded immediately when the course is retrieved.
-    @ManyToOne(fetch = FetchType.EAGER)
+    // FetchType.LAZY leaves the grade unloaded: services resolve it by ID from the in-memory GradeCatalog.
+    @ManyToOne(fetch = FetchType.LAZY)
     // Maps the "grade_id" column in the "Course" table to the "id" column in the "Grade" table.
-    @JoinColumn(name = "grade_id", referencedColumnName = "id")
+    @JoinColumn(name = "grade_id", referencedColumnName = "id", columnDefinition = "bigint")
     private Grade grade;
 
     // --- Getters and Setters ---
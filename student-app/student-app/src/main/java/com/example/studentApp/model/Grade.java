@@ -18,8 +18,10 @@ public class Grade {
 
     // Specifies the primary key of the entity.
     @Id
-    // Indicates that the ID is auto-generated by the database using the identity strategy.
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Indicates that the ID is assigned by SequentialIdGenerator before the insert, so inserts can be batched.
+    @SequentialId
+    // Declared as SQLite's `integer` (not `bigint`) so the column is an alias of the rowid, as created by the migrations.
+    @Column(columnDefinition = "integer")
     private Long id;
 
     // Represents the letter grade (e.g., "A", "B", "C").
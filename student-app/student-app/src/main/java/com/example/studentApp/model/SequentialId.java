@@ -0,0 +1,22 @@
+// Package declaration organizes this class within the project's structure.
+package com.example.studentApp.model;
+
+// Import statement for registering a custom identifier generator.
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks an entity ID as generated by {@link SequentialIdGenerator}.
+ *
+ * Unlike `GenerationType.IDENTITY`, the ID is known before the INSERT runs,
+ * which allows Hibernate to group inserts into JDBC batches.
+ */
+@IdGeneratorType(SequentialIdGenerator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface SequentialId {
+}
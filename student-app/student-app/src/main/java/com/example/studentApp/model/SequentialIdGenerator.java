@@ -0,0 +1,117 @@
+// Package declaration organizes this class within the project's structure.
+package com.example.studentApp.model;
+
+// Import statements for the Hibernate generator SPI.
+import org.hibernate.HibernateException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.AnnotationBasedGenerator;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.EventTypeSets;
+import org.hibernate.generator.GeneratorCreationContext;
+
+import java.lang.reflect.Member;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.EnumSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands out IDs from an in-memory counter seeded with the table's current maximum ID.
+ *
+ * Why not the alternatives:
+ * - `IDENTITY` needs the row to be inserted before the ID is known, which disables JDBC batching.
+ * - SQLite has no sequences, and a table-backed generator allocates its blocks on a second
+ *   connection, which cannot write while a batch transaction holds SQLite's single write lock.
+ *
+ * One generator instance exists per entity and SessionFactory. The counter is seeded lazily on the
+ * first insert, over the session's own connection, and then never touches the database again.
+ * This assumes a single application process writes to the database file, which SQLite's
+ * one-writer model already requires.
+ *
+ * When the database is sharded, the IDs come from the ShardedIdAllocator in the Hibernate settings
+ * instead, so they are unique across shards; an entity persisted with an ID already assigned (a student,
+ * whose ID picks its shard) keeps that ID.
+ */
+public class SequentialIdGenerator implements BeforeExecutionGenerator, AnnotationBasedGenerator<SequentialId> {
+
+    // Name of the table the entity is mapped to, used to seed the counter.
+    private String tableName;
+
+    // Last ID handed out; null until the first insert seeds it.
+    private volatile AtomicLong lastId;
+
+    // IDs shared by all shards; null when the database is not sharded.
+    private ShardedIdAllocator allocator;
+
+    /**
+     * Called by Hibernate once for each entity annotated with {@link SequentialId}.
+     * (Hibernate creates the instance through Spring's bean container, so the generator has a
+     * default constructor and receives its configuration here.)
+     *
+     * @param config the annotation instance.
+     * @param member the annotated ID field.
+     * @param context access to the entity's mapping.
+     */
+    @Override
+    public void initialize(SequentialId config, Member member, GeneratorCreationContext context) {
+        this.tableName = context.getPersistentClass().getTable().getName();
+        Object allocator = context.getServiceRegistry().requireService(ConfigurationService.class)
+                .getSettings().get(ShardedIdAllocator.HIBERNATE_SETTING);
+        this.allocator = allocator instanceof ShardedIdAllocator sharded ? sharded : null;
+    }
+
+    /**
+     * Generates the next ID for a new entity.
+     *
+     * @return the next ID, one higher than any ID previously handed out or stored in the table.
+     */
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner, Object currentValue,
+                           EventType eventType) {
+        if (allocator != null) {
+            // Hibernate passes no current value on insert, so the assigned ID is read from the entity
+            Object assigned = session.getEntityPersister(null, owner).getIdentifier(owner, session);
+            return assigned != null ? assigned : allocator.allocate(tableName, 1);
+        }
+        AtomicLong counter = lastId;
+        if (counter == null) {
+            counter = seed(session);
+        }
+        return counter.incrementAndGet();
+    }
+
+    /**
+     * Only sharded databases assign IDs before persisting.
+     */
+    @Override
+    public boolean allowAssignedIdentifiers() {
+        return allocator != null;
+    }
+
+    /**
+     * IDs are only generated when an entity is inserted.
+     */
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return EventTypeSets.INSERT_ONLY;
+    }
+
+    // Reads the current maximum ID once, over the session's connection (so no second connection is needed).
+    private synchronized AtomicLong seed(SharedSessionContractImplementor session) {
+        if (lastId == null) {
+            Connection connection = session.getJdbcCoordinator().getLogicalConnection().getPhysicalConnection();
+            try (Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery("select coalesce(max(id), 0) from " + tableName)) {
+                rs.next();
+                lastId = new AtomicLong(rs.getLong(1));
+            } catch (SQLException e) {
+                throw new HibernateException("Could not seed the ID generator for table " + tableName, e);
+            }
+        }
+        return lastId;
+    }
+}
@@ -0,0 +1,85 @@
+// Package declaration organizes this class within the project's structure.
+package com.example.studentApp.model;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands out entity IDs that are unique across all shards of a sharded database.
+ *
+ * Each shard would otherwise seed SequentialIdGenerator with its own maximum ID, and two shards
+ * would hand out the same IDs. Instead there is one in-memory counter per table, seeded on first
+ * use with the highest ID stored in any shard. Students need their ID before they are written,
+ * since it picks their shard, so the services allocate those up front; everything else gets its
+ * ID from SequentialIdGenerator, which draws from the same counters.
+ *
+ * The seed reads each shard over a connection of its own (a read-only one when there is one), so it
+ * never waits for a writer connection, which the caller may be holding.
+ */
+public class ShardedIdAllocator {
+
+    /**
+     * Hibernate setting through which SequentialIdGenerator receives the allocator.
+     */
+    public static final String HIBERNATE_SETTING = "student_app.sharded_id_allocator";
+
+    // Read connections of every shard, used to seed the counters
+    private final List<DataSource> shards;
+    // Last ID handed out, by table name
+    private final Map<String, AtomicLong> lastIds = new ConcurrentHashMap<>();
+
+    /**
+     * Creates the allocator; no shard is read until the first ID is allocated.
+     *
+     * @param shards A DataSource for reading each shard.
+     */
+    public ShardedIdAllocator(List<DataSource> shards) {
+        this.shards = List.copyOf(shards);
+    }
+
+    /**
+     * Allocates a block of consecutive IDs.
+     *
+     * @param table The table the IDs are for.
+     * @param count The number of IDs.
+     * @return The first ID of the block.
+     */
+    public long allocate(String table, int count) {
+        table = table.toLowerCase(Locale.ROOT); // The entity's table name may be quoted in another case
+        AtomicLong lastId = lastIds.get(table);
+        if (lastId == null) {
+            lastId = seed(table);
+        }
+        return lastId.addAndGet(count) - count + 1;
+    }
+
+    // Reads the table's maximum ID across all shards once.
+    private synchronized AtomicLong seed(String table) {
+        AtomicLong lastId = lastIds.get(table);
+        if (lastId != null) {
+            return lastId;
+        }
+        long max = 0;
+        for (DataSource shard : shards) {
+            try (Connection connection = shard.getConnection();
+                 Statement statement = connection.createStatement();
+                 ResultSet rs = statement.executeQuery("select coalesce(max(id), 0) from " + table)) {
+                rs.next();
+                max = Math.max(max, rs.getLong(1));
+            } catch (SQLException e) {
+                throw new IllegalStateException("Could not seed the sharded ID counter for table " + table, e);
+            }
+        }
+        lastId = new AtomicLong(max);
+        lastIds.put(table, lastId);
+        return lastId;
+    }
+}
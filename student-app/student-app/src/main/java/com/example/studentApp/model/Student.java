@@ -2,8 +2,10 @@
 package com.example.studentApp.model;
 
 // Import statements for JSON serialization and JPA annotations.
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -18,8 +20,10 @@ public class Student {
 
     // Specifies the primary key of the entity.
     @Id
-    // Indicates that the ID is auto-generated by the database using the identity strategy.
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Indicates that the ID is assigned by SequentialIdGenerator before the insert, so inserts can be batched.
+    @SequentialId
+    // Declared as SQLite's `integer` (not `bigint`) so the column is an alias of the rowid, as created by the migrations.
+    @Column(columnDefinition = "integer")
     private Long id;
 
     // Represents the name of the student.
@@ -34,6 +38,20 @@ public class Student {
     @OneToMany(mappedBy = "student")
     private List<Course> courses = new ArrayList<>();
 
+    // Running sum of the scores of the student's graded courses.
+    // Maintained in the same transaction as every enrollment write (see CourseService), so the GPA
+    // can be read without loading the courses. The default lets the column be added to existing tables.
+    @JsonIgnore
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private double gradeScoreSum;
+
+    // Number of graded courses included in `gradeScoreSum`.
+    @JsonIgnore
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private int gradedCourseCount;
+
     // --- Getters and Setters ---
     // These methods provide encapsulated access to the fields and allow modifications if needed.
 
@@ -102,24 +120,51 @@ public class Student {
     }
 
     /**
-     * Calculates the GPA of the student based on their courses.
+     * Retrieves the running sum of the student's grade scores.
+     * @return the sum of the scores of all graded courses.
+     */
+    public double getGradeScoreSum() {
+        return gradeScoreSum;
+    }
+
+    /**
+     * Sets the running sum of the student's grade scores.
+     * @param gradeScoreSum the sum of the scores of all graded courses.
+     */
+    public void setGradeScoreSum(double gradeScoreSum) {
+        this.gradeScoreSum = gradeScoreSum;
+    }
+
+    /**
+     * Retrieves the number of graded courses included in the running sum.
+     * @return the number of graded courses.
+     */
+    public int getGradedCourseCount() {
+        return gradedCourseCount;
+    }
+
+    /**
+     * Sets the number of graded courses included in the running sum.
+     * @param gradedCourseCount the number of graded courses.
+     */
+    public void setGradedCourseCount(int gradedCourseCount) {
+        this.gradedCourseCount = gradedCourseCount;
+    }
+
+    /**
+     * Calculates the GPA of the student from the persisted running aggregate.
      * @return the GPA as a double (scale 0.0 - 4.0).
      *
      * Explanation:
-     * - If the student has no courses, a default GPA of 4.0 is returned (indicating no grades yet).
-     * - Otherwise, the method calculates the average score of all grades in the courses.
-     * - The GPA is computed by summing the scores of all grades and dividing by the number of courses.
+     * - If the student has no graded courses, a default GPA of 4.0 is returned (indicating no grades yet).
+     * - Otherwise, the GPA is the running sum of grade scores divided by the number of graded courses.
+     * - This is O(1) and never loads the `courses` collection or the grades.
      */
     public double getGPA() {
-        // Return default GPA if no courses are available.
-        if (courses == null || courses.isEmpty()) return 4.0;
-
-        double total = 0;
-        // Loop through each course to sum up the grade scores.
-        for (Course course : courses) {
-            total += course.getGrade().getScore(); // Add the score of each grade.
-        }
+        // Return default GPA if no graded courses are available.
+        if (gradedCourseCount == 0) return 4.0;
+
         // Return the average score as the GPA.
-        return total / courses.size();
+        return gradeScoreSum / gradedCourseCount;
     }
 }
@@ -0,0 +1,28 @@
+// Package declaration to group the read-only projections used by the repositories.
+package com.example.studentApp.projection;
+
+/**
+ * Closed interface-based projection for a single course row, flattened with its grade.
+ *
+ * Purpose:
+ * - Allows all courses of the roster to be loaded with one set-based query instead of
+ *   one `findByStudentId` call (plus eager `Student`/`Grade` loads) per student.
+ * - The property names must match the aliases used in `CourseRepository.findAllCourseRows()`.
+ */
+public interface CourseRowView {
+
+    // The ID of the course.
+    Long getId();
+
+    // The ID of the student the course belongs to.
+    Long getStudentId();
+
+    // The name of the course.
+    String getName();
+
+    // The letter grade for the course, or null if the course has no grade.
+    String getGradeLetter();
+
+    // The numeric grade score for the course, or null if the course has no grade.
+    Double getGradeScore();
+}
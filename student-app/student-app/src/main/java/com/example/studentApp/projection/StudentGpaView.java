@@ -0,0 +1,16 @@
+// Package declaration to group the read-only projections used by the repositories.
+package com.example.studentApp.projection;
+
+/**
+ * Closed interface-based projection for a single student row of the roster.
+ *
+ * Purpose:
+ * - Lets Spring Data JPA return only the columns needed by the roster, together with
+ *   the GPA computed by the database, instead of full `Student` entities.
+ * - The property names must match the aliases used in `StudentRepository.findAllWithGpa()`.
+ */
+public interface StudentGpaView extends StudentView {
+
+    // The GPA of the student, computed in SQL (4.0 when the student has no graded courses).
+    Double getGpa();
+}
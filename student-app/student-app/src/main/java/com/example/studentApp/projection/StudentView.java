@@ -0,0 +1,21 @@
+// Package declaration to group the read-only projections used by the repositories.
+package com.example.studentApp.projection;
+
+/**
+ * Closed interface-based projection for a student row without the GPA.
+ *
+ * Purpose:
+ * - Used by roster requests whose sparse fieldset leaves out `gpa`, so the GPA aggregate columns are not read.
+ * - The property names must match the aliases used in `StudentRepository.findAllStudentRows()`.
+ */
+public interface StudentView {
+
+    // The unique identifier of the student.
+    Long getId();
+
+    // The full name of the student.
+    String getName();
+
+    // The email address of the student.
+    String getEmail();
+}
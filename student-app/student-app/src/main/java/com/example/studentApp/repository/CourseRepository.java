@@ -6,9 +6,11 @@ import com.example.studentApp.model.Course; // Importing the Course entity.
 import org.springframework.data.jpa.repository.JpaRepository; // Enables CRUD and JPA operations.
 
 import com.example.studentApp.model.Grade; // Ensure Grade model is imported for any grade-related logic (optional here).
+import com.example.studentApp.projection.CourseRowView; // Projection used for the roster query.
 import org.springframework.data.jpa.repository.Query; // Enables the use of custom JPQL/SQL queries.
 import org.springframework.data.repository.query.Param; // Allows the use of parameters in custom queries.
 
+import java.util.Collection; // Java utility for passing a set of IDs.
 import java.util.List; // Java utility for handling collections.
 
 // Repository interface for the Course entity, extending JpaRepository to inherit JPA functionality.
@@ -44,4 +46,76 @@ public interface CourseRepository extends JpaRepository<Course, Long> {
      * @return a single Course object matching the criteria.
      */
     Course findByStudentIdAndName(Long studentId, String courseName);
+
+    /**
+     * Checks whether a student already takes a course of the given name (names are unique per student).
+     *
+     * @param studentId the ID of the student.
+     * @param courseName the name of the course.
+     * @return true if such a course exists.
+     */
+    boolean existsByStudentIdAndName(Long studentId, String courseName);
+
+    /**
+     * Retrieves the (student ID, course name) pairs of the given students' courses.
+     *
+     * Used by batch inserts to reject duplicate enrollments with one query; served entirely by the
+     * index on `(student_id, name, ...)`.
+     *
+     * @param studentIds the IDs of the students.
+     * @return an array of {studentId, name} pairs.
+     */
+    @Query("select c.student.id, c.name from Course c where c.student.id in :studentIds")
+    List<Object[]> findStudentIdsAndNames(@Param("studentIds") Collection<Long> studentIds);
+
+    /**
+     * Retrieves every course flattened with its grade in a single set-based query.
+     *
+     * Query:
+     * - Reads the student ID straight from the `student_id` foreign key, so no `Student` is loaded.
+     * - Left joins the grade so courses without a grade are still returned (with null letter/score).
+     * - Orders by student ID (then course ID) to match the order of `StudentRepository.findAllWithGpa()`.
+     *
+     * @return a list of CourseRowView projections ordered by student ID.
+     */
+    @Query("select c.id as id, c.student.id as studentId, c.name as name, g.letter as gradeLetter, g.score as gradeScore " +
+            "from Course c left join c.grade g " +
+            "order by c.student.id, c.id")
+    List<CourseRowView> findAllCourseRows();
+
+    /**
+     * Retrieves every course flattened with its grade, in course ID order (the order of `findAll()`).
+     *
+     * Used by the course listing, which needs no entities: one query regardless of the number of courses.
+     *
+     * @return a list of CourseRowView projections ordered by course ID.
+     */
+    @Query("select c.id as id, c.student.id as studentId, c.name as name, g.letter as gradeLetter, g.score as gradeScore " +
+            "from Course c left join c.grade g " +
+            "order by c.id")
+    List<CourseRowView> findAllCourseRowsOrderById();
+
+    /**
+     * Retrieves the ID and name of every course, in course ID order, for course list requests whose
+     * sparse fieldset leaves out the grade: the grade table is not joined.
+     *
+     * @return an array of {id, name} pairs ordered by course ID.
+     */
+    @Query("select c.id, c.name from Course c order by c.id")
+    List<Object[]> findAllIdsAndNamesOrderById();
+
+    /**
+     * Retrieves the courses of the given students, flattened with their grades.
+     *
+     * Used together with `StudentRepository.findPageWithGpa()` so that a roster page costs two
+     * queries; the lookup is served by the index on `course.student_id`.
+     *
+     * @param studentIds the IDs of the students on the page.
+     * @return a list of CourseRowView projections ordered by student ID.
+     */
+    @Query("select c.id as id, c.student.id as studentId, c.name as name, g.letter as gradeLetter, g.score as gradeScore " +
+            "from Course c left join c.grade g " +
+            "where c.student.id in :studentIds " +
+            "order by c.student.id, c.id")
+    List<CourseRowView> findCourseRowsByStudentIds(@Param("studentIds") Collection<Long> studentIds);
 }
@@ -3,7 +3,16 @@ package com.example.studentApp.repository;
 
 // Import statements for required Spring Data JPA classes and annotations.
 import com.example.studentApp.model.Student; // Importing the Student entity.
+import com.example.studentApp.projection.StudentGpaView; // Projection used for the roster query.
+import com.example.studentApp.projection.StudentView; // Projection used for the roster query without GPA.
 import org.springframework.data.jpa.repository.JpaRepository; // Enables CRUD and JPA operations.
+import org.springframework.data.jpa.repository.Modifying; // Marks queries that change data.
+import org.springframework.data.domain.Limit; // Caps the number of rows returned by a query.
+import org.springframework.data.jpa.repository.Query; // Enables the use of custom JPQL/SQL queries.
+import org.springframework.data.repository.query.Param; // Allows the use of parameters in custom queries.
+
+import java.util.Collection; // Java utility for passing a set of IDs.
+import java.util.List; // Java utility for handling collections.
 
 /**
  * Repository interface for the Student entity, extending JpaRepository.
@@ -14,12 +23,148 @@ import org.springframework.data.jpa.repository.JpaRepository; // Enables CRUD an
  *
  * This interface abstracts database interactions, reducing boilerplate code.
  */
-public interface StudentRepository extends JpaRepository<Student, Long> {
+public interface StudentRepository extends JpaRepository<Student, Long>, StudentRepositoryCustom {
+
+    /**
+     * JPQL expression for a student's GPA, read from the persisted running aggregate.
+     * Mirrors `Student.getGPA()`: 4.0 when the student has no graded courses.
+     */
+    String GPA = "case when s.gradedCourseCount = 0 then 4.0 else s.gradeScoreSum / s.gradedCourseCount end";
+
+    /**
+     * Retrieves every student together with their GPA in a single set-based query.
+     *
+     * Query:
+     * - Reads the GPA from the persisted running aggregate, so no courses or grades are joined.
+     * - Orders by student ID so the result can be merge-joined with `CourseRepository.findAllCourseRows()`.
+     *
+     * @return a list of StudentGpaView projections, one per student, ordered by ID.
+     */
+    @Query("select s.id as id, s.name as name, s.email as email, " + GPA + " as gpa " +
+            "from Student s " +
+            "order by s.id")
+    List<StudentGpaView> findAllWithGpa();
+
+    /**
+     * Retrieves every student without the GPA, for roster requests whose sparse fieldset leaves it out.
+     *
+     * Query:
+     * - Like `findAllWithGpa()`, but the GPA aggregate columns are neither read nor evaluated.
+     *
+     * @return a list of StudentView projections, one per student, ordered by ID.
+     */
+    @Query("select s.id as id, s.name as name, s.email as email " +
+            "from Student s " +
+            "order by s.id")
+    List<StudentView> findAllStudentRows();
+
+    /**
+     * Retrieves one page of the roster using keyset pagination on the student ID.
+     *
+     * Query:
+     * - `s.id > :after` lets SQLite seek straight to the page through the primary key, so the cost
+     *   of a page does not depend on how deep into the roster it is (unlike OFFSET).
+     * - The optional name prefix and GPA range are applied in the WHERE clause, so all filtering
+     *   happens in SQL. A null parameter disables its filter.
+     *
+     * @param after the last student ID of the previous page (0 for the first page).
+     * @param namePattern a LIKE pattern for the name (escaped with '\'), or null for no filter.
+     * @param minGpa the inclusive lower bound of the GPA, or null for no bound.
+     * @param maxGpa the inclusive upper bound of the GPA, or null for no bound.
+     * @param limit the maximum number of students to return.
+     * @return a list of StudentGpaView projections ordered by ID.
+     */
+    @Query("select s.id as id, s.name as name, s.email as email, " + GPA + " as gpa " +
+            "from Student s " +
+            "where s.id > :after and (:namePattern is null or s.name like :namePattern escape '\\') " +
+            "and (:minGpa is null or " + GPA + " >= :minGpa) " +
+            "and (:maxGpa is null or " + GPA + " <= :maxGpa) " +
+            "order by s.id")
+    List<StudentGpaView> findPageWithGpa(@Param("after") long after,
+                                         @Param("namePattern") String namePattern,
+                                         @Param("minGpa") Double minGpa,
+                                         @Param("maxGpa") Double maxGpa,
+                                         Limit limit);
+
+    /**
+     * Returns which of the given student IDs exist, without loading the students.
+     *
+     * Used by batch inserts to validate many course rows with one query.
+     *
+     * @param ids the student IDs to look up.
+     * @return the subset of `ids` that exist.
+     */
+    @Query("select s.id from Student s where s.id in :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Retrieves the ID and email of every student, without loading the entities.
+     *
+     * Used by the enrollment importer to build its email-to-ID lookup table once.
+     *
+     * @return an array of {id, email} pairs, one per student, ordered by ID.
+     */
+    @Query("select s.id, s.email from Student s order by s.id")
+    List<Object[]> findAllIdsAndEmails();
+
+    /**
+     * Retrieves the ID, name and GPA aggregate of every student, without loading the entities.
+     *
+     * Used to build the in-memory GPA ranking (see `GpaRankIndex`) in one pass.
+     *
+     * @return an array of {id, name, gradeScoreSum, gradedCourseCount} per student.
+     */
+    @Query("select s.id, s.name, s.gradeScoreSum, s.gradedCourseCount from Student s")
+    List<Object[]> findAllGpaAggregates();
+
+    /**
+     * Atomically applies a change to a student's running GPA aggregate.
+     *
+     * Runs as a single UPDATE in the caller's transaction, so concurrent enrollments of the same
+     * student cannot overwrite each other's increments.
+     *
+     * @param studentId the ID of the student.
+     * @param scoreDelta the amount to add to the sum of grade scores.
+     * @param countDelta the amount to add to the number of graded courses.
+     * @return the number of updated rows (0 if the student does not exist).
+     */
+    @Modifying
+    @Query("update Student s set s.gradeScoreSum = s.gradeScoreSum + :scoreDelta, " +
+            "s.gradedCourseCount = s.gradedCourseCount + :countDelta " +
+            "where s.id = :studentId")
+    int adjustGpaAggregate(@Param("studentId") Long studentId,
+                           @Param("scoreDelta") double scoreDelta,
+                           @Param("countDelta") int countDelta);
+
+    /**
+     * Finds the students whose persisted GPA aggregate disagrees with their graded courses.
+     *
+     * The aggregate is recomputed from the course table in one grouped pass and compared with the
+     * stored columns; an empty result means every aggregate is consistent.
+     *
+     * @return the IDs of the students with a stale aggregate.
+     */
+    @Query(value = "select s.id from student s " +
+            "left join (select c.student_id as student_id, sum(g.score) as total, count(g.id) as graded " +
+            "           from course c join grade g on g.id = c.grade_id group by c.student_id) a " +
+            "on a.student_id = s.id " +
+            "where s.graded_course_count <> coalesce(a.graded, 0) " +
+            "or abs(s.grade_score_sum - coalesce(a.total, 0)) > 1e-9 " +
+            "order by s.id", nativeQuery = true)
+    List<Long> findIdsWithStaleGpaAggregate();
 
     /**
-     * Placeholder for additional queries if required in the future.
-     * For example:
-     * - Find students by name.
-     * - Fetch students based on email domain for reporting purposes.
+     * Recomputes every student's GPA aggregate from the course table.
+     *
+     * Uses correlated subqueries served by the index on `course.student_id`.
+     *
+     * @return the number of students updated.
      */
+    @Modifying
+    @Query(value = "update student set " +
+            "grade_score_sum = coalesce((select sum(g.score) from course c join grade g on g.id = c.grade_id " +
+            "                            where c.student_id = student.id), 0), " +
+            "graded_course_count = (select count(*) from course c join grade g on g.id = c.grade_id " +
+            "                       where c.student_id = student.id)", nativeQuery = true)
+    int rebuildGpaAggregates();
 }
@@ -0,0 +1,21 @@
+// Package declaration organizes this repository in the project structure.
+package com.example.studentApp.repository;
+
+// Import statement for the collection of aggregate changes.
+import java.util.Map;
+
+/**
+ * Custom repository fragment for bulk operations on students that Spring Data cannot derive.
+ *
+ * Implemented by `StudentRepositoryCustomImpl` and mixed into `StudentRepository`.
+ */
+public interface StudentRepositoryCustom {
+
+    /**
+     * Applies changes to many students' GPA aggregates as one JDBC batch.
+     *
+     * @param scoreDeltas the amount to add to each student's sum of grade scores, keyed by student ID.
+     * @param countDeltas the amount to add to each student's number of graded courses, keyed by student ID.
+     */
+    void adjustGpaAggregates(Map<Long, Double> scoreDeltas, Map<Long, Integer> countDeltas);
+}
@@ -0,0 +1,43 @@
+// Package declaration organizes this repository in the project structure.
+package com.example.studentApp.repository;
+
+// Import statements for plain JDBC access within the current transaction.
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Implementation of {@link StudentRepositoryCustom}.
+ *
+ * Uses JdbcTemplate, which joins the transaction (and connection) of the surrounding JPA
+ * transaction, because JPQL bulk updates cannot be batched by Hibernate.
+ */
+public class StudentRepositoryCustomImpl implements StudentRepositoryCustom {
+
+    // Same statement as StudentRepository.adjustGpaAggregate, in SQL form.
+    private static final String ADJUST_SQL = "update student set " +
+            "grade_score_sum = grade_score_sum + ?, graded_course_count = graded_course_count + ? " +
+            "where id = ?";
+
+    // Template used to run the batched UPDATE statements
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Constructor for dependency injection.
+     *
+     * @param jdbcTemplate Template bound to the application's DataSource.
+     */
+    public StudentRepositoryCustomImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void adjustGpaAggregates(Map<Long, Double> scoreDeltas, Map<Long, Integer> countDeltas) {
+        List<Object[]> rows = new ArrayList<>(countDeltas.size());
+        countDeltas.forEach((studentId, countDelta) ->
+                rows.add(new Object[]{scoreDeltas.getOrDefault(studentId, 0.0), countDelta, studentId}));
+        jdbcTemplate.batchUpdate(ADJUST_SQL, rows);
+    }
+}
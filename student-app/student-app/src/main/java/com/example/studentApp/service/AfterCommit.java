@@ -0,0 +1,35 @@
+package com.example.studentApp.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Defers updates of the in-memory indexes (GradeCatalog, GpaRankIndex, CourseStatsIndex,
+ * StudentSearchIndex) until the transaction that wrote the rows has committed, so a rolled-back write is never indexed.
+ *
+ * Actions registered in one transaction run in registration order. The indexes rely on this when
+ * a load and writes share a write-queue group.
+ */
+final class AfterCommit {
+
+    private AfterCommit() {
+    }
+
+    /**
+     * Runs the action after the current transaction commits, or now if there is none.
+     *
+     * @param action The index update.
+     */
+    static void run(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.example.studentApp.service;
+
+import com.example.studentApp.dto.BatchItemErrorDTO;
+import com.example.studentApp.dto.BatchResultDTO;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Persists large lists of new entities in fixed-size chunks inside the caller's transaction.
+ *
+ * Responsibilities:
+ * - Persist each chunk, flush it so Hibernate sends the inserts as JDBC batches
+ *   (see `hibernate.jdbc.batch_size`), then clear the persistence context so memory stays bounded.
+ * - Let the caller run follow-up work (e.g. aggregate updates) for each flushed chunk.
+ * - Validate the items of a batch request up front and report rejected items individually,
+ *   so one bad item does not fail the whole request.
+ * - Refuse batch requests of more than max-items items as a whole, before anything is validated,
+ *   since a batch is held in memory and written in one transaction.
+ */
+@Component
+public class BatchInserter {
+    // Entity manager bound to the current transaction
+    private final EntityManager entityManager;
+    // Number of entities persisted between flushes
+    private final int chunkSize;
+    // Largest number of items accepted in one batch request
+    private final int maxItems;
+
+    /**
+     * Constructor for dependency injection.
+     *
+     * @param entityManager Shared, transaction-bound entity manager.
+     * @param chunkSize Number of entities persisted between flushes.
+     * @param maxItems Largest number of items accepted in one batch request.
+     */
+    public BatchInserter(EntityManager entityManager, @Value("${student-app.batch.chunk-size:500}") int chunkSize,
+                         @Value("${student-app.batch.max-items:10000}") int maxItems) {
+        this.entityManager = entityManager;
+        this.chunkSize = chunkSize;
+        this.maxItems = maxItems;
+    }
+
+    /**
+     * Refuses a batch request with more items than `student-app.batch.max-items`.
+     *
+     * @param items The items of the request.
+     * @throws ResponseStatusException 413 if the request has too many items.
+     */
+    public void checkSize(List<?> items) {
+        if (items.size() > maxItems) {
+            throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+                    "A batch holds at most " + maxItems + " items, got " + items.size());
+        }
+    }
+
+    /**
+     * Inserts the entities chunk by chunk. Must be called inside a transaction.
+     *
+     * @param entities The new entities to insert; their IDs are set once this returns.
+     * @param afterChunk Work to run after each chunk has been flushed, or null.
+     * @param <T> The entity type.
+     */
+    public <T> void insert(List<T> entities, Consumer<List<T>> afterChunk) {
+        for (int from = 0; from < entities.size(); from += chunkSize) {
+            List<T> chunk = entities.subList(from, Math.min(from + chunkSize, entities.size()));
+            chunk.forEach(entityManager::persist);
+            entityManager.flush();
+            if (afterChunk != null) {
+                afterChunk.accept(chunk);
+            }
+            entityManager.clear();
+        }
+    }
+
+    /**
+     * Validates the items of a batch request, then inserts the valid ones in chunks.
+     * Must be called inside a transaction.
+     *
+     * @param items The items of the request, in request order (may contain nulls).
+     * @param validator Returns the reason an item must be rejected, or null if it is valid.
+     *                  Never called with a null item.
+     * @param idOf Returns the generated ID of an inserted item.
+     * @param afterChunk Work to run after each chunk has been flushed, or null.
+     * @param <T> The entity type.
+     * @return The number of inserted items, their IDs aligned with the request, and the rejected items.
+     */
+    public <T> BatchResultDTO insertValid(List<T> items, Function<T, String> validator, Function<T, Long> idOf,
+                                          Consumer<List<T>> afterChunk) {
+        List<BatchItemErrorDTO> errors = new ArrayList<>();
+        List<T> valid = new ArrayList<>(items.size());
+        int[] positions = new int[items.size()]; // Request position of each valid item
+
+        for (int i = 0; i < items.size(); i++) {
+            T item = items.get(i);
+            String problem = item == null ? "Item is missing" : validator.apply(item);
+            if (problem != null) {
+                errors.add(new BatchItemErrorDTO(i, problem));
+            } else {
+                positions[valid.size()] = i;
+                valid.add(item);
+            }
+        }
+
+        insert(valid, afterChunk);
+
+        // Report the generated IDs at the positions of the request
+        Long[] ids = new Long[items.size()];
+        for (int v = 0; v < valid.size(); v++) {
+            ids[positions[v]] = idOf.apply(valid.get(v));
+        }
+        return new BatchResultDTO(items.size(), valid.size(), Arrays.asList(ids), errors);
+    }
+
+    /**
+     * Validates the items of a batch request up front, e.g. before their IDs are allocated (which the
+     * validators reject). The returned map, as a validator (`rejections::get`), then replays the
+     * outcome inside insertValid().
+     *
+     * @param items The items of the request (may contain nulls).
+     * @param validator Returns the reason an item must be rejected, or null if it is valid.
+     * @param <T> The entity type.
+     * @return The reason of each rejected (non-null) item, by identity.
+     */
+    public static <T> Map<T, String> rejections(List<T> items, Function<T, String> validator) {
+        Map<T, String> rejected = new IdentityHashMap<>();
+        for (T item : items) {
+            String problem = item == null ? null : validator.apply(item);
+            if (problem != null) {
+                rejected.put(item, problem);
+            }
+        }
+        return rejected;
+    }
+
+    /**
+     * Remembers the IDs the items of a request arrived with and returns an action that puts them back.
+     * Inserting sets the IDs, so a write that the write queue replays must restore them first.
+     *
+     * @param items The items of the request (may contain nulls).
+     * @param idOf Returns the ID of an item.
+     * @param setId Sets the ID of an item.
+     * @param <T> The entity type.
+     * @return An action restoring the requested IDs.
+     */
+    public static <T> Runnable idRestorer(List<T> items, Function<T, Long> idOf, BiConsumer<T, Long> setId) {
+        Long[] requested = new Long[items.size()];
+        for (int i = 0; i < items.size(); i++) {
+            requested[i] = items.get(i) == null ? null : idOf.apply(items.get(i));
+        }
+        return () -> {
+            for (int i = 0; i < requested.length; i++) {
+                if (items.get(i) != null) {
+                    setId.accept(items.get(i), requested[i]);
+                }
+            }
+        };
+    }
+
+    /**
+     * Returns the configured chunk size.
+     *
+     * @return The number of entities persisted between flushes.
+     */
+    public int getChunkSize() {
+        return chunkSize;
+    }
+}
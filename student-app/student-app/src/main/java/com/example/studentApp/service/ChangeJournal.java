@@ -0,0 +1,968 @@
+package com.example.studentApp.service;
+
+import com.example.studentApp.config.DataSourceConfig;
+import com.example.studentApp.model.Course;
+import com.example.studentApp.model.Grade;
+import com.example.studentApp.model.Student;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only journal of the writes made through StudentService, CourseService and GradeService,
+ * from which the in-memory indexes (GpaRankIndex, CourseStatsIndex, StudentSearchIndex) are built
+ * instead of scanning the tables.
+ *
+ * The journal keeps the state the indexes are built from in memory: every student with their GPA
+ * aggregate, the grade scores of every course name, and the grades. Each committed write appends a
+ * compact binary record to the current segment, a memory-mapped file of segment-size bytes, and
+ * applies it to that state; a record that does not fit starts the next segment. Every
+ * snapshot-interval the state is written to a snapshot file, which starts a new segment, and the
+ * segments and snapshots before it are deleted.
+ *
+ * Responsibilities:
+ * - Restore the state at startup from the latest snapshot plus the segments written after it, if the
+ *   snapshot was taken of the same database: each database file has a random identity (see
+ *   V4__database_identity.sql), which snapshots record.
+ * - Check the restored state against the tables (row counts and highest IDs, which SQLite reads
+ *   without a table scan) and rebuild it with one scan of the tables if they disagree, e.g. after
+ *   rows were written by another process or the application stopped between a commit and its record.
+ * - Append the writes of the services once their transaction has committed.
+ * - Serve the state to the index loads, checking it against the tables again first.
+ *
+ * The tables stay the source of truth; the journal only saves reading them. Records reach the disk
+ * when the operating system writes the mapped pages back, and at the latest when their segment is
+ * full, at a snapshot or at shutdown. A record lost in a crash is found by the startup check.
+ *
+ * The directory defaults to the database file's name with `.journal` instead of `.db`, next to it
+ * (`student-app.db` journals to `student-app.journal/`), so each database has a journal of its own.
+ *
+ * Segment layout: records of `[length][type][payload][CRC32C of type and payload]`, where length
+ * counts the type and payload bytes, followed by zeros. Reading stops at a zero length or a record
+ * whose checksum does not match, e.g. one torn by a crash.
+ */
+@Component
+public class ChangeJournal {
+    private static final Logger log = LoggerFactory.getLogger(ChangeJournal.class);
+
+    // Record types
+    private static final byte STUDENT_ADDED = 1;
+    private static final byte COURSE_ADDED = 2;
+    private static final byte GRADE_ADDED = 3;
+
+    // Length prefix plus checksum of every record
+    private static final int RECORD_OVERHEAD = 8;
+    // First bytes of a snapshot file, and its format version
+    private static final int SNAPSHOT_MAGIC = 0x534A4E4C;
+    private static final int SNAPSHOT_VERSION = 2;
+
+    // Row counts and highest IDs of one shard, compared with the state at startup
+    private static final String CHECK_SQL = "select (select count(*) from student), (select coalesce(max(id), 0) from student), "
+            + "(select count(*) from course), (select coalesce(max(id), 0) from course), "
+            + "(select count(*) from grade), (select coalesce(max(id), 0) from grade)";
+    private static final String STUDENTS_SQL = "select id, name, email, grade_score_sum, graded_course_count from student";
+    private static final String COURSES_SQL = "select c.id, c.name, g.score from course c left join grade g on g.id = c.grade_id";
+    private static final String GRADES_SQL = "select id, letter, score from grade";
+    private static final String IDENTITY_SQL = "select id from database_identity";
+
+    // Number of rows the driver fetches per round trip while the cursor is open.
+    private static final int FETCH_SIZE = 1000;
+
+    // Dependencies for checking and scanning the tables
+    private final JdbcTemplate jdbcTemplate;
+    private final ShardRouter shardRouter;
+    // Runs the index reads and rescans in line with the writes
+    private final WriteQueue writeQueue;
+    // Whether writes are journaled and the indexes built from the journal
+    private final boolean enabled;
+    // Directory of the segments and snapshots
+    private final Path directory;
+    // Size of a new segment file
+    private final int segmentSize;
+    // Time between snapshots, if anything was appended
+    private final long snapshotIntervalSeconds;
+
+    // Guards the state and the current segment
+    private final ReentrantLock lock = new ReentrantLock();
+    // Serializes snapshots, so a later one is never overwritten by an earlier one
+    private final Object snapshotMonitor = new Object();
+    // The journaled state; guarded by lock
+    private State state = new State();
+    // The segment records are appended to, and its sequence number; guarded by lock
+    private MappedByteBuffer segment;
+    private long segmentSequence;
+    // Position of the record being appended in the segment; guarded by lock
+    private int recordStart;
+    // Records appended since the last snapshot; guarded by lock
+    private long unsnapshotted;
+    // Identities of the database files of every shard, recorded in the snapshots; set by restore()
+    private volatile String databaseIdentity;
+    // Set when the tables were changed in a way the journal cannot follow
+    private volatile boolean stale;
+    // Cleared when an append fails: the state then misses a committed write, so the indexes read the tables
+    private volatile boolean healthy = true;
+    // Set when the startup restore used a snapshot that matched the tables, i.e. the database was last
+    // written by this application, which kept its aggregates up to date
+    private volatile boolean restoredFromSnapshot;
+
+    // Takes the periodic snapshots and writes full segments back
+    private final ScheduledExecutorService snapshotter;
+
+    private final AtomicLong appendedRecords = new AtomicLong();
+    private final AtomicLong snapshots = new AtomicLong();
+    private final AtomicLong tableScans = new AtomicLong();
+    private volatile double restoreSeconds;
+
+    /**
+     * Constructor for dependency injection.
+     *
+     * @param jdbcTemplate Template used to check and scan the tables.
+     * @param shardRouter Reads the rows of every shard.
+     * @param writeQueue Single writer the index reads and rescans run on.
+     * @param enabled Whether to journal the writes and build the indexes from the journal.
+     * @param directory Directory of the segments and snapshots; null for the default next to the database file.
+     * @param dataSourceProperties The `spring.datasource.*` settings, whose URL the default directory is derived from.
+     * @param segmentSize Size of each segment file.
+     * @param snapshotIntervalSeconds Time between snapshots.
+     */
+    public ChangeJournal(JdbcTemplate jdbcTemplate, ShardRouter shardRouter, WriteQueue writeQueue,
+                         @Value("${student-app.journal.enabled:true}") boolean enabled,
+                         @Value("${student-app.journal.dir:#{null}}") Path directory,
+                         DataSourceProperties dataSourceProperties,
+                         @Value("${student-app.journal.segment-size:64MB}") DataSize segmentSize,
+                         @Value("${student-app.journal.snapshot-interval-seconds:60}") long snapshotIntervalSeconds) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.shardRouter = shardRouter;
+        this.writeQueue = writeQueue;
+        this.enabled = enabled;
+        this.directory = directory != null ? directory : defaultDirectory(dataSourceProperties.determineUrl());
+        this.segmentSize = (int) Math.min(segmentSize.toBytes(), Integer.MAX_VALUE);
+        this.snapshotIntervalSeconds = snapshotIntervalSeconds;
+        this.snapshotter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "change-journal");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Restores the state before any service can write: from the latest snapshot and the segments after
+     * it, or with one scan of the tables if that does not match them. The migrations have run by now.
+     *
+     * @throws IOException if the journal directory cannot be read or written.
+     */
+    @PostConstruct
+    void restore() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        long start = System.nanoTime();
+        Files.createDirectories(directory);
+        databaseIdentity = readDatabaseIdentity();
+        long snapshotSequence = -1;
+        State restored = null;
+        List<Path> snapshotFiles = list("snapshot-", ".snap");
+        for (int i = snapshotFiles.size() - 1; i >= 0 && restored == null; i--) {
+            Path file = snapshotFiles.get(i);
+            try {
+                restored = readSnapshot(file, databaseIdentity);
+                snapshotSequence = sequenceOf(file);
+            } catch (IOException | RuntimeException e) {
+                log.warn("Ignoring journal snapshot {}: {}", file, e.getMessage());
+            }
+        }
+
+        long replayed = 0;
+        List<Path> segments = list("journal-", ".seg");
+        if (restored != null) {
+            for (Path file : segments) {
+                if (sequenceOf(file) >= snapshotSequence) {
+                    replayed += replay(file, restored);
+                }
+            }
+        }
+
+        String source;
+        boolean matches = restored != null && matchesTables(restored);
+        lock.lock();
+        try {
+            // New records go to a new segment, after any torn record at the end of the last one
+            segmentSequence = Stream.concat(segments.stream(), snapshotFiles.stream())
+                    .mapToLong(ChangeJournal::sequenceOf).max().orElse(0);
+            if (matches) {
+                state = restored;
+                rotate(segmentSize);
+                unsnapshotted = replayed;
+                restoredFromSnapshot = true;
+            } else {
+                state = scanTables();
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (matches) {
+            source = "the snapshot and " + replayed + " journal records";
+        } else {
+            if (restored != null) {
+                log.warn("The change journal does not match the tables, rebuilding it from them");
+            }
+            source = "a scan of the tables";
+            snapshot(); // Starts the first segment
+        }
+        restoreSeconds = (System.nanoTime() - start) / 1e9;
+        log.info("Restored the change journal ({} students, {} courses, {} grades) from {} in {} ms",
+                state.students.size(), state.courseCount, state.grades.size(), source,
+                (System.nanoTime() - start) / 1_000_000);
+
+        if (snapshotIntervalSeconds > 0) {
+            snapshotter.scheduleWithFixedDelay(this::periodicSnapshot, snapshotIntervalSeconds,
+                    snapshotIntervalSeconds, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Takes a last snapshot, so the next start has no records to replay, and writes the segment back.
+     */
+    @PreDestroy
+    void stop() {
+        snapshotter.shutdownNow();
+        if (!enabled) {
+            return;
+        }
+        try {
+            snapshot();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not write the change journal snapshot at shutdown", e);
+        }
+    }
+
+    /**
+     * Returns whether writes are journaled, i.e. whether the indexes can be built from the journal.
+     *
+     * @return True unless `student-app.journal.enabled=false` or an append failed.
+     */
+    public boolean isEnabled() {
+        return enabled && healthy;
+    }
+
+    /**
+     * Journals newly saved students once the transaction commits.
+     *
+     * @param students The saved students, with their IDs assigned.
+     */
+    public void recordStudents(Collection<Student> students) {
+        if (!enabled) {
+            return;
+        }
+        // Copy what is needed now: the entities may be detached or reused by the time of the commit
+        List<Object[]> rows = new ArrayList<>(students.size());
+        for (Student student : students) {
+            rows.add(new Object[]{student.getId(), student.getName(), student.getEmail()});
+        }
+        AfterCommit.run(() -> append(() -> {
+            for (Object[] row : rows) {
+                long id = (Long) row[0];
+                byte[] name = utf8((String) row[1]);
+                byte[] email = utf8((String) row[2]);
+                ByteBuffer record = begin(STUDENT_ADDED, 8 + 4 + name.length + 4 + email.length);
+                record.putLong(id);
+                putText(record, name);
+                putText(record, email);
+                end();
+                state.addStudent(id, (String) row[1], (String) row[2], 0, 0);
+            }
+            return rows.size();
+        }));
+    }
+
+    /**
+     * Journals newly saved graded courses once the transaction commits.
+     *
+     * @param courses The saved courses; each references a student ID and a resolved grade.
+     */
+    public void recordEnrollments(Collection<Course> courses) {
+        if (!enabled) {
+            return;
+        }
+        List<String> names = new ArrayList<>(courses.size());
+        long[] ids = new long[courses.size() * 2]; // {course ID, student ID} per course
+        double[] scores = new double[courses.size()];
+        for (Course course : courses) {
+            ids[names.size() * 2] = course.getId();
+            ids[names.size() * 2 + 1] = course.getStudent().getId();
+            scores[names.size()] = course.getGrade().getScore();
+            names.add(course.getName());
+        }
+        AfterCommit.run(() -> append(() -> {
+            for (int i = 0; i < scores.length; i++) {
+                byte[] name = utf8(names.get(i));
+                ByteBuffer record = begin(COURSE_ADDED, 8 + 8 + 8 + 4 + name.length);
+                record.putLong(ids[i * 2]);
+                record.putLong(ids[i * 2 + 1]);
+                record.putDouble(scores[i]);
+                putText(record, name);
+                end();
+                state.addCourse(ids[i * 2], ids[i * 2 + 1], names.get(i), scores[i]);
+            }
+            return scores.length;
+        }));
+    }
+
+    /**
+     * Journals newly saved grades once the transaction commits.
+     *
+     * @param grades The saved grades, with their IDs assigned.
+     */
+    public void recordGrades(Collection<Grade> grades) {
+        if (!enabled) {
+            return;
+        }
+        List<Object[]> rows = new ArrayList<>(grades.size());
+        for (Grade grade : grades) {
+            rows.add(new Object[]{grade.getId(), grade.getLetter(), grade.getScore()});
+        }
+        AfterCommit.run(() -> append(() -> {
+            for (Object[] row : rows) {
+                byte[] letter = utf8((String) row[1]);
+                ByteBuffer record = begin(GRADE_ADDED, 8 + 8 + 4 + letter.length);
+                record.putLong((Long) row[0]);
+                record.putDouble((Double) row[2]);
+                putText(record, letter);
+                end();
+                state.addGrade((Long) row[0], (String) row[1], (Double) row[2]);
+            }
+            return rows.size();
+        }));
+    }
+
+    /**
+     * Marks the journaled state as outdated, e.g. after the GPA aggregates were rebuilt in the tables.
+     * The next readInLine() rebuilds it from the tables first.
+     */
+    public void invalidate() {
+        stale = true;
+    }
+
+    /**
+     * Builds something from the journaled state at the point of the write queue where it is called:
+     * after the journal records of the writes grouped before it, and before those of the writes grouped
+     * after it. The indexes load this way, and swap the result in from the builder. Called inside a
+     * transaction, the builder runs now on what is journaled, and again once that transaction commits.
+     *
+     * The state is checked against the tables first, since rows may have been written around the
+     * services since startup (e.g. by another process), and rebuilt from them if it does not match.
+     *
+     * @param build Builds the result from the state; runs with the journal locked.
+     * @param <T> The result type.
+     * @return The result.
+     */
+    public <T> T readInLine(Function<View, T> build) {
+        if (stale || !matchesTables()) {
+            rescan();
+        }
+        AtomicReference<T> built = new AtomicReference<>();
+        writeQueue.executeExclusive(() -> {
+            // Registered after the journal appends of the writes grouped before this call (see AfterCommit)
+            AfterCommit.run(() -> built.set(read(build)));
+            return null;
+        });
+        // Still pending if the call joined a caller's transaction: read what is committed now
+        return built.get() != null ? built.get() : read(build);
+    }
+
+    // Whether the startup restore used a snapshot that matched the tables (false after a table scan).
+    public boolean isRestoredFromSnapshot() {
+        return restoredFromSnapshot;
+    }
+
+    // Number of records appended since startup.
+    public long getAppendedRecords() {
+        return appendedRecords.get();
+    }
+
+    // Number of snapshots written since startup.
+    public long getSnapshots() {
+        return snapshots.get();
+    }
+
+    // Number of times the state was rebuilt by scanning the tables.
+    public long getTableScans() {
+        return tableScans.get();
+    }
+
+    // Time the startup restore took.
+    public double getRestoreSeconds() {
+        return restoreSeconds;
+    }
+
+    // Size of the segment and snapshot files on disk.
+    public long getDiskBytes() {
+        if (!enabled) {
+            return 0;
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.mapToLong(file -> file.toFile().length()).sum();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Read-only access to the journaled state, given to readInLine() builders.
+     */
+    public final class View {
+        private View() {
+        }
+
+        /**
+         * Visits every student in ID order.
+         *
+         * @param visitor Receives the ID, name, email, grade score sum and graded course count.
+         */
+        public void forEachStudent(StudentVisitor visitor) {
+            state.students.forEach((id, student) -> visitor.visit(id, student.name, student.email,
+                    student.scoreSum, student.gradedCourseCount));
+        }
+
+        /**
+         * Visits the grade score of every graded enrollment, grouped by course name.
+         *
+         * @param visitor Receives the course name and one score.
+         */
+        public void forEachScore(ScoreVisitor visitor) {
+            state.scores.forEach((name, scores) -> {
+                for (int i = 0; i < scores.size; i++) {
+                    visitor.visit(name, scores.values[i]);
+                }
+            });
+        }
+    }
+
+    // Receives a journaled student.
+    @FunctionalInterface
+    public interface StudentVisitor {
+        void visit(long id, String name, String email, double scoreSum, int gradedCourseCount);
+    }
+
+    // Receives one journaled grade score of a course name.
+    @FunctionalInterface
+    public interface ScoreVisitor {
+        void visit(String courseName, double score);
+    }
+
+    private <T> T read(Function<View, T> build) {
+        lock.lock();
+        try {
+            return build.apply(new View());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Runs appends (which return the number of records written) with the lock held. Runs after a commit,
+    // where an exception would fail a write that is already stored, so a failure only turns the journal off.
+    private void append(Supplier<Integer> records) {
+        if (!healthy) {
+            return;
+        }
+        lock.lock();
+        try {
+            int written = records.get();
+            appendedRecords.addAndGet(written);
+            unsnapshotted += written;
+        } catch (RuntimeException e) {
+            healthy = false;
+            log.error("Could not append to the change journal; the indexes read the tables until the next start", e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Writes the header of a record, starting the next segment if it does not fit. Called with the lock held.
+    private ByteBuffer begin(byte type, int payloadLength) {
+        int size = RECORD_OVERHEAD + 1 + payloadLength;
+        if (segment.remaining() < size) {
+            rotate(Math.max(segmentSize, size));
+        }
+        recordStart = segment.position();
+        segment.putInt(1 + payloadLength);
+        segment.put(type);
+        return segment;
+    }
+
+    // Writes the checksum of the record begun last. Called with the lock held.
+    private void end() {
+        int checksummed = recordStart + 4;
+        segment.putInt(checksum(segment, checksummed, segment.position() - checksummed));
+    }
+
+    // Starts the next segment; the full one is written back in the background. Called with the lock held.
+    private void rotate(int size) {
+        MappedByteBuffer full = segment;
+        segmentSequence++;
+        Path file = directory.resolve(fileName("journal-", segmentSequence, ".seg"));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not create journal segment " + file, e);
+        }
+        if (full != null) {
+            if (snapshotter.isShutdown()) {
+                full.force();
+            } else {
+                snapshotter.execute(full::force);
+            }
+        }
+    }
+
+    // Takes a snapshot if anything was appended since the last one.
+    private void periodicSnapshot() {
+        try {
+            lock.lock();
+            try {
+                if (unsnapshotted == 0) {
+                    return;
+                }
+            } finally {
+                lock.unlock();
+            }
+            snapshot();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not write the change journal snapshot", e);
+        }
+    }
+
+    /**
+     * Writes the state to a new snapshot file, which covers every segment before the one started
+     * here, then deletes those segments and the older snapshots.
+     * The state is serialized with the lock held and written to disk without it.
+     */
+    private void snapshot() throws IOException {
+        synchronized (snapshotMonitor) {
+            long start = System.nanoTime();
+            byte[] bytes;
+            long sequence;
+            lock.lock();
+            try {
+                if (segment != null) {
+                    segment.force();
+                }
+                rotate(segmentSize);
+                sequence = segmentSequence;
+                bytes = serialize(state, databaseIdentity);
+                unsnapshotted = 0;
+            } finally {
+                lock.unlock();
+            }
+
+            Path file = directory.resolve(fileName("snapshot-", sequence, ".snap"));
+            Path temporary = directory.resolve(file.getFileName() + ".tmp");
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.wrap(bytes);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(true);
+            }
+            Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+            for (Path old : list("journal-", ".seg")) {
+                if (sequenceOf(old) < sequence) {
+                    Files.deleteIfExists(old);
+                }
+            }
+            for (Path old : list("snapshot-", ".snap")) {
+                if (sequenceOf(old) < sequence) {
+                    Files.deleteIfExists(old);
+                }
+            }
+            snapshots.incrementAndGet();
+            log.debug("Wrote journal snapshot {} ({} KB) in {} ms", file.getFileName(), bytes.length / 1024,
+                    (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    // Applies the valid records of a segment to the state; returns their number.
+    private static long replay(Path file, State target) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        long records = 0;
+        while (buffer.remaining() >= RECORD_OVERHEAD + 1) {
+            int start = buffer.position();
+            int length = buffer.getInt(start);
+            if (length <= 0 || length > buffer.remaining() - RECORD_OVERHEAD
+                    || buffer.getInt(start + 4 + length) != checksum(buffer, start + 4, length)) {
+                break; // End of the segment, or a record torn by a crash
+            }
+            buffer.position(start + 4);
+            byte type = buffer.get();
+            switch (type) {
+                case STUDENT_ADDED -> target.addStudent(buffer.getLong(), getText(buffer), getText(buffer), 0, 0);
+                case COURSE_ADDED -> {
+                    long id = buffer.getLong();
+                    long studentId = buffer.getLong();
+                    double score = buffer.getDouble();
+                    target.addCourse(id, studentId, getText(buffer), score);
+                }
+                case GRADE_ADDED -> {
+                    long id = buffer.getLong();
+                    double score = buffer.getDouble();
+                    target.addGrade(id, getText(buffer), score);
+                }
+                default -> throw new IllegalStateException("Unknown journal record type " + type + " in " + file);
+            }
+            buffer.position(start + RECORD_OVERHEAD + length);
+            records++;
+        }
+        return records;
+    }
+
+    // Rebuilds the state from the tables on the write queue, and swaps it in where the scan ran (see readInLine),
+    // then takes a snapshot of it.
+    private void rescan() {
+        stale = false;
+        writeQueue.executeExclusive(() -> {
+            State scanned = scanTables();
+            AfterCommit.run(() -> {
+                lock.lock();
+                try {
+                    state = scanned;
+                    unsnapshotted++; // Not in the segments, so the next snapshot must include it
+                } finally {
+                    lock.unlock();
+                }
+            });
+            return null;
+        });
+        if (!snapshotter.isShutdown()) {
+            snapshotter.execute(this::periodicSnapshot);
+        }
+    }
+
+    // Compares the current state with the tables; writes committing meanwhile may make them differ once.
+    private boolean matchesTables() {
+        long[] tables = countTables();
+        lock.lock();
+        try {
+            return matches(state, tables);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Compares a state with the row counts and highest IDs of the tables.
+    private boolean matchesTables(State candidate) {
+        return matches(candidate, countTables());
+    }
+
+    // Reads the row counts and highest IDs of the tables (grades: shard 0, which has them all).
+    private long[] countTables() {
+        long[] tables = new long[6];
+        shardRouter.forEachShard(shard -> jdbcTemplate.query(CHECK_SQL, rs -> {
+            tables[0] += rs.getLong(1);
+            tables[1] = Math.max(tables[1], rs.getLong(2));
+            tables[2] += rs.getLong(3);
+            tables[3] = Math.max(tables[3], rs.getLong(4));
+            if (shard == 0) {
+                tables[4] = rs.getLong(5);
+                tables[5] = rs.getLong(6);
+            }
+        }));
+        return tables;
+    }
+
+    private static boolean matches(State candidate, long[] tables) {
+        long[] journaled = {
+                candidate.students.size(), candidate.students.isEmpty() ? 0 : candidate.students.lastKey(),
+                candidate.courseCount, candidate.maxCourseId,
+                candidate.grades.size(), candidate.grades.isEmpty() ? 0 : candidate.grades.lastKey()};
+        if (!Arrays.equals(tables, journaled)) {
+            log.info("Journal has {} (rows, max ID) of students, courses and grades, the tables have {}",
+                    Arrays.toString(journaled), Arrays.toString(tables));
+            return false;
+        }
+        return true;
+    }
+
+    // Builds the state from the tables of every shard.
+    private State scanTables() {
+        tableScans.incrementAndGet();
+        State scanned = new State();
+        shardRouter.forEachShard(shard -> {
+            stream(STUDENTS_SQL, rs -> scanned.addStudent(rs.getLong(1), rs.getString(2), rs.getString(3),
+                    rs.getDouble(4), rs.getInt(5)));
+            stream(COURSES_SQL, rs -> {
+                double score = rs.getDouble(3);
+                if (!rs.wasNull()) { // Ungraded (legacy) courses are counted, but have no score
+                    scanned.scores.computeIfAbsent(rs.getString(2), name -> new Scores()).add(score);
+                }
+                scanned.courseCount++;
+                scanned.maxCourseId = Math.max(scanned.maxCourseId, rs.getLong(1));
+            });
+            if (shard == 0) {
+                stream(GRADES_SQL, rs -> scanned.addGrade(rs.getLong(1), rs.getString(2), rs.getDouble(3)));
+            }
+        });
+        return scanned;
+    }
+
+    // Reads the identities of the database files of every shard, in shard order.
+    private String readDatabaseIdentity() {
+        List<String> identities = new ArrayList<>();
+        shardRouter.forEachShard(shard -> identities.add(jdbcTemplate.queryForObject(IDENTITY_SQL, String.class)));
+        return String.join(",", identities);
+    }
+
+    // The default journal directory: the database file's name with `.journal` instead of `.db`, next to it,
+    // or `journal` in the working directory for a database without a file.
+    static Path defaultDirectory(String datasourceUrl) {
+        Path database = DataSourceConfig.databaseFile(datasourceUrl);
+        if (database == null) {
+            return Path.of("journal");
+        }
+        String name = database.getFileName().toString();
+        String base = name.endsWith(".db") ? name.substring(0, name.length() - 3) : name;
+        return database.resolveSibling(base + ".journal");
+    }
+
+    // Streams the rows of a query on the current shard.
+    private void stream(String sql, RowCallbackHandler handler) {
+        jdbcTemplate.query(connection -> {
+            var statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(FETCH_SIZE);
+            return statement;
+        }, handler);
+    }
+
+    private static byte[] serialize(State source, String identity) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(SNAPSHOT_MAGIC);
+        out.writeInt(SNAPSHOT_VERSION);
+        writeText(out, identity);
+        out.writeInt(source.students.size());
+        for (Map.Entry<Long, StudentEntry> entry : source.students.entrySet()) {
+            StudentEntry student = entry.getValue();
+            out.writeLong(entry.getKey());
+            writeText(out, student.name);
+            writeText(out, student.email);
+            out.writeDouble(student.scoreSum);
+            out.writeInt(student.gradedCourseCount);
+        }
+        out.writeInt(source.grades.size());
+        for (Map.Entry<Long, GradeEntry> entry : source.grades.entrySet()) {
+            out.writeLong(entry.getKey());
+            writeText(out, entry.getValue().letter());
+            out.writeDouble(entry.getValue().score());
+        }
+        out.writeLong(source.courseCount);
+        out.writeLong(source.maxCourseId);
+        out.writeInt(source.scores.size());
+        for (Map.Entry<String, Scores> entry : source.scores.entrySet()) {
+            writeText(out, entry.getKey());
+            out.writeInt(entry.getValue().size);
+            for (int i = 0; i < entry.getValue().size; i++) {
+                out.writeDouble(entry.getValue().values[i]);
+            }
+        }
+        out.flush();
+        byte[] content = bytes.toByteArray();
+        out.writeInt(checksum(ByteBuffer.wrap(content), 0, content.length));
+        return bytes.toByteArray();
+    }
+
+    // Reads a snapshot, which must have been taken of the database with the given identity.
+    private static State readSnapshot(Path file, String identity) throws IOException {
+        byte[] bytes = Files.readAllBytes(file);
+        if (bytes.length < 4 || ByteBuffer.wrap(bytes).getInt(bytes.length - 4)
+                != checksum(ByteBuffer.wrap(bytes), 0, bytes.length - 4)) {
+            throw new IOException("checksum mismatch");
+        }
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, 0, bytes.length - 4));
+        if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION) {
+            throw new IOException("not a journal snapshot of this version");
+        }
+        String snapshotIdentity = readText(in);
+        if (!snapshotIdentity.equals(identity)) {
+            throw new IOException("taken of database " + snapshotIdentity + ", not of " + identity);
+        }
+        State restored = new State();
+        for (int i = in.readInt(); i > 0; i--) {
+            restored.addStudent(in.readLong(), readText(in), readText(in), in.readDouble(), in.readInt());
+        }
+        for (int i = in.readInt(); i > 0; i--) {
+            restored.addGrade(in.readLong(), readText(in), in.readDouble());
+        }
+        restored.courseCount = in.readLong();
+        restored.maxCourseId = in.readLong();
+        for (int i = in.readInt(); i > 0; i--) {
+            String name = readText(in);
+            Scores scores = new Scores();
+            for (int j = in.readInt(); j > 0; j--) {
+                scores.add(in.readDouble());
+            }
+            restored.scores.put(name, scores);
+        }
+        return restored;
+    }
+
+    // Files of the directory with the prefix and suffix, by sequence number.
+    private List<Path> list(String prefix, String suffix) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> {
+                        String name = file.getFileName().toString();
+                        return name.startsWith(prefix) && name.endsWith(suffix);
+                    })
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static String fileName(String prefix, long sequence, String suffix) {
+        return String.format("%s%016d%s", prefix, sequence, suffix);
+    }
+
+    private static long sequenceOf(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(name.indexOf('-') + 1, name.lastIndexOf('.')));
+    }
+
+    private static int checksum(ByteBuffer buffer, int offset, int length) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.duplicate().limit(offset + length).position(offset));
+        return (int) crc.getValue();
+    }
+
+    private static byte[] utf8(String text) {
+        return text == null ? new byte[0] : text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void putText(ByteBuffer buffer, byte[] text) {
+        buffer.putInt(text.length);
+        buffer.put(text);
+    }
+
+    private static String getText(ByteBuffer buffer) {
+        byte[] text = new byte[buffer.getInt()];
+        buffer.get(text);
+        return new String(text, StandardCharsets.UTF_8);
+    }
+
+    private static void writeText(DataOutputStream out, String text) throws IOException {
+        byte[] bytes = utf8(text);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readText(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+
+    // A journaled student and their GPA aggregate, mirroring the student table's columns.
+    private static final class StudentEntry {
+        final String name;
+        final String email;
+        double scoreSum;
+        int gradedCourseCount;
+
+        StudentEntry(String name, String email, double scoreSum, int gradedCourseCount) {
+            this.name = name;
+            this.email = email;
+            this.scoreSum = scoreSum;
+            this.gradedCourseCount = gradedCourseCount;
+        }
+    }
+
+    // A journaled grade.
+    private record GradeEntry(String letter, double score) {
+    }
+
+    // The grade scores of one course name, in a growable array.
+    private static final class Scores {
+        double[] values = new double[4];
+        int size;
+
+        void add(double score) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = score;
+        }
+    }
+
+    // Everything the journal restores; only modified with the lock held (or before it is published).
+    private static final class State {
+        final TreeMap<Long, StudentEntry> students = new TreeMap<>();
+        final Map<String, Scores> scores = new HashMap<>();
+        final TreeMap<Long, GradeEntry> grades = new TreeMap<>();
+        long courseCount;
+        long maxCourseId;
+
+        void addStudent(long id, String name, String email, double scoreSum, int gradedCourseCount) {
+            students.put(id, new StudentEntry(name, email, scoreSum, gradedCourseCount));
+        }
+
+        // Adds a graded course to its name's scores and to its student's aggregate, like CourseService does.
+        void addCourse(long id, long studentId, String name, double score) {
+            scores.computeIfAbsent(name, key -> new Scores()).add(score);
+            StudentEntry student = students.get(studentId);
+            if (student != null) {
+                student.scoreSum += score;
+                student.gradedCourseCount++;
+            }
+            courseCount++;
+            maxCourseId = Math.max(maxCourseId, id);
+        }
+
+        void addGrade(long id, String letter, double score) {
+            grades.put(id, new GradeEntry(letter, score));
+        }
+    }
+}
@@ -1,17 +1,31 @@
 package com.example.studentApp.service;
 
+import com.example.studentApp.dto.BatchResultDTO;
 import com.example.studentApp.dto.CourseResponseDTO;
+import com.example.studentApp.dto.CourseStatsDTO;
 import com.example.studentApp.model.Course;
 import com.example.studentApp.model.Grade;
 import com.example.studentApp.model.Student;
+import com.example.studentApp.projection.CourseRowView;
 import com.example.studentApp.repository.CourseRepository;
-import com.example.studentApp.repository.GradeRepository;
 import com.example.studentApp.repository.StudentRepository;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
 import org.springframework.stereotype.Service;
-
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -21,59 +35,299 @@ import java.util.stream.Collectors;
  * - Manage courses, including adding and retrieving courses.
  * - Interact with repositories to fetch and save data.
  * - Convert entities to DTOs when needed for better abstraction.
+ *
+ * When the database is sharded, a course is written on the shard of its student, and the course
+ * list is read from every shard in parallel and merged by course ID (see ShardRouter).
  */
 @Service
+@Timed("service.calls") // Latency of every public method, tagged by class and method
 public class CourseService {
     // Dependency for interacting with the Course table in the database
     private final CourseRepository courseRepository;
     // Dependency for interacting with the Student table in the database
     private final StudentRepository studentRepository;
-    // Dependency for interacting with the Grade table in the database
-    private final GradeRepository gradeRepository;
+    // In-memory grade catalog used to resolve grades without database access
+    private final GradeCatalog gradeCatalog;
+    // Helper that inserts batch requests in chunks
+    private final BatchInserter batchInserter;
+    // Entity manager used to reference students without loading them
+    private final EntityManager entityManager;
+    // Single writer that group-commits inserts
+    private final WriteQueue writeQueue;
+    // In-memory GPA ranking, updated with every graded course
+    private final GpaRankIndex gpaRankIndex;
+    // In-memory grade distribution per course name, updated with every graded course
+    private final CourseStatsIndex courseStatsIndex;
+    // Versions of the course list and the roster (which lists each student's courses), for ETags
+    private final DataVersions dataVersions;
+    // Routes writes to the shards of the students
+    private final ShardRouter shardRouter;
+    // Journal of the committed writes
+    private final ChangeJournal changeJournal;
+
+    // Maximum number of IDs passed to a single IN query
+    private static final int LOOKUP_CHUNK_SIZE = 1000;
 
     /**
      * Constructor for dependency injection.
      * @param courseRepository Repository for managing course data.
      * @param studentRepository Repository for managing student data.
-     * @param gradeRepository Repository for managing grade data.
+     * @param gradeCatalog In-memory grade catalog used to resolve grades.
+     * @param batchInserter Helper that inserts batch requests in chunks.
+     * @param entityManager Entity manager used to reference students without loading them.
+     * @param writeQueue Single writer that commits inserts in groups.
+     * @param gpaRankIndex In-memory GPA ranking kept in step with the inserted courses.
+     * @param courseStatsIndex In-memory course statistics kept in step with the inserted courses.
+     * @param dataVersions Version counters bumped by every write.
+     * @param shardRouter Routes reads and writes to the shards of the students.
+     * @param changeJournal Journal the inserted courses are appended to.
      */
-    public CourseService(CourseRepository courseRepository, StudentRepository studentRepository, GradeRepository gradeRepository) {
+    public CourseService(CourseRepository courseRepository, StudentRepository studentRepository, GradeCatalog gradeCatalog,
+                         BatchInserter batchInserter, EntityManager entityManager, WriteQueue writeQueue,
+                         GpaRankIndex gpaRankIndex, CourseStatsIndex courseStatsIndex, DataVersions dataVersions,
+                         ShardRouter shardRouter, ChangeJournal changeJournal) {
         this.courseRepository = courseRepository;
         this.studentRepository = studentRepository;
-        this.gradeRepository = gradeRepository;
+        this.gradeCatalog = gradeCatalog;
+        this.batchInserter = batchInserter;
+        this.entityManager = entityManager;
+        this.writeQueue = writeQueue;
+        this.gpaRankIndex = gpaRankIndex;
+        this.courseStatsIndex = courseStatsIndex;
+        this.dataVersions = dataVersions;
+        this.shardRouter = shardRouter;
+        this.changeJournal = changeJournal;
     }
 
     /**
      * Adds a new course to the database.
      *
-     * @Transactional ensures that the persistence context is active throughout the method's execution.
-     * This is critical for fetching and associating related entities (Student, Grade).
+     * The steps run on the write queue, inside a transaction shared with other concurrent writes,
+     * so the persistence context is active for fetching and associating related entities (Student, Grade).
      *
      * Steps:
-     * 1. Fetch the Student entity by ID.
-     * 2. Fetch the Grade entity by ID.
+     * 1. Fetch the Student entity by ID, and check the student does not already take a course of that name.
+     * 2. Resolve the Grade by ID from the in-memory grade catalog.
      * 3. Associate the fetched Student and Grade with the Course entity.
      * 4. Save the Course entity to the database.
+     * 5. Add the grade to the student's running GPA aggregate in the same transaction,
+     *    and to the in-memory GPA ranking, course statistics and change journal once it commits.
      *
      * @param course The Course object to be added.
      * @return The saved Course object.
+     * @throws IllegalArgumentException if the student or grade is not found, or the student already takes the course.
      */
-    @Transactional
     public Course addCourse(Course course) {
+        Long requestedId = course.getId();
+        return writeQueue.execute(shardOf(course), () -> {
+            course.setId(requestedId); // Start from the request again if the write is replayed
+            return insertCourse(course);
+        });
+    }
+
+    // Steps 1-5 of addCourse; runs inside the write queue's transaction.
+    private Course insertCourse(Course course) {
         // Fetch the student from the database or throw an exception if not found
         Student student = studentRepository.findById(course.getStudent().getId())
                 .orElseThrow(() -> new IllegalArgumentException("Student not found"));
 
-        // Fetch the grade from the database or throw an exception if not found
-        Grade grade = gradeRepository.findById(course.getGrade().getId())
+        // Course names are unique per student (ux_course_student_name); report a duplicate instead of a constraint error
+        if (courseRepository.existsByStudentIdAndName(student.getId(), course.getName())) {
+            throw new IllegalArgumentException("Course already exists for this student");
+        }
+
+        // Resolve the grade from the catalog or throw an exception if not found
+        Grade grade = gradeCatalog.findById(course.getGrade().getId())
                 .orElseThrow(() -> new IllegalArgumentException("Grade not found"));
 
         // Associate the fetched student and grade with the course
         course.setStudent(student);
         course.setGrade(grade);
 
-        // Save the course to the database and return the saved entity
-        return courseRepository.save(course);
+        // Save the course to the database
+        Course savedCourse = courseRepository.save(course);
+
+        // Keep the student's GPA aggregate in step with the new graded course
+        studentRepository.adjustGpaAggregate(student.getId(), grade.getScore(), 1);
+        gpaRankIndex.recordEnrollments(List.of(savedCourse));
+        courseStatsIndex.recordEnrollments(List.of(savedCourse));
+        changeJournal.recordEnrollments(List.of(savedCourse));
+        dataVersions.changed(DataVersions.Resource.COURSES, DataVersions.Resource.STUDENTS);
+
+        return savedCourse;
+    }
+
+    /**
+     * Adds many courses in one transaction, inserting them in JDBC-batched chunks.
+     *
+     * Steps:
+     * 1. Look up which referenced students exist, and the course names they already take, with a few
+     *    IN queries; grades come from the catalog.
+     * 2. Reject items with a missing name, unknown student, unknown grade or duplicate course name individually.
+     * 3. Insert the remaining courses chunk by chunk, referencing students without loading them.
+     * 4. After each chunk, apply the chunk's grades to the students' GPA aggregates in one JDBC batch.
+     *
+     * The batch runs on the write queue, so it does not contend with the writer thread for the database lock.
+     *
+     * @param courses The Course objects to be added (each with `student.id` and `grade.id`).
+     * @return A BatchResultDTO with the generated IDs and the rejected items.
+     * @throws ResponseStatusException 413 if the batch has more than `student-app.batch.max-items` items.
+     */
+    public BatchResultDTO addCourses(List<Course> courses) {
+        batchInserter.checkSize(courses);
+        // With sharding, each shard inserts the courses of its students in a transaction of its own
+        return shardRouter.writeBatch(courses, this::shardOf, part -> {
+            Runnable restoreIds = BatchInserter.idRestorer(part, Course::getId, Course::setId);
+            return () -> {
+                restoreIds.run(); // Start from the request again if the write is replayed
+                return insertValidCourses(part);
+            };
+        });
+    }
+
+    // The shard of a course's student; shard 0 when the course names no student (it is rejected there).
+    private int shardOf(Course course) {
+        return course.getStudent() != null && course.getStudent().getId() != null
+                ? shardRouter.shardOf(course.getStudent().getId())
+                : 0;
+    }
+
+    // Steps 1-4 of addCourses; runs inside the write queue's transaction.
+    private BatchResultDTO insertValidCourses(List<Course> courses) {
+        // Resolve the referenced students with set-based lookups
+        Set<Long> existingStudentIds = findExistingStudentIds(courses);
+        Set<String> enrollments = findEnrollments(existingStudentIds);
+
+        return batchInserter.insertValid(courses, course -> {
+            if (course.getId() != null) return "id must not be set";
+            if (course.getName() == null || course.getName().isBlank()) return "name is required";
+            if (course.getStudent() == null || course.getStudent().getId() == null) return "student.id is required";
+            if (course.getGrade() == null || course.getGrade().getId() == null) return "grade.id is required";
+            if (!existingStudentIds.contains(course.getStudent().getId())) return "Student not found";
+            Grade grade = gradeCatalog.findById(course.getGrade().getId()).orElse(null);
+            if (grade == null) return "Grade not found";
+            // Also catches the same course twice in one request, since accepted items are added to the set
+            if (!enrollments.add(enrollmentKey(course.getStudent().getId(), course.getName()))) {
+                return "Course already exists for this student";
+            }
+
+            // Associate the course with a reference to the student and the resolved grade
+            course.setStudent(entityManager.getReference(Student.class, course.getStudent().getId()));
+            course.setGrade(grade);
+            return null;
+        }, Course::getId, this::applyToGpaAggregates);
+    }
+
+    /**
+     * Inserts courses whose student and grade have already been resolved by the caller
+     * (e.g. the enrollment importer), in JDBC-batched chunks within one transaction on the write queue
+     * (one per shard when the database is sharded).
+     *
+     * Courses the student already takes (in the database or earlier in the list) are skipped,
+     * since course names are unique per student.
+     *
+     * @param courses New courses; each must reference an existing student ID and a loaded grade.
+     * @return The number of inserted courses.
+     */
+    public int insertResolvedCourses(List<Course> courses) {
+        return shardRouter.writeByShard(courses, this::shardOf, part -> {
+            Runnable restoreIds = BatchInserter.idRestorer(part, Course::getId, Course::setId);
+            return () -> {
+                restoreIds.run(); // Start from the request again if the write is replayed
+                return insertNewCourses(part);
+            };
+        }).stream().mapToInt(Integer::intValue).sum();
+    }
+
+    // Inserts the courses of insertResolvedCourses that are not duplicates; runs inside the write queue's transaction.
+    private int insertNewCourses(List<Course> courses) {
+        Set<String> enrollments = findEnrollments(
+                courses.stream().map(course -> course.getStudent().getId()).collect(Collectors.toSet()));
+        List<Course> newCourses = new ArrayList<>(courses.size());
+        for (Course course : courses) {
+            if (!enrollments.add(enrollmentKey(course.getStudent().getId(), course.getName()))) {
+                continue; // Duplicate enrollment
+            }
+            // Replace the caller's student stub with a reference, so the student is never loaded
+            course.setStudent(entityManager.getReference(Student.class, course.getStudent().getId()));
+            newCourses.add(course);
+        }
+        batchInserter.insert(newCourses, this::applyToGpaAggregates);
+        return newCourses.size();
+    }
+
+    // Returns the IDs of the students referenced by the courses that exist in the database.
+    private Set<Long> findExistingStudentIds(List<Course> courses) {
+        List<Long> referenced = courses.stream()
+                .filter(Objects::nonNull)
+                .map(Course::getStudent)
+                .filter(student -> student != null && student.getId() != null)
+                .map(Student::getId)
+                .distinct()
+                .toList();
+
+        Set<Long> existing = new HashSet<>();
+        for (int from = 0; from < referenced.size(); from += LOOKUP_CHUNK_SIZE) {
+            existing.addAll(studentRepository.findExistingIds(
+                    referenced.subList(from, Math.min(from + LOOKUP_CHUNK_SIZE, referenced.size()))));
+        }
+        return existing;
+    }
+
+    // Returns the enrollment keys (see enrollmentKey) of every course the given students take.
+    private Set<String> findEnrollments(Collection<Long> studentIds) {
+        List<Long> ids = new ArrayList<>(studentIds);
+        Set<String> enrollments = new HashSet<>();
+        for (int from = 0; from < ids.size(); from += LOOKUP_CHUNK_SIZE) {
+            for (Object[] row : courseRepository.findStudentIdsAndNames(
+                    ids.subList(from, Math.min(from + LOOKUP_CHUNK_SIZE, ids.size())))) {
+                enrollments.add(enrollmentKey((Long) row[0], (String) row[1]));
+            }
+        }
+        return enrollments;
+    }
+
+    // Identifies a (student, course name) pair; names are compared exactly, like SQLite's unique index.
+    private static String enrollmentKey(Long studentId, String courseName) {
+        return studentId + "/" + courseName;
+    }
+
+    // Adds the grades of a flushed chunk of courses to their students' GPA aggregates, the ranking, the course statistics
+    // and the change journal, and bumps the versions of the course list and the roster.
+    private void applyToGpaAggregates(List<Course> chunk) {
+        Map<Long, Double> scoreDeltas = new HashMap<>();
+        Map<Long, Integer> countDeltas = new HashMap<>();
+        for (Course course : chunk) {
+            Long studentId = course.getStudent().getId();
+            scoreDeltas.merge(studentId, course.getGrade().getScore(), Double::sum);
+            countDeltas.merge(studentId, 1, Integer::sum);
+        }
+        studentRepository.adjustGpaAggregates(scoreDeltas, countDeltas);
+        gpaRankIndex.recordEnrollments(chunk);
+        courseStatsIndex.recordEnrollments(chunk);
+        changeJournal.recordEnrollments(chunk);
+        dataVersions.changed(DataVersions.Resource.COURSES, DataVersions.Resource.STUDENTS);
+    }
+
+    /**
+     * Retrieves the grade distribution of every course name from the in-memory statistics
+     * (no database access once they are built).
+     *
+     * @return One CourseStatsDTO per course name, ordered by name.
+     */
+    public List<CourseStatsDTO> getAllCourseStats() {
+        return courseStatsIndex.getAll();
+    }
+
+    /**
+     * Retrieves the grade distribution of one course name from the in-memory statistics.
+     *
+     * @param name The exact course name.
+     * @return The course's CourseStatsDTO; the quantiles are t-digest estimates.
+     * @throws IllegalArgumentException if no graded enrollment has that course name.
+     */
+    public CourseStatsDTO getCourseStats(String name) {
+        return courseStatsIndex.get(name);
     }
 
     /**
@@ -84,19 +338,49 @@ public class CourseService {
      * - Convert the Course entities to DTOs to abstract unnecessary fields.
      *
      * Steps:
-     * 1. Retrieve all Course entities from the database using the repository.
-     * 2. Stream the list of courses and map each Course entity to a CourseResponseDTO.
-     * 3. Collect the DTOs into a list and return it.
+     * 1. Retrieve every course flattened with its grade in one projection query (no entities,
+     *    so no per-course student or grade loads).
+     * 2. Map each row to a CourseResponseDTO and collect the results in a list.
      *
-     * @return A list of CourseResponseDTOs representing all courses.
+     * @return A list of CourseResponseDTOs representing all courses, in course ID order.
      */
+    @Transactional(readOnly = true)
     public List<CourseResponseDTO> getAllCourses() {
-        // Retrieve all courses from the database
-        List<Course> courses = courseRepository.findAll();
+        return getAllCourses(EnumSet.allOf(CourseResponseDTO.Field.class));
+    }
+
+    /**
+     * Retrieves all courses with only the requested fields (a sparse fieldset).
+     * When neither `gradeLetter` nor `gradeScore` is requested, only the course names are read
+     * and the grade table is not joined; the grade fields are then left empty (null letter, 0.0 score)
+     * and must be filtered out when serializing.
+     *
+     * @param fields The requested fields.
+     * @return A list of CourseResponseDTOs, in course ID order.
+     */
+    @Transactional(readOnly = true)
+    public List<CourseResponseDTO> getAllCourses(Set<CourseResponseDTO.Field> fields) {
+        if (!fields.contains(CourseResponseDTO.Field.GRADE_LETTER) && !fields.contains(CourseResponseDTO.Field.GRADE_SCORE)) {
+            // Retrieve only the course IDs and names in a single query (per shard)
+            List<Object[]> rows = ShardRouter.mergeOrdered(
+                    shardRouter.scatter(shard -> courseRepository.findAllIdsAndNamesOrderById()),
+                    Comparator.comparing(row -> (Long) row[0]));
+            return rows.stream()
+                    .map(row -> new CourseResponseDTO((String) row[1], null, 0.0))
+                    .collect(Collectors.toList());
+        }
+
+        // Retrieve all courses with their grades in a single query (per shard), merged in course ID order
+        List<CourseRowView> rows = ShardRouter.mergeOrdered(
+                shardRouter.scatter(shard -> courseRepository.findAllCourseRowsOrderById()),
+                Comparator.comparing(CourseRowView::getId));
 
-        // Convert each Course to a CourseResponseDTO and collect the results in a list
-        return courses.stream()
-                .map(course -> new CourseResponseDTO(course)) // Mapping Course to CourseResponseDTO
+        // Convert each row to a CourseResponseDTO and collect the results in a list
+        return rows.stream()
+                .map(row -> new CourseResponseDTO(
+                        row.getName(),
+                        row.getGradeLetter(), // Null when the course has no grade
+                        row.getGradeScore() != null ? row.getGradeScore() : 0.0)) // Default score for null grades
                 .collect(Collectors.toList());
     }
 }
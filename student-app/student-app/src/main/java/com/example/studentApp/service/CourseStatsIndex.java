@@ -0,0 +1,256 @@
+package com.example.studentApp.service;
+
+import com.example.studentApp.dto.CourseStatsDTO;
+import com.example.studentApp.dto.HistogramBinDTO;
+import com.example.studentApp.model.Course;
+import com.tdunning.math.stats.MergingDigest;
+import com.tdunning.math.stats.TDigest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory grade distribution of every course name: count, mean, min, max, quantiles and a histogram.
+ *
+ * Each course name has a t-digest sketch of its grade scores. A sketch keeps at most a few hundred
+ * centroids however many scores it has seen (`student-app.course-stats.compression`), so memory
+ * and the cost of a quantile query stay bounded with millions of enrollments. Sketches are
+ * mergeable, so partial statistics (e.g. per shard) can be combined without the raw scores.
+ * Count, sum, min, max and the fixed-width histogram are kept exactly alongside.
+ *
+ * Responsibilities:
+ * - Build the statistics at startup from the ChangeJournal, or else in one pass over the graded enrollments.
+ * - Add every course written through CourseService once its transaction has committed.
+ * - Answer statistics queries without database access.
+ *
+ * Like GpaRankIndex, the load runs on the write queue and is swapped in after its transaction
+ * commits, so each write is counted exactly once.
+ */
+@Component
+public class CourseStatsIndex {
+    private static final Logger log = LoggerFactory.getLogger(CourseStatsIndex.class);
+
+    // Every graded enrollment; ungraded (legacy) courses have no score to count
+    private static final String LOAD_SQL = "select c.name, g.score from course c join grade g on g.id = c.grade_id";
+
+    // Number of rows the driver fetches per round trip while the cursor is open.
+    private static final int FETCH_SIZE = 1000;
+
+    // Dependency for streaming the enrollments
+    private final JdbcTemplate jdbcTemplate;
+    // Runs the load in line with the writes it has to be consistent with
+    private final WriteQueue writeQueue;
+    // Reads the rows of every shard
+    private final ShardRouter shardRouter;
+    // Journaled grade scores, read instead of the tables when enabled
+    private final ChangeJournal changeJournal;
+    // t-digest compression: higher is more accurate and larger
+    private final double compression;
+    // Width of the histogram bins, in score points
+    private final double binWidth;
+    // Whether to build the statistics at startup rather than on first use
+    private final boolean loadOnStartup;
+
+    // Statistics per course name (null until loaded)
+    private volatile Map<String, CourseStats> courses;
+    // Serializes loads
+    private final Object loadMonitor = new Object();
+
+    /**
+     * Constructor for dependency injection.
+     *
+     * @param jdbcTemplate Template used to stream the enrollments.
+     * @param writeQueue Single writer the load runs on.
+     * @param shardRouter Reads the rows of every shard for the load.
+     * @param changeJournal Journaled grade scores the load reads when enabled.
+     * @param compression t-digest compression of each course's sketch.
+     * @param binWidth Width of the histogram bins.
+     * @param loadOnStartup Whether to build the statistics when the application is ready.
+     */
+    public CourseStatsIndex(JdbcTemplate jdbcTemplate, WriteQueue writeQueue, ShardRouter shardRouter,
+                            ChangeJournal changeJournal,
+                            @Value("${student-app.course-stats.compression:100}") double compression,
+                            @Value("${student-app.course-stats.bin-width:1.0}") double binWidth,
+                            @Value("${student-app.course-stats.load-on-startup:true}") boolean loadOnStartup) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.writeQueue = writeQueue;
+        this.shardRouter = shardRouter;
+        this.changeJournal = changeJournal;
+        this.compression = compression;
+        this.binWidth = binWidth;
+        this.loadOnStartup = loadOnStartup;
+    }
+
+    /**
+     * Builds the statistics once the application is ready.
+     * Disabled with `student-app.course-stats.load-on-startup=false`; they are then built on first use.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        if (loadOnStartup) {
+            loaded();
+        }
+    }
+
+    /**
+     * Returns the statistics of every course name.
+     *
+     * @return One CourseStatsDTO per course name, ordered by name.
+     */
+    public List<CourseStatsDTO> getAll() {
+        List<CourseStatsDTO> all = new ArrayList<>();
+        loaded().forEach((name, stats) -> all.add(stats.toDto(name)));
+        all.sort(Comparator.comparing(CourseStatsDTO::getName));
+        return all;
+    }
+
+    /**
+     * Returns the statistics of one course name.
+     *
+     * @param name The exact course name.
+     * @return The course's CourseStatsDTO.
+     * @throws IllegalArgumentException if no graded enrollment has that course name.
+     */
+    public CourseStatsDTO get(String name) {
+        CourseStats stats = loaded().get(name);
+        if (stats == null) {
+            throw new IllegalArgumentException("Course not found");
+        }
+        return stats.toDto(name);
+    }
+
+    /**
+     * Adds newly saved graded courses to the statistics once the transaction commits.
+     *
+     * @param saved The saved courses; each has a name and a resolved grade.
+     */
+    public void recordEnrollments(Collection<Course> saved) {
+        // Copy what is needed now: the entities may be detached or reused by the time of the commit
+        List<String> names = new ArrayList<>(saved.size());
+        double[] scores = new double[saved.size()];
+        for (Course course : saved) {
+            scores[names.size()] = course.getGrade().getScore();
+            names.add(course.getName());
+        }
+        AfterCommit.run(() -> {
+            Map<String, CourseStats> current = courses;
+            if (current == null) {
+                return; // Counted by the load, which reads the committed rows
+            }
+            for (int i = 0; i < scores.length; i++) {
+                current.computeIfAbsent(names.get(i), name -> new CourseStats(compression, binWidth)).add(scores[i]);
+            }
+        });
+    }
+
+    // Number of course names with statistics, or 0 while not loaded.
+    public int getCourseCount() {
+        Map<String, CourseStats> current = courses;
+        return current != null ? current.size() : 0;
+    }
+
+    // Returns the statistics, loading them first if necessary.
+    private Map<String, CourseStats> loaded() {
+        Map<String, CourseStats> current = courses;
+        return current != null ? current : load();
+    }
+
+    // Reads the journal or streams the enrollments on the write queue, and swaps the result in when that
+    // transaction commits.
+    private Map<String, CourseStats> load() {
+        synchronized (loadMonitor) {
+            if (courses != null) {
+                return courses; // Loaded by another caller meanwhile
+            }
+            long start = System.nanoTime();
+            long[] rows = new long[1];
+            Map<String, CourseStats> loaded;
+            if (changeJournal.isEnabled()) {
+                // Read in line with the journal records of the writes (see GpaRankIndex)
+                loaded = changeJournal.readInLine(journal -> {
+                    Map<String, CourseStats> fresh = new ConcurrentHashMap<>();
+                    rows[0] = 0;
+                    journal.forEachScore((name, score) -> {
+                        fresh.computeIfAbsent(name, key -> new CourseStats(compression, binWidth)).add(score);
+                        rows[0]++;
+                    });
+                    courses = fresh;
+                    return fresh;
+                });
+            } else {
+                loaded = writeQueue.executeExclusive(() -> {
+                    Map<String, CourseStats> fresh = new ConcurrentHashMap<>();
+                    rows[0] = 0;
+                    shardRouter.forEachShard(shard -> jdbcTemplate.query(connection -> {
+                        var statement = connection.prepareStatement(LOAD_SQL,
+                                ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                        statement.setFetchSize(FETCH_SIZE);
+                        return statement;
+                    }, rs -> {
+                        fresh.computeIfAbsent(rs.getString(1), name -> new CourseStats(compression, binWidth))
+                                .add(rs.getDouble(2));
+                        rows[0]++;
+                    }));
+                    // Ordered between the writes grouped before and after this load (see GpaRankIndex)
+                    AfterCommit.run(() -> courses = fresh);
+                    return fresh;
+                });
+            }
+            log.info("Built grade statistics of {} courses from {} enrollments in {} ms", loaded.size(), rows[0],
+                    (System.nanoTime() - start) / 1_000_000);
+            // Not swapped in yet if the load joined a caller's transaction
+            return courses != null ? courses : loaded;
+        }
+    }
+
+
+    /**
+     * The statistics of one course name. Guarded by its own monitor, since a t-digest is not
+     * thread-safe (even a quantile query may merge its buffer).
+     */
+    private static final class CourseStats {
+        private final TDigest digest;
+        private final double binWidth;
+        // Number of scores per bin, keyed by floor(score / binWidth)
+        private final TreeMap<Long, Long> bins = new TreeMap<>();
+        private long count;
+        private double sum;
+        private double min = Double.POSITIVE_INFINITY;
+        private double max = Double.NEGATIVE_INFINITY;
+
+        CourseStats(double compression, double binWidth) {
+            this.digest = new MergingDigest(compression);
+            this.binWidth = binWidth;
+        }
+
+        synchronized void add(double score) {
+            digest.add(score);
+            bins.merge((long) Math.floor(score / binWidth), 1L, Long::sum);
+            count++;
+            sum += score;
+            min = Math.min(min, score);
+            max = Math.max(max, score);
+        }
+
+        synchronized CourseStatsDTO toDto(String name) {
+            List<HistogramBinDTO> histogram = new ArrayList<>(bins.size());
+            bins.forEach((bin, binCount) -> histogram.add(
+                    new HistogramBinDTO(bin * binWidth, (bin + 1) * binWidth, binCount)));
+            return new CourseStatsDTO(name, count, sum / count, min, max,
+                    digest.quantile(0.10), digest.quantile(0.50), digest.quantile(0.90), histogram);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.studentApp.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Version counters of the resource collections served by GET /api/students, /api/courses and /api/grades,
+ * from which the controllers derive strong ETags for conditional GETs.
+ *
+ * Every write path in the services bumps the versions of the collections whose representation it
+ * changes, once its transaction has committed (like the in-memory indexes, through AfterCommit).
+ * A controller reads the version before it queries, so a response never carries a newer ETag
+ * than its content: a write that commits meanwhile at worst causes one extra full response.
+ *
+ * Responsibilities:
+ * - Keep one monotonically increasing counter per collection.
+ * - Format ETags that also change when the application restarts, since the counters start from zero.
+ * - Notify listeners of each bump, e.g. RosterSnapshotCache, which rebuilds the serialized roster.
+ *
+ * Only writes made through this application are seen; after editing the database by other means,
+ * POST /api/admin/grade-cache/reload bumps every collection.
+ */
+@Component
+public class DataVersions {
+
+    /**
+     * The versioned collections.
+     */
+    public enum Resource {
+        // The roster: students with their courses, grades and GPA
+        STUDENTS,
+        // The course list, with each course's grade
+        COURSES,
+        // The grade list
+        GRADES
+    }
+
+    // Distinguishes the counters of this process from those of an earlier run
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    // One counter per collection; the map itself is never modified after construction
+    private final Map<Resource, AtomicLong> versions = new EnumMap<>(Resource.class);
+    // Called after each bump of their collection; the map itself is never modified after construction
+    private final Map<Resource, List<Runnable>> listeners = new EnumMap<>(Resource.class);
+
+    public DataVersions() {
+        for (Resource resource : Resource.values()) {
+            versions.put(resource, new AtomicLong());
+            listeners.put(resource, new CopyOnWriteArrayList<>());
+        }
+    }
+
+    /**
+     * Registers a listener for a collection's changes.
+     * Listeners run on the thread that committed the change (often the writer thread), so they must only hand work off.
+     *
+     * @param resource The collection.
+     * @param listener Called after every bump of the collection's version.
+     */
+    public void addListener(Resource resource, Runnable listener) {
+        listeners.get(resource).add(listener);
+    }
+
+    /**
+     * Bumps the versions of the given collections once the current transaction commits (or now if there is none).
+     *
+     * @param resources The collections whose content was changed.
+     */
+    public void changed(Resource... resources) {
+        AfterCommit.run(() -> {
+            for (Resource resource : resources) {
+                versions.get(resource).incrementAndGet();
+                listeners.get(resource).forEach(Runnable::run);
+            }
+        });
+    }
+
+    /**
+     * Returns the current version of a collection.
+     *
+     * @param resource The collection.
+     * @return The number of committed changes since startup.
+     */
+    public long version(Resource resource) {
+        return versions.get(resource).get();
+    }
+
+    /**
+     * Returns the strong ETag of a collection's current version, e.g. "students-m2x1k0a3-42".
+     *
+     * @param resource The collection.
+     * @return The quoted entity tag.
+     */
+    public String etag(Resource resource) {
+        return etag(resource, version(resource));
+    }
+
+    /**
+     * Returns the strong ETag of a given version of a collection, e.g. for a snapshot built from it.
+     *
+     * @param resource The collection.
+     * @param version A version returned by version().
+     * @return The quoted entity tag.
+     */
+    public String etag(Resource resource, long version) {
+        return "\"" + resource.name().toLowerCase(Locale.ROOT) + "-" + epoch + "-" + version + "\"";
+    }
+}
@@ -0,0 +1,491 @@
+package com.example.studentApp.service;
+
+import com.example.studentApp.dto.ImportReportDTO;
+import com.example.studentApp.dto.RejectedLineDTO;
+import com.example.studentApp.model.Course;
+import com.example.studentApp.model.Grade;
+import com.example.studentApp.model.Student;
+import com.example.studentApp.repository.StudentRepository;
+import io.micrometer.core.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Service class for importing large enrollment files (student email, course name, grade letter).
+ *
+ * Pipeline:
+ * 1. Build in-memory lookup tables once: student email to ID, and grade letter to Grade.
+ * 2. Memory-map the file and split it into segments that end on line boundaries.
+ * 3. Parse the segments in parallel; each parser resolves its rows through the lookup tables
+ *    and hands chunks of resolved rows to a bounded queue.
+ * 4. The calling thread drains the queue and inserts the rows with CourseService's batched insert,
+ *    committing every `student-app.import.commit-size` rows (SQLite only has one writer anyway).
+ *    Enrollments the student already has (course names are unique per student) are skipped and counted.
+ *
+ * Memory use is bounded by the queue, not by the file size, because parsing and inserting overlap.
+ */
+@Service
+@Timed("service.calls") // Latency of every public method, tagged by class and method
+public class EnrollmentImportService {
+    private static final Logger log = LoggerFactory.getLogger(EnrollmentImportService.class);
+
+    // Largest region mapped at once (a MappedByteBuffer is limited to 2 GB)
+    private static final long MAX_SEGMENT_BYTES = 1L << 30;
+    // Number of rows a parser groups before handing them to the inserter
+    private static final int ROWS_PER_CHUNK = 5_000;
+    // Number of parsed chunks that may wait for the inserter
+    private static final int QUEUE_CAPACITY = 16;
+    // Maximum number of rejected lines included in the report
+    private static final int MAX_REJECTION_SAMPLES = 100;
+
+    // Dependency for building the email lookup table
+    private final StudentRepository studentRepository;
+    // In-memory grade catalog the grade lookup table is built from
+    private final GradeCatalog gradeCatalog;
+    // Service that performs the batched inserts
+    private final CourseService courseService;
+    // Reads the students of every shard
+    private final ShardRouter shardRouter;
+    // Number of segments parsed in parallel
+    private final int parallelism;
+    // Number of rows inserted per transaction
+    private final int commitSize;
+
+    /**
+     * Constructor for dependency injection.
+     *
+     * @param studentRepository Repository used to build the email lookup table.
+     * @param gradeCatalog In-memory grade catalog used to build the grade lookup table.
+     * @param courseService Service that performs the batched inserts.
+     * @param shardRouter Reads the students of every shard for the email lookup table.
+     * @param parallelism Number of parser threads (0 = number of available processors).
+     * @param commitSize Number of rows inserted per transaction.
+     */
+    public EnrollmentImportService(StudentRepository studentRepository, GradeCatalog gradeCatalog,
+                                   CourseService courseService, ShardRouter shardRouter,
+                                   @Value("${student-app.import.parallelism:0}") int parallelism,
+                                   @Value("${student-app.import.commit-size:50000}") int commitSize) {
+        this.studentRepository = studentRepository;
+        this.gradeCatalog = gradeCatalog;
+        this.courseService = courseService;
+        this.shardRouter = shardRouter;
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.commitSize = commitSize;
+    }
+
+    /**
+     * Imports an enrollment file of `email,course name,grade letter` lines.
+     * A first line that does not look like data (e.g. `email,course,grade`) is treated as a header.
+     *
+     * @param file The CSV file to import; it must be readable by the server process.
+     * @return A report with the number of imported and rejected lines and the throughput.
+     * @throws IOException if the file cannot be read.
+     */
+    public ImportReportDTO importFile(Path file) throws IOException {
+        long start = System.nanoTime();
+
+        // Lookup tables, built once and shared read-only by every parser thread
+        Map<String, Long> studentIdsByEmail = loadStudentIdsByEmail();
+        Map<String, Grade> gradesByLetter = loadGradesByLetter();
+
+        long imported = 0;
+        List<SegmentResult> results = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            List<long[]> segments = split(channel);
+            BlockingQueue<RowChunk> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+            ExecutorService parsers = Executors.newFixedThreadPool(Math.min(parallelism, segments.size()));
+            try {
+                List<Future<SegmentResult>> futures = new ArrayList<>();
+                for (int i = 0; i < segments.size(); i++) {
+                    SegmentParser parser = new SegmentParser(i, segments.get(i), channel,
+                            studentIdsByEmail, gradesByLetter, queue);
+                    futures.add(parsers.submit(parser));
+                }
+
+                imported = insertFromQueue(queue, segments.size());
+
+                for (Future<SegmentResult> future : futures) {
+                    results.add(future.get());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Enrollment import was interrupted", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Enrollment import failed while parsing", e.getCause());
+            } finally {
+                parsers.shutdownNow(); // Unblocks parsers if the inserter failed
+            }
+        }
+
+        ImportReportDTO report = buildReport(results, imported, (System.nanoTime() - start) / 1_000_000);
+        log.info("Imported {} enrollments from {} ({} rejected lines) at {} rows/s",
+                report.getRowsImported(), file, report.getRejectedLines(), Math.round(report.getRowsPerSecond()));
+        return report;
+    }
+
+    // Drains the queue until every parser has finished, inserting rows in commit-size transactions.
+    private long insertFromQueue(BlockingQueue<RowChunk> queue, int parserCount) throws InterruptedException {
+        long imported = 0;
+        int finished = 0;
+        List<Course> pending = new ArrayList<>(commitSize);
+        while (finished < parserCount) {
+            RowChunk chunk = queue.take();
+            if (chunk.isEnd()) {
+                finished++;
+                continue;
+            }
+            for (int i = 0; i < chunk.size; i++) {
+                pending.add(chunk.toCourse(i));
+                if (pending.size() >= commitSize) {
+                    imported += courseService.insertResolvedCourses(pending);
+                    pending = new ArrayList<>(commitSize);
+                }
+            }
+        }
+        if (!pending.isEmpty()) {
+            imported += courseService.insertResolvedCourses(pending);
+        }
+        return imported;
+    }
+
+    // Builds the email-to-ID table; emails are compared case-insensitively and the oldest student wins.
+    private Map<String, Long> loadStudentIdsByEmail() {
+        Map<String, Long> ids = new HashMap<>();
+        // Merged in ID order across shards, so the lowest ID still wins an email shared by several students
+        List<Object[]> rows = ShardRouter.mergeOrdered(
+                shardRouter.scatter(shard -> studentRepository.findAllIdsAndEmails()),
+                Comparator.comparing(row -> (Long) row[0]));
+        for (Object[] row : rows) {
+            if (row[1] != null) {
+                ids.putIfAbsent(((String) row[1]).trim().toLowerCase(Locale.ROOT), (Long) row[0]);
+            }
+        }
+        return ids;
+    }
+
+    // Builds the letter-to-grade table; letters are compared case-insensitively.
+    private Map<String, Grade> loadGradesByLetter() {
+        Map<String, Grade> grades = new HashMap<>();
+        for (Grade grade : gradeCatalog.getAll()) {
+            if (grade.getLetter() != null) {
+                grades.putIfAbsent(grade.getLetter().trim().toUpperCase(Locale.ROOT), grade);
+            }
+        }
+        return grades;
+    }
+
+    /**
+     * Splits the file into [start, end) byte ranges that each end just after a line break,
+     * so every line belongs to exactly one segment.
+     */
+    private List<long[]> split(FileChannel channel) throws IOException {
+        long size = channel.size();
+        int count = (int) Math.max(parallelism, (size + MAX_SEGMENT_BYTES - 1) / MAX_SEGMENT_BYTES);
+        long target = Math.max(1, size / count);
+
+        List<long[]> segments = new ArrayList<>(count);
+        long start = 0;
+        while (start < size) {
+            long end = start + target >= size ? size : nextLineStart(channel, start + target, size);
+            end = Math.min(end, start + MAX_SEGMENT_BYTES); // A single line longer than 1 GB is cut
+            segments.add(new long[]{start, end});
+            start = end;
+        }
+        if (segments.isEmpty()) {
+            segments.add(new long[]{0, 0});
+        }
+        return segments;
+    }
+
+    // Returns the position just after the first '\n' at or after `from`, or `size` if there is none.
+    private static long nextLineStart(FileChannel channel, long from, long size) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        long position = from;
+        while (position < size) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    // Combines the per-segment results, turning segment-local line numbers into file line numbers.
+    private static ImportReportDTO buildReport(List<SegmentResult> results, long imported, long elapsedMillis) {
+        results.sort(Comparator.comparingInt(result -> result.index));
+        long linesBefore = 0;
+        long linesRead = 0;
+        long rejected = 0;
+        List<RejectedLineDTO> samples = new ArrayList<>();
+        for (SegmentResult result : results) {
+            for (RejectedLineDTO rejection : result.rejections) {
+                if (samples.size() < MAX_REJECTION_SAMPLES) {
+                    rejection.setLineNumber(linesBefore + rejection.getLineNumber());
+                    samples.add(rejection);
+                }
+            }
+            linesBefore += result.physicalLines;
+            linesRead += result.dataLines;
+            rejected += result.rejectedLines;
+        }
+        // Every line that was not rejected was handed to the inserter, which skips duplicate enrollments
+        long duplicates = linesRead - rejected - imported;
+        return new ImportReportDTO(linesRead, imported, rejected, duplicates, samples, elapsedMillis);
+    }
+
+    /**
+     * Parses one memory-mapped segment and emits chunks of resolved rows.
+     */
+    private static final class SegmentParser implements Callable<SegmentResult> {
+        private final int index;
+        private final long start;
+        private final long end;
+        private final FileChannel channel;
+        private final Map<String, Long> studentIdsByEmail;
+        private final Map<String, Grade> gradesByLetter;
+        private final BlockingQueue<RowChunk> queue;
+
+        // Reused buffer holding the bytes of the current line
+        private byte[] line = new byte[256];
+
+        SegmentParser(int index, long[] range, FileChannel channel, Map<String, Long> studentIdsByEmail,
+                      Map<String, Grade> gradesByLetter, BlockingQueue<RowChunk> queue) {
+            this.index = index;
+            this.start = range[0];
+            this.end = range[1];
+            this.channel = channel;
+            this.studentIdsByEmail = studentIdsByEmail;
+            this.gradesByLetter = gradesByLetter;
+            this.queue = queue;
+        }
+
+        @Override
+        public SegmentResult call() throws Exception {
+            SegmentResult result = new SegmentResult(index);
+            try {
+                if (end > start) {
+                    parse(channel.map(FileChannel.MapMode.READ_ONLY, start, end - start), result);
+                }
+            } finally {
+                queue.put(RowChunk.END); // Always signal completion, even on failure
+            }
+            return result;
+        }
+
+        private void parse(MappedByteBuffer buffer, SegmentResult result) throws InterruptedException {
+            RowChunk chunk = new RowChunk(ROWS_PER_CHUNK);
+            int length = 0;
+            int limit = buffer.limit();
+            for (int position = 0; position <= limit; position++) {
+                byte b = position < limit ? buffer.get(position) : (byte) '\n';
+                if (b != '\n') {
+                    if (length == line.length) {
+                        line = Arrays.copyOf(line, line.length * 2);
+                    }
+                    line[length++] = b;
+                    continue;
+                }
+                if (position == limit && length == 0) {
+                    break; // The segment ended with a line break
+                }
+                result.physicalLines++;
+                parseLine(length, result, chunk);
+                length = 0;
+                if (chunk.size == ROWS_PER_CHUNK) {
+                    queue.put(chunk);
+                    chunk = new RowChunk(ROWS_PER_CHUNK);
+                }
+            }
+            if (chunk.size > 0) {
+                queue.put(chunk);
+            }
+        }
+
+        private void parseLine(int length, SegmentResult result, RowChunk chunk) {
+            if (length > 0 && line[length - 1] == '\r') {
+                length--;
+            }
+            if (isBlank(length)) {
+                return;
+            }
+            List<String> fields = splitFields(length);
+            boolean firstLineOfFile = index == 0 && result.physicalLines == 1;
+
+            if (fields.size() != 3) {
+                if (!firstLineOfFile) {
+                    result.dataLines++;
+                    result.reject("expected 3 fields but found " + fields.size());
+                }
+                return;
+            }
+            String email = fields.get(0).trim().toLowerCase(Locale.ROOT);
+            String courseName = fields.get(1).trim();
+            Grade grade = gradesByLetter.get(fields.get(2).trim().toUpperCase(Locale.ROOT));
+            Long studentId = studentIdsByEmail.get(email);
+
+            // A first line that does not resolve to a student and grade is a header, not data
+            if (firstLineOfFile && (studentId == null || grade == null) && email.indexOf('@') < 0) {
+                return;
+            }
+            result.dataLines++;
+            if (studentId == null) {
+                result.reject("unknown student email");
+            } else if (grade == null) {
+                result.reject("unknown grade letter");
+            } else if (courseName.isEmpty()) {
+                result.reject("course name is empty");
+            } else {
+                chunk.add(studentId, courseName, grade);
+            }
+        }
+
+        // Splits a CSV line into fields, honouring double-quoted fields with "" escapes.
+        private List<String> splitFields(int length) {
+            List<String> fields = new ArrayList<>(3);
+            StringBuilder quoted = null;
+            int fieldStart = 0;
+            int i = 0;
+            while (i <= length) {
+                if (i < length && line[i] == '"' && i == fieldStart) {
+                    // Quoted field: copy until the closing quote
+                    quoted = new StringBuilder();
+                    int j = i + 1;
+                    int runStart = j;
+                    while (j < length) {
+                        if (line[j] == '"') {
+                            quoted.append(new String(line, runStart, j - runStart, StandardCharsets.UTF_8));
+                            if (j + 1 < length && line[j + 1] == '"') {
+                                quoted.append('"');
+                                j += 2;
+                                runStart = j;
+                                continue;
+                            }
+                            break;
+                        }
+                        j++;
+                    }
+                    if (j >= length) {
+                        quoted.append(new String(line, runStart, Math.max(0, length - runStart), StandardCharsets.UTF_8));
+                    }
+                    i = j + 1;
+                    while (i < length && line[i] != ',') {
+                        i++; // Ignore anything between the closing quote and the delimiter
+                    }
+                }
+                if (i >= length || line[i] == ',') {
+                    fields.add(quoted != null ? quoted.toString()
+                            : new String(line, fieldStart, i - fieldStart, StandardCharsets.UTF_8));
+                    quoted = null;
+                    fieldStart = i + 1;
+                }
+                i++;
+            }
+            return fields;
+        }
+
+        private boolean isBlank(int length) {
+            for (int i = 0; i < length; i++) {
+                if (line[i] != ' ' && line[i] != '\t') {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Counters and rejected-line samples of one segment. Line numbers are segment-local until
+     * `buildReport` adds the lines of the preceding segments.
+     */
+    private static final class SegmentResult {
+        private final int index;
+        private long physicalLines;
+        private long dataLines;
+        private long rejectedLines;
+        private final List<RejectedLineDTO> rejections = new ArrayList<>();
+
+        SegmentResult(int index) {
+            this.index = index;
+        }
+
+        // Only the line number and the reason are kept: the content of the file is not echoed back.
+        void reject(String reason) {
+            rejectedLines++;
+            if (rejections.size() < MAX_REJECTION_SAMPLES) {
+                rejections.add(new RejectedLineDTO(physicalLines, reason));
+            }
+        }
+    }
+
+    /**
+     * A group of resolved rows in column form, passed from a parser to the inserter.
+     */
+    private static final class RowChunk {
+        // Marker put on the queue by each parser when it is done
+        static final RowChunk END = new RowChunk(0);
+
+        private final long[] studentIds;
+        private final String[] courseNames;
+        private final Grade[] grades;
+        private int size;
+
+        RowChunk(int capacity) {
+            this.studentIds = new long[capacity];
+            this.courseNames = new String[capacity];
+            this.grades = new Grade[capacity];
+        }
+
+        boolean isEnd() {
+            return this == END;
+        }
+
+        void add(long studentId, String courseName, Grade grade) {
+            studentIds[size] = studentId;
+            courseNames[size] = courseName;
+            grades[size] = grade;
+            size++;
+        }
+
+        // Creates the Course to insert; the student is a stub carrying only the ID.
+        Course toCourse(int i) {
+            Student student = new Student();
+            student.setId(studentIds[i]);
+            Course course = new Course();
+            course.setName(courseNames[i]);
+            course.setStudent(student);
+            course.setGrade(grades[i]);
+            return course;
+        }
+    }
+}
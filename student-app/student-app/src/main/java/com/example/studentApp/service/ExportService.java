@@ -0,0 +1,189 @@
+package com.example.studentApp.service;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Service class for streaming bulk exports of the enrollment data.
+ *
+ * Responsibilities:
+ * - Read every course joined with its student and grade through a forward-only JDBC cursor.
+ * - Write each row to the output as soon as it is read, so heap use stays flat regardless of
+ *   the number of rows (nothing is collected into lists or mapped to entities).
+ *
+ * The exports run in read-only transactions, so the cursor stays open on a reader connection for as
+ * long as the client takes, without holding the writer connection or blocking writes.
+ *
+ * When the database is sharded the shards are streamed one after the other, so the rows are ordered
+ * by shard, then by course ID within each shard; merging them would need a cursor open on every shard.
+ */
+@Service
+@Timed("service.calls") // Latency of every public method, tagged by class and method
+public class ExportService {
+
+    /**
+     * The export query. Rows are returned in course ID order, which is the table's rowid order,
+     * so SQLite can stream them without sorting.
+     */
+    private static final String EXPORT_SQL =
+            "select c.id, c.name, s.id, s.name, s.email, g.letter, g.score " +
+            "from course c " +
+            "join student s on s.id = c.student_id " +
+            "left join grade g on g.id = c.grade_id " +
+            "order by c.id";
+
+    // Header row of the CSV export, matching the NDJSON field names.
+    private static final String CSV_HEADER =
+            "courseId,courseName,studentId,studentName,studentEmail,gradeLetter,gradeScore";
+
+    // Number of rows the driver fetches per round trip while the cursor is open.
+    private static final int FETCH_SIZE = 1000;
+
+    // Size of the buffer between the row writer and the response stream.
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    // Dependency for running the export query over plain JDBC
+    private final JdbcTemplate jdbcTemplate;
+    // Shared ObjectMapper, used only for its JsonFactory when writing NDJSON
+    private final ObjectMapper objectMapper;
+    // Streams every shard in turn
+    private final ShardRouter shardRouter;
+
+    /**
+     * Constructor for dependency injection.
+     *
+     * @param jdbcTemplate Template used to stream the export query.
+     * @param objectMapper Mapper whose factory creates the NDJSON generator.
+     * @param shardRouter Runs the export query on every shard.
+     */
+    public ExportService(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper, ShardRouter shardRouter) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.shardRouter = shardRouter;
+    }
+
+    /**
+     * Streams every enrollment as newline-delimited JSON, one object per line.
+     *
+     * @param out The stream to write to (typically the HTTP response body).
+     * @throws IOException if writing to the stream fails.
+     */
+    @Transactional(readOnly = true)
+    public void exportNdjson(OutputStream out) throws IOException {
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET); // The servlet container owns the stream
+            json.setRootValueSeparator(new SerializedString("\n")); // One object per line
+            streamRows(rs -> {
+                try {
+                    json.writeStartObject();
+                    json.writeNumberField("courseId", rs.getLong(1));
+                    json.writeStringField("courseName", rs.getString(2));
+                    json.writeNumberField("studentId", rs.getLong(3));
+                    json.writeStringField("studentName", rs.getString(4));
+                    json.writeStringField("studentEmail", rs.getString(5));
+                    json.writeStringField("gradeLetter", rs.getString(6)); // Null when the course has no grade
+                    writeNullableScore(json, rs);
+                    json.writeEndObject();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            json.writeRaw('\n'); // Terminate the last line
+        }
+    }
+
+    /**
+     * Streams every enrollment as CSV (RFC 4180 quoting), preceded by a header row.
+     *
+     * @param out The stream to write to (typically the HTTP response body).
+     * @throws IOException if writing to the stream fails.
+     */
+    @Transactional(readOnly = true)
+    public void exportCsv(OutputStream out) throws IOException {
+        Writer csv = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        csv.write(CSV_HEADER);
+        csv.write("\r\n");
+        streamRows(rs -> {
+            try {
+                csv.write(Long.toString(rs.getLong(1)));
+                csv.write(',');
+                writeCsvField(csv, rs.getString(2));
+                csv.write(',');
+                csv.write(Long.toString(rs.getLong(3)));
+                csv.write(',');
+                writeCsvField(csv, rs.getString(4));
+                csv.write(',');
+                writeCsvField(csv, rs.getString(5));
+                csv.write(',');
+                writeCsvField(csv, rs.getString(6));
+                csv.write(',');
+                double score = rs.getDouble(7);
+                if (!rs.wasNull()) {
+                    csv.write(Double.toString(score));
+                }
+                csv.write("\r\n");
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        csv.flush();
+    }
+
+    // Runs the export query (on every shard in turn) and hands each row to the handler while the cursor is open.
+    private void streamRows(RowCallbackHandler handler) throws IOException {
+        try {
+            shardRouter.forEachShard(shard -> jdbcTemplate.query(connection -> {
+                var statement = connection.prepareStatement(EXPORT_SQL,
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                statement.setFetchSize(FETCH_SIZE);
+                return statement;
+            }, handler));
+        } catch (UncheckedIOException e) {
+            // Surface write failures (e.g. the client disconnected) as the IOException they are
+            throw e.getCause();
+        }
+    }
+
+    // Writes the grade score, or null when the course has no grade.
+    private static void writeNullableScore(JsonGenerator json, ResultSet rs) throws IOException, SQLException {
+        double score = rs.getDouble(7);
+        if (rs.wasNull()) {
+            json.writeNullField("gradeScore");
+        } else {
+            json.writeNumberField("gradeScore", score);
+        }
+    }
+
+    // Writes a CSV field, quoting it only when it contains a delimiter, quote or line break.
+    private static void writeCsvField(Writer csv, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        boolean needsQuotes = value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0;
+        if (!needsQuotes) {
+            csv.write(value);
+            return;
+        }
+        csv.write('"');
+        csv.write(value.replace("\"", "\"\""));
+        csv.write('"');
+    }
+}
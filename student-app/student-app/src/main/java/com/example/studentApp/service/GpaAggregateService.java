@@ -0,0 +1,145 @@
+package com.example.studentApp.service;
+
+import com.example.studentApp.dto.GpaAggregateReportDTO;
+import com.example.studentApp.repository.StudentRepository;
+import io.micrometer.core.annotation.Timed;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Service class for checking and rebuilding the persisted GPA aggregates.
+ *
+ * Responsibilities:
+ * - Compare each student's stored running sum/count with the values recomputed from the course table.
+ * - Rebuild all aggregates from the course table in one statement.
+ * - Optionally verify the aggregates at startup, e.g. after the columns were added to an existing database,
+ *   unless the change journal shows that the database was last written by this application.
+ *
+ * When the database is sharded every shard is checked, and rebuilt, on its own (a student's courses
+ * live on the student's shard), and the reports are merged.
+ */
+@Service
+@Timed("service.calls") // Latency of every public method, tagged by class and method
+public class GpaAggregateService {
+    private static final Logger log = LoggerFactory.getLogger(GpaAggregateService.class);
+
+    // Maximum number of stale student IDs included in a report
+    private static final int SAMPLE_SIZE = 100;
+
+    // Dependency for running the aggregate queries
+    private final StudentRepository studentRepository;
+    // In-memory GPA ranking, reloaded after a rebuild
+    private final GpaRankIndex gpaRankIndex;
+    // Version of the roster, which shows the rebuilt GPAs
+    private final DataVersions dataVersions;
+    // Whether to check (and repair) the aggregates when the application starts
+    private final boolean verifyOnStartup;
+    // Writer that runs the rebuild (on every shard's writer lane)
+    private final WriteQueue writeQueue;
+    // Runs the check on every shard
+    private final ShardRouter shardRouter;
+    // Journal that is outdated by a rebuild, and tells whether the startup check can be skipped
+    private final ChangeJournal changeJournal;
+
+    /**
+     * Constructor for dependency injection.
+     *
+     * @param studentRepository Repository holding the aggregate queries.
+     * @param gpaRankIndex In-memory GPA ranking built from the aggregates.
+     * @param dataVersions Version counters bumped by a rebuild.
+     * @param verifyOnStartup Whether to check and repair the aggregates at startup.
+     * @param writeQueue Writer that runs the rebuild.
+     * @param shardRouter Runs the check on every shard.
+     * @param changeJournal Journal that reads the rebuilt aggregates again.
+     */
+    public GpaAggregateService(StudentRepository studentRepository, GpaRankIndex gpaRankIndex, DataVersions dataVersions,
+                               @Value("${student-app.gpa.verify-on-startup:true}") boolean verifyOnStartup,
+                               WriteQueue writeQueue, ShardRouter shardRouter, ChangeJournal changeJournal) {
+        this.studentRepository = studentRepository;
+        this.gpaRankIndex = gpaRankIndex;
+        this.dataVersions = dataVersions;
+        this.verifyOnStartup = verifyOnStartup;
+        this.writeQueue = writeQueue;
+        this.shardRouter = shardRouter;
+        this.changeJournal = changeJournal;
+    }
+
+    /**
+     * Checks every student's aggregate against the course table without changing anything.
+     *
+     * @return A report of the students whose aggregate is stale.
+     */
+    @Transactional(readOnly = true)
+    public GpaAggregateReportDTO check() {
+        List<Long> staleIds = ShardRouter.mergeOrdered(
+                shardRouter.scatter(shard -> studentRepository.findIdsWithStaleGpaAggregate()),
+                Comparator.naturalOrder());
+        return new GpaAggregateReportDTO(staleIds.size(), sample(staleIds), 0);
+    }
+
+    /**
+     * Recomputes every student's aggregate from the course table.
+     * The in-memory GPA ranking is dropped and loaded again on its next use; the change journal it is
+     * loaded from reads the rebuilt aggregates from the tables first.
+     * Runs on the write queue (on every shard's writer when sharded), so no write interleaves with it.
+     *
+     * @return A report of the students that were stale before the rebuild, and how many were rewritten.
+     */
+    public GpaAggregateReportDTO rebuild() {
+        List<Rebuild> parts = writeQueue.executeOnEveryShard(shard -> new Rebuild(
+                studentRepository.findIdsWithStaleGpaAggregate(), studentRepository.rebuildGpaAggregates()));
+        changeJournal.invalidate(); // Its aggregates are read from the tables again on the next load
+        gpaRankIndex.invalidate(); // The ranking was built from the old aggregates
+        dataVersions.changed(DataVersions.Resource.STUDENTS);
+
+        List<List<Long>> staleIdsByShard = new ArrayList<>(parts.size());
+        int rebuilt = 0;
+        for (Rebuild part : parts) {
+            staleIdsByShard.add(part.staleIds());
+            rebuilt += part.rebuilt();
+        }
+        List<Long> staleIds = ShardRouter.mergeOrdered(staleIdsByShard, Comparator.naturalOrder());
+        return new GpaAggregateReportDTO(staleIds.size(), sample(staleIds), rebuilt);
+    }
+
+    /**
+     * Verifies the aggregates once the application is ready and rebuilds them if any are stale.
+     * The check joins every student with their courses, so it is skipped when the change journal was
+     * restored from a snapshot that matched the tables: the database was then last written by this
+     * application, which keeps the aggregates up to date. Disabled with
+     * `student-app.gpa.verify-on-startup=false`; the admin endpoint runs the same check on demand.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void verifyOnStartup() {
+        if (!verifyOnStartup) {
+            return;
+        }
+        if (changeJournal.isRestoredFromSnapshot()) {
+            log.debug("Skipping the GPA aggregate check, the change journal matched the tables");
+            return;
+        }
+        GpaAggregateReportDTO report = check();
+        if (report.getStaleStudentCount() > 0) {
+            log.warn("{} students have a stale GPA aggregate, rebuilding", report.getStaleStudentCount());
+            rebuild();
+        }
+    }
+
+    // One shard's part of a rebuild: the students that were stale, and the number of rows rewritten.
+    private record Rebuild(List<Long> staleIds, int rebuilt) {
+    }
+
+    // Caps the list of IDs included in a report.
+    private static List<Long> sample(List<Long> ids) {
+        return ids.size() <= SAMPLE_SIZE ? ids : List.copyOf(ids.subList(0, SAMPLE_SIZE));
+    }
+}
@@ -0,0 +1,357 @@
+package com.example.studentApp.service;
+
+import com.example.studentApp.dto.StudentRankDTO;
+import com.example.studentApp.model.Course;
+import com.example.studentApp.model.Student;
+import com.example.studentApp.repository.StudentRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory GPA ranking of all students, answering "top k by GPA" and "rank of student x" without a database scan.
+ *
+ * Students are kept in an IndexedSkipList ordered by GPA (descending), then ID, so both queries
+ * are O(log n) (plus k for the top list). Only students with at least one graded course are ranked;
+ * the others have no meaningful GPA yet. Students with the same GPA share a rank ("1, 2, 2, 4").
+ * The running score sums are doubles, so the same grades added in another order (or summed by the
+ * database on load) can differ in the last bits; the GPA is therefore ranked in whole GPA_UNITS, and
+ * such students still tie.
+ *
+ * Responsibilities:
+ * - Load every student's GPA aggregate on first use, from the ChangeJournal or else in one query.
+ * - Apply the enrollments and students written through CourseService and StudentService incrementally,
+ *   after their transaction has committed (like GradeCatalog), so a rolled-back write is never ranked.
+ * - Drop the ranking when the aggregates are rebuilt; it is loaded again on the next query.
+ *
+ * The load runs on the write queue, and the new ranking is swapped in when that transaction commits.
+ * Writes committed earlier have then already been applied, and later ones are applied to the new
+ * ranking, so no write is missed or counted twice.
+ */
+@Component
+public class GpaRankIndex {
+    private static final Logger log = LoggerFactory.getLogger(GpaRankIndex.class);
+
+    // Ranked GPAs are rounded to a millionth of a point: far coarser than the rounding errors of the sums,
+    // far finer than any difference between real averages
+    private static final double GPA_UNITS = 1_000_000;
+
+    // Best GPA first; the ID keeps the keys distinct and breaks ties deterministically
+    private static final Comparator<RankKey> ORDER = Comparator.comparingLong(RankKey::gpaUnits).reversed()
+            .thenComparingLong(RankKey::studentId);
+
+    // Dependency for loading the GPA aggregates
+    private final StudentRepository studentRepository;
+    // Runs the load in line with the writes it has to be consistent with
+    private final WriteQueue writeQueue;
+    // Reads the rows of every shard
+    private final ShardRouter shardRouter;
+    // Journaled students, read instead of the student table when enabled
+    private final ChangeJournal changeJournal;
+    // Upper bound for the size of the top list
+    private final int maxTop;
+
+    // Readers share the ranking; updates and swaps are exclusive
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // The current ranking (null until loaded or after an invalidation); guarded by lock
+    private Ranking ranking;
+    // Incremented by every invalidation, so a load that overlaps one is discarded; guarded by lock
+    private long generation;
+
+    // Serializes loads
+    private final Object loadMonitor = new Object();
+    private final AtomicLong loads = new AtomicLong();
+
+    /**
+     * Constructor for dependency injection.
+     *
+     * @param studentRepository Repository used to load the GPA aggregates.
+     * @param writeQueue Single writer the load runs on.
+     * @param shardRouter Reads the rows of every shard for the load.
+     * @param changeJournal Journaled students the load reads when enabled.
+     * @param maxTop The largest k a client may request from the top list.
+     */
+    public GpaRankIndex(StudentRepository studentRepository, WriteQueue writeQueue, ShardRouter shardRouter,
+                        ChangeJournal changeJournal, @Value("${student-app.rank.max-top:1000}") int maxTop) {
+        this.studentRepository = studentRepository;
+        this.writeQueue = writeQueue;
+        this.shardRouter = shardRouter;
+        this.changeJournal = changeJournal;
+        this.maxTop = maxTop;
+    }
+
+    /**
+     * Returns the students with the highest GPA.
+     *
+     * @param k The number of students, clamped to [1, max-top].
+     * @return Up to k ranks, best first.
+     */
+    public List<StudentRankDTO> top(int k) {
+        int limit = Math.max(1, Math.min(k, maxTop));
+        lock.readLock().lock();
+        try {
+            Ranking current = loadedRanking();
+            List<StudentRankDTO> top = new ArrayList<>(limit);
+            long rank = 0;
+            long previousGpaUnits = -1;
+            for (RankKey key : current.order.first(limit)) {
+                // Equal GPAs share the rank of the first of them
+                if (key.gpaUnits() != previousGpaUnits) {
+                    rank = top.size() + 1;
+                    previousGpaUnits = key.gpaUnits();
+                }
+                Standing standing = current.standings.get(key.studentId());
+                top.add(new StudentRankDTO(key.studentId(), standing.name, standing.gpa(), rank, current.order.size()));
+            }
+            return top;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns a student's class rank: one more than the number of students with a higher GPA.
+     *
+     * @param studentId The ID of the student.
+     * @return The student's rank; the rank is null if the student has no graded courses.
+     * @throws IllegalArgumentException if the student is not found.
+     */
+    public StudentRankDTO rank(long studentId) {
+        lock.readLock().lock();
+        try {
+            Ranking current = loadedRanking();
+            Standing standing = current.standings.get(studentId);
+            if (standing == null) {
+                throw new IllegalArgumentException("Student not found");
+            }
+            if (standing.key == null) {
+                return new StudentRankDTO(studentId, standing.name, standing.gpa(), null, current.order.size());
+            }
+            // Among equal GPAs the smallest ID sorts first, so this counts only strictly higher GPAs
+            long higher = current.order.countLess(new RankKey(standing.key.gpaUnits(), Long.MIN_VALUE));
+            return new StudentRankDTO(studentId, standing.name, standing.gpa(), higher + 1, current.order.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds newly saved graded courses to their students' GPAs once the transaction commits.
+     *
+     * @param courses The saved courses; each references a student ID and a resolved grade.
+     */
+    public void recordEnrollments(Collection<Course> courses) {
+        // Copy what is needed now: the entities may be detached or reused by the time of the commit
+        Map<Long, double[]> deltas = new HashMap<>(); // studentId -> {score sum, course count}
+        for (Course course : courses) {
+            double[] delta = deltas.computeIfAbsent(course.getStudent().getId(), id -> new double[2]);
+            delta[0] += course.getGrade().getScore();
+            delta[1]++;
+        }
+        AfterCommit.run(() -> {
+            lock.writeLock().lock();
+            try {
+                if (ranking != null) {
+                    deltas.forEach((studentId, delta) -> ranking.apply(studentId, delta[0], (int) delta[1]));
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Adds newly saved students (who have no graded courses yet) once the transaction commits.
+     *
+     * @param students The saved students, with their IDs assigned.
+     */
+    public void registerStudents(Collection<Student> students) {
+        Map<Long, String> names = new HashMap<>();
+        for (Student student : students) {
+            names.put(student.getId(), student.getName());
+        }
+        AfterCommit.run(() -> {
+            lock.writeLock().lock();
+            try {
+                if (ranking != null) {
+                    names.forEach((id, name) -> ranking.standings.putIfAbsent(id, new Standing(name)));
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Drops the ranking once the transaction commits, e.g. after the GPA aggregates were rebuilt.
+     * The next query loads it again.
+     */
+    public void invalidate() {
+        AfterCommit.run(() -> {
+            lock.writeLock().lock();
+            try {
+                ranking = null;
+                generation++;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    // Number of times the ranking was loaded from the database.
+    public long getLoads() {
+        return loads.get();
+    }
+
+    // Number of ranked students, or 0 while the ranking is not loaded.
+    public int getRankedStudents() {
+        lock.readLock().lock();
+        try {
+            return ranking != null ? ranking.order.size() : 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Returns the ranking, loading it first if necessary. Called with the read lock held.
+    private Ranking loadedRanking() {
+        if (ranking != null) {
+            return ranking;
+        }
+        // The load takes the write lock to swap, so give up the read lock while waiting for it
+        Ranking loaded;
+        lock.readLock().unlock();
+        try {
+            loaded = load();
+        } finally {
+            lock.readLock().lock();
+        }
+        // Not swapped in yet if the load joined a caller's transaction, or was invalidated meanwhile
+        return ranking != null ? ranking : loaded;
+    }
+
+    // Builds a ranking from the journal or the database (every shard) on the write queue and swaps it in
+    // when that transaction commits.
+    private Ranking load() {
+        synchronized (loadMonitor) {
+            long expectedGeneration;
+            lock.readLock().lock();
+            try {
+                if (ranking != null) {
+                    return ranking; // Loaded by another caller meanwhile
+                }
+                expectedGeneration = generation;
+            } finally {
+                lock.readLock().unlock();
+            }
+
+            long start = System.nanoTime();
+            Ranking loaded;
+            if (changeJournal.isEnabled()) {
+                // Read in line with the journal records of the writes, in the same order as the swap below would be
+                loaded = changeJournal.readInLine(journal -> {
+                    Ranking fresh = new Ranking();
+                    journal.forEachStudent((id, name, email, scoreSum, count) -> {
+                        fresh.standings.put(id, new Standing(name));
+                        fresh.apply(id, scoreSum, count);
+                    });
+                    swap(fresh, expectedGeneration);
+                    return fresh;
+                });
+            } else {
+                loaded = writeQueue.executeExclusive(() -> {
+                    Ranking fresh = new Ranking();
+                    for (List<Object[]> rows : shardRouter.scatter(shard -> studentRepository.findAllGpaAggregates())) {
+                        for (Object[] row : rows) {
+                            Standing standing = new Standing((String) row[1]);
+                            fresh.standings.put((Long) row[0], standing);
+                            fresh.apply((Long) row[0], ((Number) row[2]).doubleValue(), ((Number) row[3]).intValue());
+                        }
+                    }
+                    // Registered after the synchronizations of the writes grouped before this load, and
+                    // before those of the writes grouped after it, so each write is applied exactly once
+                    // (with sharding, every writer is paused until this has run)
+                    AfterCommit.run(() -> swap(fresh, expectedGeneration));
+                    return fresh;
+                });
+            }
+            loads.incrementAndGet();
+            log.info("Loaded the GPA ranking of {} students ({} ranked) in {} ms", loaded.standings.size(),
+                    loaded.order.size(), (System.nanoTime() - start) / 1_000_000);
+            return loaded;
+        }
+    }
+
+    // Makes a loaded ranking the current one, unless it was invalidated while loading.
+    private void swap(Ranking fresh, long expectedGeneration) {
+        lock.writeLock().lock();
+        try {
+            if (generation == expectedGeneration) {
+                ranking = fresh;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+
+    // Position of a ranked student in the skip list, by GPA in GPA_UNITS. Only the order is rounded;
+    // the reported GPA is the student's own, as everywhere else in the API.
+    private record RankKey(long gpaUnits, long studentId) {
+
+        RankKey(double gpa, long studentId) {
+            this(Math.round(gpa * GPA_UNITS), studentId);
+        }
+    }
+
+    // A student's running GPA aggregate, mirroring the student table's columns.
+    private static final class Standing {
+        final String name;
+        double scoreSum;
+        int count;
+        // The student's key in the skip list, or null while the student has no graded courses
+        RankKey key;
+
+        Standing(String name) {
+            this.name = name;
+        }
+
+        // Mirrors Student.getGPA(): 4.0 when the student has no graded courses.
+        double gpa() {
+            return count == 0 ? 4.0 : scoreSum / count;
+        }
+    }
+
+    // The students and their order; only modified under the write lock.
+    private static final class Ranking {
+        final Map<Long, Standing> standings = new HashMap<>();
+        final IndexedSkipList<RankKey> order = new IndexedSkipList<>(ORDER);
+
+        // Adds graded courses to a student's aggregate and moves the student to their new position.
+        void apply(long studentId, double scoreDelta, int countDelta) {
+            Standing standing = standings.get(studentId);
+            if (standing == null) {
+                return; // Not known to this ranking (e.g. inserted by another process); picked up by the next load
+            }
+            if (standing.key != null) {
+                order.remove(standing.key);
+            }
+            standing.scoreSum += scoreDelta;
+            standing.count += countDelta;
+            standing.key = standing.count > 0 ? new RankKey(standing.gpa(), studentId) : null;
+            if (standing.key != null) {
+                order.insert(standing.key);
+            }
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package com.example.studentApp.service;
+
+import com.example.studentApp.dto.GradeCacheStatsDTO;
+import com.example.studentApp.model.Grade;
+import com.example.studentApp.repository.GradeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory copy of the Grade table.
+ *
+ * The grade table is a small lookup table that rarely changes, so it is held as an immutable snapshot
+ * that readers use without locking or database access. Writers never modify a snapshot: they build
+ * a new one and swap it in atomically (copy-on-write), after their transaction has committed.
+ *
+ * Responsibilities:
+ * - Load the grades once at startup.
+ * - Resolve grades by ID or letter, and list all grades, from the current snapshot.
+ * - Fall back to the database for an ID that is not cached (e.g. a grade inserted by another process).
+ * - Count hits and misses so the cache's effectiveness can be checked (GET /api/admin/grade-cache).
+ *
+ * The cached Grade objects are detached copies shared by all callers and must be treated as read-only.
+ */
+@Component
+public class GradeCatalog {
+    private static final Logger log = LoggerFactory.getLogger(GradeCatalog.class);
+
+    // Dependency for loading the grades
+    private final GradeRepository gradeRepository;
+    // Versions of the collections that show grades, bumped by a reload
+    private final DataVersions dataVersions;
+    // The current immutable snapshot (empty until the context has started)
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>(Snapshot.EMPTY);
+
+    // Lookup counters
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final AtomicLong swaps = new AtomicLong();
+
+    /**
+     * Constructor for dependency injection.
+     *
+     * @param gradeRepository Repository used to load the grades.
+     * @param dataVersions Version counters bumped by a reload.
+     */
+    public GradeCatalog(GradeRepository gradeRepository, DataVersions dataVersions) {
+        this.gradeRepository = gradeRepository;
+        this.dataVersions = dataVersions;
+    }
+
+    /**
+     * Loads the catalog once the context is ready, before any request or command runs.
+     */
+    @EventListener(ContextRefreshedEvent.class)
+    public void onStartup() {
+        reload();
+        log.info("Loaded {} grades into the grade catalog", snapshot.get().all.size());
+    }
+
+    /**
+     * Replaces the catalog with the current contents of the Grade table.
+     * Useful after grades were changed outside the application. Since the database may have been edited
+     * in other ways too, the versions of every collection are bumped.
+     */
+    public void reload() {
+        snapshot.set(Snapshot.of(gradeRepository.findAll()));
+        swaps.incrementAndGet();
+        dataVersions.changed(DataVersions.Resource.values());
+    }
+
+    /**
+     * Finds a grade by ID, going to the database only if it is not cached.
+     *
+     * @param id The ID of the grade.
+     * @return The cached grade, or empty if no such grade exists.
+     */
+    public Optional<Grade> findById(Long id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        Grade grade = snapshot.get().byId.get(id);
+        if (grade != null) {
+            hits.increment();
+            return Optional.of(grade);
+        }
+        misses.increment();
+        Optional<Grade> loaded = gradeRepository.findById(id);
+        loaded.ifPresent(found -> publish(List.of(Snapshot.copy(found))));
+        return loaded.flatMap(found -> Optional.ofNullable(snapshot.get().byId.get(found.getId())));
+    }
+
+    /**
+     * Finds a grade by letter (case-insensitive). Only the cache is consulted.
+     *
+     * @param letter The letter, e.g. "A".
+     * @return The cached grade, or empty if no grade has that letter.
+     */
+    public Optional<Grade> findByLetter(String letter) {
+        Grade grade = letter == null ? null : snapshot.get().byLetter.get(normalize(letter));
+        (grade != null ? hits : misses).increment();
+        return Optional.ofNullable(grade);
+    }
+
+    /**
+     * Resolves the grade a course points to, without initializing a lazy Grade proxy.
+     *
+     * @param reference The course's grade (an entity, a proxy, or null).
+     * @return The cached grade, or null if the reference is null.
+     */
+    public Grade resolve(Grade reference) {
+        return reference == null ? null : findById(reference.getId()).orElse(null);
+    }
+
+    /**
+     * Returns all grades, ordered by ID.
+     *
+     * @return An unmodifiable list of the cached grades.
+     */
+    public List<Grade> getAll() {
+        hits.increment();
+        return snapshot.get().all;
+    }
+
+    /**
+     * Adds newly saved grades to the catalog. Inside a transaction the swap is deferred until
+     * the transaction commits, so readers never see a grade that may still be rolled back.
+     *
+     * @param grades The saved grades (with their IDs assigned).
+     */
+    public void register(Collection<Grade> grades) {
+        if (grades.isEmpty()) {
+            return;
+        }
+        List<Grade> copies = grades.stream().map(Snapshot::copy).toList();
+        AfterCommit.run(() -> publish(copies));
+    }
+
+    /**
+     * Returns the cache statistics.
+     *
+     * @return A GradeCacheStatsDTO with the size and the hit/miss/swap counters.
+     */
+    public GradeCacheStatsDTO getStats() {
+        return new GradeCacheStatsDTO(snapshot.get().all.size(), hits.sum(), misses.sum(), swaps.get());
+    }
+
+    // Swaps in a snapshot that also contains the given grades; retried if another writer swapped first.
+    private void publish(Collection<Grade> grades) {
+        snapshot.updateAndGet(current -> current.with(grades));
+        swaps.incrementAndGet();
+    }
+
+    private static String normalize(String letter) {
+        return letter.trim().toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * An immutable view of the grade table. The maps and list are never modified after construction.
+     */
+    private static final class Snapshot {
+        static final Snapshot EMPTY = new Snapshot(Map.of());
+
+        private final Map<Long, Grade> byId;
+        private final Map<String, Grade> byLetter;
+        private final List<Grade> all;
+
+        private Snapshot(Map<Long, Grade> byId) {
+            List<Grade> sorted = new ArrayList<>(byId.values());
+            sorted.sort(Comparator.comparing(Grade::getId));
+            Map<String, Grade> letters = new LinkedHashMap<>();
+            for (Grade grade : sorted) {
+                if (grade.getLetter() != null) {
+                    letters.putIfAbsent(normalize(grade.getLetter()), grade); // Lowest ID wins for duplicate letters
+                }
+            }
+            this.byId = Collections.unmodifiableMap(byId);
+            this.byLetter = Collections.unmodifiableMap(letters);
+            this.all = Collections.unmodifiableList(sorted);
+        }
+
+        static Snapshot of(Collection<Grade> grades) {
+            return EMPTY.with(grades.stream().map(Snapshot::copy).toList());
+        }
+
+        Snapshot with(Collection<Grade> grades) {
+            Map<Long, Grade> next = new LinkedHashMap<>(byId);
+            for (Grade grade : grades) {
+                next.put(grade.getId(), grade);
+            }
+            return new Snapshot(next);
+        }
+
+        // Detached copy, so the catalog never holds an entity attached to a persistence context.
+        static Grade copy(Grade grade) {
+            Grade copy = new Grade();
+            copy.setId(grade.getId());
+            copy.setLetter(grade.getLetter());
+            copy.setScore(grade.getScore());
+            return copy;
+        }
+    }
+}
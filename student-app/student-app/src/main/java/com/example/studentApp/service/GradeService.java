@@ -1,10 +1,18 @@
 package com.example.studentApp.service;
 
+import com.example.studentApp.dto.BatchResultDTO;
 import com.example.studentApp.model.Grade;
 import com.example.studentApp.repository.GradeRepository;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
 /**
  * Service class for handling business logic related to grades.
@@ -12,20 +20,52 @@ import java.util.List;
  * Responsibilities:
  * - Manage grades, including adding and retrieving all grades.
  * - Act as the intermediary between the controller and the repository.
+ *
+ * When the database is sharded every shard holds a copy of the grade table, since each shard's
+ * courses join it. New grades get their IDs up front and are copied to the other shards first; the
+ * write on shard 0 comes last and registers them in the grade catalog, so no course can reference
+ * a grade that a shard is missing. If the write on shard 0 fails, the copies are deleted again.
  */
 @Service
+@Timed("service.calls") // Latency of every public method, tagged by class and method
 public class GradeService {
     // Dependency for interacting with the Grade table in the database
     private final GradeRepository gradeRepository;
+    // Helper that inserts batch requests in chunks
+    private final BatchInserter batchInserter;
+    // In-memory grade catalog that serves reads
+    private final GradeCatalog gradeCatalog;
+    // Single writer that group-commits inserts
+    private final WriteQueue writeQueue;
+    // Version of the grade list, for ETags
+    private final DataVersions dataVersions;
+    // Routes the copies of new grades to the other shards
+    private final ShardRouter shardRouter;
+    // Journal of the committed writes
+    private final ChangeJournal changeJournal;
 
     /**
      * Constructor for dependency injection.
      * The GradeRepository is injected to allow interaction with the database.
      *
      * @param gradeRepository Repository for managing grade data.
+     * @param batchInserter Helper that inserts batch requests in chunks.
+     * @param gradeCatalog In-memory grade catalog that serves reads.
+     * @param writeQueue Single writer that commits inserts in groups.
+     * @param dataVersions Version counters bumped by every write.
+     * @param shardRouter Routes the copies of new grades to the other shards.
+     * @param changeJournal Journal the inserted grades are appended to.
      */
-    public GradeService(GradeRepository gradeRepository) {
+    public GradeService(GradeRepository gradeRepository, BatchInserter batchInserter, GradeCatalog gradeCatalog,
+                        WriteQueue writeQueue, DataVersions dataVersions, ShardRouter shardRouter,
+                        ChangeJournal changeJournal) {
         this.gradeRepository = gradeRepository;
+        this.batchInserter = batchInserter;
+        this.gradeCatalog = gradeCatalog;
+        this.writeQueue = writeQueue;
+        this.dataVersions = dataVersions;
+        this.shardRouter = shardRouter;
+        this.changeJournal = changeJournal;
     }
 
     /**
@@ -34,24 +74,175 @@ public class GradeService {
      * Explanation:
      * - Uses Spring Data JPA's `save()` method to persist the Grade object.
      * - No custom repository method is needed because `save()` is built into `JpaRepository`.
+     * - The insert runs on the write queue and is committed together with other concurrent writes.
+     * - The grade catalog picks up the new grade once the transaction commits.
+     * - When the database is sharded an ID sent by the client is rejected, as in the batch, since the ID
+     *   allocator would not know about it.
      *
      * @param grade The Grade object to be added.
      * @return The saved Grade object.
+     * @throws ResponseStatusException 400 if the database is sharded and the grade has an ID.
      */
     public Grade addGrade(Grade grade) {
-        return gradeRepository.save(grade); // Persist the grade entity to the database
+        if (shardRouter.isSharded()) {
+            if (grade.getId() != null) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "id must not be set");
+            }
+            grade.setId(shardRouter.allocateIds("grade", 1));
+            return insertOnShards(List.of(grade), () -> {
+                batchInserter.insert(List.of(grade), this::registerNewGrades);
+                return grade;
+            });
+        }
+        Long requestedId = grade.getId();
+        return writeQueue.execute(() -> {
+            grade.setId(requestedId); // Start from the request again if the write is replayed
+            Grade saved = gradeRepository.save(grade); // Persist the grade entity to the database
+            registerNewGrades(List.of(saved));
+            return saved;
+        });
+    }
+
+    /**
+     * Adds many grades in one transaction, inserting them in JDBC-batched chunks.
+     *
+     * Items without a letter, or with an ID already set, are rejected individually
+     * and reported in the result; the remaining items are inserted.
+     * The grade catalog picks up the inserted grades once the transaction commits.
+     * The batch runs on the write queue, so it does not contend with the writer thread for the database lock.
+     *
+     * @param grades The Grade objects to be added.
+     * @return A BatchResultDTO with the generated IDs and the rejected items.
+     * @throws ResponseStatusException 413 if the batch has more than `student-app.batch.max-items` items.
+     */
+    public BatchResultDTO addGrades(List<Grade> grades) {
+        batchInserter.checkSize(grades);
+        if (shardRouter.isSharded()) {
+            return addGradesToShards(grades);
+        }
+        Runnable restoreIds = BatchInserter.idRestorer(grades, Grade::getId, Grade::setId);
+        return writeQueue.execute(() -> {
+            restoreIds.run(); // Start from the request again if the write is replayed
+            return batchInserter.insertValid(grades, GradeService::validateNewGrade, Grade::getId,
+                    this::registerNewGrades);
+        });
+    }
+
+    // addGrades for a sharded database: the valid grades get their IDs up front and are copied to the
+    // other shards before shard 0 inserts them.
+    private BatchResultDTO addGradesToShards(List<Grade> grades) {
+        Map<Grade, String> rejected = BatchInserter.rejections(grades, GradeService::validateNewGrade);
+        List<Grade> valid = grades.stream().filter(grade -> grade != null && !rejected.containsKey(grade)).toList();
+        if (!valid.isEmpty()) {
+            long firstId = shardRouter.allocateIds("grade", valid.size());
+            for (int i = 0; i < valid.size(); i++) {
+                valid.get(i).setId(firstId + i);
+            }
+        }
+        // Assigned IDs survive a replay, so nothing has to be restored
+        return insertOnShards(valid, () ->
+                batchInserter.insertValid(grades, rejected::get, Grade::getId, this::registerNewGrades));
+    }
+
+    // Copies new grades (IDs assigned) to the other shards, then runs their insert on shard 0. If a copy or
+    // the insert on shard 0 fails, the copies are deleted again, so no shard keeps grades shard 0 lacks
+    // (copies left by a crash in between are removed by ShardBalancer at the next start).
+    private <T> T insertOnShards(List<Grade> grades, Supplier<T> insertOnShardZero) {
+        try {
+            if (!grades.isEmpty()) {
+                replicate(grades);
+            }
+            return writeQueue.execute(0, insertOnShardZero);
+        } catch (RuntimeException e) {
+            if (!grades.isEmpty()) {
+                removeReplicas(grades, e);
+            }
+            throw e;
+        }
+    }
+
+    // Inserts copies of new grades (IDs assigned) on every shard but shard 0, in parallel; waits for every
+    // copy, then throws the first failure.
+    private void replicate(List<Grade> grades) {
+        List<CompletableFuture<Object>> copies = new ArrayList<>();
+        for (int shard = 1; shard < shardRouter.getShardCount(); shard++) {
+            copies.add(writeQueue.submit(shard, () -> {
+                List<Grade> copy = new ArrayList<>(grades.size());
+                for (Grade grade : grades) {
+                    Grade replica = new Grade();
+                    replica.setId(grade.getId());
+                    replica.setLetter(grade.getLetter());
+                    replica.setScore(grade.getScore());
+                    copy.add(replica);
+                }
+                batchInserter.insert(copy, null);
+                return null;
+            }));
+        }
+        awaitAll(copies);
+    }
+
+    // Deletes the copies of grades from every shard but shard 0; a failure is added to the original one.
+    private void removeReplicas(List<Grade> grades, RuntimeException failure) {
+        List<Long> ids = grades.stream().map(Grade::getId).toList();
+        List<CompletableFuture<Object>> deletes = new ArrayList<>();
+        try {
+            // A lane runs in order, so each delete comes after that shard's copy
+            for (int shard = 1; shard < shardRouter.getShardCount(); shard++) {
+                deletes.add(writeQueue.submit(shard, () -> {
+                    gradeRepository.deleteAllByIdInBatch(ids);
+                    return null;
+                }));
+            }
+            awaitAll(deletes);
+        } catch (RuntimeException e) {
+            failure.addSuppressed(e);
+        }
+    }
+
+    // Waits for every future, then throws the first failure, if any.
+    private static void awaitAll(List<CompletableFuture<Object>> futures) {
+        RuntimeException failure = null;
+        for (CompletableFuture<Object> future : futures) {
+            try {
+                WriteQueue.await(future);
+            } catch (RuntimeException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    // Returns why a grade cannot be inserted, or null if it can.
+    private static String validateNewGrade(Grade grade) {
+        if (grade.getId() != null) return "id must not be set";
+        if (grade.getLetter() == null || grade.getLetter().isBlank()) return "letter is required";
+        return null;
+    }
+
+    // Adds saved grades to the catalog and the change journal, and bumps the grade list's version, once the
+    // transaction commits.
+    private void registerNewGrades(List<Grade> grades) {
+        gradeCatalog.register(grades);
+        changeJournal.recordGrades(grades);
+        dataVersions.changed(DataVersions.Resource.GRADES);
     }
 
     /**
-     * Retrieves all grades from the database.
+     * Retrieves all grades.
      *
      * Explanation:
-     * - Uses Spring Data JPA's `findAll()` method to fetch all Grade entities.
-     * - No custom repository method is needed because `findAll()` is built into `JpaRepository`.
+     * - Served from the in-memory grade catalog, so no database access is needed.
      *
-     * @return A list of all Grade objects.
+     * @return A list of all Grade objects, ordered by ID.
      */
     public List<Grade> getAllGrades() {
-        return gradeRepository.findAll(); // Retrieve all grades from the database
+        return gradeCatalog.getAll(); // Retrieve all grades from the catalog
     }
 }
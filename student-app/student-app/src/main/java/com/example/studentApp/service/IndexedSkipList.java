@@ -0,0 +1,177 @@
+package com.example.studentApp.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * A sorted set of distinct keys that can also answer positional queries (an order-statistic structure).
+ *
+ * Every forward pointer stores its span: the number of level-0 steps it skips. Summing the spans
+ * on the way down gives the number of keys before any key, so insert, remove and rank are all
+ * O(log n) expected, and the first k keys are read in O(log n + k). The layout follows the
+ * skip list Redis uses for sorted sets.
+ *
+ * Not thread-safe; callers synchronize access.
+ *
+ * @param <K> The key type; keys must not change their order while they are in the list.
+ */
+final class IndexedSkipList<K> {
+    // Enough levels for 4^32 keys
+    private static final int MAX_LEVEL = 32;
+    // Probability that a node also appears on the next level up
+    private static final double LEVEL_PROBABILITY = 0.25;
+
+    private final Comparator<? super K> comparator;
+    private final Node<K> head = new Node<>(null, MAX_LEVEL);
+    private final SplittableRandom random = new SplittableRandom(42);
+    // Number of levels in use
+    private int level = 1;
+    private int size;
+
+    IndexedSkipList(Comparator<? super K> comparator) {
+        this.comparator = comparator;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Inserts a key that is not in the list yet.
+     *
+     * @param key The key to insert.
+     */
+    void insert(K key) {
+        @SuppressWarnings("unchecked")
+        Node<K>[] update = new Node[MAX_LEVEL];
+        int[] rank = new int[MAX_LEVEL]; // Position of update[i], counted in level-0 steps from the head
+
+        // Find the last node before the key on every level
+        Node<K> x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            rank[i] = i == level - 1 ? 0 : rank[i + 1];
+            while (x.next[i] != null && comparator.compare(x.next[i].key, key) < 0) {
+                rank[i] += x.span[i];
+                x = x.next[i];
+            }
+            update[i] = x;
+        }
+
+        int nodeLevel = randomLevel();
+        if (nodeLevel > level) {
+            // New levels start at the head and span the whole list
+            for (int i = level; i < nodeLevel; i++) {
+                rank[i] = 0;
+                update[i] = head;
+                head.span[i] = size;
+            }
+            level = nodeLevel;
+        }
+
+        // Link the node in and split the spans of the pointers it is placed under
+        Node<K> node = new Node<>(key, nodeLevel);
+        for (int i = 0; i < nodeLevel; i++) {
+            node.next[i] = update[i].next[i];
+            update[i].next[i] = node;
+            node.span[i] = update[i].span[i] - (rank[0] - rank[i]);
+            update[i].span[i] = rank[0] - rank[i] + 1;
+        }
+        // Pointers on higher levels now jump over one more key
+        for (int i = nodeLevel; i < level; i++) {
+            update[i].span[i]++;
+        }
+        size++;
+    }
+
+    /**
+     * Removes a key.
+     *
+     * @param key The key to remove.
+     * @return True if the key was in the list.
+     */
+    boolean remove(K key) {
+        @SuppressWarnings("unchecked")
+        Node<K>[] update = new Node[MAX_LEVEL];
+        Node<K> x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && comparator.compare(x.next[i].key, key) < 0) {
+                x = x.next[i];
+            }
+            update[i] = x;
+        }
+
+        Node<K> node = x.next[0];
+        if (node == null || comparator.compare(node.key, key) != 0) {
+            return false;
+        }
+        for (int i = 0; i < level; i++) {
+            if (update[i].next[i] == node) {
+                update[i].span[i] += node.span[i] - 1;
+                update[i].next[i] = node.next[i];
+            } else {
+                update[i].span[i]--;
+            }
+        }
+        while (level > 1 && head.next[level - 1] == null) {
+            level--;
+        }
+        size--;
+        return true;
+    }
+
+    /**
+     * Counts the keys that sort before the given key; the key itself need not be in the list.
+     *
+     * @param key The key to look up.
+     * @return The 0-based position the key has (or would have) in the list.
+     */
+    int countLess(K key) {
+        int rank = 0;
+        Node<K> x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && comparator.compare(x.next[i].key, key) < 0) {
+                rank += x.span[i];
+                x = x.next[i];
+            }
+        }
+        return rank;
+    }
+
+    /**
+     * Returns the first keys in order.
+     *
+     * @param limit The maximum number of keys to return.
+     * @return Up to `limit` keys, smallest first.
+     */
+    List<K> first(int limit) {
+        List<K> keys = new ArrayList<>(Math.min(limit, size));
+        for (Node<K> x = head.next[0]; x != null && keys.size() < limit; x = x.next[0]) {
+            keys.add(x.key);
+        }
+        return keys;
+    }
+
+    // Level of a new node: 1, and each further level with probability LEVEL_PROBABILITY.
+    private int randomLevel() {
+        int nodeLevel = 1;
+        while (nodeLevel < MAX_LEVEL && random.nextDouble() < LEVEL_PROBABILITY) {
+            nodeLevel++;
+        }
+        return nodeLevel;
+    }
+
+    private static final class Node<K> {
+        final K key;
+        final Node<K>[] next;
+        final int[] span;
+
+        @SuppressWarnings("unchecked")
+        Node(K key, int level) {
+            this.key = key;
+            this.next = new Node[level];
+            this.span = new int[level];
+        }
+    }
+}
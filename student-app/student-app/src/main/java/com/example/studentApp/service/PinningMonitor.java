@@ -0,0 +1,152 @@
+package com.example.studentApp.service;
+
+import com.example.studentApp.dto.PinningStatsDTO;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts virtual threads that stay pinned to their carrier thread.
+ *
+ * A virtual thread that blocks inside a `synchronized` block or a native call (the SQLite driver
+ * does both) cannot unmount, so it keeps a carrier thread busy and limits the concurrency virtual
+ * threads are supposed to provide. The JVM reports such cases as `jdk.VirtualThreadPinned` JFR
+ * events; this monitor subscribes to them in-process and keeps counters that can be read at
+ * GET /api/admin/virtual-threads.
+ *
+ * Responsibilities:
+ * - Stream pinning events longer than `student-app.virtual-threads.pinning-threshold-ms`.
+ * - Count the events and their total and longest duration.
+ * - Attribute each event to the first non-JDK frame of its stack, to show which code pins.
+ *
+ * The stream only runs when virtual threads are enabled (`spring.threads.virtual.enabled=true`).
+ */
+@Component
+public class PinningMonitor {
+    private static final Logger log = LoggerFactory.getLogger(PinningMonitor.class);
+
+    // JFR event emitted when a virtual thread parks or blocks while pinned
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    // Maximum number of distinct frames tracked
+    private static final int MAX_FRAMES = 50;
+
+    // Whether requests run on virtual threads
+    private final boolean virtualThreadsEnabled;
+    // Shortest pinning reported by the JVM
+    private final Duration threshold;
+
+    // Counters
+    private final LongAdder pinnedEvents = new LongAdder();
+    private final LongAdder pinnedNanos = new LongAdder();
+    private final AtomicLong maxPinnedNanos = new AtomicLong();
+    private final Map<String, LongAdder> eventsByFrame = new ConcurrentHashMap<>();
+
+    // The JFR stream (null when not running)
+    private RecordingStream stream;
+
+    /**
+     * Constructor for dependency injection.
+     *
+     * @param virtualThreadsEnabled Whether requests run on virtual threads.
+     * @param thresholdMillis Shortest pinning (in milliseconds) that is counted.
+     */
+    public PinningMonitor(@Value("${spring.threads.virtual.enabled:false}") boolean virtualThreadsEnabled,
+                          @Value("${student-app.virtual-threads.pinning-threshold-ms:5}") long thresholdMillis) {
+        this.virtualThreadsEnabled = virtualThreadsEnabled;
+        this.threshold = Duration.ofMillis(thresholdMillis);
+    }
+
+    @PostConstruct
+    void start() {
+        if (!virtualThreadsEnabled) {
+            return;
+        }
+        try {
+            stream = new RecordingStream();
+            stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+            stream.onEvent(PINNED_EVENT, this::record);
+            stream.startAsync();
+            log.info("Monitoring virtual thread pinning longer than {} ms", threshold.toMillis());
+        } catch (RuntimeException e) {
+            // JFR may be unavailable (e.g. disabled in the runtime image); the app works without it
+            log.warn("Virtual thread pinning monitor could not be started", e);
+            stream = null;
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    /**
+     * Returns the pinning counters collected since startup.
+     *
+     * @return A PinningStatsDTO; all counters are zero when virtual threads are disabled.
+     */
+    public PinningStatsDTO getStats() {
+        Map<String, Long> topFrames = new LinkedHashMap<>();
+        eventsByFrame.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, LongAdder> e) -> e.getValue().sum()).reversed())
+                .limit(10)
+                .forEach(e -> topFrames.put(e.getKey(), e.getValue().sum()));
+        return new PinningStatsDTO(virtualThreadsEnabled, stream != null, pinnedEvents.sum(),
+                pinnedNanos.sum() / 1_000_000, maxPinnedNanos.get() / 1_000_000, topFrames);
+    }
+
+    // Number of pinning events recorded.
+    public long getPinnedEvents() {
+        return pinnedEvents.sum();
+    }
+
+    // Total time virtual threads spent pinned, in nanoseconds.
+    public long getPinnedNanos() {
+        return pinnedNanos.sum();
+    }
+
+    private void record(RecordedEvent event) {
+        long nanos = event.getDuration().toNanos();
+        pinnedEvents.increment();
+        pinnedNanos.add(nanos);
+        maxPinnedNanos.accumulateAndGet(nanos, Math::max);
+
+        String frame = firstApplicationFrame(event);
+        LongAdder counter = eventsByFrame.get(frame);
+        if (counter == null && eventsByFrame.size() < MAX_FRAMES) {
+            counter = eventsByFrame.computeIfAbsent(frame, key -> new LongAdder());
+        }
+        if (counter != null) {
+            counter.increment();
+        }
+    }
+
+    // Returns "Class.method" of the first frame outside the JDK, e.g. the JDBC driver method that pinned.
+    private static String firstApplicationFrame(RecordedEvent event) {
+        if (event.getStackTrace() == null) {
+            return "unknown";
+        }
+        for (RecordedFrame frame : event.getStackTrace().getFrames()) {
+            String type = frame.getMethod().getType().getName();
+            if (!type.startsWith("java.") && !type.startsWith("jdk.") && !type.startsWith("sun.")) {
+                return type + "." + frame.getMethod().getName();
+            }
+        }
+        return "jdk";
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.studentApp.service;
+
+import com.example.studentApp.dto.CourseResponseDTO;
+import com.example.studentApp.dto.StudentResponseDTO;
+import com.example.studentApp.projection.CourseRowView;
+import com.example.studentApp.projection.StudentGpaView;
+import com.example.studentApp.projection.StudentView;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds roster DTOs from the flat projection rows returned by the repositories.
+ *
+ * Responsibilities:
+ * - Merge-join the student rows and course rows, which are both ordered by student ID,
+ *   in a single linear pass without any per-student database access or hashing.
+ * - Leave out what a sparse fieldset did not ask for: rows without a GPA give 0.0 and no
+ *   course rows give null courses (the JSON filter drops both, see SparseFields).
+ */
+public final class RosterAssembler {
+
+    // Utility class, not meant to be instantiated.
+    private RosterAssembler() {
+    }
+
+    /**
+     * Assembles the roster from students and course rows.
+     *
+     * @param students The student rows, ordered by student ID; StudentGpaView rows carry the GPA.
+     * @param courseRows The course rows, ordered by student ID, or null when the courses were not requested.
+     * @return A list of StudentResponseDTOs in the same order as `students`.
+     */
+    public static List<StudentResponseDTO> assemble(List<? extends StudentView> students,
+                                                    List<? extends CourseRowView> courseRows) {
+        List<StudentResponseDTO> roster = new ArrayList<>(students.size());
+        if (courseRows == null) {
+            for (StudentView student : students) {
+                roster.add(new StudentResponseDTO(student.getId(), student.getName(), student.getEmail(),
+                        gpaOf(student), null));
+            }
+            return roster;
+        }
+        int row = 0; // Position of the next unconsumed course row
+
+        for (StudentView student : students) {
+            long studentId = student.getId();
+
+            // Skip course rows of students that are not part of the result (e.g. orphaned courses)
+            while (row < courseRows.size() && precedes(courseRows.get(row).getStudentId(), studentId)) {
+                row++;
+            }
+
+            // Collect the consecutive course rows that belong to this student
+            List<CourseResponseDTO> courses = new ArrayList<>();
+            while (row < courseRows.size() && courseRows.get(row).getStudentId() == studentId) {
+                CourseRowView course = courseRows.get(row++);
+                courses.add(new CourseResponseDTO(
+                        course.getName(),
+                        course.getGradeLetter(), // Null when the course has no grade
+                        course.getGradeScore() != null ? course.getGradeScore() : 0.0 // Default score for null grades
+                ));
+            }
+
+            roster.add(new StudentResponseDTO(
+                    studentId,
+                    student.getName(),
+                    student.getEmail(),
+                    gpaOf(student),
+                    courses
+            ));
+        }
+        return roster;
+    }
+
+    // The row's GPA, or 0.0 when it was read without one.
+    private static double gpaOf(StudentView student) {
+        return student instanceof StudentGpaView withGpa ? withGpa.getGpa() : 0.0;
+    }
+
+    // Null student IDs sort first in SQLite, so they always precede a real student.
+    private static boolean precedes(Long rowStudentId, long studentId) {
+        return rowStudentId == null || rowStudentId < studentId;
+    }
+}
@@ -0,0 +1,254 @@
+package com.example.studentApp.service;
+
+import com.example.studentApp.dto.StudentResponseDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The full roster (GET /api/students) kept as ready-to-send bytes, both plain and gzip-encoded.
+ *
+ * Building the roster costs two queries, but serializing it to JSON and compressing it costs more
+ * CPU, and every concurrent request used to repeat both. Instead, one background thread builds
+ * a snapshot after the roster changes, and requests copy the current snapshot's bytes to the socket.
+ *
+ * Responsibilities:
+ * - Build the first snapshot when the application is ready.
+ * - Rebuild it off the request path after writes to the roster (DataVersions.Resource.STUDENTS),
+ *   waiting `debounce-ms` so that a burst of writes costs one rebuild.
+ * - Replace it atomically; a snapshot is never modified once published.
+ * - Report how far the snapshot lags behind the writes, and how long rebuilds take.
+ *
+ * The snapshot may trail a write by the debounce delay plus one rebuild. Its ETag is the one of
+ * the version it was built from, so conditional GETs stay consistent with what was served.
+ */
+@Component
+public class RosterSnapshotCache {
+    private static final Logger log = LoggerFactory.getLogger(RosterSnapshotCache.class);
+
+    // Delay before a failed rebuild is attempted again
+    private static final long RETRY_DELAY_MS = 1000;
+
+    // Builds the roster DTOs
+    private final StudentService studentService;
+    // The application's JSON mapper, so the bytes match what the controller would write
+    private final ObjectMapper objectMapper;
+    // Version of the roster; bumps trigger rebuilds
+    private final DataVersions dataVersions;
+    // Whether snapshots are built and served at all
+    private final boolean enabled;
+    // How long to wait after a change before rebuilding
+    private final long debounceMillis;
+    // Deflate level of the gzip-encoded copy (1 fastest - 9 smallest)
+    private final int gzipLevel;
+
+    // Runs the rebuilds, one at a time
+    private final ScheduledExecutorService rebuilder;
+    // Whether a rebuild is scheduled but has not started yet
+    private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+
+    // The current snapshot (null until the first one is built)
+    private volatile Snapshot snapshot;
+    // System.nanoTime() of the oldest change the current snapshot may not contain, or 0
+    private final AtomicLong staleSince = new AtomicLong();
+
+    // Rebuild counters
+    private final AtomicLong rebuilds = new AtomicLong();
+    private final AtomicLong rebuildNanos = new AtomicLong();
+    private final AtomicLong failedRebuilds = new AtomicLong();
+
+    /**
+     * Constructor for dependency injection.
+     *
+     * @param studentService Service that builds the roster.
+     * @param objectMapper The application's JSON mapper.
+     * @param dataVersions Version counters whose roster bumps trigger rebuilds.
+     * @param enabled Whether to build and serve snapshots.
+     * @param debounceMillis Delay between a change and the rebuild.
+     * @param gzipLevel Deflate level of the gzip-encoded copy.
+     */
+    public RosterSnapshotCache(StudentService studentService, ObjectMapper objectMapper, DataVersions dataVersions,
+                               @Value("${student-app.roster-snapshot.enabled:true}") boolean enabled,
+                               @Value("${student-app.roster-snapshot.debounce-ms:100}") long debounceMillis,
+                               @Value("${student-app.roster-snapshot.gzip-level:6}") int gzipLevel) {
+        this.studentService = studentService;
+        this.objectMapper = objectMapper;
+        this.dataVersions = dataVersions;
+        this.enabled = enabled;
+        this.debounceMillis = debounceMillis;
+        this.gzipLevel = gzipLevel;
+        this.rebuilder = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "roster-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (enabled) {
+            dataVersions.addListener(DataVersions.Resource.STUDENTS, this::onRosterChanged);
+        }
+    }
+
+    /**
+     * Builds the first snapshot once the application is ready (in the background).
+     * Until it is there, requests are served the regular way.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        if (enabled) {
+            staleSince.compareAndSet(0, System.nanoTime());
+            scheduleRebuild(0);
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        rebuilder.shutdownNow();
+    }
+
+    /**
+     * Returns the current snapshot.
+     *
+     * @return The snapshot, or empty while the first one is being built or when snapshots are disabled.
+     */
+    public Optional<Snapshot> current() {
+        return Optional.ofNullable(snapshot);
+    }
+
+    // How long the snapshot has been missing a committed change, in seconds (0 when it is up to date).
+    public double getLagSeconds() {
+        long since = staleSince.get();
+        return since == 0 ? 0 : (System.nanoTime() - since) / (double) TimeUnit.SECONDS.toNanos(1);
+    }
+
+    // Number of completed rebuilds.
+    public long getRebuilds() {
+        return rebuilds.get();
+    }
+
+    // Total time spent in completed rebuilds, in seconds.
+    public double getRebuildSeconds() {
+        return rebuildNanos.get() / (double) TimeUnit.SECONDS.toNanos(1);
+    }
+
+    // Number of rebuilds that failed (and were retried).
+    public long getFailedRebuilds() {
+        return failedRebuilds.get();
+    }
+
+    // Size of the plain JSON body, in bytes (0 until built).
+    public long getJsonBytes() {
+        Snapshot current = snapshot;
+        return current != null ? current.json().length : 0;
+    }
+
+    // Size of the gzip-encoded body, in bytes (0 until built).
+    public long getGzipBytes() {
+        Snapshot current = snapshot;
+        return current != null ? current.gzip().length : 0;
+    }
+
+    // Called after every committed roster change, on the committing thread; only schedules.
+    private void onRosterChanged() {
+        staleSince.compareAndSet(0, System.nanoTime());
+        scheduleRebuild(debounceMillis);
+    }
+
+    // Schedules a rebuild unless one is already waiting; changes made before it starts are included.
+    private void scheduleRebuild(long delayMillis) {
+        if (rebuildScheduled.compareAndSet(false, true)) {
+            try {
+                rebuilder.schedule(this::rebuild, delayMillis, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                rebuildScheduled.set(false); // Shutting down
+            }
+        }
+    }
+
+    // Builds and publishes a snapshot of the current roster. Runs on the rebuilder thread only.
+    private void rebuild() {
+        // Changes from here on schedule another rebuild, since this one may or may not see them
+        rebuildScheduled.set(false);
+        long start = System.nanoTime();
+        // Read before querying, so the snapshot never claims a newer version than its content
+        long version = dataVersions.version(DataVersions.Resource.STUDENTS);
+        Snapshot current = snapshot;
+        if (current != null && current.version() == version) {
+            markFresh(version, start); // Already built by an earlier run
+            return;
+        }
+        try {
+            List<StudentResponseDTO> roster = studentService.getAllStudentsWithGPA();
+            byte[] json = objectMapper.writeValueAsBytes(roster);
+            byte[] gzip = gzip(json);
+            String etag = dataVersions.etag(DataVersions.Resource.STUDENTS, version);
+            snapshot = new Snapshot(version, etag, json, gzip);
+            markFresh(version, start);
+
+            long elapsed = System.nanoTime() - start;
+            rebuilds.incrementAndGet();
+            rebuildNanos.addAndGet(elapsed);
+            log.debug("Rebuilt the roster snapshot of {} students ({} bytes, {} gzipped) in {} ms",
+                    roster.size(), json.length, gzip.length, TimeUnit.NANOSECONDS.toMillis(elapsed));
+        } catch (RuntimeException | IOException e) {
+            failedRebuilds.incrementAndGet();
+            log.warn("Rebuilding the roster snapshot failed, retrying in {} ms", RETRY_DELAY_MS, e);
+            scheduleRebuild(RETRY_DELAY_MS);
+        }
+    }
+
+    // Clears the lag once the given version is published, unless a change committed after the version was read;
+    // that change is no older than the start of the rebuild.
+    private void markFresh(long version, long rebuildStart) {
+        staleSince.set(dataVersions.version(DataVersions.Resource.STUDENTS) > version ? rebuildStart : 0);
+    }
+
+    // Compresses the body once, at the configured level.
+    private byte[] gzip(byte[] json) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out, 64 * 1024) {
+            {
+                def.setLevel(gzipLevel); // The deflater is only reachable from a subclass
+            }
+        }) {
+            gzip.write(json);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * One serialized version of the roster. The arrays are shared by all requests and must not be modified.
+     *
+     * @param version The roster version the snapshot was built from.
+     * @param etag The strong ETag of the plain JSON body.
+     * @param json The JSON body.
+     * @param gzip The same body, gzip-encoded.
+     */
+    public record Snapshot(long version, String etag, byte[] json, byte[] gzip) {
+
+        /**
+         * Returns the strong ETag of the gzip-encoded body, which is a different representation
+         * than the plain one, e.g. "students-m2x1k0a3-42-gzip".
+         *
+         * @return The quoted entity tag.
+         */
+        public String gzipEtag() {
+            return etag.substring(0, etag.length() - 1) + "-gzip\"";
+        }
+    }
+}
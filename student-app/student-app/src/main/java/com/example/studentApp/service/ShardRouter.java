@@ -0,0 +1,390 @@
+package com.example.studentApp.service;
+
+import com.example.studentApp.config.ShardContext;
+import com.example.studentApp.config.ShardRoutingDataSource;
+import com.example.studentApp.dto.BatchItemErrorDTO;
+import com.example.studentApp.dto.BatchResultDTO;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * Runs the services' reads and writes on the shard(s) they concern (see ShardRoutingDataSource).
+ *
+ * Responsibilities:
+ * - Map a student ID to its shard.
+ * - Run a per-student read on that student's shard.
+ * - Run a read on every shard in parallel (scatter) and merge the ordered results (gather).
+ * - Split the items of a batch request by shard, write the parts on their shards' write queue
+ *   lanes in parallel, and put the results back in request order.
+ *
+ * Without sharding every method runs its work directly on the calling thread, in the caller's
+ * transaction, so the services behave exactly as they did before.
+ */
+@Component
+public class ShardRouter {
+
+    // The shards, or null when the database is not sharded
+    private final ShardRoutingDataSource shards;
+    // Runs each shard's part of a read in a read-only transaction of its own
+    private final TransactionTemplate readTemplate;
+    // Writer lanes of the shards
+    private final WriteQueue writeQueue;
+    // Threads running the parts of a scatter (null when not sharded)
+    private final ExecutorService scatterExecutor;
+
+    /**
+     * Constructor for dependency injection.
+     *
+     * @param dataSource The application's DataSource.
+     * @param transactionManager Transaction manager for the per-shard reads.
+     * @param writeQueue Write queue holding a writer lane per shard.
+     * @param scatterThreads Number of threads reading shards in parallel.
+     */
+    public ShardRouter(DataSource dataSource, PlatformTransactionManager transactionManager, WriteQueue writeQueue,
+                       @Value("${student-app.sharding.scatter-threads:8}") int scatterThreads) {
+        this.shards = ShardRoutingDataSource.of(dataSource);
+        this.readTemplate = new TransactionTemplate(transactionManager);
+        this.readTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readTemplate.setReadOnly(true);
+        this.writeQueue = writeQueue;
+        if (shards != null) {
+            AtomicInteger threads = new AtomicInteger();
+            this.scatterExecutor = Executors.newFixedThreadPool(scatterThreads, task -> {
+                Thread thread = new Thread(task, "shard-scatter-" + threads.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        } else {
+            this.scatterExecutor = null;
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        if (scatterExecutor != null) {
+            scatterExecutor.shutdownNow();
+        }
+    }
+
+    // Whether the database is split into several shards.
+    public boolean isSharded() {
+        return shards != null;
+    }
+
+    // Number of shards (1 when not sharded).
+    public int getShardCount() {
+        return shards != null ? shards.getShardCount() : 1;
+    }
+
+    /**
+     * Returns the shard a student, and their courses, live on.
+     *
+     * @param studentId The ID of the student.
+     * @return The shard (0 when not sharded).
+     */
+    public int shardOf(long studentId) {
+        return shards != null ? shards.shardOf(studentId) : 0;
+    }
+
+    /**
+     * Allocates IDs that are unique across all shards, e.g. for students, whose ID picks their shard.
+     *
+     * @param table The table the IDs are for.
+     * @param count The number of IDs.
+     * @return The first of `count` consecutive IDs.
+     * @throws IllegalStateException if the database is not sharded.
+     */
+    public long allocateIds(String table, int count) {
+        if (shards == null) {
+            throw new IllegalStateException("IDs are only allocated up front when the database is sharded");
+        }
+        return shards.getIdAllocator().allocate(table, count);
+    }
+
+    /**
+     * Runs a read on one shard, in a read-only transaction of its own.
+     *
+     * @param shard The shard.
+     * @param read The read.
+     * @param <T> The result type.
+     * @return The read's result.
+     */
+    public <T> T on(int shard, Supplier<T> read) {
+        if (shards == null) {
+            return read.get();
+        }
+        return ShardContext.callOn(shard, () -> readTemplate.execute(status -> read.get()));
+    }
+
+    /**
+     * Runs a read on every shard in parallel, each in a read-only transaction of its own.
+     *
+     * @param read The read, given the shard it runs on.
+     * @param <T> The result type.
+     * @return The results, by shard.
+     */
+    public <T> List<T> scatter(IntFunction<T> read) {
+        if (shards == null) {
+            return Collections.singletonList(read.apply(0));
+        }
+        List<Future<T>> futures = new ArrayList<>(shards.getShardCount());
+        for (int shard = 0; shard < shards.getShardCount(); shard++) {
+            int target = shard;
+            futures.add(scatterExecutor.submit(() -> on(target, () -> read.apply(target))));
+        }
+        List<T> results = new ArrayList<>(futures.size());
+        for (Future<T> future : futures) {
+            results.add(WriteQueue.await(toCompletable(future)));
+        }
+        return results;
+    }
+
+    /**
+     * Runs a read on every shard, one after the other on the calling thread, e.g. to stream rows
+     * without holding every shard's rows in memory.
+     *
+     * @param read The read, given the shard it runs on.
+     */
+    public void forEachShard(IntConsumer read) {
+        if (shards == null) {
+            read.accept(0);
+            return;
+        }
+        for (int shard = 0; shard < shards.getShardCount(); shard++) {
+            int target = shard;
+            on(shard, () -> {
+                read.accept(target);
+                return null;
+            });
+        }
+    }
+
+    /**
+     * Groups student IDs by the shard they live on.
+     *
+     * @param studentIds The IDs.
+     * @return The IDs of each shard that has any, by shard.
+     */
+    public Map<Integer, List<Long>> groupByShard(Collection<Long> studentIds) {
+        Map<Integer, List<Long>> groups = new TreeMap<>();
+        for (Long id : studentIds) {
+            groups.computeIfAbsent(shardOf(id), shard -> new ArrayList<>()).add(id);
+        }
+        return groups;
+    }
+
+    /**
+     * Merges lists that are each sorted into one sorted list (the gather of a scatter).
+     *
+     * @param lists The sorted lists, e.g. one per shard.
+     * @param order The order of the lists.
+     * @param <T> The element type.
+     * @return The merged list; the only list itself when there is one.
+     */
+    public static <T> List<T> mergeOrdered(List<? extends List<? extends T>> lists, Comparator<? super T> order) {
+        if (lists.size() == 1) {
+            @SuppressWarnings("unchecked")
+            List<T> only = (List<T>) lists.get(0);
+            return only;
+        }
+        int size = 0;
+        // Head of each list: {list index, position}
+        PriorityQueue<int[]> heads = new PriorityQueue<>(Math.max(1, lists.size()),
+                (a, b) -> order.compare(lists.get(a[0]).get(a[1]), lists.get(b[0]).get(b[1])));
+        for (int i = 0; i < lists.size(); i++) {
+            size += lists.get(i).size();
+            if (!lists.get(i).isEmpty()) {
+                heads.add(new int[]{i, 0});
+            }
+        }
+        List<T> merged = new ArrayList<>(size);
+        while (!heads.isEmpty()) {
+            int[] head = heads.poll();
+            List<? extends T> list = lists.get(head[0]);
+            merged.add(list.get(head[1]));
+            if (++head[1] < list.size()) {
+                heads.add(head);
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Splits items by shard and writes each part on its shard's writer lane, all in parallel.
+     * Each part commits on its own, so without sharding this is a single write.
+     *
+     * @param items The items.
+     * @param shardOf Returns the shard of an item.
+     * @param write Prepares the write of one shard's items, once, before it is queued; the write
+     *              itself may be run again, like any write on the write queue.
+     * @param <T> The item type.
+     * @param <R> The result type.
+     * @return The result of each part.
+     * @throws RuntimeException the first exception a part failed with, once every part has finished.
+     */
+    public <T, R> List<R> writeByShard(List<T> items, ToIntFunction<T> shardOf, Function<List<T>, Supplier<R>> write) {
+        if (shards == null) {
+            return List.of(writeQueue.execute(write.apply(items)));
+        }
+        List<List<T>> parts = split(items, shardOf, null);
+        List<CompletableFuture<R>> futures = submitParts(parts, write);
+        List<R> results = new ArrayList<>();
+        RuntimeException failure = null;
+        for (CompletableFuture<R> future : futures) {
+            if (future == null) {
+                continue;
+            }
+            try {
+                results.add(WriteQueue.await(future));
+            } catch (RuntimeException e) {
+                failure = failure == null ? e : failure;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return results;
+    }
+
+    /**
+     * Writes a batch request whose items live on different shards: the items are split by shard, each
+     * part is inserted (with insertValid) on its shard's writer lane, and the part results are merged
+     * back into one result aligned with the request.
+     *
+     * Each shard's part commits on its own; a part that fails reports every one of its items as
+     * rejected, with the failure's message, while the other parts are still inserted.
+     *
+     * @param items The items of the request, in request order (may contain nulls).
+     * @param shardOf Returns the shard of an item; never called with null (null items go to shard 0).
+     * @param write Prepares the insert of one shard's items (see writeByShard); the insert returns a
+     *              result aligned with them.
+     * @param <T> The item type.
+     * @return The merged result.
+     * @throws RejectedExecutionException if every part was rejected by a full write queue.
+     */
+    public <T> BatchResultDTO writeBatch(List<T> items, ToIntFunction<T> shardOf,
+                                         Function<List<T>, Supplier<BatchResultDTO>> write) {
+        if (shards == null) {
+            return writeQueue.execute(write.apply(items));
+        }
+        int[][] positions = new int[getShardCount()][];
+        List<List<T>> parts = split(items, shardOf, positions);
+        List<CompletableFuture<BatchResultDTO>> futures = submitParts(parts, write);
+
+        Long[] ids = new Long[items.size()];
+        List<BatchItemErrorDTO> errors = new ArrayList<>();
+        int inserted = 0;
+        RejectedExecutionException rejected = null;
+        boolean allRejected = true;
+        for (int shard = 0; shard < futures.size(); shard++) {
+            if (futures.get(shard) == null) {
+                continue;
+            }
+            int[] partPositions = positions[shard];
+            try {
+                BatchResultDTO part = WriteQueue.await(futures.get(shard));
+                allRejected = false;
+                inserted += part.getInserted();
+                for (int i = 0; i < partPositions.length; i++) {
+                    ids[partPositions[i]] = part.getIds().get(i);
+                }
+                for (BatchItemErrorDTO error : part.getErrors()) {
+                    errors.add(new BatchItemErrorDTO(partPositions[error.getIndex()], error.getMessage()));
+                }
+            } catch (RuntimeException e) {
+                if (e instanceof RejectedExecutionException rejection) {
+                    rejected = rejection;
+                } else {
+                    allRejected = false;
+                }
+                for (int position : partPositions) {
+                    errors.add(new BatchItemErrorDTO(position, e.getMessage()));
+                }
+            }
+        }
+        if (rejected != null && allRejected) {
+            throw rejected; // Nothing was attempted: report it like a rejected single write
+        }
+        errors.sort(Comparator.comparingInt(BatchItemErrorDTO::getIndex));
+        return new BatchResultDTO(items.size(), inserted, Arrays.asList(ids), errors);
+    }
+
+    // Splits items into one list per shard, recording each item's request position when positions is not null.
+    private <T> List<List<T>> split(List<T> items, ToIntFunction<T> shardOf, int[][] positions) {
+        List<List<T>> parts = new ArrayList<>(getShardCount());
+        List<List<Integer>> partPositions = new ArrayList<>(getShardCount());
+        for (int shard = 0; shard < getShardCount(); shard++) {
+            parts.add(new ArrayList<>());
+            partPositions.add(new ArrayList<>());
+        }
+        for (int i = 0; i < items.size(); i++) {
+            T item = items.get(i);
+            int shard = item == null ? 0 : shardOf.applyAsInt(item);
+            parts.get(shard).add(item);
+            partPositions.get(shard).add(i);
+        }
+        if (positions != null) {
+            for (int shard = 0; shard < parts.size(); shard++) {
+                positions[shard] = partPositions.get(shard).stream().mapToInt(Integer::intValue).toArray();
+            }
+        }
+        return parts;
+    }
+
+    // Hands each non-empty part to its shard's writer lane; a part that cannot be queued fails its future.
+    private <T, R> List<CompletableFuture<R>> submitParts(List<List<T>> parts, Function<List<T>, Supplier<R>> write) {
+        List<CompletableFuture<R>> futures = new ArrayList<>(parts.size());
+        for (int shard = 0; shard < parts.size(); shard++) {
+            List<T> part = parts.get(shard);
+            if (part.isEmpty()) {
+                futures.add(null);
+                continue;
+            }
+            try {
+                futures.add(writeQueue.submit(shard, write.apply(part)));
+            } catch (RejectedExecutionException e) {
+                futures.add(CompletableFuture.failedFuture(e));
+            }
+        }
+        return futures;
+    }
+
+    // Adapts an executor's future, so that WriteQueue.await() unwraps its exception.
+    private static <T> CompletableFuture<T> toCompletable(Future<T> future) {
+        try {
+            return CompletableFuture.completedFuture(future.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while reading the shards", e);
+        } catch (ExecutionException e) {
+            return CompletableFuture.failedFuture(e.getCause());
+        }
+    }
+}
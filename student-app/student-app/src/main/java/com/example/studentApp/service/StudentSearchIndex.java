@@ -0,0 +1,566 @@
+package com.example.studentApp.service;
+
+import com.example.studentApp.dto.SearchIndexStatsDTO;
+import com.example.studentApp.dto.StudentSearchResultDTO;
+import com.example.studentApp.model.Student;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory type-ahead search over student names and emails.
+ *
+ * Names and emails are split into normalized tokens (lower case, accents removed, split on anything
+ * that is not a letter or digit), so "Zoë O'Neil <zoe.oneil@x.edu>" is found by "zoe", "onei" or "x.edu".
+ * Every query term must match one of the student's tokens, in one of three ways:
+ * - prefix, through a trie over the distinct tokens (an exact token scores 1.0, a prefix 0.5 to 1.0);
+ * - infix, e.g. "guye" in "nguyen" (0.4);
+ * - fuzzy, e.g. "nguyne" for "nguyen" (up to 0.4, by trigram similarity).
+ * Infix and fuzzy matches use trigram postings over the distinct tokens. Students are ranked by the
+ * sum of their best score per term.
+ *
+ * Responsibilities:
+ * - Load every student at startup from the ChangeJournal, or else in one streamed pass.
+ * - Add students saved through StudentService once their transaction has committed.
+ * - Answer searches from memory, examining students best-first and stopping as soon as no
+ *   remaining candidate can enter the top N.
+ *
+ * Memory is kept compact: names and emails are stored as UTF-8 in one byte array and each student's
+ * token IDs in one int array; the trie and trigram postings grow with the distinct tokens, not with
+ * the students. GET /api/admin/search-index reports the estimated footprint.
+ *
+ * Like GpaRankIndex, the load runs on the write queue and is swapped in after its transaction
+ * commits, so each student is indexed exactly once.
+ */
+@Component
+public class StudentSearchIndex {
+    private static final Logger log = LoggerFactory.getLogger(StudentSearchIndex.class);
+
+    private static final String LOAD_SQL = "select id, name, email from student order by id";
+
+    // Number of rows the driver fetches per round trip while the cursor is open.
+    private static final int FETCH_SIZE = 1000;
+    // Further query terms are ignored
+    private static final int MAX_TERMS = 5;
+    // Scores of the match kinds (see the class comment)
+    private static final double PREFIX_BASE = 0.5;
+    private static final double INFIX_SCORE = 0.4;
+    private static final double FUZZY_WEIGHT = 0.4;
+
+    // Dependency for streaming the students
+    private final JdbcTemplate jdbcTemplate;
+    // Runs the load in line with the writes it has to be consistent with
+    private final WriteQueue writeQueue;
+    // Reads the rows of every shard
+    private final ShardRouter shardRouter;
+    // Journaled students, read instead of the student table when enabled
+    private final ChangeJournal changeJournal;
+    // Upper bound for the number of results
+    private final int maxResults;
+    // Number of prefix matches (shortest first) considered per query term
+    private final int maxTokensPerTerm;
+    // Number of students examined per search at most
+    private final int maxCandidates;
+    // Smallest trigram similarity (Dice coefficient) accepted as a fuzzy match
+    private final double minSimilarity;
+    // Whether to build the index at startup rather than on first use
+    private final boolean loadOnStartup;
+
+    // Readers share the index; additions and the swap are exclusive
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // The current index (null until loaded); guarded by lock
+    private Index index;
+    // Serializes loads
+    private final Object loadMonitor = new Object();
+
+    /**
+     * Constructor for dependency injection.
+     *
+     * @param jdbcTemplate Template used to stream the students.
+     * @param writeQueue Single writer the load runs on.
+     * @param shardRouter Reads the rows of every shard for the load.
+     * @param changeJournal Journaled students the load reads when enabled.
+     * @param maxResults The largest number of results a client may request.
+     * @param maxTokensPerTerm Number of prefix matches considered per query term.
+     * @param maxCandidates Number of students examined per search at most.
+     * @param minSimilarity Smallest trigram similarity accepted as a fuzzy match.
+     * @param loadOnStartup Whether to build the index when the application is ready.
+     */
+    public StudentSearchIndex(JdbcTemplate jdbcTemplate, WriteQueue writeQueue, ShardRouter shardRouter,
+                              ChangeJournal changeJournal,
+                              @Value("${student-app.search.max-results:50}") int maxResults,
+                              @Value("${student-app.search.max-tokens-per-term:256}") int maxTokensPerTerm,
+                              @Value("${student-app.search.max-candidates:20000}") int maxCandidates,
+                              @Value("${student-app.search.min-similarity:0.5}") double minSimilarity,
+                              @Value("${student-app.search.load-on-startup:true}") boolean loadOnStartup) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.writeQueue = writeQueue;
+        this.shardRouter = shardRouter;
+        this.changeJournal = changeJournal;
+        this.maxResults = maxResults;
+        this.maxTokensPerTerm = maxTokensPerTerm;
+        this.maxCandidates = maxCandidates;
+        this.minSimilarity = minSimilarity;
+        this.loadOnStartup = loadOnStartup;
+    }
+
+    /**
+     * Builds the index once the application is ready.
+     * Disabled with `student-app.search.load-on-startup=false`; it is then built on first use.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        if (loadOnStartup) {
+            lock.readLock().lock();
+            try {
+                loaded();
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Finds the students whose name or email best match the query.
+     *
+     * @param query Free text; every term must match a token of the student's name or email.
+     * @param limit The number of results, clamped to [1, max-results].
+     * @return The best matches, best first; empty if the query has no letters or digits.
+     */
+    public List<StudentSearchResultDTO> search(String query, int limit) {
+        List<String> terms = tokenize(query == null ? "" : query).stream().distinct().limit(MAX_TERMS).toList();
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+        int resultLimit = Math.max(1, Math.min(limit, maxResults));
+
+        lock.readLock().lock();
+        try {
+            Index current = loaded();
+
+            // Score the distinct tokens each term matches; a term without matches means no result
+            List<TermMatch> matches = new ArrayList<>(terms.size());
+            for (String term : terms) {
+                TermMatch match = current.match(term, maxTokensPerTerm, minSimilarity);
+                if (match.scores.isEmpty()) {
+                    return List.of();
+                }
+                matches.add(match);
+            }
+            // Drive the search from the most selective term; the others are checked per candidate
+            matches.sort(Comparator.comparingLong(TermMatch::postings));
+            TermMatch driver = matches.get(0);
+            double othersMax = matches.stream().skip(1).mapToDouble(TermMatch::maxScore).sum();
+
+            List<Map.Entry<Integer, Double>> driverTokens = new ArrayList<>(driver.scores.entrySet());
+            driverTokens.sort(Map.Entry.<Integer, Double>comparingByValue().reversed()
+                    .thenComparing(Map.Entry.comparingByKey()));
+
+            // Min-heap of the best hits so far: lowest score (then latest found) on top
+            PriorityQueue<Hit> best = new PriorityQueue<>(Comparator.comparingDouble(Hit::score)
+                    .thenComparing(Comparator.comparingLong(Hit::sequence).reversed()));
+            Set<Integer> visited = new HashSet<>();
+            long sequence = 0;
+            candidates:
+            for (Map.Entry<Integer, Double> token : driverTokens) {
+                // Students not seen yet score at most this token's score on the driving term
+                if (best.size() == resultLimit && token.getValue() + othersMax <= best.peek().score()) {
+                    break;
+                }
+                IntList students = current.postings.get(token.getKey());
+                for (int i = 0; i < students.size; i++) {
+                    int ordinal = students.values[i];
+                    if (!visited.add(ordinal)) {
+                        continue;
+                    }
+                    double score = current.score(ordinal, matches);
+                    if (score >= 0) {
+                        Hit hit = new Hit(ordinal, score, sequence++);
+                        if (best.size() < resultLimit) {
+                            best.add(hit);
+                        } else if (score > best.peek().score()) {
+                            best.poll();
+                            best.add(hit);
+                        }
+                    }
+                    if (visited.size() >= maxCandidates) {
+                        break candidates;
+                    }
+                }
+            }
+
+            List<Hit> hits = new ArrayList<>(best);
+            hits.sort(Comparator.comparingDouble(Hit::score).reversed().thenComparingLong(Hit::sequence));
+            List<StudentSearchResultDTO> results = new ArrayList<>(hits.size());
+            for (Hit hit : hits) {
+                results.add(new StudentSearchResultDTO(current.studentIds[hit.ordinal()], current.name(hit.ordinal()),
+                        current.email(hit.ordinal()), hit.score()));
+            }
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds newly saved students to the index once the transaction commits.
+     *
+     * @param students The saved students, with their IDs assigned.
+     */
+    public void registerStudents(Collection<Student> students) {
+        // Copy what is needed now: the entities may be detached or reused by the time of the commit
+        List<Object[]> rows = new ArrayList<>(students.size());
+        for (Student student : students) {
+            rows.add(new Object[]{student.getId(), student.getName(), student.getEmail()});
+        }
+        AfterCommit.run(() -> {
+            lock.writeLock().lock();
+            try {
+                if (index != null) {
+                    rows.forEach(row -> index.add((Long) row[0], (String) row[1], (String) row[2]));
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Returns the size of the index.
+     *
+     * @return A SearchIndexStatsDTO; all zero while the index is not loaded.
+     */
+    public SearchIndexStatsDTO getStats() {
+        lock.readLock().lock();
+        try {
+            return index != null ? index.stats() : new SearchIndexStatsDTO(0, 0, 0, 0, 0, 0);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Returns the index, loading it first if necessary. Called with the read lock held.
+    private Index loaded() {
+        if (index != null) {
+            return index;
+        }
+        // The load takes the write lock to swap, so give up the read lock while waiting for it
+        Index loaded;
+        lock.readLock().unlock();
+        try {
+            loaded = load();
+        } finally {
+            lock.readLock().lock();
+        }
+        // Not swapped in yet if the load joined a caller's transaction
+        return index != null ? index : loaded;
+    }
+
+    // Reads the journal or streams the students on the write queue, and swaps the index in when that
+    // transaction commits.
+    private Index load() {
+        synchronized (loadMonitor) {
+            lock.readLock().lock();
+            try {
+                if (index != null) {
+                    return index; // Loaded by another caller meanwhile
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+
+            long start = System.nanoTime();
+            Index loaded;
+            if (changeJournal.isEnabled()) {
+                // Read in line with the journal records of the writes (see GpaRankIndex)
+                loaded = changeJournal.readInLine(journal -> {
+                    Index fresh = new Index();
+                    journal.forEachStudent((id, name, email, scoreSum, count) -> fresh.add(id, name, email));
+                    swap(fresh);
+                    return fresh;
+                });
+            } else {
+                loaded = writeQueue.executeExclusive(() -> {
+                    Index fresh = new Index();
+                    shardRouter.forEachShard(shard -> jdbcTemplate.query(connection -> {
+                        var statement = connection.prepareStatement(LOAD_SQL,
+                                ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                        statement.setFetchSize(FETCH_SIZE);
+                        return statement;
+                    }, rs -> {
+                        fresh.add(rs.getLong(1), rs.getString(2), rs.getString(3));
+                    }));
+                    // Ordered between the writes grouped before and after this load (see GpaRankIndex)
+                    AfterCommit.run(() -> swap(fresh));
+                    return fresh;
+                });
+            }
+            SearchIndexStatsDTO stats = loaded.stats();
+            log.info("Built the student search index of {} students ({} tokens, ~{} MB) in {} ms",
+                    stats.getStudents(), stats.getTokens(), stats.getEstimatedBytes() / (1024 * 1024),
+                    (System.nanoTime() - start) / 1_000_000);
+            return loaded;
+        }
+    }
+
+    // Makes a loaded index the current one.
+    private void swap(Index fresh) {
+        lock.writeLock().lock();
+        try {
+            index = fresh;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Splits text into lower-case tokens of letters and digits, with accents removed.
+    private static List<String> tokenize(String text) {
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}+", "")
+                .toLowerCase(Locale.ROOT);
+        List<String> tokens = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= normalized.length(); i++) {
+            boolean letterOrDigit = i < normalized.length() && Character.isLetterOrDigit(normalized.charAt(i));
+            if (letterOrDigit && start < 0) {
+                start = i;
+            } else if (!letterOrDigit && start >= 0) {
+                tokens.add(normalized.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    // The distinct trigrams of the token padded with '$' at both ends ("ab" -> "$ab", "ab$").
+    private static Set<String> paddedTrigrams(String token) {
+        String padded = "$" + token + "$";
+        Set<String> trigrams = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            trigrams.add(padded.substring(i, i + 3));
+        }
+        return trigrams;
+    }
+
+    // Fuzzy and infix matching is pointless for short tokens and numbers (e.g. the digits in an email).
+    private static boolean hasTrigrams(String token) {
+        return token.length() >= 3 && !token.chars().allMatch(Character::isDigit);
+    }
+
+    // A candidate result; the sequence breaks ties in the order the candidates were found.
+    private record Hit(int ordinal, double score, long sequence) {
+    }
+
+    // The tokens one query term matches, with their scores, and how many students they cover.
+    private record TermMatch(Map<Integer, Double> scores, long postings, double maxScore) {
+    }
+
+    // A growable array of ints; starts small, since most tokens of a large index occur only once.
+    private static final class IntList {
+        int[] values = new int[1];
+        int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+
+    /**
+     * The searchable data. Students are numbered densely (ordinals) in the order they were added.
+     * Only modified under the write lock.
+     */
+    private static final class Index {
+        // Per student: ID, and the start of the name and email in `text` (each ends where the next field starts)
+        long[] studentIds = new long[1024];
+        int[] nameStarts = new int[1024];
+        int[] emailStarts = new int[1024];
+        // Per student: the start of the student's token IDs in `tokenRefs`
+        int[] tokenRefStarts = new int[1024];
+        int size;
+        byte[] text = new byte[64 * 1024];
+        int textLength;
+        int[] tokenRefs = new int[8 * 1024];
+        int tokenRefCount;
+
+        // Per distinct token: its students (ascending ordinals), and the text of the tokens with trigrams
+        // (null for the others, which are only ever matched through the trie)
+        final List<IntList> postings = new ArrayList<>();
+        final List<String> trigramTokens = new ArrayList<>();
+        // Dictionary (token -> ID) and prefix lookups
+        final TokenTrie trie = new TokenTrie();
+        final Map<String, IntList> trigrams = new HashMap<>();
+        long trigramPostings;
+
+        void add(long studentId, String name, String email) {
+            if (size == studentIds.length) {
+                int capacity = size * 2;
+                studentIds = Arrays.copyOf(studentIds, capacity);
+                nameStarts = Arrays.copyOf(nameStarts, capacity);
+                emailStarts = Arrays.copyOf(emailStarts, capacity);
+                tokenRefStarts = Arrays.copyOf(tokenRefStarts, capacity);
+            }
+            int ordinal = size++;
+            studentIds[ordinal] = studentId;
+            nameStarts[ordinal] = appendText(name);
+            emailStarts[ordinal] = appendText(email);
+
+            Set<String> distinct = new LinkedHashSet<>(tokenize(name == null ? "" : name));
+            distinct.addAll(tokenize(email == null ? "" : email));
+            tokenRefStarts[ordinal] = tokenRefCount;
+            for (String token : distinct) {
+                int tokenId = tokenId(token);
+                postings.get(tokenId).add(ordinal);
+                if (tokenRefCount == tokenRefs.length) {
+                    tokenRefs = Arrays.copyOf(tokenRefs, tokenRefCount * 2);
+                }
+                tokenRefs[tokenRefCount++] = tokenId;
+            }
+        }
+
+        String name(int ordinal) {
+            return textAt(nameStarts[ordinal], emailStarts[ordinal]);
+        }
+
+        String email(int ordinal) {
+            return textAt(emailStarts[ordinal], ordinal + 1 < size ? nameStarts[ordinal + 1] : textLength);
+        }
+
+        // Scores the tokens matching one query term.
+        TermMatch match(String term, int maxPrefixTokens, double minSimilarity) {
+            Map<Integer, Double> scores = new HashMap<>();
+            trie.forEachWithPrefix(term, maxPrefixTokens, (tokenId, length) -> scores.put(tokenId,
+                    PREFIX_BASE + (1 - PREFIX_BASE) * term.length() / length));
+
+            if (term.length() >= 3) {
+                // Count the trigrams each token shares with the term
+                Set<String> termTrigrams = paddedTrigrams(term);
+                Map<Integer, Integer> shared = new HashMap<>();
+                for (String trigram : termTrigrams) {
+                    IntList tokensWithTrigram = trigrams.get(trigram);
+                    if (tokensWithTrigram != null) {
+                        for (int i = 0; i < tokensWithTrigram.size; i++) {
+                            shared.merge(tokensWithTrigram.values[i], 1, Integer::sum);
+                        }
+                    }
+                }
+                shared.forEach((tokenId, count) -> {
+                    String token = trigramTokens.get(tokenId);
+                    double score;
+                    if (token.contains(term)) {
+                        score = INFIX_SCORE;
+                    } else {
+                        // Dice coefficient; a token of length n has n padded trigrams
+                        double similarity = 2.0 * count / (termTrigrams.size() + token.length());
+                        if (similarity < minSimilarity) {
+                            return;
+                        }
+                        score = FUZZY_WEIGHT * similarity;
+                    }
+                    scores.merge(tokenId, score, Math::max);
+                });
+            }
+
+            long covered = 0;
+            double maxScore = 0;
+            for (Map.Entry<Integer, Double> entry : scores.entrySet()) {
+                covered += postings.get(entry.getKey()).size;
+                maxScore = Math.max(maxScore, entry.getValue());
+            }
+            return new TermMatch(scores, covered, maxScore);
+        }
+
+        // Sum of the student's best score per term, or -1 if a term matches none of the student's tokens.
+        double score(int ordinal, List<TermMatch> matches) {
+            int from = tokenRefStarts[ordinal];
+            int to = ordinal + 1 < size ? tokenRefStarts[ordinal + 1] : tokenRefCount;
+            double total = 0;
+            for (TermMatch match : matches) {
+                double best = -1;
+                for (int i = from; i < to; i++) {
+                    Double score = match.scores().get(tokenRefs[i]);
+                    if (score != null && score > best) {
+                        best = score;
+                    }
+                }
+                if (best < 0) {
+                    return -1;
+                }
+                total += best;
+            }
+            return total;
+        }
+
+        SearchIndexStatsDTO stats() {
+            long postingCount = tokenRefCount; // One posting per (student, token) pair
+            long bytes = 0;
+            bytes += (long) studentIds.length * (8 + 4 + 4 + 4);  // Per-student arrays
+            bytes += text.length + 4L * tokenRefs.length;          // Names/emails and token references
+            bytes += 4L * postingCount + 32L * postings.size();    // Postings lists
+            bytes += 4L * trigramTokens.size();                     // Token text references
+            for (String token : trigramTokens) {
+                bytes += token != null ? 48 + token.length() : 0;  // Token text
+            }
+            bytes += 40L * trie.nodeCount();                        // Trie nodes with their child arrays
+            bytes += 4L * trigramPostings + 88L * trigrams.size();  // Trigram postings and map entries
+            return new SearchIndexStatsDTO(size, postings.size(), trie.nodeCount(), trigrams.size(), postingCount, bytes);
+        }
+
+        private int tokenId(String token) {
+            int existing = trie.get(token);
+            if (existing >= 0) {
+                return existing;
+            }
+            int tokenId = postings.size();
+            postings.add(new IntList());
+            trie.put(token, tokenId);
+            boolean withTrigrams = hasTrigrams(token);
+            trigramTokens.add(withTrigrams ? token : null);
+            if (withTrigrams) {
+                for (String trigram : paddedTrigrams(token)) {
+                    trigrams.computeIfAbsent(trigram, key -> new IntList()).add(tokenId);
+                    trigramPostings++;
+                }
+            }
+            return tokenId;
+        }
+
+        private int appendText(String value) {
+            int start = textLength;
+            byte[] bytes = value == null ? new byte[0] : value.getBytes(StandardCharsets.UTF_8);
+            if (textLength + bytes.length > text.length) {
+                text = Arrays.copyOf(text, Math.max(text.length * 2, textLength + bytes.length));
+            }
+            System.arraycopy(bytes, 0, text, textLength, bytes.length);
+            textLength += bytes.length;
+            return start;
+        }
+
+        private String textAt(int from, int to) {
+            return new String(text, from, to - from, StandardCharsets.UTF_8);
+        }
+    }
+}
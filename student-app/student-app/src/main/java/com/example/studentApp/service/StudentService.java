@@ -1,14 +1,32 @@
 package com.example.studentApp.service;
 
+import com.example.studentApp.dto.BatchResultDTO;
 import com.example.studentApp.dto.CourseResponseDTO;
+import com.example.studentApp.dto.StudentPageDTO;
+import com.example.studentApp.dto.StudentRankDTO;
 import com.example.studentApp.dto.StudentResponseDTO;
+import com.example.studentApp.dto.StudentSearchResultDTO;
 import com.example.studentApp.model.Course;
+import com.example.studentApp.model.Grade;
 import com.example.studentApp.model.Student;
+import com.example.studentApp.projection.CourseRowView;
+import com.example.studentApp.projection.StudentGpaView;
+import com.example.studentApp.projection.StudentView;
 import com.example.studentApp.repository.CourseRepository;
 import com.example.studentApp.repository.StudentRepository;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.util.Comparator;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -16,65 +34,276 @@ import java.util.stream.Collectors;
  * Responsibilities:
  * - Managing student data, including adding students and retrieving student details.
  * - Calculating GPAs and retrieving grades for specific courses and students.
+ * Reads run in read-only transactions, on the read-only connections (see ReadWriteRoutingDataSource).
+ * When the database is sharded, per-student reads and writes run on the student's shard, and the
+ * roster is read from every shard in parallel and merged by student ID (see ShardRouter).
  */
 @Service
+@Timed("service.calls") // Latency of every public method, tagged by class and method
 public class StudentService {
     private final StudentRepository studentRepository; // Repository for student data
     private final CourseRepository courseRepository;   // Repository for course data
+    private final BatchInserter batchInserter;          // Chunked inserts for batch requests
+    private final GradeCatalog gradeCatalog;            // In-memory grades for DTO mapping
+    private final WriteQueue writeQueue;                // Single writer that group-commits inserts
+    private final GpaRankIndex gpaRankIndex;            // In-memory GPA ranking of the students
+    private final StudentSearchIndex studentSearchIndex; // In-memory name/email search index
+    private final ChangeJournal changeJournal;           // Journal of the committed writes
+    private final DataVersions dataVersions;            // Version of the roster, for ETags
+    private final ShardRouter shardRouter;              // Routes work to the shard(s) of the students
+    private final int maxPageSize;                      // Upper bound for the roster page size
 
     /**
      * Constructor for dependency injection.
      *
      * @param studentRepository Repository for interacting with student data.
      * @param courseRepository Repository for interacting with course data.
+     * @param batchInserter Helper that inserts batch requests in chunks.
+     * @param gradeCatalog In-memory grade catalog used to resolve course grades.
+     * @param writeQueue Single writer that commits inserts in groups.
+     * @param gpaRankIndex In-memory GPA ranking that new students are added to.
+     * @param studentSearchIndex In-memory search index that new students are added to.
+     * @param changeJournal Journal the inserted students are appended to.
+     * @param dataVersions Version counters bumped by every write.
+     * @param shardRouter Routes reads and writes to the shards of the students.
+     * @param maxPageSize The largest page size a client may request from the paged roster.
      */
-    public StudentService(StudentRepository studentRepository, CourseRepository courseRepository) {
+    public StudentService(StudentRepository studentRepository, CourseRepository courseRepository,
+                          BatchInserter batchInserter, GradeCatalog gradeCatalog, WriteQueue writeQueue,
+                          GpaRankIndex gpaRankIndex, StudentSearchIndex studentSearchIndex, ChangeJournal changeJournal,
+                          DataVersions dataVersions,
+                          ShardRouter shardRouter, @Value("${student-app.roster.max-page-size:1000}") int maxPageSize) {
         this.studentRepository = studentRepository;
         this.courseRepository = courseRepository;
+        this.batchInserter = batchInserter;
+        this.gradeCatalog = gradeCatalog;
+        this.writeQueue = writeQueue;
+        this.gpaRankIndex = gpaRankIndex;
+        this.studentSearchIndex = studentSearchIndex;
+        this.changeJournal = changeJournal;
+        this.dataVersions = dataVersions;
+        this.shardRouter = shardRouter;
+        this.maxPageSize = maxPageSize;
     }
 
     /**
      * Adds a new student to the database.
+     * The insert runs on the write queue and is committed together with other concurrent writes.
+     * When the database is sharded the ID is allocated first, since it picks the shard the student is written to;
+     * an ID sent by the client is rejected, as in the batch, since the allocator would not know about it.
      *
      * @param student The Student object to be added.
      * @return The saved Student object.
+     * @throws ResponseStatusException 400 if the database is sharded and the student has an ID.
      */
     public Student addStudent(Student student) {
-        return studentRepository.save(student); // Save the student to the database
+        if (shardRouter.isSharded()) {
+            if (student.getId() != null) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "id must not be set");
+            }
+            long id = shardRouter.allocateIds("student", 1);
+            return writeQueue.execute(shardRouter.shardOf(id), () -> {
+                student.setId(id);
+                batchInserter.insert(List.of(student), this::indexNewStudents);
+                return student;
+            });
+        }
+        Long requestedId = student.getId();
+        return writeQueue.execute(() -> {
+            student.setId(requestedId); // Start from the request again if the write is replayed
+            Student savedStudent = studentRepository.save(student); // Save the student to the database
+            indexNewStudents(List.of(savedStudent));
+            return savedStudent;
+        });
+    }
+
+    /**
+     * Adds many students in one transaction, inserting them in JDBC-batched chunks.
+     * The batch runs on the write queue, so it does not contend with the writer thread for the database lock.
+     *
+     * Items without a name or email, or with an ID already set, are rejected individually
+     * and reported in the result; the remaining items are inserted.
+     *
+     * @param students The Student objects to be added.
+     * @return A BatchResultDTO with the generated IDs and the rejected items.
+     * @throws ResponseStatusException 413 if the batch has more than `student-app.batch.max-items` items.
+     */
+    public BatchResultDTO addStudents(List<Student> students) {
+        batchInserter.checkSize(students);
+        if (shardRouter.isSharded()) {
+            return addStudentsToShards(students);
+        }
+        Runnable restoreIds = BatchInserter.idRestorer(students, Student::getId, Student::setId);
+        return writeQueue.execute(() -> {
+            restoreIds.run(); // Start from the request again if the write is replayed
+            return batchInserter.insertValid(students, StudentService::validateNewStudent, Student::getId,
+                    this::indexNewStudents);
+        });
+    }
+
+    // addStudents for a sharded database: the valid students get their IDs up front, then each shard
+    // inserts its students in a transaction of its own.
+    private BatchResultDTO addStudentsToShards(List<Student> students) {
+        Map<Student, String> rejected = BatchInserter.rejections(students, StudentService::validateNewStudent);
+        List<Student> valid = students.stream()
+                .filter(student -> student != null && !rejected.containsKey(student))
+                .toList();
+        if (!valid.isEmpty()) {
+            long firstId = shardRouter.allocateIds("student", valid.size());
+            for (int i = 0; i < valid.size(); i++) {
+                valid.get(i).setId(firstId + i);
+            }
+        }
+        // Assigned IDs survive a replay, so nothing has to be restored
+        return shardRouter.writeBatch(students,
+                student -> rejected.containsKey(student) ? 0 : shardRouter.shardOf(student.getId()),
+                part -> () -> batchInserter.insertValid(part, rejected::get, Student::getId, this::indexNewStudents));
+    }
+
+    // Adds saved students to the in-memory ranking, search index and change journal, and bumps the roster's
+    // version, once the transaction commits.
+    private void indexNewStudents(List<Student> students) {
+        gpaRankIndex.registerStudents(students);
+        studentSearchIndex.registerStudents(students);
+        changeJournal.recordStudents(students);
+        dataVersions.changed(DataVersions.Resource.STUDENTS);
+    }
+
+    // Returns why a student cannot be inserted, or null if it can.
+    private static String validateNewStudent(Student student) {
+        if (student.getId() != null) return "id must not be set";
+        if (student.getName() == null || student.getName().isBlank()) return "name is required";
+        if (student.getEmail() == null || student.getEmail().isBlank()) return "email is required";
+        return null;
     }
 
     /**
      * Retrieves all students with their calculated GPA and associated courses.
      *
+     * Uses two set-based projection queries regardless of the number of students,
+     * instead of loading each student's courses (and their grades) one by one.
+     *
      * @return A list of StudentResponseDTOs containing student details, GPAs, and courses.
      */
+    @Transactional(readOnly = true)
     public List<StudentResponseDTO> getAllStudentsWithGPA() {
-        // Fetch all students from the database
-        List<Student> students = studentRepository.findAll();
-
-        // Map each student to a StudentResponseDTO
-        return students.stream()
-                .map(student -> {
-                    // Fetch and map the student's courses to CourseResponseDTOs
-                    List<CourseResponseDTO> courses = courseRepository.findByStudentId(student.getId())
-                            .stream()
-                            .map(course -> new CourseResponseDTO(
-                                    course.getName(),
-                                    course.getGrade() != null ? course.getGrade().getLetter() : null, // Handle null grades
-                                    course.getGrade() != null ? course.getGrade().getScore() : 0.0  // Default score for null grades
-                            ))
-                            .collect(Collectors.toList());
-
-                    // Create and return the StudentResponseDTO with student details, GPA, and courses
-                    return new StudentResponseDTO(
-                            student.getId(),
-                            student.getName(),
-                            student.getEmail(),
-                            student.getGPA(),
-                            courses
-                    );
-                })
-                .collect(Collectors.toList());
+        return getAllStudentsWithGPA(EnumSet.allOf(StudentResponseDTO.Field.class));
+    }
+
+    /**
+     * Retrieves all students with only the requested fields (a sparse fieldset).
+     *
+     * Steps:
+     * 1. Fetch every student in one query, with the GPA aggregate only if `gpa` is requested.
+     * 2. Fetch every course with its grade in one query, only if `courses` is requested.
+     * 3. Merge them into StudentResponseDTOs; fields that were not requested are left empty
+     *    (0.0 GPA, null courses) and must be filtered out when serializing.
+     *
+     * @param fields The requested fields.
+     * @return A list of StudentResponseDTOs, ordered by student ID.
+     */
+    @Transactional(readOnly = true)
+    public List<StudentResponseDTO> getAllStudentsWithGPA(Set<StudentResponseDTO.Field> fields) {
+        // Each shard's part of the roster is ordered by student ID, so the parts merge in that order
+        return ShardRouter.mergeOrdered(shardRouter.scatter(shard -> assembleRoster(fields)),
+                Comparator.comparing(StudentResponseDTO::getId));
+    }
+
+    // Steps 1-3 of getAllStudentsWithGPA, on the current shard.
+    private List<StudentResponseDTO> assembleRoster(Set<StudentResponseDTO.Field> fields) {
+        // Fetch every student, with their GPA read from the persisted aggregate if requested, in one query
+        List<? extends StudentView> students = fields.contains(StudentResponseDTO.Field.GPA)
+                ? studentRepository.findAllWithGpa()
+                : studentRepository.findAllStudentRows();
+
+        // Fetch every course with its grade in one query, ordered like the students; the course table
+        // is not touched at all when the courses were not requested
+        List<CourseRowView> courseRows = fields.contains(StudentResponseDTO.Field.COURSES)
+                ? courseRepository.findAllCourseRows()
+                : null;
+
+        // Merge the two ordered results into StudentResponseDTOs
+        return RosterAssembler.assemble(students, courseRows);
+    }
+
+    /**
+     * Retrieves one page of students with their GPA and courses, using keyset pagination.
+     *
+     * Steps:
+     * 1. Fetch up to `size` students with an ID greater than `after` that match the filters.
+     * 2. Fetch the courses of exactly those students in one query.
+     * 3. Merge them into DTOs; a full page returns its last ID as the cursor of the next page.
+     *
+     * @param after The last student ID of the previous page, or null for the first page.
+     * @param size The requested page size, clamped to [1, max-page-size].
+     * @param minGpa Inclusive lower bound of the GPA, or null for no bound.
+     * @param maxGpa Inclusive upper bound of the GPA, or null for no bound.
+     * @param namePrefix Case-insensitive prefix of the student's name, or null for no filter.
+     * @return A StudentPageDTO containing the students and the cursor of the next page.
+     */
+    @Transactional(readOnly = true)
+    public StudentPageDTO getStudentPage(Long after, int size, Double minGpa, Double maxGpa, String namePrefix) {
+        return getStudentPage(after, size, minGpa, maxGpa, namePrefix, EnumSet.allOf(StudentResponseDTO.Field.class));
+    }
+
+    /**
+     * Retrieves one page of students with only the requested fields (a sparse fieldset).
+     * Like getStudentPage above, but the courses are only fetched if `courses` is requested;
+     * the GPA is always read, since the GPA filters need it.
+     *
+     * @param after The last student ID of the previous page, or null for the first page.
+     * @param size The requested page size, clamped to [1, max-page-size].
+     * @param minGpa Inclusive lower bound of the GPA, or null for no bound.
+     * @param maxGpa Inclusive upper bound of the GPA, or null for no bound.
+     * @param namePrefix Case-insensitive prefix of the student's name, or null for no filter.
+     * @param fields The requested fields.
+     * @return A StudentPageDTO containing the students and the cursor of the next page.
+     */
+    @Transactional(readOnly = true)
+    public StudentPageDTO getStudentPage(Long after, int size, Double minGpa, Double maxGpa, String namePrefix,
+                                         Set<StudentResponseDTO.Field> fields) {
+        int pageSize = Math.max(1, Math.min(size, maxPageSize));
+
+        // Fetch the page of students; filtering and the keyset seek both happen in SQL. With sharding,
+        // every shard returns its first page and the merged pages are cut to the page size
+        List<StudentGpaView> students = ShardRouter.mergeOrdered(shardRouter.scatter(shard ->
+                studentRepository.findPageWithGpa(
+                        after != null ? after : 0L,
+                        toLikePrefix(namePrefix),
+                        minGpa,
+                        maxGpa,
+                        Limit.of(pageSize))), Comparator.comparing(StudentGpaView::getId));
+        if (students.isEmpty()) {
+            return new StudentPageDTO(List.of(), null);
+        }
+        if (students.size() > pageSize) {
+            students = students.subList(0, pageSize);
+        }
+
+        // Fetch only the courses of the students on this page, and only if they were requested
+        List<Long> studentIds = students.stream().map(StudentGpaView::getId).toList();
+        List<CourseRowView> courseRows = null;
+        if (fields.contains(StudentResponseDTO.Field.COURSES)) {
+            Map<Integer, List<Long>> idsByShard = shardRouter.groupByShard(studentIds);
+            courseRows = ShardRouter.mergeOrdered(shardRouter.scatter(shard -> {
+                List<Long> ids = idsByShard.getOrDefault(shard, List.of());
+                return ids.isEmpty() ? List.<CourseRowView>of() : courseRepository.findCourseRowsByStudentIds(ids);
+            }), Comparator.comparing(CourseRowView::getStudentId));
+        }
+
+        // A short page means the roster is exhausted, so there is no next cursor
+        Long nextCursor = students.size() == pageSize ? studentIds.get(studentIds.size() - 1) : null;
+        return new StudentPageDTO(RosterAssembler.assemble(students, courseRows), nextCursor);
+    }
+
+    // Converts a name prefix into a LIKE pattern, escaping the LIKE wildcards it may contain.
+    private static String toLikePrefix(String prefix) {
+        if (prefix == null || prefix.isEmpty()) {
+            return null;
+        }
+        return prefix.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_") + "%";
     }
 
     /**
@@ -83,32 +312,74 @@ public class StudentService {
      * @param id The ID of the student.
      * @return The student's GPA, or 0.0 if the student is not found.
      */
+    @Transactional(readOnly = true)
     public double getStudentGPA(Long id) {
-        return studentRepository.findById(id) // Fetch the student by ID
+        return shardRouter.on(shardRouter.shardOf(id), () -> studentRepository.findById(id) // Fetch the student by ID
                 .map(Student::getGPA)        // Calculate GPA if the student exists
-                .orElse(0.0);                // Default to 0.0 if the student is not found
+                .orElse(0.0));               // Default to 0.0 if the student is not found
+    }
+
+    /**
+     * Finds students by partial name or email (type-ahead) in the in-memory search index,
+     * without database access.
+     *
+     * @param query Free text; each term matches a name or email token by prefix, infix or fuzzily.
+     * @param limit The number of results, clamped to [1, max-results].
+     * @return The best matches, best first.
+     */
+    public List<StudentSearchResultDTO> searchStudents(String query, int limit) {
+        return studentSearchIndex.search(query, limit);
+    }
+
+    /**
+     * Retrieves the students with the highest GPA from the in-memory ranking (no database access
+     * once the ranking is loaded).
+     *
+     * @param k The number of students, clamped to [1, max-top].
+     * @return The top students, best first; students with the same GPA share a rank.
+     */
+    public List<StudentRankDTO> getTopStudents(int k) {
+        return gpaRankIndex.top(k);
+    }
+
+    /**
+     * Retrieves a student's class rank by GPA from the in-memory ranking.
+     *
+     * @param id The ID of the student.
+     * @return The student's rank; the rank is null if the student has no graded courses.
+     * @throws IllegalArgumentException if the student is not found.
+     */
+    public StudentRankDTO getStudentRank(Long id) {
+        return gpaRankIndex.rank(id);
     }
 
     /**
      * Retrieves all grades and associated courses for a specific student.
      *
+     * Costs two queries (the student, then their courses) however many courses the student has;
+     * grades come from the in-memory catalog.
+     *
      * @param studentId The ID of the student.
-     * @return A StudentResponseDTO containing the student's details and grades.
+     * @return A StudentResponseDTO containing the student's details and grades (none if the student has no courses).
+     * @throws IllegalArgumentException if the student is not found.
      */
+    @Transactional(readOnly = true)
     public StudentResponseDTO getGradesForStudent(Long studentId) {
-        // Fetch and map the student's courses to CourseResponseDTOs
+        return shardRouter.on(shardRouter.shardOf(studentId), () -> readGradesForStudent(studentId));
+    }
+
+    // getGradesForStudent, on the student's shard.
+    private StudentResponseDTO readGradesForStudent(Long studentId) {
+        // Fetch the student; the GPA comes from the persisted aggregate, so the courses are not needed for it
+        Student student = studentRepository.findById(studentId)
+                .orElseThrow(() -> new IllegalArgumentException("Student not found"));
+
+        // Fetch and map the student's courses to CourseResponseDTOs, taking grades from the catalog
         List<CourseResponseDTO> courses = courseRepository.findByStudentId(studentId).stream()
                 .filter(course -> course.getGrade() != null) // Exclude courses without grades
-                .map(course -> new CourseResponseDTO(
-                        course.getName(),
-                        course.getGrade().getLetter(),
-                        course.getGrade().getScore()
-                ))
+                .map(course -> new CourseResponseDTO(course, gradeCatalog.resolve(course.getGrade())))
                 .collect(Collectors.toList());
 
-        // Fetch the student associated with the first course (assuming at least one course exists)
-        Student student = courseRepository.findByStudentId(studentId).get(0).getStudent();
-
         // Return the StudentResponseDTO with student details and courses
         return new StudentResponseDTO(
                 student.getId(),
@@ -127,11 +398,14 @@ public class StudentService {
      * @return The grade score for the specified course.
      * @throws IllegalArgumentException if the course or grade is not found.
      */
+    @Transactional(readOnly = true)
     public double getGradeForCourse(Long studentId, String courseName) {
-        // Fetch the course by student ID and course name
-        Course course = courseRepository.findByStudentIdAndName(studentId, courseName);
-        if (course != null && course.getGrade() != null) {
-            return course.getGrade().getScore(); // Return the grade score
+        // Fetch the course by student ID and course name, on the student's shard
+        Course course = shardRouter.on(shardRouter.shardOf(studentId),
+                () -> courseRepository.findByStudentIdAndName(studentId, courseName));
+        Grade grade = course == null ? null : gradeCatalog.resolve(course.getGrade());
+        if (grade != null) {
+            return grade.getScore(); // Return the grade score
         }
         throw new IllegalArgumentException("No grade found for the specified course and student."); // Handle missing data
     }
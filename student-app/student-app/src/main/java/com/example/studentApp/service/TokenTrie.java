@@ -0,0 +1,126 @@
+package com.example.studentApp.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A character trie mapping distinct search tokens to their IDs, for prefix lookups.
+ *
+ * Each node keeps its children in a sorted char array with a parallel node array, which is much
+ * smaller than a map per node. The trie also serves as the token dictionary (token -> ID).
+ * Prefix matches are returned breadth-first, i.e. shortest (closest) tokens first, so a capped
+ * lookup keeps the best matches.
+ *
+ * Not thread-safe; callers synchronize access.
+ */
+final class TokenTrie {
+    private static final char[] NO_LABELS = new char[0];
+    private static final Node[] NO_CHILDREN = new Node[0];
+
+    private final Node root = new Node();
+    private int nodeCount = 1;
+
+    int nodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * Adds a token.
+     *
+     * @param token The normalized token.
+     * @param tokenId The ID returned by prefix lookups.
+     */
+    void put(String token, int tokenId) {
+        Node node = root;
+        for (int i = 0; i < token.length(); i++) {
+            char c = token.charAt(i);
+            int index = Arrays.binarySearch(node.labels, c);
+            if (index < 0) {
+                index = -index - 1;
+                node.insertChild(index, c, new Node());
+                nodeCount++;
+            }
+            node = node.children[index];
+        }
+        node.tokenId = tokenId;
+    }
+
+    /**
+     * Looks up a token.
+     *
+     * @param token The normalized token.
+     * @return The token's ID, or -1 if it was never added.
+     */
+    int get(String token) {
+        Node node = find(token);
+        return node != null ? node.tokenId : -1;
+    }
+
+    /**
+     * Reports the tokens that start with the prefix, shortest first.
+     *
+     * @param prefix The normalized prefix.
+     * @param limit The maximum number of tokens reported.
+     * @param consumer Receives each token's ID and length.
+     */
+    void forEachWithPrefix(String prefix, int limit, TokenConsumer consumer) {
+        Node start = find(prefix);
+        if (start == null) {
+            return;
+        }
+        // Breadth-first, one level (token length) at a time
+        List<Node> level = List.of(start);
+        int length = prefix.length();
+        int reported = 0;
+        while (!level.isEmpty()) {
+            List<Node> nextLevel = new ArrayList<>();
+            for (Node node : level) {
+                if (node.tokenId >= 0) {
+                    consumer.accept(node.tokenId, length);
+                    if (++reported == limit) {
+                        return;
+                    }
+                }
+                nextLevel.addAll(Arrays.asList(node.children));
+            }
+            level = nextLevel;
+            length++;
+        }
+    }
+
+    // The node reached by following the characters of the key, or null.
+    private Node find(String key) {
+        Node node = root;
+        for (int i = 0; i < key.length() && node != null; i++) {
+            int index = Arrays.binarySearch(node.labels, key.charAt(i));
+            node = index >= 0 ? node.children[index] : null;
+        }
+        return node;
+    }
+
+    // Receives the tokens found by a prefix lookup.
+    @FunctionalInterface
+    interface TokenConsumer {
+        void accept(int tokenId, int length);
+    }
+
+    private static final class Node {
+        char[] labels = NO_LABELS;
+        Node[] children = NO_CHILDREN;
+        int tokenId = -1;
+
+        void insertChild(int index, char label, Node child) {
+            char[] newLabels = new char[labels.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(labels, 0, newLabels, 0, index);
+            System.arraycopy(children, 0, newChildren, 0, index);
+            newLabels[index] = label;
+            newChildren[index] = child;
+            System.arraycopy(labels, index, newLabels, index + 1, labels.length - index);
+            System.arraycopy(children, index, newChildren, index + 1, children.length - index);
+            labels = newLabels;
+            children = newChildren;
+        }
+    }
+}
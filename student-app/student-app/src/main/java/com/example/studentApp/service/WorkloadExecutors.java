@@ -0,0 +1,246 @@
+package com.example.studentApp.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Bounded thread pools that run the database work of the asynchronous controller endpoints, one per workload class.
+ *
+ * Every SQLite call blocks its thread. When the request threads do that work themselves, a spike of
+ * expensive requests (e.g. enrollments) occupies all of them and Tomcat's accept queue grows, so even
+ * the in-memory endpoints wait. Instead, controllers hand the database work to the pool of its workload
+ * class and release the request thread. Each pool has a fixed number of threads and a bounded queue:
+ * when the queue is full the work is rejected at once, and the caller answers 503 with Retry-After
+ * (see LoadSheddingHandler) instead of queuing without limit.
+ *
+ * Responsibilities:
+ * - Keep the workload classes apart, so a backlog of one does not delay the others.
+ * - Count queue depth, rejections and the time tasks wait before they start.
+ *
+ * With `spring.threads.virtual.enabled=true` each task runs on a virtual thread of its own instead, and
+ * two semaphores keep the same bounds: one admits at most threads + queue-capacity tasks and rejects the
+ * rest, the other lets at most `threads` of them run at once while the others wait, unmounted.
+ *
+ * Configured by the `student-app.async.*` properties; `enabled=false` runs the work on the request thread.
+ */
+@Component
+public class WorkloadExecutors {
+
+    /**
+     * The workload classes, each with its own pool.
+     */
+    public enum Workload {
+        // Unbounded collection reads: the full roster and course list
+        ROSTER,
+        // Bounded reads: a roster page, one student's GPA or grades
+        LOOKUP,
+        // Inserts, which wait for the write queue's group commit
+        WRITE;
+
+        // Lower-case name used in thread names and metric tags.
+        public String tag() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    // Whether work is handed to the pools at all
+    private final boolean enabled;
+    // One pool per workload class; the map itself is never modified after construction
+    private final Map<Workload, Pool> pools = new EnumMap<>(Workload.class);
+
+    /**
+     * Constructor for dependency injection.
+     *
+     * @param enabled Whether database work runs on the pools (otherwise on the request thread).
+     * @param virtualThreads Whether each task runs on a virtual thread, bounded by semaphores, instead of a pool thread.
+     * @param rosterThreads Threads of the ROSTER pool.
+     * @param rosterQueueCapacity Tasks that may wait for the ROSTER pool before new ones are rejected.
+     * @param lookupThreads Threads of the LOOKUP pool.
+     * @param lookupQueueCapacity Tasks that may wait for the LOOKUP pool before new ones are rejected.
+     * @param writeThreads Threads of the WRITE pool; also bounds the writes one commit group can collect.
+     * @param writeQueueCapacity Tasks that may wait for the WRITE pool before new ones are rejected.
+     */
+    public WorkloadExecutors(@Value("${student-app.async.enabled:true}") boolean enabled,
+                             @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+                             @Value("${student-app.async.roster.threads:2}") int rosterThreads,
+                             @Value("${student-app.async.roster.queue-capacity:8}") int rosterQueueCapacity,
+                             @Value("${student-app.async.lookup.threads:4}") int lookupThreads,
+                             @Value("${student-app.async.lookup.queue-capacity:200}") int lookupQueueCapacity,
+                             @Value("${student-app.async.write.threads:32}") int writeThreads,
+                             @Value("${student-app.async.write.queue-capacity:2000}") int writeQueueCapacity) {
+        this.enabled = enabled;
+        pools.put(Workload.ROSTER, new Pool(Workload.ROSTER, rosterThreads, rosterQueueCapacity, virtualThreads));
+        pools.put(Workload.LOOKUP, new Pool(Workload.LOOKUP, lookupThreads, lookupQueueCapacity, virtualThreads));
+        pools.put(Workload.WRITE, new Pool(Workload.WRITE, writeThreads, writeQueueCapacity, virtualThreads));
+    }
+
+    @PreDestroy
+    void stop() {
+        pools.values().forEach(pool -> pool.executor.shutdownNow());
+    }
+
+    /**
+     * Runs database work on the pool of its workload class.
+     *
+     * @param workload The workload class.
+     * @param task The work; its exceptions complete the future exceptionally.
+     * @param <T> The result type.
+     * @return A future completed with the task's result.
+     * @throws RejectedExecutionException if the pool's queue is full.
+     */
+    public <T> CompletableFuture<T> submit(Workload workload, Supplier<T> task) {
+        if (!enabled) {
+            try {
+                return CompletableFuture.completedFuture(task.get());
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        return pools.get(workload).submit(task);
+    }
+
+    // Number of tasks waiting for a thread of the workload's pool.
+    public int getQueueDepth(Workload workload) {
+        return pools.get(workload).queueDepth();
+    }
+
+    // Number of threads of the workload's pool running a task.
+    public int getActiveThreads(Workload workload) {
+        return pools.get(workload).activeThreads();
+    }
+
+    // Number of tasks rejected because the workload's queue was full.
+    public long getRejections(Workload workload) {
+        return pools.get(workload).rejections.sum();
+    }
+
+    // Number of tasks of the workload that have started.
+    public long getStartedTasks(Workload workload) {
+        return pools.get(workload).started.sum();
+    }
+
+    // Total time the started tasks of the workload waited in the queue, in seconds.
+    public double getWaitSeconds(Workload workload) {
+        return pools.get(workload).waitNanos.sum() / (double) TimeUnit.SECONDS.toNanos(1);
+    }
+
+    /**
+     * A fixed-size pool with a bounded queue, or virtual threads bounded by semaphores, and its counters.
+     */
+    private static final class Pool {
+        final ExecutorService executor;
+        // Fixed-size pool; null with virtual threads
+        final ThreadPoolExecutor platformPool;
+        // Virtual threads only: permits for the tasks admitted (running or waiting), and for the running ones
+        final Semaphore admitted;
+        final Semaphore running;
+        final int threads;
+        final int capacity;
+        final LongAdder rejections = new LongAdder();
+        final LongAdder started = new LongAdder();
+        final LongAdder waitNanos = new LongAdder();
+
+        Pool(Workload workload, int threads, int queueCapacity, boolean virtualThreads) {
+            this.threads = threads;
+            this.capacity = threads + queueCapacity;
+            if (virtualThreads) {
+                this.platformPool = null;
+                this.admitted = new Semaphore(capacity);
+                this.running = new Semaphore(threads);
+                this.executor = Executors.newThreadPerTaskExecutor(
+                        Thread.ofVirtual().name("db-" + workload.tag() + "-", 1).factory());
+            } else {
+                AtomicInteger threadNumber = new AtomicInteger();
+                // The default AbortPolicy rejects with a RejectedExecutionException when the queue is full
+                this.platformPool = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                        new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                            Thread thread = new Thread(runnable, "db-" + workload.tag() + "-" + threadNumber.incrementAndGet());
+                            thread.setDaemon(true);
+                            return thread;
+                        });
+                this.admitted = null;
+                this.running = null;
+                this.executor = platformPool;
+            }
+        }
+
+        <T> CompletableFuture<T> submit(Supplier<T> task) {
+            CompletableFuture<T> future = new CompletableFuture<>();
+            long enqueued = System.nanoTime();
+            if (platformPool != null) {
+                try {
+                    platformPool.execute(() -> run(task, future, enqueued));
+                } catch (RejectedExecutionException e) {
+                    rejections.increment();
+                    throw e;
+                }
+                return future;
+            }
+            if (!admitted.tryAcquire()) {
+                rejections.increment();
+                throw new RejectedExecutionException("Task rejected, " + capacity + " tasks are running or waiting");
+            }
+            try {
+                executor.execute(() -> {
+                    try {
+                        running.acquire(); // The virtual thread unmounts while it waits
+                    } catch (InterruptedException e) {
+                        admitted.release();
+                        future.completeExceptionally(new RejectedExecutionException("Shut down while waiting", e));
+                        return;
+                    }
+                    try {
+                        run(task, future, enqueued);
+                    } finally {
+                        running.release();
+                        admitted.release();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                admitted.release();
+                rejections.increment();
+                throw e;
+            }
+            return future;
+        }
+
+        // Runs a task that has waited since enqueued and completes its future.
+        private <T> void run(Supplier<T> task, CompletableFuture<T> future, long enqueued) {
+            started.increment();
+            waitNanos.add(System.nanoTime() - enqueued);
+            try {
+                future.complete(task.get());
+            } catch (RuntimeException | Error e) {
+                future.completeExceptionally(e);
+            }
+        }
+
+        int queueDepth() {
+            if (platformPool != null) {
+                return platformPool.getQueue().size();
+            }
+            // Admitted tasks that are not running yet; read without a lock, so keep it from going negative
+            return Math.max(0, capacity - admitted.availablePermits() - activeThreads());
+        }
+
+        int activeThreads() {
+            return platformPool != null ? platformPool.getActiveCount() : threads - running.availablePermits();
+        }
+    }
+}
@@ -0,0 +1,449 @@
+package com.example.studentApp.service;
+
+import com.example.studentApp.config.ShardContext;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+/**
+ * Funnels writes (single rows and batch inserts) through one writer thread and commits them in groups.
+ *
+ * SQLite allows only one writer at a time, and every commit waits for the journal to be synced.
+ * When each request commits on its own, concurrent writers contend for the database lock
+ * (SQLITE_BUSY) and throughput is bounded by the number of syncs per second. Instead, callers
+ * hand their write to this queue and wait; the writer thread collects the writes that arrive
+ * within a short window and runs them all in one transaction, so many requests share one commit.
+ *
+ * Rules:
+ * - Each caller gets its own result or exception once the group has committed.
+ * - If a grouped write fails, the group is rolled back and every write in it is replayed in its
+ *   own transaction, so one bad request cannot fail the others. Operations must therefore be
+ *   safe to run again from the start.
+ * - Calls made inside an existing transaction, or from the writer thread itself, run immediately
+ *   in that transaction.
+ * - When the queue is full the write is rejected with a RejectedExecutionException.
+ *
+ * When the database is sharded (see ShardRoutingDataSource) every shard has a writer thread and queue
+ * of its own (a lane), whose transactions run on that shard, so the shards commit in parallel. A write
+ * goes to the lane of the shard it is submitted for; inside a transaction it may only target that
+ * transaction's shard. executeExclusive() pauses every lane, for loads that must see all shards at
+ * one point between commits.
+ *
+ * Configured by the `student-app.writer.*` properties; `enabled=false` runs every write in its own
+ * transaction on the calling thread.
+ */
+@Component
+public class WriteQueue {
+    private static final Logger log = LoggerFactory.getLogger(WriteQueue.class);
+
+    // Runs each group (or replayed write) in a transaction
+    private final TransactionTemplate transactionTemplate;
+    // Runs exclusive operations outside any transaction of the caller
+    private final TransactionTemplate exclusiveTemplate;
+    // Whether writes go through the writer threads at all
+    private final boolean enabled;
+    // How long a writer waits for more writes after the first one of a group
+    private final long groupWindowNanos;
+    // Largest number of writes committed together
+    private final int maxGroupSize;
+    // One lane per shard
+    private final List<Lane> lanes;
+    // Held shared by every commit, and exclusively by executeExclusive()
+    private final ReentrantReadWriteLock commitLock = new ReentrantReadWriteLock(true);
+
+    private volatile boolean running;
+
+    // Counters describing the grouping, over all lanes
+    private final LongAdder committedGroups = new LongAdder();
+    private final LongAdder committedWrites = new LongAdder();
+    private final LongAdder replayedGroups = new LongAdder();
+
+    /**
+     * Constructor for dependency injection.
+     *
+     * @param transactionManager Transaction manager used for the group transactions.
+     * @param enabled Whether writes are grouped on the writer thread.
+     * @param groupWindowMillis How long to collect writes after the first one of a group.
+     * @param maxGroupSize Largest number of writes committed together.
+     * @param queueCapacity Number of writes that may wait (per shard) before new ones are rejected.
+     * @param shardCount Number of shards, each with its own writer thread.
+     */
+    public WriteQueue(PlatformTransactionManager transactionManager,
+                      @Value("${student-app.writer.enabled:true}") boolean enabled,
+                      @Value("${student-app.writer.group-window-ms:2}") long groupWindowMillis,
+                      @Value("${student-app.writer.max-group-size:256}") int maxGroupSize,
+                      @Value("${student-app.writer.queue-capacity:10000}") int queueCapacity,
+                      @Value("${student-app.sharding.shards:1}") int shardCount) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.exclusiveTemplate = new TransactionTemplate(transactionManager);
+        this.exclusiveTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_NOT_SUPPORTED);
+        this.enabled = enabled;
+        this.groupWindowNanos = TimeUnit.MILLISECONDS.toNanos(groupWindowMillis);
+        this.maxGroupSize = maxGroupSize;
+        List<Lane> lanes = new ArrayList<>(shardCount);
+        for (int shard = 0; shard < shardCount; shard++) {
+            lanes.add(new Lane(shard, shardCount > 1, queueCapacity));
+        }
+        this.lanes = List.copyOf(lanes);
+    }
+
+    @PostConstruct
+    void start() {
+        if (enabled) {
+            running = true;
+            lanes.forEach(lane -> lane.writer.start());
+        }
+    }
+
+    /**
+     * Stops accepting writes and lets the writers commit what is already queued.
+     */
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        if (enabled) {
+            for (Lane lane : lanes) {
+                lane.writer.join(TimeUnit.SECONDS.toMillis(10));
+            }
+        }
+    }
+
+    /**
+     * Runs a write operation in a (possibly shared) transaction on the current thread's shard
+     * (see ShardContext) and returns its result.
+     *
+     * @param operation The write; it may be run again if its group has to be replayed.
+     * @param <T> The result type.
+     * @return The operation's result, available once its transaction has committed.
+     * @throws RejectedExecutionException if the queue is full or shutting down.
+     */
+    public <T> T execute(Supplier<T> operation) {
+        return execute(currentShard(), operation);
+    }
+
+    /**
+     * Runs a write operation in a (possibly shared) transaction on a shard and returns its result.
+     *
+     * @param shard The shard to write to.
+     * @param operation The write; it may be run again if its group has to be replayed.
+     * @param <T> The result type.
+     * @return The operation's result, available once its transaction has committed.
+     * @throws RejectedExecutionException if the queue is full or shutting down.
+     * @throws IllegalStateException if called inside a transaction on another shard.
+     */
+    public <T> T execute(int shard, Supplier<T> operation) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            checkJoinable(shard);
+            return operation.get(); // Join the caller's (or the current group's) transaction
+        }
+        if (!enabled) {
+            return runAlone(shard, operation);
+        }
+        return await(lanes.get(shard).offer(operation));
+    }
+
+    /**
+     * Hands a write operation to a shard's writer without waiting for it, so that writes to several
+     * shards commit in parallel. Inside a transaction, or with the queue disabled, the operation runs
+     * before this method returns.
+     *
+     * @param shard The shard to write to.
+     * @param operation The write; it may be run again if its group has to be replayed.
+     * @param <T> The result type.
+     * @return A future completed once the operation's transaction has committed (see await()).
+     * @throws RejectedExecutionException if the queue is full or shutting down.
+     * @throws IllegalStateException if called inside a transaction on another shard.
+     */
+    public <T> CompletableFuture<T> submit(int shard, Supplier<T> operation) {
+        boolean inTransaction = TransactionSynchronizationManager.isActualTransactionActive();
+        if (inTransaction) {
+            checkJoinable(shard);
+        } else if (enabled) {
+            return lanes.get(shard).offer(operation);
+        }
+        try {
+            return CompletableFuture.completedFuture(inTransaction ? operation.get() : runAlone(shard, operation));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Runs a write operation on every shard, in parallel, and returns the results.
+     *
+     * @param operation The write, given the shard it runs on.
+     * @param <T> The result type.
+     * @return The results, by shard.
+     * @throws RejectedExecutionException if a queue is full or shutting down.
+     */
+    public <T> List<T> executeOnEveryShard(IntFunction<T> operation) {
+        List<CompletableFuture<T>> futures = new ArrayList<>(lanes.size());
+        for (int shard = 0; shard < lanes.size(); shard++) {
+            int target = shard;
+            futures.add(submit(shard, () -> operation.apply(target)));
+        }
+        List<T> results = new ArrayList<>(futures.size());
+        for (CompletableFuture<T> future : futures) {
+            results.add(await(future));
+        }
+        return results;
+    }
+
+    /**
+     * Runs an operation while no writer commits, e.g. a load of an in-memory index that must see
+     * every write committed before it and none after it. Without sharding this is a write like any
+     * other (it joins a group, and its after-commit actions are ordered with the group's); with
+     * sharding every lane is paused between two groups and the operation runs on the calling thread,
+     * outside any transaction, with its after-commit actions run before the lanes resume.
+     *
+     * @param operation The operation; reads of the shards must use transactions of their own.
+     * @param <T> The result type.
+     * @return The operation's result.
+     * @throws IllegalStateException if called from a writer thread.
+     */
+    public <T> T executeExclusive(Supplier<T> operation) {
+        if (lanes.size() == 1) {
+            return execute(operation);
+        }
+        if (commitLock.getReadHoldCount() > 0) {
+            throw new IllegalStateException("Writers cannot be paused from a writer thread");
+        }
+        commitLock.writeLock().lock();
+        try {
+            return exclusiveTemplate.execute(status -> operation.get());
+        } finally {
+            commitLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Waits for a submitted write and returns its result.
+     *
+     * @param future The future returned by submit().
+     * @param <T> The result type.
+     * @return The result.
+     * @throws RuntimeException the exception the write failed with.
+     */
+    public static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the write to commit", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    // Number of transactions committed by the writer threads.
+    public long getCommittedGroups() {
+        return committedGroups.sum();
+    }
+
+    // Number of writes committed by the writer threads.
+    public long getCommittedWrites() {
+        return committedWrites.sum();
+    }
+
+    // Number of groups that failed and were replayed write by write.
+    public long getReplayedGroups() {
+        return replayedGroups.sum();
+    }
+
+    // Number of writes waiting for the writer threads.
+    public int getQueueDepth() {
+        int depth = 0;
+        for (Lane lane : lanes) {
+            depth += lane.queue.size();
+        }
+        return depth;
+    }
+
+    // The shard of the calling thread.
+    private static int currentShard() {
+        Integer shard = ShardContext.current();
+        return shard != null ? shard : 0;
+    }
+
+    // A write inside a transaction can only join it when both are on the same shard.
+    private void checkJoinable(int shard) {
+        int current = currentShard();
+        if (shard != current) {
+            throw new IllegalStateException(
+                    "Cannot write to shard " + shard + " inside a transaction on shard " + current);
+        }
+    }
+
+    // Runs a write in its own transaction on the calling thread (queue disabled).
+    private <T> T runAlone(int shard, Supplier<T> operation) {
+        commitLock.readLock().lock();
+        try {
+            return lanes.size() == 1
+                    ? transactionTemplate.execute(status -> operation.get())
+                    : ShardContext.callOn(shard, () -> transactionTemplate.execute(status -> operation.get()));
+        } finally {
+            commitLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The queue and writer thread of one shard.
+     */
+    private final class Lane {
+        // Writes waiting for the writer thread
+        private final BlockingQueue<PendingWrite<?>> queue;
+        // The writer thread (never started when disabled)
+        private final Thread writer;
+
+        Lane(int shard, boolean sharded, int queueCapacity) {
+            this.queue = new ArrayBlockingQueue<>(queueCapacity);
+            this.writer = new Thread(() -> {
+                if (sharded) {
+                    ShardContext.set(shard);
+                }
+                runWriter();
+            }, sharded ? "sqlite-writer-" + shard : "sqlite-writer");
+            this.writer.setDaemon(true);
+        }
+
+        <T> CompletableFuture<T> offer(Supplier<T> operation) {
+            PendingWrite<T> write = new PendingWrite<>(operation);
+            if (!running) {
+                throw new RejectedExecutionException("The write queue was shut down");
+            }
+            if (!queue.offer(write)) {
+                throw new RejectedExecutionException("The write queue is full");
+            }
+            // The writer may have stopped and drained the queue between the check and the offer; then nobody
+            // would complete the write. Take it back unless the writer (or its final drain) already has it.
+            if (!running && queue.remove(write)) {
+                throw new RejectedExecutionException("The write queue was shut down");
+            }
+            return write.future;
+        }
+
+        // Writer loop: collect a group, commit it, repeat until stopped and drained.
+        private void runWriter() {
+            List<PendingWrite<?>> group = new ArrayList<>(maxGroupSize);
+            while (running || !queue.isEmpty()) {
+                try {
+                    PendingWrite<?> first = queue.poll(100, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    group.add(first);
+                    long deadline = System.nanoTime() + groupWindowNanos;
+                    while (group.size() < maxGroupSize) {
+                        long remaining = deadline - System.nanoTime();
+                        PendingWrite<?> next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                        if (next == null) {
+                            break;
+                        }
+                        group.add(next);
+                    }
+                    commitLock.readLock().lock();
+                    try {
+                        commit(group);
+                    } finally {
+                        commitLock.readLock().unlock();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                } catch (RuntimeException | Error e) {
+                    // Never let the writer thread die; fail whatever was collected
+                    group.forEach(write -> write.fail(e));
+                    log.error("Writer thread failed to commit a group", e);
+                } finally {
+                    group.clear();
+                }
+            }
+            // Writes offered after this are taken back by offer(), which sees that running is false
+            List<PendingWrite<?>> rejected = new ArrayList<>();
+            queue.drainTo(rejected);
+            rejected.forEach(write -> write.fail(new RejectedExecutionException("The write queue was shut down")));
+        }
+    }
+
+    // Commits a group in one transaction, or replays its writes one by one if that fails. The counters are
+    // updated before the callers are released, so a caller whose write is done also sees it counted.
+    private void commit(List<PendingWrite<?>> group) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> group.forEach(PendingWrite::run));
+            committedGroups.increment();
+            committedWrites.add(group.size());
+            group.forEach(PendingWrite::complete);
+            return;
+        } catch (RuntimeException e) {
+            if (group.size() == 1) {
+                group.get(0).fail(e);
+                return;
+            }
+            log.debug("Group of {} writes failed, replaying them one by one", group.size(), e);
+        }
+        replayedGroups.increment();
+        for (PendingWrite<?> write : group) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> write.run());
+                committedGroups.increment();
+                committedWrites.increment();
+                write.complete();
+            } catch (RuntimeException e) {
+                write.fail(e);
+            }
+        }
+    }
+
+    /**
+     * A write waiting for a writer thread, and the future its caller waits on.
+     */
+    private static final class PendingWrite<T> {
+        private final Supplier<T> operation;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+        // Result of the last run; only published once the transaction has committed
+        private T result;
+
+        PendingWrite(Supplier<T> operation) {
+            this.operation = operation;
+        }
+
+        void run() {
+            result = operation.get();
+        }
+
+        void complete() {
+            future.complete(result);
+        }
+
+        void fail(Throwable error) {
+            future.completeExceptionally(error);
+        }
+    }
+}
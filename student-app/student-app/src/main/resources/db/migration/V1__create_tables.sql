@@ -0,0 +1,26 @@
+-- Initial schema: the tables as Hibernate's ddl-auto created them before migrations were introduced.
+-- "if not exists" lets databases created by earlier versions of the application pass through
+-- unchanged (they are baselined at version 0); V2 brings their columns up to date.
+create table if not exists grade (
+    id integer,
+    letter varchar(255),
+    score float not null,
+    primary key (id)
+);
+
+create table if not exists student (
+    id integer,
+    email varchar(255),
+    name varchar(255),
+    grade_score_sum float default 0 not null,
+    graded_course_count integer default 0 not null,
+    primary key (id)
+);
+
+create table if not exists course (
+    id integer,
+    name varchar(255),
+    grade_id bigint,
+    student_id bigint,
+    primary key (id)
+);
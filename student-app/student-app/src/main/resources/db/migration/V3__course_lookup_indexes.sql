@@ -0,0 +1,23 @@
+-- Indexes for the course lookup paths and one course name per student.
+--
+-- - ux_course_student_name enforces the (student, course name) uniqueness and serves
+--   CourseRepository.findByStudentIdAndName (GET /api/students/{id}/courses/{name}/grade).
+-- - ix_course_student_name_grade covers every column the per-student reads use (the course ID is
+--   the rowid, which SQLite stores in every index), so findByStudentId and the roster's
+--   findCourseRowsByStudentIds never visit the table.
+-- - idx_course_student_id (created by earlier versions) is a prefix of both and is dropped.
+
+-- Existing duplicates keep their oldest row unchanged; later copies get their ID appended to the
+-- name, so the unique index can be built without losing any enrollment or grade.
+update course
+set name = name || ' (' || id || ')'
+where name is not null
+  and student_id is not null
+  and id not in (select min(id) from course group by student_id, name);
+
+create unique index if not exists ux_course_student_name on course (student_id, name);
+create index if not exists ix_course_student_name_grade on course (student_id, name, grade_id);
+drop index if exists idx_course_student_id;
+
+-- Refresh the planner statistics so the new indexes are used right away
+analyze;
@@ -0,0 +1,10 @@
+-- A random identifier of this database file, set once when the migration runs.
+--
+-- ChangeJournal stores it in its snapshots and only restores a snapshot taken of the same database
+-- (each shard file has its own), so a journal directory pointed at another database, or a database
+-- recreated from scratch, is rebuilt from the tables instead of being trusted.
+create table database_identity (
+    id varchar(32) not null
+);
+
+insert into database_identity (id) values (lower(hex(randomblob(16))));
@@ -0,0 +1,221 @@
+package com.example.studentApp;
+
+import com.example.studentApp.dto.BatchItemErrorDTO;
+import com.example.studentApp.dto.BatchResultDTO;
+import com.example.studentApp.model.Course;
+import com.example.studentApp.model.Grade;
+import com.example.studentApp.model.Student;
+import com.example.studentApp.service.CourseService;
+import com.example.studentApp.service.GradeService;
+import com.example.studentApp.service.StudentService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+
+import static com.example.studentApp.support.AsyncRequests.perform;
+import static com.example.studentApp.support.TestEntities.course;
+import static com.example.studentApp.support.TestEntities.grade;
+import static com.example.studentApp.support.TestEntities.student;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Checks the batch endpoints with bad items: valid items are inserted across several chunks, and every
+ * rejected item is reported by its index in the request with the reason, its ID left null; courses
+ * naming a missing student or grade are rejected without touching the student's GPA; and a batch over
+ * max-items is refused as a whole. The small chunk size makes every batch span several chunks.
+ */
+@SpringBootTest(properties = {"student-app.batch.chunk-size=20", "student-app.batch.max-items=200"})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class BatchInsertTests {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private StudentService studentService;
+
+    @Autowired
+    private CourseService courseService;
+
+    @Autowired
+    private GradeService gradeService;
+
+    @Test
+    void mixedStudentBatchInsertsTheValidItems() {
+        List<Student> students = new ArrayList<>();
+        Map<Integer, String> expectedErrors = new TreeMap<>();
+        for (int i = 0; i < 75; i++) {
+            students.add(student("Mixed " + i, "mixed" + i + "@example.com"));
+        }
+        // Bad items at the start, on both sides of a chunk boundary and at the end
+        students.get(0).setName(null);
+        expectedErrors.put(0, "name is required");
+        students.get(19).setEmail(" ");
+        expectedErrors.put(19, "email is required");
+        students.get(20).setId(424242L);
+        expectedErrors.put(20, "id must not be set");
+        students.set(41, null);
+        expectedErrors.put(41, "Item is missing");
+        students.get(74).setName("");
+        expectedErrors.put(74, "name is required");
+
+        BatchResultDTO result = studentService.addStudents(students);
+
+        assertEquals(75, result.getReceived());
+        assertEquals(75 - expectedErrors.size(), result.getInserted());
+        assertEquals(expectedErrors, errorsByIndex(result));
+        assertIdsAligned(result, expectedErrors);
+        assertEquals(75 - expectedErrors.size(), count("select count(*) from student where email like 'mixed%'"));
+        assertEquals(0, count("select count(*) from student where id = 424242"));
+    }
+
+    @Test
+    void mixedGradeBatchOverHttpReportsEveryRejectedItem() throws Exception {
+        perform(mvc, post("/api/grades/batch").contentType(MediaType.APPLICATION_JSON)
+                .content("[{\"letter\":\"M1\",\"score\":1.5},{\"score\":2.5},{\"id\":7,\"letter\":\"M3\",\"score\":3.5},"
+                        + "null,{\"letter\":\"M5\",\"score\":4.5}]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.received").value(5))
+                .andExpect(jsonPath("$.inserted").value(2))
+                .andExpect(jsonPath("$.ids[0]").isNumber())
+                .andExpect(jsonPath("$.ids[1]").isEmpty())
+                .andExpect(jsonPath("$.ids[2]").isEmpty())
+                .andExpect(jsonPath("$.ids[3]").isEmpty())
+                .andExpect(jsonPath("$.ids[4]").isNumber())
+                .andExpect(jsonPath("$.errors.length()").value(3))
+                .andExpect(jsonPath("$.errors[0].index").value(1))
+                .andExpect(jsonPath("$.errors[0].message").value("letter is required"))
+                .andExpect(jsonPath("$.errors[1].index").value(2))
+                .andExpect(jsonPath("$.errors[1].message").value("id must not be set"))
+                .andExpect(jsonPath("$.errors[2].index").value(3))
+                .andExpect(jsonPath("$.errors[2].message").value("Item is missing"));
+    }
+
+    @Test
+    void coursesOfMissingStudentsOrGradesAreRejected() {
+        long gradeId = gradeService.addGrade(grade("CG", 4.0)).getId();
+        long otherGradeId = gradeService.addGrade(grade("CH", 2.0)).getId();
+        long studentId = studentService.addStudent(student("Enrolled", "enrolled@example.com")).getId();
+        long missingStudentId = studentId + 1_000_000;
+        long missingGradeId = otherGradeId + 1_000_000;
+
+        List<Course> courses = new ArrayList<>();
+        Map<Integer, String> expectedErrors = new TreeMap<>();
+        for (int i = 0; i < 45; i++) {
+            courses.add(course("Course " + i, studentId, i % 2 == 0 ? gradeId : otherGradeId));
+        }
+        courses.set(3, course("Course 3", missingStudentId, gradeId));
+        expectedErrors.put(3, "Student not found");
+        courses.set(20, course("Course 20", studentId, missingGradeId));
+        expectedErrors.put(20, "Grade not found");
+        courses.get(21).setStudent(null);
+        expectedErrors.put(21, "student.id is required");
+        courses.get(22).setGrade(new Grade());
+        expectedErrors.put(22, "grade.id is required");
+        courses.set(44, course("Course 0", studentId, otherGradeId));
+        expectedErrors.put(44, "Course already exists for this student");
+
+        BatchResultDTO result = courseService.addCourses(courses);
+
+        assertEquals(45 - expectedErrors.size(), result.getInserted());
+        assertEquals(expectedErrors, errorsByIndex(result));
+        assertIdsAligned(result, expectedErrors);
+        assertEquals(0, count("select count(*) from course where student_id = " + missingStudentId));
+        assertEquals(0, count("select count(*) from course where grade_id = " + missingGradeId));
+
+        // The GPA aggregate counts the inserted courses only: CG on the even items, CH on the odd ones
+        int even = 0;
+        int odd = 0;
+        for (int i = 0; i < 45; i++) {
+            if (!expectedErrors.containsKey(i)) {
+                if (i % 2 == 0) even++;
+                else odd++;
+            }
+        }
+        assertEquals((even * 4.0 + odd * 2.0) / (even + odd), studentService.getStudentGPA(studentId), 1e-9);
+    }
+
+    @Test
+    void batchesOverMaxItemsAreRefusedAsAWhole() throws Exception {
+        StringJoiner atLimit = new StringJoiner(",", "[", "]");
+        StringJoiner overLimit = new StringJoiner(",", "[", "]");
+        for (int i = 0; i < 201; i++) {
+            String item = "{\"name\":\"Oversize " + i + "\",\"email\":\"oversize" + i + "@example.com\"}";
+            if (i < 200) {
+                atLimit.add(item.replace("Oversize", "At limit").replace("oversize", "at-limit"));
+            }
+            overLimit.add(item);
+        }
+
+        perform(mvc, post("/api/students/batch").contentType(MediaType.APPLICATION_JSON).content(overLimit.toString()))
+                .andExpect(status().isPayloadTooLarge());
+        assertEquals(0, count("select count(*) from student where email like 'oversize%'"));
+
+        perform(mvc, post("/api/students/batch").contentType(MediaType.APPLICATION_JSON).content(atLimit.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.inserted").value(200));
+
+        List<Grade> grades = new ArrayList<>();
+        List<Course> courses = new ArrayList<>();
+        for (int i = 0; i < 201; i++) {
+            grades.add(grade("O" + i, 1.0));
+            courses.add(course("Oversize " + i, 1, 1));
+        }
+        ResponseStatusException gradesRefused = assertThrows(ResponseStatusException.class, () -> gradeService.addGrades(grades));
+        assertEquals(HttpStatus.PAYLOAD_TOO_LARGE, gradesRefused.getStatusCode());
+        ResponseStatusException coursesRefused = assertThrows(ResponseStatusException.class, () -> courseService.addCourses(courses));
+        assertEquals(HttpStatus.PAYLOAD_TOO_LARGE, coursesRefused.getStatusCode());
+        assertEquals(0, count("select count(*) from course where name like 'Oversize%'"));
+    }
+
+    private static Map<Integer, String> errorsByIndex(BatchResultDTO result) {
+        Map<Integer, String> errors = new TreeMap<>();
+        for (BatchItemErrorDTO error : result.getErrors()) {
+            assertNull(errors.put(error.getIndex(), error.getMessage()), "one error per item");
+        }
+        return errors;
+    }
+
+    // Rejected items have no ID; inserted ones have distinct IDs at their request positions.
+    private static void assertIdsAligned(BatchResultDTO result, Map<Integer, String> rejected) {
+        assertEquals(result.getReceived(), result.getIds().size());
+        HashSet<Long> ids = new HashSet<>();
+        for (int i = 0; i < result.getIds().size(); i++) {
+            if (rejected.containsKey(i)) {
+                assertNull(result.getIds().get(i), "no ID for rejected item " + i);
+            } else {
+                assertNotNull(result.getIds().get(i), "ID of item " + i);
+                ids.add(result.getIds().get(i));
+            }
+        }
+        assertEquals(result.getInserted(), ids.size());
+    }
+
+    private long count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Long.class);
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.studentApp;
+
+import com.example.studentApp.dto.CourseResponseDTO;
+import com.example.studentApp.dto.StudentResponseDTO;
+import com.example.studentApp.proto.RosterProto;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import static com.example.studentApp.support.AsyncRequests.perform;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Checks that the roster and the course list are served in each format the Accept header asks for,
+ * with the same content as the JSON default, their own ETags and `Vary: Accept`. Protobuf responses are
+ * decoded with the classes protoc generates from roster.proto, not with the application's own codec.
+ * The roster snapshot is enabled, so the binary formats are also checked not to be answered from it.
+ */
+@SpringBootTest(properties = {"student-app.roster-snapshot.enabled=true", "student-app.roster-snapshot.debounce-ms=10"})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ContentNegotiationTests {
+
+    private static final MediaType SMILE = new MediaType("application", "x-jackson-smile");
+    private static final MediaType PROTOBUF = new MediaType("application", "x-protobuf");
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final ObjectMapper cborMapper = new ObjectMapper(new CBORFactory());
+    private final ObjectMapper smileMapper = new ObjectMapper(new SmileFactory());
+
+    @Test
+    void rosterAndCourseListAreServedInEveryFormat() throws Exception {
+        long gradeId = objectMapper.readTree(body(post("/api/grades").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"letter\":\"B+\",\"score\":3.3}"))).get("id").asLong();
+        for (int i = 1; i <= 3; i++) {
+            long studentId = objectMapper.readTree(body(post("/api/students").contentType(MediaType.APPLICATION_JSON)
+                    .content("{\"name\":\"Format " + i + "\",\"email\":\"format" + i + "@example.com\"}"))).get("id").asLong();
+            body(post("/api/courses").contentType(MediaType.APPLICATION_JSON)
+                    .content("{\"name\":\"Encoding " + i + "\",\"student\":{\"id\":" + studentId + "},\"grade\":{\"id\":" + gradeId + "}}"));
+        }
+        MvcResult json = awaitRosterContaining("Encoding 3");
+        JsonNode roster = objectMapper.readTree(json.getResponse().getContentAsByteArray());
+        String jsonEtag = json.getResponse().getHeader(HttpHeaders.ETAG);
+
+        MvcResult cbor = assertRepresentation("/api/students", MediaType.APPLICATION_CBOR, "cbor", jsonEtag);
+        assertEquals(roster, cborMapper.readTree(cbor.getResponse().getContentAsByteArray()));
+        MvcResult smile = assertRepresentation("/api/students", SMILE, "smile", jsonEtag);
+        assertEquals(roster, smileMapper.readTree(smile.getResponse().getContentAsByteArray()));
+        MvcResult protobuf = assertRepresentation("/api/students", PROTOBUF, "protobuf", jsonEtag);
+        RosterProto.StudentList students = RosterProto.StudentList.parseFrom(protobuf.getResponse().getContentAsByteArray());
+        assertEquals(roster, asJsonTree(students.getStudentsList().stream().map(ContentNegotiationTests::toDto).toList()));
+
+        MvcResult courseJson = perform(mvc, get("/api/courses")).andExpect(status().isOk()).andReturn();
+        String courseEtag = courseJson.getResponse().getHeader(HttpHeaders.ETAG);
+        MvcResult courseProtobuf = assertRepresentation("/api/courses", PROTOBUF, "protobuf", courseEtag);
+        RosterProto.CourseList courses = RosterProto.CourseList.parseFrom(courseProtobuf.getResponse().getContentAsByteArray());
+        assertEquals(objectMapper.readTree(courseJson.getResponse().getContentAsByteArray()),
+                asJsonTree(courses.getCoursesList().stream().map(ContentNegotiationTests::toDto).toList()));
+
+        // There is no Protobuf schema for other bodies
+        perform(mvc, get("/api/students/search").param("q", "format").accept(PROTOBUF)).andExpect(status().isNotAcceptable());
+    }
+
+    // Fetches a collection in a binary format and checks its headers and its conditional GET; returns the 200 response.
+    private MvcResult assertRepresentation(String path, MediaType type, String format, String jsonEtag) throws Exception {
+        MvcResult result = perform(mvc, get(path).accept(type))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, type.toString()))
+                .andReturn();
+        String etag = result.getResponse().getHeader(HttpHeaders.ETAG);
+        assertEquals(jsonEtag.substring(0, jsonEtag.length() - 1) + "-" + format + "\"", etag);
+        assertTrue(result.getResponse().getHeaders(HttpHeaders.VARY).contains(HttpHeaders.ACCEPT), "Vary: Accept");
+
+        perform(mvc, get(path).accept(type).header(HttpHeaders.IF_NONE_MATCH, etag)).andExpect(status().isNotModified());
+        perform(mvc, get(path).accept(type).header(HttpHeaders.IF_NONE_MATCH, jsonEtag)).andExpect(status().isOk());
+        assertNotEquals(jsonEtag, etag);
+        return result;
+    }
+
+    // Converts a Student message decoded by the protoc-generated code to the DTO of the JSON response.
+    private static StudentResponseDTO toDto(RosterProto.Student student) {
+        return new StudentResponseDTO(student.getId(), student.getName(), student.getEmail(), student.getGpa(),
+                student.getCoursesList().stream().map(ContentNegotiationTests::toDto).toList());
+    }
+
+    // Converts a Course message; a course without a grade has no grade letter on the wire.
+    private static CourseResponseDTO toDto(RosterProto.Course course) {
+        return new CourseResponseDTO(course.getName(),
+                course.getGradeLetter().isEmpty() ? null : course.getGradeLetter(), course.getGradeScore());
+    }
+
+    // Writes DTOs as JSON and parses them back, so numbers compare like those of a JSON response.
+    private JsonNode asJsonTree(Object value) throws Exception {
+        return objectMapper.readTree(objectMapper.writeValueAsBytes(value));
+    }
+
+    // Waits until the JSON roster (served from the snapshot once it is rebuilt) contains the text.
+    private MvcResult awaitRosterContaining(String text) throws Exception {
+        for (int attempt = 0; attempt < 1000; attempt++) {
+            MvcResult result = perform(mvc, get("/api/students")).andExpect(status().isOk()).andReturn();
+            if (result.getResponse().getContentAsString().contains(text)) {
+                return result;
+            }
+            Thread.sleep(10);
+        }
+        return fail("The roster never contained " + text);
+    }
+
+    private byte[] body(RequestBuilder request) throws Exception {
+        return perform(mvc, request).andExpect(status().isOk()).andReturn().getResponse().getContentAsByteArray();
+    }
+}
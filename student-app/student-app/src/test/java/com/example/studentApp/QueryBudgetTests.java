@@ -0,0 +1,371 @@
+package com.example.studentApp;
+
+import com.example.studentApp.service.GradeCatalog;
+import com.example.studentApp.support.QueryCounter;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.regex.Pattern;
+
+import static com.example.studentApp.support.AsyncRequests.perform;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Puts a budget on the number of SQL statements each endpoint may execute.
+ *
+ * The database is seeded with 1,000 students of 3 courses each, so an endpoint that loads data
+ * per student or per course (an N+1 pattern) exceeds its budget by hundreds of statements and the
+ * failure lists every statement that ran. Budgets are fixed numbers: they must not grow with the data.
+ *
+ * Write budgets allow one extra statement: the ID generator reads the table's maximum ID once,
+ * on the first insert into each table, and the test order decides which test pays for it.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(QueryCounter.Config.class)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class QueryBudgetTests {
+
+    private static final int STUDENTS = 1_000;
+    private static final int COURSES_PER_STUDENT = 3;
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private QueryCounter queryCounter;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private GradeCatalog gradeCatalog;
+
+    @Value("${student-app.import.dir}")
+    private String importDir;
+
+    // Seeds grades, students and courses with consistent GPA aggregates, then reloads the grade catalog.
+    @BeforeAll
+    void seed() {
+        String[] letters = {"A", "B", "C", "D", "F"};
+        double[] scores = {4.0, 3.0, 2.0, 1.0, 0.0};
+        List<Object[]> grades = new ArrayList<>();
+        for (int g = 0; g < letters.length; g++) {
+            grades.add(new Object[]{g + 1, letters[g], scores[g]});
+        }
+        jdbcTemplate.batchUpdate("insert into grade (id, letter, score) values (?, ?, ?)", grades);
+
+        List<Object[]> students = new ArrayList<>();
+        List<Object[]> courses = new ArrayList<>();
+        long courseId = 0;
+        for (int s = 1; s <= STUDENTS; s++) {
+            double scoreSum = 0;
+            for (int c = 0; c < COURSES_PER_STUDENT; c++) {
+                int grade = (s + c) % letters.length;
+                scoreSum += scores[grade];
+                courses.add(new Object[]{++courseId, "Course " + c, s, grade + 1});
+            }
+            students.add(new Object[]{s, "Student " + s, "student" + s + "@example.com", scoreSum, COURSES_PER_STUDENT});
+        }
+        jdbcTemplate.batchUpdate("insert into student (id, name, email, grade_score_sum, graded_course_count) " +
+                "values (?, ?, ?, ?, ?)", students);
+        jdbcTemplate.batchUpdate("insert into course (id, name, student_id, grade_id) values (?, ?, ?, ?)", courses);
+
+        gradeCatalog.reload();
+    }
+
+    // --- Students ---
+
+    @Test
+    void rosterIsTwoQueries() throws Exception {
+        assertBudget(2, get("/api/students"));
+    }
+
+    @Test
+    void rosterWithoutCoursesNeverReadsTheCourseTable() throws Exception {
+        MvcResult result = assertBudget(1, get("/api/students").param("fields", "id,name,gpa"));
+        assertNoStatementMentions("course");
+        jsonPath("$[0].gpa").exists().match(result);
+        jsonPath("$[0].email").doesNotExist().match(result);
+        jsonPath("$[0].courses").doesNotExist().match(result);
+    }
+
+    @Test
+    void rosterWithoutGpaSkipsTheAggregate() throws Exception {
+        MvcResult result = assertBudget(2, get("/api/students").param("fields", "id,courses"));
+        assertNoStatementMentions("grade_score_sum");
+        jsonPath("$[0].courses[0].gradeLetter").exists().match(result);
+        jsonPath("$[0].gpa").doesNotExist().match(result);
+    }
+
+    @Test
+    void rosterPageWithoutCoursesIsOneQuery() throws Exception {
+        MvcResult result = assertBudget(1, get("/api/students").param("size", "50").param("fields", "id,gpa"));
+        assertNoStatementMentions("course");
+        jsonPath("$.students[0].name").doesNotExist().match(result);
+        jsonPath("$.nextCursor").exists().match(result);
+    }
+
+    @Test
+    void unknownFieldIsRejected() throws Exception {
+        perform(mvc, get("/api/students").param("fields", "id,secret")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void rosterPageIsTwoQueries() throws Exception {
+        assertBudget(2, get("/api/students").param("size", "50").param("after", "100"));
+    }
+
+    @Test
+    void unchangedRosterIsNotModifiedWithoutQueries() throws Exception {
+        assertNotModifiedWithoutQueries("/api/students");
+    }
+
+    @Test
+    void studentGpaIsOneQuery() throws Exception {
+        assertBudget(1, get("/api/students/{id}/gpa", 42));
+    }
+
+    @Test
+    void studentGradesIsTwoQueries() throws Exception {
+        assertBudget(2, get("/api/students/{id}/grades", 42));
+    }
+
+    @Test
+    void courseGradeIsOneQuery() throws Exception {
+        assertBudget(1, get("/api/students/{id}/courses/{name}/grade", 42, "Course 1"));
+    }
+
+    @Test
+    void studentSearchIsServedFromMemory() throws Exception {
+        assertBudget(0, get("/api/students/search").param("q", "stud 4"));
+    }
+
+    @Test
+    void topStudentsAreServedFromMemory() throws Exception {
+        mvc.perform(get("/api/students/top")).andExpect(status().isOk()); // The first call may load the ranking
+        assertBudget(0, get("/api/students/top").param("k", "100"));
+    }
+
+    @Test
+    void studentRankIsServedFromMemory() throws Exception {
+        mvc.perform(get("/api/students/top")).andExpect(status().isOk()); // The first call may load the ranking
+        assertBudget(0, get("/api/students/{id}/rank", 42));
+    }
+
+    @Test
+    void addStudentIsOneInsert() throws Exception {
+        assertBudget(1 + 1, post("/api/students").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"New Student\",\"email\":\"new@example.com\"}"));
+    }
+
+    @Test
+    void addStudentsIsOneBatch() throws Exception {
+        StringJoiner body = new StringJoiner(",", "[", "]");
+        for (int i = 0; i < 200; i++) {
+            body.add("{\"name\":\"Batch " + i + "\",\"email\":\"batch" + i + "@example.com\"}");
+        }
+        assertBudget(1 + 1, post("/api/students/batch").contentType(MediaType.APPLICATION_JSON).content(body.toString()));
+    }
+
+    // --- Courses ---
+
+    @Test
+    void courseListIsOneQuery() throws Exception {
+        assertBudget(1, get("/api/courses"));
+    }
+
+    @Test
+    void courseNamesDoNotJoinTheGrades() throws Exception {
+        MvcResult result = assertBudget(1, get("/api/courses").param("fields", "name"));
+        assertNoStatementMentions("grade");
+        jsonPath("$[0].name").exists().match(result);
+        jsonPath("$[0].gradeScore").doesNotExist().match(result);
+    }
+
+    @Test
+    void unchangedCourseListIsNotModifiedWithoutQueries() throws Exception {
+        assertNotModifiedWithoutQueries("/api/courses");
+    }
+
+    @Test
+    void courseStatsAreServedFromMemory() throws Exception {
+        assertBudget(0, get("/api/courses/stats"));
+    }
+
+    @Test
+    void addCourseIsFourQueries() throws Exception {
+        // Load the student, check the course name is new for the student, insert the course,
+        // update the student's GPA aggregate
+        assertBudget(4 + 1, post("/api/courses").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"Chemistry\",\"student\":{\"id\":7},\"grade\":{\"id\":2}}"));
+    }
+
+    @Test
+    void addCoursesIsFourQueries() throws Exception {
+        // Check the students and their existing course names, insert the courses, update the GPA aggregates
+        StringJoiner body = new StringJoiner(",", "[", "]");
+        for (int i = 0; i < 200; i++) {
+            body.add("{\"name\":\"Elective " + i + "\",\"student\":{\"id\":" + (i + 1) + "},\"grade\":{\"id\":" + (i % 5 + 1) + "}}");
+        }
+        assertBudget(4 + 1, post("/api/courses/batch").contentType(MediaType.APPLICATION_JSON).content(body.toString()));
+    }
+
+    // --- Grades ---
+
+    @Test
+    void gradeListIsServedFromMemory() throws Exception {
+        assertBudget(0, get("/api/grades"));
+    }
+
+    @Test
+    void unchangedGradeListIsNotModifiedWithoutQueries() throws Exception {
+        assertNotModifiedWithoutQueries("/api/grades");
+    }
+
+    @Test
+    void addedGradeChangesTheGradeListETag() throws Exception {
+        String before = mvc.perform(get("/api/grades")).andReturn().getResponse().getHeader("ETag");
+        mvc.perform(post("/api/grades").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"letter\":\"P\",\"score\":2.5}")).andExpect(status().isOk());
+        mvc.perform(get("/api/grades").header("If-None-Match", before)).andExpect(status().isOk());
+        assertNotEquals(before, mvc.perform(get("/api/grades")).andReturn().getResponse().getHeader("ETag"));
+    }
+
+    @Test
+    void addGradeIsOneInsert() throws Exception {
+        assertBudget(1 + 1, post("/api/grades").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"letter\":\"E\",\"score\":0.5}"));
+    }
+
+    @Test
+    void addGradesIsOneBatch() throws Exception {
+        assertBudget(1 + 1, post("/api/grades/batch").contentType(MediaType.APPLICATION_JSON)
+                .content("[{\"letter\":\"A+\",\"score\":4.3},{\"letter\":\"A-\",\"score\":3.7}]"));
+    }
+
+    // --- Export ---
+
+    @Test
+    void exportIsOneQuery() throws Exception {
+        queryCounter.reset();
+        MvcResult started = mvc.perform(get("/api/export/grades").param("format", "csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        // The export is exempt from spring.mvc.async.request-timeout
+        assertEquals(-1, started.getRequest().getAsyncContext().getTimeout());
+        mvc.perform(asyncDispatch(started)).andExpect(status().isOk());
+        queryCounter.assertAtMost(1, "GET /api/export/grades");
+    }
+
+    // --- Admin ---
+
+    @Test
+    void gpaAggregateCheckIsOneQuery() throws Exception {
+        assertBudget(1, get("/api/admin/gpa-aggregates"));
+    }
+
+    @Test
+    void gpaAggregateRebuildIsTwoQueries() throws Exception {
+        assertBudget(2, post("/api/admin/gpa-aggregates/rebuild"));
+    }
+
+    @Test
+    void gradeCacheStatsAreServedFromMemory() throws Exception {
+        assertBudget(0, get("/api/admin/grade-cache"));
+    }
+
+    @Test
+    void gradeCacheReloadIsOneQuery() throws Exception {
+        assertBudget(1, post("/api/admin/grade-cache/reload"));
+    }
+
+    @Test
+    void searchIndexStatsAreServedFromMemory() throws Exception {
+        assertBudget(0, get("/api/admin/search-index"));
+    }
+
+    @Test
+    void pinningStatsAreServedFromMemory() throws Exception {
+        assertBudget(0, get("/api/admin/virtual-threads"));
+    }
+
+    @Test
+    void enrollmentImportIsFourQueries() throws Exception {
+        // Read the email table, read the students' existing course names, insert the courses,
+        // update the GPA aggregates
+        Path directory = Files.createDirectories(Path.of(importDir));
+        Path file = Files.createTempFile(directory, "enrollments", ".csv");
+        try {
+            StringBuilder csv = new StringBuilder("email,course,grade\n");
+            for (int s = 1; s <= 300; s++) {
+                csv.append("student").append(s).append("@example.com,Imported,").append("ABCDF".charAt(s % 5)).append('\n');
+            }
+            Files.writeString(file, csv);
+            assertBudget(4 + 1, post("/api/admin/import/enrollments").param("path", file.getFileName().toString()));
+
+            // Paths leading out of the import directory are refused, even when they name the same file
+            perform(mvc, post("/api/admin/import/enrollments").param("path", file.toAbsolutePath().toString()))
+                    .andExpect(status().isBadRequest());
+            perform(mvc, post("/api/admin/import/enrollments")
+                    .param("path", "../" + directory.getFileName() + "/" + file.getFileName()))
+                    .andExpect(status().isBadRequest());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    // Fetches the collection, then checks a conditional GET with its ETag is answered with 304 without any statement.
+    private void assertNotModifiedWithoutQueries(String path) throws Exception {
+        String etag = perform(mvc, get(path)).andExpect(status().isOk()).andReturn().getResponse().getHeader("ETag");
+        assertNotNull(etag, "ETag of " + path);
+        queryCounter.reset();
+        perform(mvc, get(path).header("If-None-Match", etag)).andExpect(status().isNotModified());
+        queryCounter.assertAtMost(0, "GET " + path + " (If-None-Match)");
+    }
+
+    // Runs the request, expects success and checks the number of statements it executed.
+    private MvcResult assertBudget(int budget, RequestBuilder request) throws Exception {
+        queryCounter.reset();
+        MvcResult result = perform(mvc, request).andExpect(status().is2xxSuccessful()).andReturn();
+        queryCounter.assertAtMost(budget, result.getRequest().getMethod() + " " + result.getRequest().getRequestURI());
+        return result;
+    }
+
+    // Checks that no statement since the last reset mentions any of the given tables or columns.
+    private void assertNoStatementMentions(String... names) {
+        for (String sql : queryCounter.statements()) {
+            for (String name : names) {
+                assertFalse(Pattern.compile("\\b" + name + "\\b").matcher(sql.toLowerCase()).find(),
+                        "Unexpected " + name + " in: " + sql);
+            }
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.studentApp;
+
+import com.example.studentApp.config.ReadWriteRoutingDataSource;
+import com.example.studentApp.service.StudentService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Checks that the database runs in WAL mode, that read-only transactions run on read-only connections,
+ * and that they read the committed state while a write transaction holds the only writer connection.
+ * The short connection timeout makes a read that waited for the writer connection fail instead of hang.
+ */
+@SpringBootTest(properties = "spring.datasource.hikari.connection-timeout=2000")
+@ActiveProfiles("test")
+class ReadWriteRoutingTests {
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private StudentService studentService;
+
+    @Test
+    void readOnlyTransactionsReadBesideAnOpenWrite() throws Exception {
+        ReadWriteRoutingDataSource routing = dataSource.unwrap(ReadWriteRoutingDataSource.class);
+        assertEquals("wal", jdbcTemplate.queryForObject("pragma journal_mode", String.class));
+
+        TransactionTemplate reads = new TransactionTemplate(transactionManager);
+        reads.setReadOnly(true);
+
+        // Read-only transactions get a read-only connection
+        assertThrows(DataAccessException.class, () -> reads.executeWithoutResult(status ->
+                jdbcTemplate.update("insert into grade (id, letter, score) values (1000001, 'R', 1.0)")));
+
+        TransactionStatus write = transactionManager.getTransaction(new DefaultTransactionDefinition());
+        try {
+            jdbcTemplate.update("insert into student (id, name, email) values (1000001, 'Uncommitted', 'u@example.com')");
+            assertEquals(1, routing.getWriter().getHikariPoolMXBean().getActiveConnections());
+
+            // Neither needs the writer connection, and neither sees the uncommitted row
+            Long count = CompletableFuture.supplyAsync(() -> reads.execute(read ->
+                    jdbcTemplate.queryForObject("select count(*) from student where id = 1000001", Long.class)))
+                    .get(10, TimeUnit.SECONDS);
+            assertEquals(0, count);
+            double gpa = CompletableFuture.supplyAsync(() -> studentService.getStudentGPA(1000001L))
+                    .get(10, TimeUnit.SECONDS);
+            assertEquals(0.0, gpa);
+        } finally {
+            transactionManager.rollback(write);
+        }
+    }
+}
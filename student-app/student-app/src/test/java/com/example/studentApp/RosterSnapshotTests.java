@@ -0,0 +1,113 @@
+package com.example.studentApp;
+
+import com.example.studentApp.service.RosterSnapshotCache;
+import com.example.studentApp.service.StudentService;
+import com.example.studentApp.support.QueryCounter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static com.example.studentApp.support.AsyncRequests.perform;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Checks that GET /api/students is served from the roster snapshot without any statement,
+ * that both encodings carry the same JSON the service produces, and that writes lead to a new snapshot.
+ */
+@SpringBootTest(properties = {"student-app.roster-snapshot.enabled=true", "student-app.roster-snapshot.debounce-ms=10"})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(QueryCounter.Config.class)
+class RosterSnapshotTests {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private QueryCounter queryCounter;
+
+    @Autowired
+    private RosterSnapshotCache rosterSnapshotCache;
+
+    @Autowired
+    private StudentService studentService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void rosterIsServedFromSnapshotsRebuiltAfterWrites() throws Exception {
+        addStudent("Snapshot One", "one@example.com");
+        RosterSnapshotCache.Snapshot first = awaitSnapshotContaining("Snapshot One");
+
+        queryCounter.reset();
+        MvcResult plain = perform(mvc, get("/api/students"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, first.etag()))
+                .andReturn();
+        MvcResult gzipped = perform(mvc, get("/api/students").header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.ETAG, first.gzipEtag()))
+                .andReturn();
+        perform(mvc, get("/api/students").header(HttpHeaders.IF_NONE_MATCH, first.etag()))
+                .andExpect(status().isNotModified());
+        queryCounter.assertAtMost(0, "GET /api/students (snapshot)");
+
+        byte[] json = plain.getResponse().getContentAsByteArray();
+        assertArrayEquals(json, gunzip(gzipped.getResponse().getContentAsByteArray()));
+        assertEquals(objectMapper.writeValueAsString(studentService.getAllStudentsWithGPA()),
+                new String(json, StandardCharsets.UTF_8));
+
+        addStudent("Snapshot Two", "two@example.com");
+        RosterSnapshotCache.Snapshot second = awaitSnapshotContaining("Snapshot Two");
+        assertTrue(second.version() > first.version());
+        perform(mvc, get("/api/students").header(HttpHeaders.IF_NONE_MATCH, first.etag()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, second.etag()));
+    }
+
+    private void addStudent(String name, String email) throws Exception {
+        perform(mvc, post("/api/students").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"" + name + "\",\"email\":\"" + email + "\"}"))
+                .andExpect(status().isOk());
+    }
+
+    // Waits for the background rebuild that includes the student.
+    private RosterSnapshotCache.Snapshot awaitSnapshotContaining(String name) throws InterruptedException {
+        for (int attempt = 0; attempt < 1000; attempt++) {
+            RosterSnapshotCache.Snapshot snapshot = rosterSnapshotCache.current().orElse(null);
+            if (snapshot != null && new String(snapshot.json(), StandardCharsets.UTF_8).contains(name)) {
+                return snapshot;
+            }
+            Thread.sleep(10);
+        }
+        return fail("No roster snapshot contains " + name);
+    }
+
+    private static byte[] gunzip(byte[] gzip) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzip))) {
+            return in.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.studentApp;
+
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * Runs the page walks of StudentPageTests with three shards, where every page is merged from the
+ * first page of each shard.
+ */
+@SpringBootTest(properties = "student-app.sharding.shards=3")
+class ShardedStudentPageTests extends StudentPageTests {
+}
@@ -0,0 +1,273 @@
+package com.example.studentApp;
+
+import com.example.studentApp.config.ShardRoutingDataSource;
+import com.example.studentApp.dto.BatchResultDTO;
+import com.example.studentApp.dto.CourseResponseDTO;
+import com.example.studentApp.dto.StudentPageDTO;
+import com.example.studentApp.dto.StudentResponseDTO;
+import com.example.studentApp.model.Course;
+import com.example.studentApp.model.Student;
+import com.example.studentApp.service.CourseService;
+import com.example.studentApp.service.GpaAggregateService;
+import com.example.studentApp.service.GradeService;
+import com.example.studentApp.service.StudentService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.sql.DataSource;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+
+import static com.example.studentApp.support.AsyncRequests.perform;
+import static com.example.studentApp.support.TestEntities.course;
+import static com.example.studentApp.support.TestEntities.grade;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Checks that with three shards every student and their courses are stored on the student's shard,
+ * that IDs stay unique across shards, that grades are copied to every shard, and that the services
+ * route single-student reads and merge the reads of every shard in ID order, and that a failed grade
+ * insert leaves no copies behind and that IDs sent by clients are rejected. Also restarts the application on one database with one, three and
+ * then two shards.
+ */
+@SpringBootTest(properties = "student-app.sharding.shards=3")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ShardingTests {
+
+    private static final int STUDENTS = 30;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private StudentService studentService;
+
+    @Autowired
+    private CourseService courseService;
+
+    @Autowired
+    private GradeService gradeService;
+
+    @Autowired
+    private GpaAggregateService gpaAggregateService;
+
+    @Test
+    void studentsAndCoursesAreSplitAcrossShards() {
+        ShardRoutingDataSource shards = ShardRoutingDataSource.of(dataSource);
+        assertNotNull(shards);
+        assertEquals(3, shards.getShardCount());
+
+        // Grades are copied to every shard
+        long gradeId = gradeService.addGrade(grade("A-", 3.7)).getId();
+        for (int shard = 0; shard < 3; shard++) {
+            assertEquals(1, count(shards, shard, "select count(*) from grade where id = " + gradeId));
+        }
+
+        // A batch with a bad item: the other students are inserted, the results stay aligned with the request
+        List<Student> students = new ArrayList<>();
+        for (int i = 0; i < STUDENTS; i++) {
+            Student student = new Student();
+            student.setName(i == 5 ? "" : "Sharded " + i);
+            student.setEmail("sharded" + i + "@example.com");
+            students.add(student);
+        }
+        BatchResultDTO result = studentService.addStudents(students);
+        assertEquals(STUDENTS - 1, result.getInserted());
+        assertEquals(1, result.getErrors().size());
+        assertEquals(5, result.getErrors().get(0).getIndex());
+        assertNull(result.getIds().get(5));
+        Student single = new Student();
+        single.setName("Sharded single");
+        single.setEmail("sharded-single@example.com");
+        long singleId = studentService.addStudent(single).getId();
+
+        List<Long> ids = new ArrayList<>(result.getIds());
+        ids.remove(5);
+        ids.add(singleId);
+        assertEquals(STUDENTS, new HashSet<>(ids).size());
+
+        // Each student is stored on its own shard only, and more than one shard is used
+        Set<Integer> used = new HashSet<>();
+        for (long id : ids) {
+            int home = shards.shardOf(id);
+            used.add(home);
+            for (int shard = 0; shard < 3; shard++) {
+                assertEquals(shard == home ? 1 : 0, count(shards, shard, "select count(*) from student where id = " + id));
+            }
+        }
+        assertTrue(used.size() > 1);
+
+        // Courses follow their students
+        List<Course> courses = new ArrayList<>();
+        for (long id : ids) {
+            courses.add(course("Distributed Systems", id, gradeId));
+        }
+        courses.add(course("Unknown student", 9_999_999L, gradeId));
+        BatchResultDTO courseResult = courseService.addCourses(courses);
+        assertEquals(STUDENTS, courseResult.getInserted());
+        assertEquals(STUDENTS, courseResult.getErrors().get(0).getIndex());
+        courseService.addCourse(course("Databases", singleId, gradeId));
+        for (long id : ids) {
+            assertTrue(count(shards, shards.shardOf(id), "select count(*) from course where student_id = " + id) > 0);
+        }
+
+        // The roster and the course list are merged in ID order
+        List<StudentResponseDTO> roster = studentService.getAllStudentsWithGPA();
+        assertEquals(STUDENTS, roster.size());
+        assertEquals(ids.stream().sorted().toList(), roster.stream().map(StudentResponseDTO::getId).toList());
+        roster.forEach(student -> assertEquals(3.7, student.getGpa(), 1e-9));
+        List<CourseResponseDTO> courseList = courseService.getAllCourses();
+        assertEquals(STUDENTS + 1, courseList.size());
+        assertEquals("Databases", courseList.get(courseList.size() - 1).getName());
+
+        StudentPageDTO page = studentService.getStudentPage(null, 10, null, null, null);
+        assertEquals(ids.stream().sorted().limit(10).toList(),
+                page.getStudents().stream().map(StudentResponseDTO::getId).toList());
+
+        // Single-student reads go to the student's shard
+        assertEquals(3.7, studentService.getStudentGPA(singleId), 1e-9);
+        assertEquals(2, studentService.getGradesForStudent(singleId).getCourses().size());
+        assertEquals(3.7, studentService.getGradeForCourse(singleId, "Databases"), 1e-9);
+
+        // The in-memory ranking and the GPA aggregate check read every shard
+        assertEquals(STUDENTS, studentService.getTopStudents(100).size());
+        assertEquals(0, gpaAggregateService.check().getStaleStudentCount());
+    }
+
+    @Test
+    void aFailedGradeInsertLeavesNoCopies() {
+        ShardRoutingDataSource shards = ShardRoutingDataSource.of(dataSource);
+        long next = gradeService.addGrade(grade("P", 1.0)).getId() + 1;
+
+        // Shard 0 already has the next ID, so the insert there fails after the copies were committed
+        new JdbcTemplate(shards.getShard(0)).update("insert into grade (id, letter, score) values (?, 'X', 0)", next);
+        assertThrows(RuntimeException.class, () -> gradeService.addGrade(grade("Q", 2.0)));
+        for (int shard = 1; shard < 3; shard++) {
+            assertEquals(0, count(shards, shard, "select count(*) from grade where id = " + next));
+        }
+    }
+
+    @Test
+    void clientIdsAreRejected() throws Exception {
+        // The ID allocator never reserved these IDs, so a later allocation could hand them out again
+        perform(mvc, post("/api/students").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"id\":123,\"name\":\"Explicit\",\"email\":\"explicit@example.com\"}"))
+                .andExpect(status().isBadRequest());
+        perform(mvc, post("/api/grades").contentType(MediaType.APPLICATION_JSON)
+                .content("{\"id\":123,\"letter\":\"E\",\"score\":0.5}"))
+                .andExpect(status().isBadRequest());
+        ShardRoutingDataSource shards = ShardRoutingDataSource.of(dataSource);
+        for (int shard = 0; shard < 3; shard++) {
+            assertEquals(0, count(shards, shard, "select count(*) from student where email = 'explicit@example.com'"));
+            assertEquals(0, count(shards, shard, "select count(*) from grade where id = 123"));
+        }
+    }
+
+    @Test
+    void changingTheNumberOfShardsKeepsEveryStudent() {
+        String database = "target/test-reshard-" + UUID.randomUUID();
+        List<Long> ids = new ArrayList<>();
+
+        // One database file
+        try (ConfigurableApplicationContext context = start(database, 1)) {
+            long gradeId = context.getBean(GradeService.class).addGrade(grade("B", 3.0)).getId();
+            ids.addAll(addStudents(context, "Unsharded", gradeId));
+        }
+
+        // Three shards: the students of shard 0 are spread out
+        try (ConfigurableApplicationContext context = start(database, 3)) {
+            assertOnTheirShard(ShardRoutingDataSource.of(context.getBean(DataSource.class)), ids);
+            long gradeId = context.getBean(GradeService.class).getAllGrades().get(0).getId();
+            ids.addAll(addStudents(context, "Three shards", gradeId));
+            assertTrue(Files.exists(Path.of(database + "-shard2.db")));
+            // A copy of a grade whose insert on shard 0 never happened
+            new JdbcTemplate(ShardRoutingDataSource.of(context.getBean(DataSource.class)).getShard(1))
+                    .update("insert into grade (id, letter, score) values (9999999, 'Z', 0)");
+        }
+
+        // Two shards: the third file is drained and deleted, and its IDs are not handed out again
+        try (ConfigurableApplicationContext context = start(database, 2)) {
+            ShardRoutingDataSource shards = ShardRoutingDataSource.of(context.getBean(DataSource.class));
+            assertFalse(Files.exists(Path.of(database + "-shard2.db")));
+            assertEquals(0, count(shards, 1, "select count(*) from grade where id = 9999999"));
+            assertOnTheirShard(shards, ids);
+            StudentService students = context.getBean(StudentService.class);
+            assertEquals(ids.size(), students.getAllStudentsWithGPA().size());
+            Student student = new Student();
+            student.setName("Two shards");
+            student.setEmail("two-shards@example.com");
+            long id = students.addStudent(student).getId();
+            assertTrue(id > ids.stream().mapToLong(Long::longValue).max().orElseThrow());
+        }
+    }
+
+    // Starts the application without a web server on the given database file and number of shards.
+    private static ConfigurableApplicationContext start(String database, int shardCount) {
+        return new SpringApplicationBuilder(StudentAppApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .run("--spring.datasource.url=jdbc:sqlite:" + database + ".db",
+                        "--student-app.sharding.shards=" + shardCount);
+    }
+
+    // Adds students with one course each; returns their IDs.
+    private static List<Long> addStudents(ConfigurableApplicationContext context, String name, long gradeId) {
+        List<Student> students = new ArrayList<>();
+        for (int i = 0; i < STUDENTS; i++) {
+            Student student = new Student();
+            student.setName(name + " " + i);
+            student.setEmail(name.toLowerCase(Locale.ROOT).replace(' ', '-') + i + "@example.com");
+            students.add(student);
+        }
+        List<Long> ids = context.getBean(StudentService.class).addStudents(students).getIds();
+        List<Course> courses = new ArrayList<>();
+        for (long id : ids) {
+            courses.add(course("Resharding", id, gradeId));
+        }
+        assertEquals(STUDENTS, context.getBean(CourseService.class).addCourses(courses).getInserted());
+        return ids;
+    }
+
+    // Checks that every student, and their course, is stored on the student's shard only.
+    private static void assertOnTheirShard(ShardRoutingDataSource shards, List<Long> ids) {
+        for (long id : ids) {
+            int home = shards.shardOf(id);
+            for (int shard = 0; shard < shards.getShardCount(); shard++) {
+                long expected = shard == home ? 1 : 0;
+                assertEquals(expected, count(shards, shard, "select count(*) from student where id = " + id));
+                assertEquals(expected, count(shards, shard, "select count(*) from course where student_id = " + id));
+            }
+        }
+    }
+
+    private static long count(ShardRoutingDataSource shards, int shard, String sql) {
+        Long count = new JdbcTemplate(shards.getShard(shard)).queryForObject(sql, Long.class);
+        return count != null ? count : 0;
+    }
+}
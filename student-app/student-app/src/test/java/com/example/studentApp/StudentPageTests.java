@@ -0,0 +1,158 @@
+package com.example.studentApp;
+
+import com.example.studentApp.dto.BatchResultDTO;
+import com.example.studentApp.dto.StudentPageDTO;
+import com.example.studentApp.dto.StudentResponseDTO;
+import com.example.studentApp.model.Course;
+import com.example.studentApp.model.Student;
+import com.example.studentApp.service.CourseService;
+import com.example.studentApp.service.GradeService;
+import com.example.studentApp.service.StudentService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Predicate;
+
+import static com.example.studentApp.support.TestEntities.course;
+import static com.example.studentApp.support.TestEntities.grade;
+import static com.example.studentApp.support.TestEntities.student;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Walks every page of the keyset-paginated roster (StudentService.getStudentPage) over a seeded roster,
+ * with and without filters and at several page sizes, and checks that the pages hold every matching
+ * student exactly once, in ID order, including the many students whose GPAs tie, and that each cursor
+ * is the last ID of its page. ShardedStudentPageTests runs the same walks over three shards.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class StudentPageTests {
+
+    private static final int STUDENTS = 157;
+    private static final int[] PAGE_SIZES = {1, 7, 50, STUDENTS, 5000};
+
+    @Autowired
+    private StudentService studentService;
+
+    @Autowired
+    private CourseService courseService;
+
+    @Autowired
+    private GradeService gradeService;
+
+    // Seeds students with one or two graded courses each, from three grades, so most GPAs tie;
+    // every tenth student has no course at all.
+    @BeforeAll
+    void seed() {
+        long[] gradeIds = {
+                gradeService.addGrade(grade("PA", 4.0)).getId(),
+                gradeService.addGrade(grade("PB", 3.0)).getId(),
+                gradeService.addGrade(grade("PC", 2.0)).getId()};
+        List<Student> students = new ArrayList<>();
+        for (int i = 0; i < STUDENTS; i++) {
+            students.add(student((i % 2 == 0 ? "Paged " : "paged ") + i, "paged" + i + "@example.com"));
+        }
+        BatchResultDTO inserted = studentService.addStudents(students);
+        assertEquals(STUDENTS, inserted.getInserted());
+
+        List<Course> courses = new ArrayList<>();
+        for (int i = 0; i < STUDENTS; i++) {
+            long id = inserted.getIds().get(i);
+            if (i % 10 == 9) {
+                continue;
+            }
+            courses.add(course("Paging", id, gradeIds[i % 3]));
+            if (i % 4 == 0) {
+                courses.add(course("Paging II", id, gradeIds[2 - i % 3]));
+            }
+        }
+        assertEquals(courses.size(), courseService.addCourses(courses).getInserted());
+    }
+
+    @Test
+    void everyPageWalkReturnsTheWholeRoster() {
+        for (int size : PAGE_SIZES) {
+            assertWalk(size, null, null, null, student -> true);
+        }
+    }
+
+    @Test
+    void everyPageWalkReturnsTheFilteredRoster() {
+        for (int size : PAGE_SIZES) {
+            assertWalk(size, 2.5, null, null, student -> student.getGpa() >= 2.5);
+            assertWalk(size, null, 3.0, null, student -> student.getGpa() <= 3.0);
+            // Case-insensitive prefix: "Paged 1" and "paged 1*" alike
+            assertWalk(size, null, null, "PAGED 1", student -> student.getName().toLowerCase(Locale.ROOT).startsWith("paged 1"));
+            assertWalk(size, 2.0, 3.5, "paged", student -> student.getGpa() >= 2.0 && student.getGpa() <= 3.5
+                    && student.getName().toLowerCase(Locale.ROOT).startsWith("paged"));
+        }
+    }
+
+    @Test
+    void studentsWithTiedGpasKeepTheirOrderAcrossPages() {
+        // Single students graded PB and students graded PA and PC both have a GPA of exactly 3.0
+        List<StudentResponseDTO> tied = walk(3, 3.0, 3.0, "paged");
+        assertTrue(tied.size() > 3 * 3, "the ties span several pages");
+        tied.forEach(student -> assertEquals(3.0, student.getGpa()));
+        assertEquals(ids(tied), ids(walk(3, 3.0, 3.0, "paged")));
+        assertEquals(ids(tied), ids(walk(11, 3.0, 3.0, "paged")));
+    }
+
+    @Test
+    void theLastPageHasNoCursor() {
+        StudentPageDTO empty = studentService.getStudentPage(Long.MAX_VALUE - 1, 10, null, null, null);
+        assertTrue(empty.getStudents().isEmpty());
+        assertNull(empty.getNextCursor());
+        assertNull(studentService.getStudentPage(null, 10, 100.0, null, null).getNextCursor());
+    }
+
+    // Walks every page and checks it against the full roster filtered in memory.
+    private void assertWalk(int size, Double minGpa, Double maxGpa, String namePrefix,
+                            Predicate<StudentResponseDTO> matches) {
+        List<Long> expected = studentService.getAllStudentsWithGPA().stream()
+                .filter(matches)
+                .map(StudentResponseDTO::getId)
+                .sorted()
+                .toList();
+        assertTrue(expected.size() > 1, "the filter matches some students");
+        List<Long> walked = ids(walk(size, minGpa, maxGpa, namePrefix));
+        // Strictly ascending IDs: no student twice and no reordering between pages
+        for (int i = 1; i < walked.size(); i++) {
+            assertTrue(walked.get(i - 1) < walked.get(i), "IDs ascend at " + i + " with page size " + size);
+        }
+        // No gaps: the pages together hold exactly the matching students
+        assertEquals(expected, walked, "page size " + size + ", minGpa " + minGpa + ", maxGpa " + maxGpa
+                + ", prefix " + namePrefix);
+    }
+
+    // Follows the cursors from the first page to the last one.
+    private List<StudentResponseDTO> walk(int size, Double minGpa, Double maxGpa, String namePrefix) {
+        List<StudentResponseDTO> students = new ArrayList<>();
+        Long after = null;
+        do {
+            StudentPageDTO page = studentService.getStudentPage(after, size, minGpa, maxGpa, namePrefix);
+            assertTrue(page.getStudents().size() <= size);
+            students.addAll(page.getStudents());
+            after = page.getNextCursor();
+            if (after != null) {
+                assertEquals(size, page.getStudents().size(), "only a full page has a cursor");
+                assertEquals(page.getStudents().get(size - 1).getId(), after);
+            }
+        } while (after != null);
+        return students;
+    }
+
+    private static List<Long> ids(List<StudentResponseDTO> students) {
+        return students.stream().map(StudentResponseDTO::getId).toList();
+    }
+}
@@ -0,0 +1,190 @@
+package com.example.studentApp.service;
+
+import com.example.studentApp.config.DataSourceConfig;
+import com.example.studentApp.dto.StudentRankDTO;
+import com.example.studentApp.model.Course;
+import com.example.studentApp.model.Grade;
+import com.example.studentApp.model.Student;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static com.example.studentApp.support.TestEntities.course;
+import static com.example.studentApp.support.TestEntities.grade;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that the writes of the services are journaled across several segments, that a restart
+ * restores the same state from the journal (and from a snapshot) without scanning the tables, and
+ * that it falls back to a scan when the journal misses a row, a segment is damaged or the snapshot
+ * was taken of another database, and that the journal directory is derived from the database file.
+ * A restart is simulated with a second journal over a copy of the first one's directory.
+ */
+@SpringBootTest(properties = "student-app.journal.segment-size=4KB")
+@ActiveProfiles("test")
+class ChangeJournalTests {
+
+    private static final int STUDENTS = 50;
+
+    @Autowired
+    private ChangeJournal changeJournal;
+
+    @Autowired
+    private StudentService studentService;
+
+    @Autowired
+    private CourseService courseService;
+
+    @Autowired
+    private GradeService gradeService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private WriteQueue writeQueue;
+
+    @Autowired
+    private DataSourceProperties dataSourceProperties;
+
+    @Test
+    void restartRestoresTheJournaledState() throws IOException {
+        Grade a = gradeService.addGrade(grade("A", 4.0));
+        Grade c = gradeService.addGrade(grade("C", 2.0));
+        List<Student> students = new ArrayList<>();
+        for (int i = 0; i < STUDENTS; i++) {
+            Student student = new Student();
+            student.setName("Journaled " + i);
+            student.setEmail("journaled" + i + "@example.com");
+            students.add(student);
+        }
+        studentService.addStudents(students);
+        List<Course> courses = new ArrayList<>();
+        for (Student student : students) {
+            courses.add(course("Compilers", student.getId(), a.getId()));
+            courses.add(course("Operating Systems", student.getId(), student.getId() % 2 == 0 ? a.getId() : c.getId()));
+        }
+        courseService.addCourses(courses);
+        courseService.addCourse(course("Networks", students.get(0).getId(), c.getId()));
+
+        // Built from the journal, which has every write
+        assertTrue(changeJournal.getAppendedRecords() >= 2 + STUDENTS + 2 * STUDENTS + 1);
+        long firstId = students.get(0).getId();
+        StudentRankDTO first = studentService.getStudentRank(firstId);
+        assertEquals((4.0 + (firstId % 2 == 0 ? 4.0 : 2.0) + 2.0) / 3, first.getGpa(), 1e-9);
+        assertEquals(STUDENTS, courseService.getCourseStats("Compilers").getCount());
+        assertEquals(students.get(STUDENTS - 1).getId(), studentService.searchStudents("journaled49", 10).get(0).getId());
+        assertTrue(segments(directory()) > 1, "a 4 KB segment holds only part of the records");
+
+        // Restart from the segments alone (the last snapshot was taken at startup, before the writes)
+        ChangeJournal restarted = restart(directory());
+        assertEquals(0, restarted.getTableScans());
+        assertEquals(describe(changeJournal), describe(restarted));
+
+        // Restart from a snapshot
+        restarted.stop();
+        ChangeJournal fromSnapshot = restart((Path) ReflectionTestUtils.getField(restarted, "directory"));
+        assertEquals(0, fromSnapshot.getTableScans());
+        assertTrue(fromSnapshot.isRestoredFromSnapshot()); // So the GPA aggregate check is skipped
+        assertEquals(describe(changeJournal), describe(fromSnapshot));
+
+        // A damaged segment stops the replay; the check finds the missing rows and the tables are scanned
+        Path damaged = copy(directory());
+        try (Stream<Path> files = Files.list(damaged)) {
+            Path segment = files.filter(file -> file.getFileName().toString().startsWith("journal-")).sorted()
+                    .skip(1).findFirst().orElseThrow();
+            byte[] bytes = Files.readAllBytes(segment);
+            bytes[20] ^= 0x7f;
+            Files.write(segment, bytes);
+        }
+        ChangeJournal repaired = new ChangeJournal(jdbcTemplate, shardRouter, writeQueue, true, damaged, null,
+                DataSize.ofKilobytes(4), 0);
+        repaired.restore();
+        assertEquals(1, repaired.getTableScans());
+        assertFalse(repaired.isRestoredFromSnapshot());
+        assertEquals(describe(changeJournal), describe(repaired));
+
+        // A row written around the services is found by the check as well
+        long id = students.get(STUDENTS - 1).getId() + 1000;
+        jdbcTemplate.update("insert into student (id, name, email, grade_score_sum, graded_course_count) "
+                + "values (?, 'Outside', 'outside@example.com', 0, 0)", id);
+        ChangeJournal rescanned = restart(directory());
+        assertEquals(1, rescanned.getTableScans());
+        assertTrue(describe(rescanned).contains(id + " Outside"));
+
+        // A snapshot of another database is not restored, even if its rows match
+        rescanned.stop();
+        Path snapshotted = (Path) ReflectionTestUtils.getField(rescanned, "directory");
+        jdbcTemplate.update("update database_identity set id = 'another database'");
+        ChangeJournal elsewhere = restart(snapshotted);
+        assertEquals(1, elsewhere.getTableScans());
+        assertEquals(describe(rescanned), describe(elsewhere));
+    }
+
+    @Test
+    void journalLivesNextToTheDatabase() {
+        Path database = DataSourceConfig.databaseFile(dataSourceProperties.determineUrl());
+        assertEquals(database.resolveSibling(database.getFileName().toString().replace(".db", ".journal")), directory());
+        assertEquals(Path.of("journal"), ChangeJournal.defaultDirectory("jdbc:sqlite::memory:"));
+    }
+
+    // Opens a second journal over a copy of a journal directory, as after a crash.
+    private ChangeJournal restart(Path directory) throws IOException {
+        ChangeJournal restarted = new ChangeJournal(jdbcTemplate, shardRouter, writeQueue, true, copy(directory), null,
+                DataSize.ofKilobytes(4), 0);
+        restarted.restore();
+        return restarted;
+    }
+
+    private Path directory() {
+        return (Path) ReflectionTestUtils.getField(changeJournal, "directory");
+    }
+
+    private static Path copy(Path directory) throws IOException {
+        Path copy = Files.createTempDirectory(Path.of("target"), "journal-copy-");
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                Files.copy(file, copy.resolve(file.getFileName()), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        return copy;
+    }
+
+    private static long segments(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().startsWith("journal-")).count();
+        }
+    }
+
+    // Lists the journaled students and course scores as text, for comparison.
+    private static String describe(ChangeJournal journal) {
+        return journal.readInLine(view -> {
+            StringBuilder text = new StringBuilder();
+            view.forEachStudent((id, name, email, scoreSum, count) ->
+                    text.append(id).append(' ').append(name).append(' ').append(scoreSum).append('/').append(count).append('\n'));
+            List<String> scores = new ArrayList<>();
+            view.forEachScore((name, score) -> scores.add(name + " " + score));
+            scores.sort(null);
+            scores.forEach(line -> text.append(line).append('\n'));
+            return text.toString();
+        });
+    }
+}
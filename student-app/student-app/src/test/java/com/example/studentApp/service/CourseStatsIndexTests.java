@@ -0,0 +1,144 @@
+package com.example.studentApp.service;
+
+import com.example.studentApp.dto.CourseStatsDTO;
+import com.example.studentApp.dto.HistogramBinDTO;
+import com.example.studentApp.model.Course;
+import com.example.studentApp.model.Grade;
+import com.example.studentApp.model.Student;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import static com.example.studentApp.support.TestEntities.course;
+import static com.example.studentApp.support.TestEntities.grade;
+import static com.example.studentApp.support.TestEntities.student;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the course statistics against values computed exactly from the same scores: count, mean,
+ * min, max and histogram exactly, and the t-digest quantiles within its error bound, i.e. the
+ * estimated p10, median and p90 have a rank within 1% of the requested one. Also checks that
+ * enrollments are added once their transaction commits, and not at all when it rolls back.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class CourseStatsIndexTests {
+
+    // Largest difference between the requested and the actual rank of an estimated quantile
+    private static final double RANK_ERROR = 0.01;
+
+    @Autowired
+    private CourseStatsIndex courseStatsIndex;
+
+    @Autowired
+    private StudentService studentService;
+
+    @Autowired
+    private CourseService courseService;
+
+    @Autowired
+    private GradeService gradeService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void quantilesStayWithinTheErrorBound() {
+        // A skewed distribution of distinct scores, each its own grade
+        Random random = new Random(42);
+        double[] scores = new double[3000];
+        for (int i = 0; i < scores.length; i++) {
+            double u = random.nextDouble();
+            scores[i] = 4.0 * u * u;
+        }
+        enroll("Estimation", scores, 0, 1500);
+        assertMatches(Arrays.copyOf(scores, 1500), courseStatsIndex.get("Estimation")); // Loaded by now
+
+        // The second half is added to the loaded statistics after each commit
+        enroll("Estimation", scores, 1500, scores.length);
+        assertMatches(scores, courseStatsIndex.get("Estimation"));
+    }
+
+    @Test
+    void enrollmentsCountOnceTheirTransactionCommits() {
+        long gradeId = gradeService.addGrade(grade("SC", 3.0)).getId();
+        List<Long> studentIds = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            studentIds.add(studentService.addStudent(student("Counted " + i, "counted" + i + "@example.com")).getId());
+        }
+        courseService.addCourse(course("Counting", studentIds.get(0), gradeId));
+        assertEquals(1, courseStatsIndex.get("Counting").getCount());
+
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.executeWithoutResult(status -> {
+            courseService.addCourse(course("Counting", studentIds.get(1), gradeId));
+            assertEquals(1, courseStatsIndex.get("Counting").getCount(), "not counted before the commit");
+        });
+        assertEquals(2, courseStatsIndex.get("Counting").getCount());
+
+        transaction.executeWithoutResult(status -> {
+            courseService.addCourse(course("Counting", studentIds.get(2), gradeId));
+            status.setRollbackOnly();
+        });
+        assertEquals(2, courseStatsIndex.get("Counting").getCount());
+        assertThrows(IllegalArgumentException.class, () -> courseStatsIndex.get("Never enrolled"));
+    }
+
+    // Enrolls one new student per score, from index from to index to, in the course.
+    private void enroll(String courseName, double[] scores, int from, int to) {
+        List<Grade> grades = new ArrayList<>();
+        List<Student> students = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            grades.add(grade(courseName + " " + i, scores[i]));
+            students.add(student(courseName + " " + i, courseName.toLowerCase(Locale.ROOT) + i + "@example.com"));
+        }
+        List<Long> gradeIds = gradeService.addGrades(grades).getIds();
+        List<Long> studentIds = studentService.addStudents(students).getIds();
+        List<Course> courses = new ArrayList<>();
+        for (int i = 0; i < to - from; i++) {
+            courses.add(course(courseName, studentIds.get(i), gradeIds.get(i)));
+        }
+        assertEquals(to - from, courseService.addCourses(courses).getInserted());
+    }
+
+    private static void assertMatches(double[] scores, CourseStatsDTO stats) {
+        double[] sorted = scores.clone();
+        Arrays.sort(sorted);
+        assertEquals(sorted.length, stats.getCount());
+        assertEquals(Arrays.stream(sorted).sum() / sorted.length, stats.getMean(), 1e-9);
+        assertEquals(sorted[0], stats.getMin());
+        assertEquals(sorted[sorted.length - 1], stats.getMax());
+        assertRank(sorted, 0.10, stats.getP10());
+        assertRank(sorted, 0.50, stats.getMedian());
+        assertRank(sorted, 0.90, stats.getP90());
+
+        // The histogram counts every score in its unit-wide bin
+        long[] expectedBins = new long[5];
+        for (double score : sorted) {
+            expectedBins[(int) Math.floor(score)]++;
+        }
+        for (HistogramBinDTO bin : stats.getHistogram()) {
+            assertEquals(expectedBins[(int) bin.getFrom()], bin.getCount(), "bin " + bin.getFrom());
+        }
+        assertEquals(sorted.length, stats.getHistogram().stream().mapToLong(HistogramBinDTO::getCount).sum());
+    }
+
+    // The estimate must lie between the exact quantiles at q - RANK_ERROR and q + RANK_ERROR.
+    private static void assertRank(double[] sorted, double q, double estimate) {
+        double low = sorted[(int) Math.floor((q - RANK_ERROR) * (sorted.length - 1))];
+        double high = sorted[(int) Math.ceil((q + RANK_ERROR) * (sorted.length - 1))];
+        assertTrue(estimate >= low && estimate <= high,
+                "quantile " + q + ": " + estimate + " is not within [" + low + ", " + high + "]");
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.studentApp.service;
+
+import com.example.studentApp.dto.StudentRankDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static com.example.studentApp.support.TestEntities.course;
+import static com.example.studentApp.support.TestEntities.grade;
+import static com.example.studentApp.support.TestEntities.student;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that students with the same grades share a rank even when their running score sums differ
+ * in the last bits, because the grades were added in another order.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class GpaRankIndexTests {
+
+    @Autowired
+    private GpaRankIndex gpaRankIndex;
+
+    @Autowired
+    private StudentService studentService;
+
+    @Autowired
+    private CourseService courseService;
+
+    @Autowired
+    private GradeService gradeService;
+
+    @Test
+    void sameGradesInAnotherOrderShareARank() {
+        gpaRankIndex.top(1); // Loaded now, so the enrollments below are applied one by one
+        long tenth = gradeService.addGrade(grade("R1", 0.1)).getId();
+        long fifth = gradeService.addGrade(grade("R2", 0.2)).getId();
+        long threeTenths = gradeService.addGrade(grade("R3", 0.3)).getId();
+        // (0.1 + 0.2) + 0.3 and (0.3 + 0.2) + 0.1 are not the same double
+        assertNotEquals((0.1 + 0.2) + 0.3, (0.3 + 0.2) + 0.1);
+
+        long ascending = enroll("Ascending", List.of(tenth, fifth, threeTenths));
+        long descending = enroll("Descending", List.of(threeTenths, fifth, tenth));
+        long better = enroll("Better", List.of(fifth, threeTenths));
+
+        StudentRankDTO first = gpaRankIndex.rank(ascending);
+        StudentRankDTO second = gpaRankIndex.rank(descending);
+        assertEquals(first.getRank(), second.getRank());
+        assertEquals(0.2, first.getGpa(), 1e-9);
+        assertEquals(0.2, second.getGpa(), 1e-9);
+        assertTrue(gpaRankIndex.rank(better).getRank() < first.getRank());
+    }
+
+    // Adds a student enrolled in one course per grade, one commit per course, and returns their ID.
+    private long enroll(String name, List<Long> gradeIds) {
+        long studentId = studentService.addStudent(student(name + " Ranked", name.toLowerCase() + ".ranked@example.com")).getId();
+        for (int i = 0; i < gradeIds.size(); i++) {
+            courseService.addCourse(course("Ranked " + i, studentId, gradeIds.get(i)));
+        }
+        return studentId;
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.studentApp.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks IndexedSkipList against a TreeSet under a random mix of inserts and removes,
+ * so the span bookkeeping behind countLess is exercised on every level.
+ */
+class IndexedSkipListTests {
+
+    @Test
+    void matchesTreeSet() {
+        Random random = new Random(7);
+        Comparator<Integer> order = Comparator.reverseOrder();
+        IndexedSkipList<Integer> list = new IndexedSkipList<>(order);
+        TreeSet<Integer> expected = new TreeSet<>(order);
+
+        for (int i = 0; i < 20_000; i++) {
+            int key = random.nextInt(5_000);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), list.remove(key));
+            } else if (expected.add(key)) {
+                list.insert(key);
+            }
+
+            if (i % 100 == 0) {
+                assertEquals(expected.size(), list.size());
+                assertEquals(new ArrayList<>(expected).subList(0, Math.min(50, expected.size())), list.first(50));
+                int probe = random.nextInt(5_000);
+                assertEquals(expected.headSet(probe, false).size(), list.countLess(probe));
+            }
+        }
+
+        List<Integer> all = new ArrayList<>(expected);
+        assertEquals(all, list.first(Integer.MAX_VALUE));
+        for (int r = 0; r < all.size(); r += 97) {
+            assertEquals(r, list.countLess(all.get(r)));
+        }
+    }
+}
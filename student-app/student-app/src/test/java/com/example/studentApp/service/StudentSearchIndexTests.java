@@ -0,0 +1,101 @@
+package com.example.studentApp.service;
+
+import com.example.studentApp.dto.StudentSearchResultDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static com.example.studentApp.support.TestEntities.student;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks the ranking of the search index (an exact token above a longer prefix above an infix or
+ * fuzzy match), that names, emails and queries are normalized alike (case, accents, composed and
+ * decomposed characters, punctuation), and that students are searchable once their transaction
+ * commits, and never when it rolls back. Tokens are made up, so other tests' students do not match.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class StudentSearchIndexTests {
+
+    @Autowired
+    private StudentSearchIndex studentSearchIndex;
+
+    @Autowired
+    private StudentService studentService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void exactAndPrefixMatchesRankAboveInfixAndFuzzyOnes() {
+        long exact = add("Quillon Varga", "qv@example.com");
+        long prefix = add("Quillonardo Mesk", "qm@example.com");
+        long infix = add("Aquillonne Brest", "ab@example.com");
+        long fuzzy = add("Quilon Darte", "qd@example.com");
+
+        List<StudentSearchResultDTO> results = studentSearchIndex.search("quillon", 10);
+
+        assertEquals(List.of(exact, prefix, infix, fuzzy), ids(results));
+        assertEquals(1.0, results.get(0).getScore());
+        assertTrue(results.get(1).getScore() > 0.5 && results.get(1).getScore() < 1.0, "prefix score");
+        assertEquals(0.4, results.get(2).getScore(), 1e-9);
+        assertTrue(results.get(3).getScore() > 0 && results.get(3).getScore() < 0.4, "fuzzy score");
+
+        // Of two tokens with the query as prefix, the one closer in length ranks first; every term must match
+        assertEquals(List.of(exact, prefix, infix, fuzzy), ids(studentSearchIndex.search("quillo", 10)));
+        assertEquals(List.of(prefix), ids(studentSearchIndex.search("quillon mesk", 10)));
+        assertEquals(List.of(), ids(studentSearchIndex.search("quillon zzyzx", 10)));
+        assertEquals(List.of(exact, prefix), ids(studentSearchIndex.search("quillon", 2)));
+    }
+
+    @Test
+    void namesAndQueriesAreNormalizedAlike() {
+        long renee = add("Renée Çelikbaş-Ünlü", "Renee.Celikbas@Example.EDU");
+
+        for (String query : List.of("renee", "RENÉE", "Renée", "celikbas", "ÇELİKBAŞ", "unlu", "ÜNLÜ",
+                "çelikbaş-ünlü", "  renee,   celikbas!", "renee.celikbas")) {
+            List<StudentSearchResultDTO> results = studentSearchIndex.search(query, 5);
+            assertEquals(List.of(renee), ids(results), query);
+            assertEquals("Renée Çelikbaş-Ünlü", results.get(0).getName(), "the stored name keeps its accents");
+        }
+        // Exact tokens score the same whatever the form of the query
+        assertEquals(studentSearchIndex.search("renee", 5).get(0).getScore(),
+                studentSearchIndex.search("RENÉE", 5).get(0).getScore());
+        assertEquals(List.of(), studentSearchIndex.search("-- !!", 5));
+    }
+
+    @Test
+    void studentsAreSearchableOnceTheirTransactionCommits() {
+        assertEquals(List.of(), studentSearchIndex.search("wexlerbrand", 5));
+
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        long committed = transaction.execute(status -> {
+            long id = add("Wexlerbrand Committed", "wexlerbrand.committed@example.com");
+            assertEquals(List.of(), studentSearchIndex.search("wexlerbrand", 5), "not searchable before the commit");
+            return id;
+        });
+        assertEquals(List.of(committed), ids(studentSearchIndex.search("wexlerbrand", 5)));
+
+        transaction.executeWithoutResult(status -> {
+            add("Wexlerbrand Rolledback", "wexlerbrand.rolledback@example.com");
+            status.setRollbackOnly();
+        });
+        assertEquals(List.of(committed), ids(studentSearchIndex.search("wexlerbrand", 5)));
+        assertEquals(List.of(), studentSearchIndex.search("rolledback", 5));
+    }
+
+    private long add(String name, String email) {
+        return studentService.addStudent(student(name, email)).getId();
+    }
+
+    private static List<Long> ids(List<StudentSearchResultDTO> results) {
+        return results.stream().map(StudentSearchResultDTO::getId).toList();
+    }
+}
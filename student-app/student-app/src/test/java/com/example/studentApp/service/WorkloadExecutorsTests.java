@@ -0,0 +1,69 @@
+package com.example.studentApp.service;
+
+import com.example.studentApp.service.WorkloadExecutors.Workload;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that a full pool rejects new work at once, without affecting the other workload classes,
+ * and that the counters behind the metrics follow, with platform and with virtual threads.
+ */
+class WorkloadExecutorsTests {
+
+    @Test
+    void fullQueueRejectsWithoutBlockingOtherWorkloads() throws Exception {
+        assertShedsLoad(false);
+    }
+
+    @Test
+    void virtualThreadsAreBoundedTheSameWay() throws Exception {
+        assertShedsLoad(true);
+    }
+
+    private static void assertShedsLoad(boolean virtualThreads) throws Exception {
+        WorkloadExecutors executors = new WorkloadExecutors(true, virtualThreads, 1, 1, 1, 1, 1, 1);
+        try {
+            CountDownLatch started = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            CompletableFuture<Boolean> running = executors.submit(Workload.ROSTER, () -> {
+                started.countDown();
+                await(release);
+                return Thread.currentThread().isVirtual();
+            });
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            CompletableFuture<String> queued = executors.submit(Workload.ROSTER, () -> "queued");
+            assertEquals(1, executors.getQueueDepth(Workload.ROSTER));
+            assertEquals(1, executors.getActiveThreads(Workload.ROSTER));
+
+            // The roster pool is busy and its queue is full; the lookup pool is not
+            assertThrows(RejectedExecutionException.class, () -> executors.submit(Workload.ROSTER, () -> "rejected"));
+            assertEquals(1, executors.getRejections(Workload.ROSTER));
+            assertEquals("lookup", executors.submit(Workload.LOOKUP, () -> "lookup").get(5, TimeUnit.SECONDS));
+
+            release.countDown();
+            assertEquals(virtualThreads, running.get(5, TimeUnit.SECONDS));
+            assertEquals("queued", queued.get(5, TimeUnit.SECONDS));
+            assertEquals(2, executors.getStartedTasks(Workload.ROSTER));
+            assertTrue(executors.getWaitSeconds(Workload.ROSTER) > 0);
+            assertEquals(0, executors.getRejections(Workload.LOOKUP));
+        } finally {
+            executors.stop();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.example.studentApp.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that concurrent writes share one transaction, that a failing write is replayed apart from
+ * the rest of its group without undoing the others, and that a stopped queue rejects new writes
+ * but still commits the ones already queued. The transactions are simulated by a transaction
+ * manager that only publishes a transaction's rows when it commits.
+ */
+class WriteQueueTests {
+
+    private static final int WRITERS = 8;
+
+    @Test
+    void concurrentWritesShareOneTransaction() throws Exception {
+        Transactions transactions = new Transactions();
+        // The window is long enough for every writer to arrive; the group is committed once it is full
+        WriteQueue queue = start(transactions, 5_000, WRITERS);
+        ExecutorService callers = Executors.newFixedThreadPool(WRITERS);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < WRITERS; i++) {
+                String row = "row " + i;
+                results.add(callers.submit(() -> queue.execute(() -> transactions.write(row))));
+            }
+            for (int i = 0; i < WRITERS; i++) {
+                assertEquals("row " + i, results.get(i).get(10, TimeUnit.SECONDS));
+            }
+            assertEquals(1, transactions.commits.get());
+            assertEquals(WRITERS, transactions.committed.size());
+            assertEquals(1, queue.getCommittedGroups());
+            assertEquals(WRITERS, queue.getCommittedWrites());
+            assertEquals(0, queue.getReplayedGroups());
+        } finally {
+            callers.shutdownNow();
+            queue.stop();
+        }
+    }
+
+    @Test
+    void aFailingWriteDoesNotUndoItsGroup() throws Exception {
+        Transactions transactions = new Transactions();
+        WriteQueue queue = start(transactions, 5_000, 3);
+        try {
+            CompletableFuture<String> first = queue.submit(0, () -> transactions.write("first"));
+            CompletableFuture<String> failing = queue.submit(0, () -> {
+                transactions.write("failing");
+                throw new IllegalArgumentException("Invalid write");
+            });
+            CompletableFuture<String> last = queue.submit(0, () -> transactions.write("last"));
+
+            assertEquals("first", first.get(10, TimeUnit.SECONDS));
+            assertEquals("last", last.get(10, TimeUnit.SECONDS));
+            ExecutionException failure = assertThrows(ExecutionException.class, () -> failing.get(10, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalArgumentException.class, failure.getCause());
+
+            // The group was rolled back, then each write ran in its own transaction; the rows of the
+            // rolled back attempt are gone, so nothing is committed twice
+            assertEquals(List.of("first", "last"), transactions.committed);
+            assertEquals(1, queue.getReplayedGroups());
+            assertEquals(2, queue.getCommittedGroups());
+            assertEquals(2, queue.getCommittedWrites());
+            assertEquals(2, transactions.rollbacks.get());
+        } finally {
+            queue.stop();
+        }
+    }
+
+    @Test
+    void stoppingRejectsNewWritesAndCommitsQueuedOnes() throws Exception {
+        Transactions transactions = new Transactions();
+        WriteQueue queue = start(transactions, 0, 1);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> blocking = queue.submit(0, () -> {
+            started.countDown();
+            await(release);
+            return transactions.write("blocking");
+        });
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        List<CompletableFuture<String>> queued = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            String row = "queued " + i;
+            queued.add(queue.submit(0, () -> transactions.write(row)));
+        }
+        assertEquals(3, queue.getQueueDepth());
+
+        // stop() stops accepting writes at once, then waits for the writer to finish the queue
+        Thread stopper = new Thread(() -> {
+            try {
+                queue.stop();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        stopper.start();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (stopper.getState() != Thread.State.TIMED_WAITING && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        assertThrows(RejectedExecutionException.class, () -> queue.submit(0, () -> transactions.write("late")));
+        assertThrows(RejectedExecutionException.class, () -> queue.execute(() -> transactions.write("late")));
+
+        release.countDown();
+        stopper.join(TimeUnit.SECONDS.toMillis(10));
+        assertEquals("blocking", blocking.get(10, TimeUnit.SECONDS));
+        for (int i = 0; i < 3; i++) {
+            assertEquals("queued " + i, queued.get(i).get(10, TimeUnit.SECONDS));
+        }
+        assertEquals(List.of("blocking", "queued 0", "queued 1", "queued 2"), transactions.committed);
+        assertEquals(0, queue.getQueueDepth());
+    }
+
+    // A started, unsharded write queue on the given transactions.
+    private static WriteQueue start(Transactions transactions, long groupWindowMillis, int maxGroupSize) {
+        WriteQueue queue = new WriteQueue(transactions, true, groupWindowMillis, maxGroupSize, 100, 1);
+        queue.start();
+        return queue;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * A transaction manager over a list of rows: writes are kept aside until their transaction commits,
+     * and dropped when it rolls back. Only the writer thread runs transactions, one at a time.
+     */
+    private static final class Transactions implements PlatformTransactionManager {
+        private final List<String> committed = new CopyOnWriteArrayList<>();
+        private final List<String> pending = new ArrayList<>();
+        private final AtomicInteger commits = new AtomicInteger();
+        private final AtomicInteger rollbacks = new AtomicInteger();
+
+        String write(String row) {
+            pending.add(row);
+            return row;
+        }
+
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            pending.clear();
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+            committed.addAll(pending);
+            pending.clear();
+            commits.incrementAndGet();
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+            pending.clear();
+            rollbacks.incrementAndGet();
+        }
+    }
+}
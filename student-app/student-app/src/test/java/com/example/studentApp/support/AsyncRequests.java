@@ -0,0 +1,36 @@
+package com.example.studentApp.support;
+
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+
+/**
+ * Runs MockMvc requests against endpoints that may answer asynchronously (the database executors,
+ * the streamed exports), so tests can expect on the final response either way.
+ *
+ * Usage: `import static com.example.studentApp.support.AsyncRequests.perform;`, then
+ *
+ *   perform(mvc, get("/api/students")).andExpect(status().isOk());
+ */
+public final class AsyncRequests {
+
+    private AsyncRequests() {
+    }
+
+    /**
+     * Runs the request; for an asynchronous endpoint, waits for its result and dispatches it.
+     *
+     * @param mvc The MockMvc to run the request on.
+     * @param request The request.
+     * @return The actions of the final response.
+     * @throws Exception if the request fails.
+     */
+    public static ResultActions perform(MockMvc mvc, RequestBuilder request) throws Exception {
+        ResultActions actions = mvc.perform(request);
+        MvcResult started = actions.andReturn();
+        return started.getRequest().isAsyncStarted() ? mvc.perform(asyncDispatch(started)) : actions;
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.studentApp.support;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Counts the SQL statements the application executes, so tests can put a budget on an endpoint.
+ *
+ * Every execution sent to the database counts as one statement, on any thread (the request thread,
+ * the write queue's writer thread, async export threads); a JDBC batch counts once, because it is
+ * one round trip. The SQL of each statement is kept, so a failed budget shows what ran.
+ *
+ * Usage: `@Import(QueryCounter.Config.class)`, autowire the counter, then
+ *
+ *   queryCounter.reset();
+ *   mvc.perform(get("/api/courses"));
+ *   queryCounter.assertAtMost(1, "GET /api/courses");
+ */
+public class QueryCounter implements QueryExecutionListener {
+
+    // SQL of every statement executed since the last reset
+    private final List<String> statements = new ArrayList<>();
+
+    /**
+     * Forgets the statements counted so far.
+     */
+    public synchronized void reset() {
+        statements.clear();
+    }
+
+    /**
+     * Returns the number of statements executed since the last reset.
+     *
+     * @return The statement count.
+     */
+    public synchronized int count() {
+        return statements.size();
+    }
+
+    /**
+     * Returns the statements executed since the last reset, in execution order.
+     *
+     * @return A copy of the recorded SQL.
+     */
+    public synchronized List<String> statements() {
+        return List.copyOf(statements);
+    }
+
+    /**
+     * Fails if more statements than the budget were executed since the last reset.
+     *
+     * @param budget The largest allowed number of statements.
+     * @param what Description of the measured operation, used in the failure message.
+     * @throws AssertionError listing the executed statements when the budget is exceeded.
+     */
+    public void assertAtMost(int budget, String what) {
+        List<String> executed = statements();
+        if (executed.size() > budget) {
+            throw new AssertionError(String.format("%s: expected at most %d SQL statements but %d were executed:%n  %s",
+                    what, budget, executed.size(), String.join(System.lineSeparator() + "  ", executed)));
+        }
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execution, List<QueryInfo> queries) {
+        // Counted once the statement has run
+    }
+
+    @Override
+    public synchronized void afterQuery(ExecutionInfo execution, List<QueryInfo> queries) {
+        String sql = queries.isEmpty() ? "?" : queries.get(0).getQuery();
+        statements.add(execution.isBatch() ? sql + " [batch of " + execution.getBatchSize() + "]" : sql);
+    }
+
+    /**
+     * Registers the counter and wraps the application's DataSource so it reports to it.
+     */
+    @TestConfiguration
+    public static class Config {
+
+        @Bean
+        public QueryCounter queryCounter() {
+            return new QueryCounter();
+        }
+
+        // Static, so the post-processor exists before the DataSource it wraps.
+        @Bean
+        public static BeanPostProcessor queryCountingDataSource(ObjectProvider<QueryCounter> queryCounter) {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (bean instanceof DataSource dataSource) {
+                        return ProxyDataSourceBuilder.create(dataSource)
+                                .name("query-counter")
+                                .listener(new QueryExecutionListener() {
+                                    @Override
+                                    public void beforeQuery(ExecutionInfo execution, List<QueryInfo> queries) {
+                                    }
+
+                                    @Override
+                                    public void afterQuery(ExecutionInfo execution, List<QueryInfo> queries) {
+                                        queryCounter.getObject().afterQuery(execution, queries);
+                                    }
+                                })
+                                .build();
+                    }
+                    return bean;
+                }
+            };
+        }
+    }
+}
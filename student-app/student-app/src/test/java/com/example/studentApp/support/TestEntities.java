@@ -0,0 +1,66 @@
+package com.example.studentApp.support;
+
+import com.example.studentApp.model.Course;
+import com.example.studentApp.model.Grade;
+import com.example.studentApp.model.Student;
+
+/**
+ * Builds the new entities tests hand to the services.
+ *
+ * Usage: `import static com.example.studentApp.support.TestEntities.course;`, then
+ *
+ *   courseService.addCourse(course("Compilers", studentId, gradeId));
+ */
+public final class TestEntities {
+
+    private TestEntities() {
+    }
+
+    /**
+     * Creates a new student.
+     *
+     * @param name The student's name.
+     * @param email The student's email address.
+     * @return A student without an ID.
+     */
+    public static Student student(String name, String email) {
+        Student student = new Student();
+        student.setName(name);
+        student.setEmail(email);
+        return student;
+    }
+
+    /**
+     * Creates a new grade.
+     *
+     * @param letter The grade letter.
+     * @param score The grade score.
+     * @return A grade without an ID.
+     */
+    public static Grade grade(String letter, double score) {
+        Grade grade = new Grade();
+        grade.setLetter(letter);
+        grade.setScore(score);
+        return grade;
+    }
+
+    /**
+     * Creates a new course of an existing student, with an existing grade.
+     *
+     * @param name The course name.
+     * @param studentId The ID of the student.
+     * @param gradeId The ID of the grade.
+     * @return A course without an ID, referencing the student and the grade by ID.
+     */
+    public static Course course(String name, long studentId, long gradeId) {
+        Student student = new Student();
+        student.setId(studentId);
+        Grade grade = new Grade();
+        grade.setId(gradeId);
+        Course course = new Course();
+        course.setName(name);
+        course.setStudent(student);
+        course.setGrade(grade);
+        return course;
+    }
+}